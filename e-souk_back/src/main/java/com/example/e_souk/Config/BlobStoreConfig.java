@@ -0,0 +1,39 @@
+package com.example.e_souk.Config;
+
+import com.example.e_souk.Service.BlobStore;
+import com.example.e_souk.Service.FileSystemBlobStore;
+import com.example.e_souk.Service.S3BlobStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Locale;
+
+/**
+ * Choix du stockage des uploads (file.storage.backend)
+ *
+ * - filesystem (défaut) : racine file.upload-dir, répartie par préfixe, anciens dossiers en lecture
+ * - s3 : bucket S3 ou compatible (MinIO...), voir S3StorageProperties
+ */
+@Configuration
+@Slf4j
+public class BlobStoreConfig {
+
+    @Bean
+    public BlobStore blobStore(@Value("${file.storage.backend:filesystem}") String backend,
+                               FileUploadConfig fileUploadConfig,
+                               S3StorageProperties s3StorageProperties) {
+        switch (backend.trim().toLowerCase(Locale.ROOT)) {
+            case "filesystem":
+                log.info("Stockage des uploads sur disque: {}", fileUploadConfig.getRoot());
+                return new FileSystemBlobStore(fileUploadConfig.getRoot(), fileUploadConfig.getLegacyRoots());
+            case "s3":
+                log.info("Stockage des uploads sur S3: {} / {}", s3StorageProperties.getEndpoint(),
+                        s3StorageProperties.getBucket());
+                return new S3BlobStore(s3StorageProperties);
+            default:
+                throw new IllegalStateException("file.storage.backend inconnu: " + backend);
+        }
+    }
+}
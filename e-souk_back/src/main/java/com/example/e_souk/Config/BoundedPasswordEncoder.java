@@ -0,0 +1,82 @@
+package com.example.e_souk.Config;
+
+import com.example.e_souk.Exception.TooManyRequestsException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Encodeur BCrypt exécuté sur un pool dédié et borné
+ *
+ * POURQUOI ?
+ * - BCrypt est volontairement coûteux en CPU : exécuté sur les threads Tomcat, une rafale de connexions
+ *   occupait tous les workers et affamait le catalogue
+ * - Le pool (taille = nombre de coeurs) borne le CPU consacré au hachage ; sa file bornée fait office
+ *   de contre-pression : file pleine → 429 immédiat au lieu d'une attente sans fin
+ *
+ * upgradeEncoding délègue à BCrypt : un hash dont le coût est inférieur au coût configuré est
+ * ré-encodé à la connexion suivante (DaoAuthenticationProvider + UserDetailsPasswordService)
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final BCryptPasswordEncoder delegate;
+    private final ThreadPoolTaskExecutor executor;
+    private final long timeoutMs;
+
+    public BoundedPasswordEncoder(int strength, ThreadPoolTaskExecutor executor, long timeoutMs) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.executor = executor;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (TaskRejectedException e) {
+            log.warn("Pool de hachage des mots de passe saturé, requête refusée");
+            throw new TooManyRequestsException("Serveur occupé, veuillez réessayer dans un instant", 1);
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Hachage du mot de passe non terminé dans le délai de {} ms", timeoutMs);
+            throw new TooManyRequestsException("Serveur occupé, veuillez réessayer dans un instant", 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Hachage du mot de passe interrompu", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Erreur lors du hachage du mot de passe", cause);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.e_souk.Config;
+
+import com.example.e_souk.Model.NotificationType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Création des index que les annotations JPA ne savent pas décrire (index fonctionnels),
+ * et mise à jour des contraintes que ddl-auto=update ne modifie jamais
+ * Les instructions sont idempotentes (IF NOT EXISTS / IF EXISTS) et rejouées à chaque démarrage
+ *
+ * Contraintes CHECK des colonnes @Enumerated(STRING) : Hibernate 6 les crée avec la liste des
+ * constantes au moment de la création de la table, puis ne les modifie plus. Une constante ajoutée
+ * à l'enum (ex. NotificationType.NouveauProduitBoutiqueSuivie) serait rejetée à l'insertion :
+ * la contrainte est donc recréée à partir de l'enum courant. Exécuté avant les autres traitements
+ * de démarrage (reprise des diffusions de notifications).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DatabaseIndexInitializer {
+
+    private static final List<String> INDEXES = List.of(
+            // Recherche des boutiques par nom insensible à la casse (LOWER(brand_name) = LOWER(?))
+            "CREATE INDEX IF NOT EXISTS idx_shops_lower_brand_name ON shops (lower(brand_name))"
+    );
+
+    private static final List<String> CONSTRAINTS = List.of(
+            enumCheck("notifications", "type", NotificationType.class),
+            enumCheck("notification_fanouts", "type", NotificationType.class)
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void createIndexes() {
+        for (String ddl : CONSTRAINTS) {
+            try {
+                jdbcTemplate.execute(ddl);
+            } catch (DataAccessException e) {
+                // Sans cette mise à jour, seules les nouvelles constantes de l'enum sont refusées
+                log.warn("Impossible de mettre à jour la contrainte ({}): {}", ddl, e.getMessage());
+            }
+        }
+        for (String ddl : INDEXES) {
+            try {
+                jdbcTemplate.execute(ddl);
+            } catch (DataAccessException e) {
+                // Un index manquant dégrade les performances mais ne doit pas empêcher le démarrage
+                log.warn("Impossible de créer l'index ({}): {}", ddl, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Suppression et recréation de la contrainte {table}_{colonne}_check (nom donné par PostgreSQL
+     * à la contrainte générée par Hibernate) en une seule instruction ALTER TABLE
+     */
+    static String enumCheck(String table, String column, Class<? extends Enum<?>> type) {
+        String constraint = table + "_" + column + "_check";
+        String values = Arrays.stream(type.getEnumConstants())
+                .map(constant -> "'" + constant.name() + "'")
+                .collect(Collectors.joining(", "));
+        return "ALTER TABLE " + table + " DROP CONSTRAINT IF EXISTS " + constraint
+                + ", ADD CONSTRAINT " + constraint + " CHECK (" + column + " IN (" + values + "))";
+    }
+}
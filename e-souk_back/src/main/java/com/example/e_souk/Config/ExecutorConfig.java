@@ -0,0 +1,109 @@
+package com.example.e_souk.Config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+
+/**
+ * Configuration des pools de threads applicatifs
+ * Chaque pool est borné (threads + file d'attente) pour ne pas épuiser le pool de connexions
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Pool des sous-requêtes de la page boutique (produits, avis, compteurs en parallèle)
+     * Pas de CallerRunsPolicy : le thread de la requête exécuterait la sous-requête sans tenir compte
+     * du délai de la page ; une tâche rejetée laisse sa section incomplète (voir ShopPageService)
+     */
+    @Bean
+    public ThreadPoolTaskExecutor shopPageExecutor(
+            @Value("${shop-page.pool-size:8}") int poolSize,
+            @Value("${shop-page.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("shop-page-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool de diffusion des notifications aux abonnés (tâches longues, en arrière-plan)
+     * Pas de CallerRunsPolicy : une tâche rejetée n'est pas exécutée dans le thread de la requête,
+     * la diffusion reste en attente en base et est reprise par le balayage périodique
+     */
+    @Bean
+    public ThreadPoolTaskExecutor notificationExecutor(
+            @Value("${notification-fanout.pool-size:2}") int poolSize,
+            @Value("${notification-fanout.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("notification-fanout-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool d'envoi des compteurs de non lues aux flux SSE (voir NotificationService)
+     * Les envois quittent le thread qui a commité (requête ou diffusion) : un client lent ne le bloque pas
+     * Pas de CallerRunsPolicy : un envoi rejeté est abandonné, la valeur suivante le remplace
+     */
+    @Bean
+    public ThreadPoolTaskExecutor notificationPushExecutor(
+            @Value("${notification-stream.push-pool-size:2}") int poolSize,
+            @Value("${notification-stream.push-queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("notification-push-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool de hachage des mots de passe (BCrypt, voir BoundedPasswordEncoder)
+     * Taille = nombre de coeurs par défaut : le hachage est purement CPU
+     * Pas de CallerRunsPolicy : file pleine → tâche rejetée → 429, le thread de la requête ne hache jamais
+     */
+    @Bean
+    public ThreadPoolTaskExecutor passwordHashExecutor(
+            @Value("${password-hashing.pool-size:0}") int poolSize,
+            @Value("${password-hashing.queue-capacity:64}") int queueCapacity) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hash-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool de génération des variantes d'images (miniatures, voir ImageDerivativeService)
+     * Peu de threads : le décodage d'images est coûteux en CPU et en mémoire
+     * Pas de CallerRunsPolicy : une tâche rejetée est reprise par le balayage périodique
+     */
+    @Bean
+    public ThreadPoolTaskExecutor imageDerivativeExecutor(
+            @Value("${image-derivatives.pool-size:2}") int poolSize,
+            @Value("${image-derivatives.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-derivative-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,5 +1,72 @@
 package com.example.e_souk.Config;
 
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Emplacements locaux des fichiers uploadés
+ *
+ * - file.upload-dir : racine de stockage externe (hors classpath, non embarquée dans le jar)
+ *   utilisée par FileSystemBlobStore ; contient aussi le dossier de préparation (.staging)
+ * - file.legacy-upload-dirs : anciens dossiers à plat, en lecture seule, consultés après la racine
+ *   (uploads enregistrés avant le passage au stockage externe)
+ */
+@Component
 public class FileUploadConfig {
-    
+
+    private static final String STAGING_DIR = ".staging";
+
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    @Value("${file.legacy-upload-dirs:}")
+    private List<String> legacyUploadDirs;
+
+    private Path root;
+    private final List<Path> legacyRoots = new ArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        for (String dir : legacyUploadDirs) {
+            if (!dir.isBlank()) {
+                legacyRoots.add(Paths.get(dir.trim()).toAbsolutePath().normalize());
+            }
+        }
+    }
+
+    /**
+     * @return racine de stockage (écriture)
+     */
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * @return anciens dossiers à plat (lecture seule)
+     */
+    public List<Path> getLegacyRoots() {
+        return legacyRoots;
+    }
+
+    /**
+     * Dossier de préparation des uploads, sur le même disque que la racine (déplacement atomique)
+     * Un nom de fichier aléatoire plutôt que createTempFile : permissions par défaut (lisible du serveur web)
+     * @param prefix préfixe du fichier temporaire
+     * @return chemin d'un fichier temporaire non encore créé
+     */
+    public Path newStagingFile(String prefix) throws IOException {
+        Path staging = root.resolve(STAGING_DIR);
+        Files.createDirectories(staging);
+        return staging.resolve(prefix + UUID.randomUUID() + ".tmp");
+    }
 }
@@ -1,6 +1,7 @@
 package com.example.e_souk.Config;
 
-import com.example.e_souk.Service.UserDetailsServiceImpl;
+import com.example.e_souk.Service.PrincipalCache;
+import com.example.e_souk.Service.TokenRevocationService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -27,7 +28,8 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtTokenProvider jwtTokenProvider;
-    private final UserDetailsServiceImpl userDetailsService;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationService tokenRevocationService;
     
     /**
      * Méthode principale du filtre
@@ -42,16 +44,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // Extraction du token depuis l'en-tête Authorization
             String jwt = extractJwtFromRequest(request);
             
-            // Validation du token et authentification
-            if (StringUtils.hasText(jwt) && jwtTokenProvider.validateToken(jwt)) {
+            // Validation du token (un seul parsing), contrôle de révocation et authentification
+            VerifiedToken token = StringUtils.hasText(jwt) ? jwtTokenProvider.verify(jwt) : null;
+            if (token != null && tokenRevocationService.isRevoked(token)) {
+                log.debug("Token révoqué présenté pour: {}", token.getSubject());
+                token = null;
+            }
+            if (token != null) {
                 
-                // Extraction du nom d'utilisateur depuis le token
-                String username = jwtTokenProvider.getUsernameFromToken(jwt);
+                // Nom d'utilisateur et date d'émission portés par le token
+                String username = token.getSubject();
                 
                 if (StringUtils.hasText(username) && SecurityContextHolder.getContext().getAuthentication() == null) {
                     
-                    // Chargement des détails utilisateur
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                    // Chargement des détails utilisateur (cache, la base n'est lue qu'à l'expiration ou après invalidation)
+                    UserDetails userDetails = principalCache.load(username, token.getUserId(), token.getIssuedAt());
                     
                     // Création de l'authentification
                     UsernamePasswordAuthenticationToken authentication = 
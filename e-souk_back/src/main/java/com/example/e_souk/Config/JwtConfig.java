@@ -39,4 +39,9 @@ public class JwtConfig {
      * Préfixe du token dans l'en-tête
      */
     private String prefix = "Bearer ";
+    
+    /**
+     * Nombre maximal de tokens vérifiés gardés en cache (empreinte → claims)
+     */
+    private int verifiedCacheMaxSize = 10000;
 } 
\ No newline at end of file
@@ -1,8 +1,8 @@
 package com.example.e_souk.Config;
 
+import com.example.e_souk.Service.BoundedTtlCache;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -10,18 +10,61 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
+import java.util.UUID;
 
 /**
  * Fournisseur de tokens JWT pour l'authentification
  * Gère la génération, validation et extraction des informations des tokens
+ * 
+ * PERFORMANCE :
+ * - La clé HMAC et le parser sont construits une seule fois (immuables, partagés entre threads)
+ * - verify() contrôle signature et expiration en un seul parsing (la révocation est vérifiée à part,
+ *   voir TokenRevocationService)
+ * - Les tokens déjà vérifiés sont gardés jusqu'à leur expiration, indexés par leur empreinte SHA-256
+ *   (le token lui-même n'est pas conservé en mémoire)
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class JwtTokenProvider {
     
+    /**
+     * Nom du claim portant le rôle de l'utilisateur
+     */
+    static final String ROLE_CLAIM = "role";
+    
+    /**
+     * Nom du claim portant l'ID de l'utilisateur
+     */
+    static final String USER_ID_CLAIM = "uid";
+    
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    });
+    
     private final JwtConfig jwtConfig;
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final BoundedTtlCache<String, VerifiedToken> verifiedTokens;
+    
+    public JwtTokenProvider(JwtConfig jwtConfig) {
+        this.jwtConfig = jwtConfig;
+        // Création de la clé secrète à partir de la chaîne de caractères
+        this.key = Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .build();
+        // Durée de vie par entrée : chaque token reste en cache jusqu'à sa propre expiration
+        this.verifiedTokens = new BoundedTtlCache<>(jwtConfig.getVerifiedCacheMaxSize(), jwtConfig.getExpiration());
+    }
     
     /**
      * Génère un token JWT pour un utilisateur authentifié
@@ -30,23 +73,29 @@ public class JwtTokenProvider {
      */
     public String generateToken(Authentication authentication) {
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        return generateTokenFromUsername(userDetails.getUsername());
+        if (userDetails instanceof UserDetailsImpl user) {
+            return generateTokenFromUsername(user.getUsername(), user.getId(), user.getRole());
+        }
+        return generateTokenFromUsername(userDetails.getUsername(), null, null);
     }
     
     /**
      * Génère un token JWT à partir d'un nom d'utilisateur
+     * Le token porte aussi l'ID et le rôle : les services n'ont plus à relire l'utilisateur pour les connaître
      * @param username Nom d'utilisateur
+     * @param userId ID de l'utilisateur
+     * @param role Rôle de l'utilisateur (CLIENT, VENDOR, ADMIN)
      * @return Token JWT généré
      */
-    public String generateTokenFromUsername(String username) {
+    public String generateTokenFromUsername(String username, UUID userId, String role) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtConfig.getExpiration());
         
-        // Création de la clé secrète à partir de la chaîne de caractères
-        SecretKey key = Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes(StandardCharsets.UTF_8));
-        
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(username)
+                .claim(USER_ID_CLAIM, userId != null ? userId.toString() : null)
+                .claim(ROLE_CLAIM, role)
                 .issuedAt(now)
                 .expiration(expiryDate)
                 .signWith(key, Jwts.SIG.HS512)
@@ -54,43 +103,39 @@ public class JwtTokenProvider {
     }
     
     /**
-     * Extrait le nom d'utilisateur depuis un token JWT
+     * Vérifie un token (signature + expiration) en un seul parsing
+     * Un token déjà vérifié est servi depuis le cache jusqu'à son expiration
      * @param token Token JWT
-     * @return Nom d'utilisateur
+     * @return VerifiedToken ou null si le token est invalide ou expiré
      */
-    public String getUsernameFromToken(String token) {
-        try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes(StandardCharsets.UTF_8));
-            
-            Claims claims = Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            
-            return claims.getSubject();
-        } catch (JwtException e) {
-            log.error("Erreur lors de l'extraction du nom d'utilisateur du token: {}", e.getMessage());
+    public VerifiedToken verify(String token) {
+        if (token == null || token.isEmpty()) {
             return null;
         }
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.get(digest);
+        if (cached != null) {
+            return cached;
+        }
+        VerifiedToken verified = parse(token);
+        if (verified != null && verified.getExpiration() != null) {
+            verifiedTokens.putUntil(digest, verified, verified.getExpiration().toEpochMilli());
+        }
+        return verified;
     }
     
     /**
-     * Valide un token JWT
-     * @param token Token JWT à valider
-     * @return true si le token est valide, false sinon
+     * Parse et vérifie un token avec le parser partagé, sans passer par le cache
+     * @param token Token JWT
+     * @return VerifiedToken ou null si le token est invalide ou expiré
      */
-    public boolean validateToken(String token) {
+    VerifiedToken parse(String token) {
         try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes(StandardCharsets.UTF_8));
-            
-            Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token);
-            
-            return true;
-        } catch (SecurityException e) {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            String userId = claims.get(USER_ID_CLAIM, String.class);
+            return new VerifiedToken(claims.getId(), claims.getSubject(), userId != null ? UUID.fromString(userId) : null,
+                    claims.get(ROLE_CLAIM, String.class), toInstant(claims.getIssuedAt()), toInstant(claims.getExpiration()));
+        } catch (io.jsonwebtoken.security.SecurityException e) {
             log.error("Signature JWT invalide: {}", e.getMessage());
         } catch (MalformedJwtException e) {
             log.error("Token JWT malformé: {}", e.getMessage());
@@ -98,11 +143,31 @@ public class JwtTokenProvider {
             log.error("Token JWT expiré: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
             log.error("Token JWT non supporté: {}", e.getMessage());
+        } catch (JwtException e) {
+            log.error("Token JWT invalide: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             log.error("Chaîne de claims JWT vide: {}", e.getMessage());
         }
-        
-        return false;
+        return null;
+    }
+    
+    /**
+     * Extrait le nom d'utilisateur depuis un token JWT
+     * @param token Token JWT
+     * @return Nom d'utilisateur
+     */
+    public String getUsernameFromToken(String token) {
+        VerifiedToken verified = verify(token);
+        return verified != null ? verified.getSubject() : null;
+    }
+    
+    /**
+     * Valide un token JWT
+     * @param token Token JWT à valider
+     * @return true si le token est valide, false sinon
+     */
+    public boolean validateToken(String token) {
+        return verify(token) != null;
     }
     
     /**
@@ -123,25 +188,25 @@ public class JwtTokenProvider {
      * @return true si le token expire bientôt
      */
     public boolean isTokenExpiringSoon(String token) {
-        try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes(StandardCharsets.UTF_8));
-            
-            Claims claims = Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            
-            Date expiration = claims.getExpiration();
-            Date now = new Date();
-            
-            // Vérifie si le token expire dans les 5 prochaines minutes
-            long fiveMinutesInMs = 5 * 60 * 1000;
-            return expiration.getTime() - now.getTime() < fiveMinutesInMs;
-            
-        } catch (JwtException e) {
-            log.error("Erreur lors de la vérification d'expiration du token: {}", e.getMessage());
+        VerifiedToken verified = verify(token);
+        if (verified == null || verified.getExpiration() == null) {
             return false;
         }
+        // Vérifie si le token expire dans les 5 prochaines minutes
+        long fiveMinutesInMs = 5 * 60 * 1000;
+        return verified.getExpiration().toEpochMilli() - System.currentTimeMillis() < fiveMinutesInMs;
+    }
+    
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
+    }
+    
+    /**
+     * Empreinte SHA-256 du token, clé du cache des tokens vérifiés
+     */
+    private static String digest(String token) {
+        MessageDigest sha = SHA_256.get();
+        sha.reset();
+        return Base64.getEncoder().encodeToString(sha.digest(token.getBytes(StandardCharsets.US_ASCII)));
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,35 @@
+package com.example.e_souk.Config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Open-in-view (EntityManager ouvert pendant toute la requête) sauf sur la page boutique
+ *
+ * Avec open-in-view, la première requête SQL du thread HTTP lui attribue une connexion gardée
+ * jusqu'à la fin de la réponse. La page boutique attend ses sous-requêtes parallèles (ShopPageService) :
+ * elle ne doit pas immobiliser une connexion de plus pendant cette attente.
+ * Déclarer cet intercepteur désactive celui de Spring Boot (spring.jpa.open-in-view).
+ */
+@Configuration
+public class OpenInViewConfig implements WebMvcConfigurer {
+
+    /**
+     * Routes servies sans EntityManager de requête
+     */
+    private static final String[] EXCLUDED_PATHS = {"/api/shops/*/page"};
+
+    @Bean
+    public OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor() {
+        return new OpenEntityManagerInViewInterceptor();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addWebRequestInterceptor(openEntityManagerInViewInterceptor())
+                .excludePathPatterns(EXCLUDED_PATHS);
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.e_souk.Config;
+
+import com.example.e_souk.Exception.GlobalExceptionHandler;
+import com.example.e_souk.Service.StripedRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Filtre de limitation de débit par groupe de routes (auth, recherche, panier, commandes)
+ *
+ * Placé après JwtAuthenticationFilter : la clé est l'id de l'utilisateur authentifié,
+ * sinon l'adresse IP. Une requête hors des groupes configurés n'est pas limitée.
+ * Refus : 429 avec en-tête Retry-After, même format que GlobalExceptionHandler.
+ */
+@Component
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final RouteGroup[] groups;
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        List<RouteGroup> built = new ArrayList<>();
+        for (Map.Entry<String, RateLimitProperties.Group> entry : properties.getGroups().entrySet()) {
+            RateLimitProperties.Group group = entry.getValue();
+            StripedRateLimiter limiter = new StripedRateLimiter(group.getCapacity(),
+                    Duration.ofSeconds(group.getRefillSeconds()), properties.getStripes(),
+                    properties.getMaxEntries(), Duration.ofMillis(properties.getIdleEvictionMs()));
+            List<Route> routes = group.getRoutes().stream().map(Route::parse).toList();
+            built.add(new RouteGroup(entry.getKey(), routes.toArray(new Route[0]), limiter));
+            log.info("Limitation de débit - groupe {} : {} requêtes / {} s sur {}", entry.getKey(),
+                    group.getCapacity(), group.getRefillSeconds(), group.getRoutes());
+        }
+        this.groups = built.toArray(new RouteGroup[0]);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RouteGroup group = match(request.getMethod(), request.getRequestURI());
+        if (group != null) {
+            long retryAfter = group.limiter.tryAcquire(clientKey(request));
+            if (retryAfter > 0) {
+                log.debug("Requête limitée - groupe {} : {} {}", group.name, request.getMethod(), request.getRequestURI());
+                reject(response, retryAfter);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || groups.length == 0;
+    }
+
+    /**
+     * Premier groupe dont une route correspond (parcours de tableaux, aucune allocation)
+     */
+    private RouteGroup match(String method, String path) {
+        for (RouteGroup group : groups) {
+            for (Route route : group.routes) {
+                if (route.matches(method, path)) {
+                    return group;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Id utilisateur si authentifié (posé par JwtAuthenticationFilter), sinon IP du client
+     */
+    private Object clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl user) {
+            return user.getId();
+        }
+        return request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        GlobalExceptionHandler.ErrorResponse body = GlobalExceptionHandler.ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .error("Trop de requêtes")
+                .message("Limite de requêtes atteinte, réessayez plus tard")
+                .build();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    /**
+     * Retire les clés inactives et journalise les refus de la période
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.cleanup-interval-ms:60000}")
+    public void evictIdleKeys() {
+        for (RouteGroup group : groups) {
+            int removed = group.limiter.evictIdle();
+            long rejected = group.limiter.getRejectedCount();
+            long delta = rejected - group.lastRejected;
+            group.lastRejected = rejected;
+            if (delta > 0 || removed > 0) {
+                log.info("Limitation de débit - groupe {} : {} refus, {} clés inactives retirées, {} clés suivies",
+                        group.name, delta, removed, group.limiter.size());
+            }
+        }
+    }
+
+    /**
+     * @return limiteur de chaque groupe, par nom (compteurs pour le suivi)
+     */
+    public Map<String, StripedRateLimiter> getLimiters() {
+        Map<String, StripedRateLimiter> limiters = new LinkedHashMap<>();
+        for (RouteGroup group : groups) {
+            limiters.put(group.name, group.limiter);
+        }
+        return limiters;
+    }
+
+    private static final class RouteGroup {
+        private final String name;
+        private final Route[] routes;
+        private final StripedRateLimiter limiter;
+        private long lastRejected;
+
+        private RouteGroup(String name, Route[] routes, StripedRateLimiter limiter) {
+            this.name = name;
+            this.routes = routes;
+            this.limiter = limiter;
+        }
+    }
+
+    /**
+     * Route : méthode optionnelle, chemin exact ou préfixe (motif terminé par /**)
+     */
+    private record Route(String method, String path, boolean prefix) {
+
+        static Route parse(String spec) {
+            String value = spec.trim();
+            String method = null;
+            int space = value.indexOf(' ');
+            if (space > 0) {
+                method = value.substring(0, space).toUpperCase(Locale.ROOT);
+                value = value.substring(space + 1).trim();
+            }
+            if (value.endsWith("/**")) {
+                return new Route(method, value.substring(0, value.length() - 3), true);
+            }
+            return new Route(method, value, false);
+        }
+
+        boolean matches(String requestMethod, String requestPath) {
+            if (method != null && !method.equals(requestMethod)) {
+                return false;
+            }
+            if (!prefix) {
+                return requestPath.equals(path);
+            }
+            // "/api/cart/**" couvre /api/cart et /api/cart/..., pas /api/cartes
+            return requestPath.startsWith(path)
+                    && (requestPath.length() == path.length() || requestPath.charAt(path.length()) == '/');
+        }
+    }
+}
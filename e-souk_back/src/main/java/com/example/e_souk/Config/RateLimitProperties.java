@@ -0,0 +1,65 @@
+package com.example.e_souk.Config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration de la limitation de débit par groupe de routes
+ * Récupère les propriétés rate-limit.* depuis application.properties
+ */
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+@Data
+public class RateLimitProperties {
+
+    /**
+     * Active ou désactive le filtre
+     */
+    private boolean enabled = true;
+
+    /**
+     * Nombre de segments verrouillés par groupe (puissance de 2)
+     */
+    private int stripes = 64;
+
+    /**
+     * Nombre maximal de clés (utilisateurs / IP) suivies par groupe
+     */
+    private int maxEntries = 100000;
+
+    /**
+     * Inactivité au-delà de laquelle une clé est oubliée (millisecondes)
+     */
+    private long idleEvictionMs = 600000L;
+
+    /**
+     * Groupes de routes (auth, search, cart, orders...), évalués dans l'ordre de déclaration
+     */
+    private Map<String, Group> groups = new LinkedHashMap<>();
+
+    @Data
+    public static class Group {
+
+        /**
+         * Nombre de requêtes autorisées en rafale
+         */
+        private long capacity = 60;
+
+        /**
+         * Durée pour regagner toute la capacité (secondes)
+         */
+        private long refillSeconds = 60;
+
+        /**
+         * Routes du groupe : "[MÉTHODE ]chemin", chemin exact ou préfixe terminé par /**
+         * Exemple : "GET /api/products", "/api/cart/**"
+         */
+        private List<String> routes = new ArrayList<>();
+    }
+}
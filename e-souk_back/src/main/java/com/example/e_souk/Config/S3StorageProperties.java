@@ -0,0 +1,45 @@
+package com.example.e_souk.Config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration du stockage S3 des uploads (file.storage.backend=s3)
+ * Compatible AWS S3 et serveurs compatibles (MinIO...) : adressage par chemin par défaut
+ */
+@Component
+@ConfigurationProperties(prefix = "file.storage.s3")
+@Data
+public class S3StorageProperties {
+
+    /**
+     * Point d'accès, ex. https://s3.eu-west-3.amazonaws.com ou http://localhost:9000
+     */
+    private String endpoint;
+
+    /**
+     * Région utilisée pour la signature (MinIO accepte us-east-1)
+     */
+    private String region = "us-east-1";
+
+    private String bucket;
+
+    private String accessKey;
+
+    private String secretKey;
+
+    /**
+     * Adressage par chemin (endpoint/bucket/clé) ; false : hôte virtuel (bucket.endpoint/clé)
+     */
+    private boolean pathStyle = true;
+
+    /**
+     * Préfixe ajouté à toutes les clés (ex. "uploads/")
+     */
+    private String keyPrefix = "";
+
+    private long connectTimeoutMs = 5000;
+
+    private long requestTimeoutMs = 30000;
+}
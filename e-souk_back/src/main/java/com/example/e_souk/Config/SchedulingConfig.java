@@ -0,0 +1,14 @@
+package com.example.e_souk.Config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration des tâches planifiées
+ * Permet l'utilisation de @Scheduled (flush des compteurs, réconciliations...)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+    // Configuration automatique activée par @EnableScheduling
+}
@@ -2,6 +2,7 @@ package com.example.e_souk.Config;
 
 import com.example.e_souk.Service.UserDetailsServiceImpl;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,8 +13,8 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -35,6 +36,7 @@ public class SecurityConfig {
     
     private final UserDetailsServiceImpl userDetailsService;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RateLimitFilter rateLimitFilter;
     
     /**
      * Configuration de la chaîne de filtres de sécurité
@@ -43,7 +45,7 @@ public class SecurityConfig {
      * @throws Exception en cas d'erreur de configuration
      */
    @Bean
-public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+public SecurityFilterChain filterChain(HttpSecurity http, PasswordEncoder passwordEncoder) throws Exception {
     
     http
         // Désactive CSRF car on utilise JWT (stateless)
@@ -82,10 +84,13 @@ public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         )
         
         // Configuration du provider d'authentification
-        .authenticationProvider(authenticationProvider())
+        .authenticationProvider(authenticationProvider(passwordEncoder))
         
         // Ajout du filtre JWT avant le filtre d'authentification par nom d'utilisateur/mot de passe
-        .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+        
+        // Limitation de débit après le filtre JWT (clé par utilisateur authentifié, sinon par IP)
+        .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
     
     return http.build();
 }
@@ -132,28 +137,37 @@ public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
     
     /**
      * Provider d'authentification DAO
+     * @param passwordEncoder Encodeur de mot de passe
      * @return DaoAuthenticationProvider configuré
      */
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         
         // Service de détails utilisateur
         authProvider.setUserDetailsService(userDetailsService);
         
         // Encodeur de mot de passe
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        
+        // Ré-encodage transparent à la connexion si le coût BCrypt configuré a augmenté
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         
         return authProvider;
     }
     
     /**
-     * Encodeur de mot de passe BCrypt
-     * @return BCryptPasswordEncoder
+     * Encodeur de mot de passe BCrypt, exécuté sur un pool dédié et borné
+     * @param passwordHashExecutor pool de hachage (ExecutorConfig)
+     * @param strength coût BCrypt (log2 du nombre de tours)
+     * @param timeoutMs attente maximale d'un hachage (file comprise)
+     * @return BoundedPasswordEncoder
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(ThreadPoolTaskExecutor passwordHashExecutor,
+                                           @Value("${password-hashing.bcrypt-strength:10}") int strength,
+                                           @Value("${password-hashing.timeout-ms:5000}") long timeoutMs) {
+        return new BoundedPasswordEncoder(strength, passwordHashExecutor, timeoutMs);
     }
     
     /**
@@ -0,0 +1,49 @@
+package com.example.e_souk.Config;
+
+import com.example.e_souk.Event.StartupBackfillEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publie StartupBackfillEvent avant le démarrage du serveur web
+ *
+ * ApplicationReadyEvent arrive quand Tomcat accepte déjà les requêtes : une commande ou un avis
+ * reçu avant l'initialisation rend une table non vide et l'import de l'historique serait sauté.
+ * Le serveur web démarre dans la phase SmartLifecycle.DEFAULT_PHASE - 2048 : ce composant,
+ * en phase 0, s'exécute avant lui. Les tâches @Scheduled ne démarrent qu'après le refresh.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StartupBackfillLifecycle implements SmartLifecycle {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        long start = System.nanoTime();
+        eventPublisher.publishEvent(new StartupBackfillEvent());
+        running = true;
+        log.info("Initialisations de démarrage terminées en {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.e_souk.Config;
+
+import com.example.e_souk.Exception.GlobalExceptionHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Refus anticipé des uploads trop volumineux, sur l'en-tête Content-Length
+ *
+ * Exécuté avant le DispatcherServlet, donc avant l'analyse multipart : le corps n'est pas lu
+ * et la connexion est fermée (Connection: close) plutôt que vidée. Les requêtes sans
+ * Content-Length (chunked) restent bornées par spring.servlet.multipart.max-request-size
+ * pendant l'analyse (MaxUploadSizeExceededException → 413 dans GlobalExceptionHandler).
+ */
+@Component
+@Slf4j
+public class UploadSizeFilter extends OncePerRequestFilter {
+
+    private final ObjectMapper objectMapper;
+    private final long maxRequestBytes;
+
+    public UploadSizeFilter(ObjectMapper objectMapper,
+                            @Value("${spring.servlet.multipart.max-request-size:10MB}") DataSize maxRequestSize) {
+        this.objectMapper = objectMapper;
+        this.maxRequestBytes = maxRequestSize.toBytes();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long contentLength = request.getContentLengthLong();
+        if (contentLength > maxRequestBytes) {
+            log.warn("Upload refusé avant lecture : {} octets annoncés sur {} {}", contentLength,
+                    request.getMethod(), request.getRequestURI());
+            reject(response);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/");
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        GlobalExceptionHandler.ErrorResponse body = GlobalExceptionHandler.ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.PAYLOAD_TOO_LARGE.value())
+                .error("Fichier trop volumineux")
+                .message("La taille maximale d'un envoi est de " + (maxRequestBytes / (1024 * 1024)) + " Mo")
+                .build();
+        response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+        response.setHeader(HttpHeaders.CONNECTION, "close");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.e_souk.Config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Résultat d'une vérification de token JWT (signature et expiration déjà contrôlées)
+ * Immuable (dates en Instant) : peut être partagé entre requêtes via le cache de JwtTokenProvider
+ */
+@Getter
+@AllArgsConstructor
+public class VerifiedToken {
+
+    /**
+     * Identifiant unique du token (jti, null pour les tokens émis avant l'ajout du claim)
+     */
+    private final String tokenId;
+
+    /**
+     * Sujet du token (nom d'utilisateur)
+     */
+    private final String subject;
+
+    /**
+     * ID de l'utilisateur (null pour les tokens émis avant l'ajout du claim)
+     */
+    private final UUID userId;
+
+    /**
+     * Rôle de l'utilisateur à l'émission (null si le token ne le porte pas)
+     */
+    private final String role;
+
+    /**
+     * Date d'émission (iat)
+     */
+    private final Instant issuedAt;
+
+    /**
+     * Date d'expiration (exp)
+     */
+    private final Instant expiration;
+
+    /**
+     * @param nowMs instant de référence en millisecondes
+     * @return true si le token a expiré à cet instant
+     */
+    public boolean isExpired(long nowMs) {
+        return expiration != null && expiration.toEpochMilli() <= nowMs;
+    }
+}
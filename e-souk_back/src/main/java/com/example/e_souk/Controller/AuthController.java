@@ -6,12 +6,14 @@ package com.example.e_souk.Controller;
 
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -23,6 +25,7 @@ import com.example.e_souk.Service.AuthService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -50,11 +53,11 @@ public class AuthController {
         description = "Crée un nouveau compte utilisateur et retourne un token JWT pour l'authentification"
     )
     public ResponseEntity<AuthResponseDTO> register(
-            @ModelAttribute RegisterRequestDTO registerRequest) {
+            @ModelAttribute RegisterRequestDTO registerRequest, HttpServletRequest request) {
         
         log.info("Requête d'inscription reçue pour: {}", registerRequest.getUsername());
         
-        AuthResponseDTO response = authService.register(registerRequest);
+        AuthResponseDTO response = authService.register(registerRequest, request.getRemoteAddr());
         
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
@@ -71,13 +74,28 @@ public class AuthController {
         description = "Authentifie un utilisateur avec ses identifiants et retourne un token JWT"
     )
     public ResponseEntity<AuthResponseDTO> login(
-            @Valid @RequestBody LoginRequestDTO loginRequest) {
+            @Valid @RequestBody LoginRequestDTO loginRequest, HttpServletRequest request) {
         log.info("Requête de connexion reçue pour: {}", loginRequest.getUsernameOrEmail());
-        AuthResponseDTO response = authService.login(loginRequest);
+        AuthResponseDTO response = authService.login(loginRequest, request.getRemoteAddr());
         return ResponseEntity.ok(response);
     }
    
     
+    /**
+     * Déconnexion : le token présenté est révoqué jusqu'à son expiration
+     * @param authorization En-tête Authorization ("Bearer token")
+     * @return 204 si le token a été révoqué
+     */
+    @PostMapping("/logout")
+    @Operation(
+        summary = "Déconnexion",
+        description = "Révoque le token JWT présenté : il est refusé sur tous les noeuds jusqu'à son expiration"
+    )
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        authService.logout(authorization);
+        return ResponseEntity.noContent().build();
+    }
+    
     /**
      * Validation d'un token JWT
      * @param token Token JWT à valider
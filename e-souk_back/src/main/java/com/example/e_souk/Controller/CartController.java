@@ -1,9 +1,9 @@
 package com.example.e_souk.Controller;
 
+import com.example.e_souk.Config.UserDetailsImpl;
 import com.example.e_souk.Dto.Cart.AddToCartRequest;
 import com.example.e_souk.Dto.Cart.CartDto;
 import com.example.e_souk.Dto.Cart.CartItemDto;
-import com.example.e_souk.Dto.User.UserProfileDTO;
 import com.example.e_souk.Service.AuthService;
 import com.example.e_souk.Service.CartService;
 
@@ -41,7 +41,7 @@ public class CartController {
             @Valid @RequestBody AddToCartRequest request) {
         try {
             // Récupération de l'ID utilisateur depuis l'authentification
-            UserProfileDTO profile = authService.getCurrentUserProfile();
+            UserDetailsImpl profile = authService.getCurrentPrincipal();
             UUID userId = profile.getId();
 
             // Ajout de l'article au panier
@@ -72,7 +72,7 @@ public class CartController {
            ) {
         
         try {
-            UserProfileDTO profile = authService.getCurrentUserProfile();
+            UserDetailsImpl profile = authService.getCurrentPrincipal();
             UUID userId = profile.getId();
             CartItemDto updatedItem = cartService.updateCartItemQuantity(userId, cartItemId, quantity);
 
@@ -99,7 +99,7 @@ public class CartController {
             @PathVariable UUID cartItemId) {
         
         try {
-            UserProfileDTO profile = authService.getCurrentUserProfile();
+            UserDetailsImpl profile = authService.getCurrentPrincipal();
             UUID userId = profile.getId();
             cartService.removeFromCart(userId, cartItemId);
             return ResponseEntity.ok(new SuccessResponse("Article supprimé du panier avec succès"));
@@ -122,7 +122,7 @@ public class CartController {
     public ResponseEntity<?> clearCart() {
         
         try {
-            UserProfileDTO profile = authService.getCurrentUserProfile();
+            UserDetailsImpl profile = authService.getCurrentPrincipal();
             UUID userId = profile.getId();
             cartService.clearCart(userId);
             
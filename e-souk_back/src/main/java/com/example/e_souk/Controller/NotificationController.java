@@ -0,0 +1,101 @@
+package com.example.e_souk.Controller;
+
+import com.example.e_souk.Config.UserDetailsImpl;
+import com.example.e_souk.Dto.Notification.MarkReadRequestDTO;
+import com.example.e_souk.Dto.Notification.NotificationPageDTO;
+import com.example.e_souk.Service.AuthService;
+import com.example.e_souk.Service.NotificationService;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+/**
+ * Controller REST de la boîte de réception des notifications
+ * 
+ * ROUTES PRINCIPALES :
+ * - GET /api/notifications : Page de notifications (keyset, paramètre cursor)
+ * - GET /api/notifications/unread-count : Nombre de non lues
+ * - GET /api/notifications/stream : Flux SSE du nombre de non lues
+ * - POST /api/notifications/read : Marquer des notifications comme lues
+ * - POST /api/notifications/read-all : Tout marquer comme lu
+ */
+@RestController
+@RequestMapping("/api/notifications")
+@RequiredArgsConstructor
+@Slf4j
+@PreAuthorize("isAuthenticated()")
+public class NotificationController {
+
+    private final NotificationService notificationService;
+    private final AuthService authService;
+
+    /**
+     * GET /api/notifications - Boîte de réception, plus récentes d'abord
+     * 
+     * @param cursor curseur renvoyé par la page précédente (absent pour la première page)
+     * @param size taille de la page
+     * @return notifications, curseur suivant et nombre de non lues
+     */
+    @GetMapping
+    public ResponseEntity<NotificationPageDTO> getInbox(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        UserDetailsImpl profile = authService.getCurrentPrincipal();
+        return ResponseEntity.ok(notificationService.getInbox(profile.getId(), cursor, size));
+    }
+
+    /**
+     * GET /api/notifications/unread-count - Nombre de notifications non lues
+     * USAGE : Badge de la barre de navigation (préférer /stream pour les mises à jour)
+     */
+    @GetMapping("/unread-count")
+    public ResponseEntity<Long> getUnreadCount() {
+        UserDetailsImpl profile = authService.getCurrentPrincipal();
+        return ResponseEntity.ok(notificationService.getUnreadCount(profile.getId()));
+    }
+
+    /**
+     * GET /api/notifications/stream - Flux Server-Sent Events du nombre de non lues
+     * Événement "unread-count" à l'ouverture puis à chaque changement
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        UserDetailsImpl profile = authService.getCurrentPrincipal();
+        log.debug("API - Ouverture du flux de notifications pour {}", profile.getUsername());
+        return notificationService.subscribe(profile.getId());
+    }
+
+    /**
+     * POST /api/notifications/read - Marquer des notifications comme lues
+     * @param request IDs des notifications
+     * @return nombre de notifications marquées et nouveau nombre de non lues
+     */
+    @PostMapping("/read")
+    public ResponseEntity<Map<String, Long>> markRead(@Valid @RequestBody MarkReadRequestDTO request) {
+        UserDetailsImpl profile = authService.getCurrentPrincipal();
+        int updated = notificationService.markRead(profile.getId(), request.getIds());
+        return ResponseEntity.ok(Map.of(
+                "updated", (long) updated,
+                "unreadCount", notificationService.getUnreadCount(profile.getId())));
+    }
+
+    /**
+     * POST /api/notifications/read-all - Tout marquer comme lu
+     * @return nombre de notifications marquées
+     */
+    @PostMapping("/read-all")
+    public ResponseEntity<Map<String, Long>> markAllRead() {
+        UserDetailsImpl profile = authService.getCurrentPrincipal();
+        int updated = notificationService.markAllRead(profile.getId());
+        return ResponseEntity.ok(Map.of("updated", (long) updated, "unreadCount", 0L));
+    }
+}
@@ -10,6 +10,7 @@ import com.example.e_souk.Dto.Product.ProductDetailDTO;
 import com.example.e_souk.Dto.Product.ProductFilterDTO;
 import com.example.e_souk.Dto.Product.ProductResponseDTO;
 import com.example.e_souk.Mappers.ProductMapper;
+import com.example.e_souk.Service.ProductSalesService;
 import com.example.e_souk.Service.ProductService;
 import lombok.RequiredArgsConstructor;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -28,6 +29,7 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class ProductController {
     private final ProductService productService;
+    private final ProductSalesService productSalesService;
     private final ObjectMapper objectMapper;
     @PreAuthorize("isAuthenticated()")
     @PostMapping(value = "/add", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -63,6 +65,16 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
     
+    /**
+     * GET /api/products/popular - Produits les plus vendus de la marketplace
+     * @param limit nombre de produits
+     * @return produits triés par ventes décroissantes
+     */
+    @GetMapping("/popular")
+    public ResponseEntity<List<ProductDTO>> getPopularProducts(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productSalesService.getPopularProducts(limit));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ProductDetailDTO> getProductById(@PathVariable UUID id) {
         ProductDetailDTO product = productService.getProductDetail(id);
@@ -1,7 +1,7 @@
 package com.example.e_souk.Controller;
 
+import com.example.e_souk.Config.UserDetailsImpl;
 import com.example.e_souk.Dto.Product.ProductDTO;
-import com.example.e_souk.Dto.User.UserProfileDTO;
 import com.example.e_souk.Service.AuthService;
 import com.example.e_souk.Service.ProductFavoriteService;
 import lombok.RequiredArgsConstructor;
@@ -9,6 +9,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -34,7 +35,7 @@ public class ProductFavoriteController {
             @PathVariable String productId) {
       UUID productIdUuid = UUID.fromString(productId);
 
-        UserProfileDTO profile = authService.getCurrentUserProfile();
+        UserDetailsImpl profile = authService.getCurrentPrincipal();
         UUID userId=profile.getId();
         log.info("POST /api/favorites/{}/products/{} - Ajout aux favoris", userId, productIdUuid);
         
@@ -50,7 +51,7 @@ public class ProductFavoriteController {
     @DeleteMapping("/remove/{productId}")
     public ResponseEntity<Void> removeFromFavorites(
             @PathVariable UUID productId) {
-        UserProfileDTO profile = authService.getCurrentUserProfile();
+        UserDetailsImpl profile = authService.getCurrentPrincipal();
         UUID userId=profile.getId();
         log.info("DELETE /api/favorites/{}/products/{} - Suppression des favoris", userId, productId);
         productFavoriteService.removeFromFavorites(userId, productId);
@@ -67,13 +68,25 @@ public class ProductFavoriteController {
     public ResponseEntity<Boolean> isProductFavorite(
             @PathVariable UUID productId) {
 
-        UserProfileDTO profile = authService.getCurrentUserProfile();
+        UserDetailsImpl profile = authService.getCurrentPrincipal();
         UUID userId = profile.getId();
         log.info("GET /api/favorites/{}/products/{}/check - Vérification favori", userId, productId);
         
         boolean isFavorite = productFavoriteService.isProductFavorite(userId, productId);
         return ResponseEntity.ok(isFavorite);
     }
+
+    /**
+     * Vérifie en une seule requête quels produits d'une grille sont en favori
+     * @param ids IDs des produits affichés (200 maximum, 400 au-delà)
+     * @return IDs des produits en favori
+     */
+    @GetMapping("/check")
+    public ResponseEntity<List<UUID>> getFavoriteProductIds(@RequestParam List<UUID> ids) {
+        UserDetailsImpl profile = authService.getCurrentPrincipal();
+        log.info("GET /api/products-favorites/check - Vérification de {} produit(s)", ids.size());
+        return ResponseEntity.ok(productFavoriteService.getFavoriteProductIds(profile.getId(), ids));
+    }
     
 
 }
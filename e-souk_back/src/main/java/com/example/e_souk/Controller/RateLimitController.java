@@ -0,0 +1,46 @@
+package com.example.e_souk.Controller;
+
+import com.example.e_souk.Config.RateLimitFilter;
+import com.example.e_souk.Dto.Admin.RateLimitStatsDTO;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Suivi de la limitation de débit
+ * 
+ * ROUTES PRINCIPALES :
+ * - GET /api/admin/rate-limits : Requêtes autorisées / refusées par groupe de routes
+ */
+@RestController
+@RequestMapping("/api/admin/rate-limits")
+@RequiredArgsConstructor
+public class RateLimitController {
+
+    private final RateLimitFilter rateLimitFilter;
+
+    /**
+     * GET /api/admin/rate-limits - Compteurs par groupe
+     * 
+     * SÉCURITÉ : ADMIN uniquement (règle /api/admin/** de SecurityConfig)
+     * 
+     * @return compteurs de chaque groupe configuré
+     */
+    @GetMapping
+    public ResponseEntity<List<RateLimitStatsDTO>> getStats() {
+        List<RateLimitStatsDTO> stats = rateLimitFilter.getLimiters().entrySet().stream()
+                .map(e -> new RateLimitStatsDTO(e.getKey(),
+                        e.getValue().getAllowedCount(),
+                        e.getValue().getRejectedCount(),
+                        e.getValue().getEvictedCount(),
+                        e.getValue().size()))
+                .toList();
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.e_souk.Controller;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -21,13 +24,17 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.e_souk.Config.UserDetailsImpl;
 import com.example.e_souk.Dto.Shop.CreateShopRequestDTO;
+import com.example.e_souk.Dto.Shop.LowStockItemDTO;
+import com.example.e_souk.Dto.Shop.SalesBucketDTO;
 import com.example.e_souk.Dto.Shop.ShopFilterDto;
 import com.example.e_souk.Dto.Shop.ShopResponseDTO;
+import com.example.e_souk.Dto.Shop.ShopStatsDTO;
 import com.example.e_souk.Dto.Shop.ShopSummaryDTO;
 import com.example.e_souk.Dto.Shop.UpdateShopRequestDTO;
 import com.example.e_souk.Exception.ShopException;
-import com.example.e_souk.Model.User;
+import com.example.e_souk.Model.SalesGranularity;
 import com.example.e_souk.Service.AuthService;
 import com.example.e_souk.Service.ProductService;
 import com.example.e_souk.Service.ShopService;
@@ -46,7 +53,11 @@ import lombok.extern.slf4j.Slf4j;
  * - PUT /api/shops/{id} : Modifier sa boutique
  * - DELETE /api/shops/{id} : Désactiver sa boutique
  * - GET /api/shops/my-shop : Ma boutique
+ * - GET /api/shops/my-shop/stats : Statistiques de ma boutique
+ * - GET /api/shops/my-shop/sales : Ventes de ma boutique par jour / heure
+ * - GET /api/shops/my-shop/inventory/low-stock : Variantes en stock faible
  * - GET /api/shops/search : Rechercher des boutiques
+ * - GET /api/shops/most-followed : Boutiques les plus suivies
  */
 @RestController
 @RequestMapping("/api/shops")
@@ -65,7 +76,7 @@ public class ShopController {
     @PreAuthorize("isAuthenticated()") 
     public ResponseEntity<ShopResponseDTO> createShop(
             @ModelAttribute CreateShopRequestDTO requestDTO) {
-            User profile = authService.getCurrentUser();
+            UserDetailsImpl profile = authService.getCurrentPrincipal();
             log.info("teeeest category name"); 
         log.info(requestDTO.getCategoryName());
         log.info("API - Création de boutique '{}' par l'utilisateur : {}", 
@@ -126,6 +137,23 @@ public class ShopController {
         return ResponseEntity.ok(shops);
     }
 
+    /**
+     * GET /api/shops/most-followed - Boutiques les plus suivies
+     * 
+     * USAGE : Section "Boutiques populaires" de la page d'accueil
+     * 
+     * @param page numéro de la page (négatif ramené à 0)
+     * @param size taille de la page (ramenée entre 1 et 100)
+     * @return Page de boutiques triées par nombre d'abonnés décroissant (1000 premières au plus)
+     */
+    @GetMapping("/most-followed")
+    public ResponseEntity<Page<ShopSummaryDTO>> getMostFollowedShops(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "12") int size) {
+        log.info("API - Récupération des boutiques les plus suivies - Page: {}, Size: {}", page, size);
+        return ResponseEntity.ok(shopService.getMostFollowedShops(page, size));
+    }
+
     // /**
     //  * GET /api/shops/{id} - Récupérer une boutique par son ID
     //  * 
@@ -171,7 +199,7 @@ public class ShopController {
     @GetMapping("/my-shop")
     @PreAuthorize("hasRole('VENDOR')")
     public ResponseEntity<ShopResponseDTO> getMyShop() {
-        User profile = authService.getCurrentUser();
+        UserDetailsImpl profile = authService.getCurrentPrincipal();
         log.info("API - Récupération de la boutique de l'utilisateur : {}", profile.getUsername());
         try {
             UUID ownerId = profile.getId();
@@ -185,6 +213,62 @@ public class ShopController {
         }
     }
 
+    /**
+     * GET /api/shops/my-shop/stats - Statistiques de MA boutique
+     * 
+     * SÉCURITÉ : Utilisateur connecté avec rôle VENDOR
+     * USAGE : Dashboard du vendeur
+     * 
+     * @return compteurs, chiffre d'affaires total et du mois
+     */
+    @GetMapping("/my-shop/stats")
+    @PreAuthorize("hasRole('VENDOR')")
+    public ResponseEntity<ShopStatsDTO> getMyShopStats() {
+        UserDetailsImpl profile = authService.getCurrentPrincipal();
+        log.info("API - Statistiques de la boutique de l'utilisateur : {}", profile.getUsername());
+        return ResponseEntity.ok(shopService.getShopStatsByOwnerId(profile.getId()));
+    }
+
+    /**
+     * GET /api/shops/my-shop/sales - Ventes de MA boutique par période
+     * 
+     * SÉCURITÉ : Utilisateur connecté avec rôle VENDOR
+     * USAGE : Graphiques du dashboard vendeur
+     * 
+     * @param from premier jour inclus (par défaut : il y a 30 jours)
+     * @param to dernier jour inclus (par défaut : aujourd'hui)
+     * @param granularity DAY ou HOUR
+     * @return une entrée par période, y compris les périodes sans vente
+     */
+    @GetMapping("/my-shop/sales")
+    @PreAuthorize("hasRole('VENDOR')")
+    public ResponseEntity<List<SalesBucketDTO>> getMyShopSales(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") SalesGranularity granularity) {
+        UserDetailsImpl profile = authService.getCurrentPrincipal();
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        log.info("API - Ventes de la boutique de {} du {} au {} ({})", profile.getUsername(), start, end, granularity);
+        return ResponseEntity.ok(shopService.getShopSalesByOwnerId(profile.getId(), start, end, granularity));
+    }
+
+    /**
+     * GET /api/shops/my-shop/inventory/low-stock - Variantes en stock faible de MA boutique
+     * 
+     * SÉCURITÉ : Utilisateur connecté avec rôle VENDOR
+     * USAGE : Écran d'inventaire / alertes de réapprovisionnement
+     * 
+     * @return variantes sous le seuil de la boutique, ruptures en premier
+     */
+    @GetMapping("/my-shop/inventory/low-stock")
+    @PreAuthorize("hasRole('VENDOR')")
+    public ResponseEntity<List<LowStockItemDTO>> getMyLowStockItems() {
+        UserDetailsImpl profile = authService.getCurrentPrincipal();
+        log.info("API - Stocks faibles de la boutique de l'utilisateur : {}", profile.getUsername());
+        return ResponseEntity.ok(shopService.getLowStockItemsByOwnerId(profile.getId()));
+    }
+
     /**
      * PUT /api/shops/{id} - Mettre à jour une boutique
      * 
@@ -200,7 +284,7 @@ public class ShopController {
     public ResponseEntity<ShopResponseDTO> updateShop(
             @PathVariable UUID id,
             @Valid @RequestBody UpdateShopRequestDTO requestDTO) {
-                User profile = authService.getCurrentUser();
+                UserDetailsImpl profile = authService.getCurrentPrincipal();
 
         log.info("API - Mise à jour de la boutique ID: {} par : {}", id, profile.getUsername());
 
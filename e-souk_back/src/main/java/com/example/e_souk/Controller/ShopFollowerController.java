@@ -1,7 +1,7 @@
 package com.example.e_souk.Controller;
 
+import com.example.e_souk.Config.UserDetailsImpl;
 import com.example.e_souk.Dto.Shop.ShopSummaryDTO;
-import com.example.e_souk.Dto.User.UserProfileDTO;
 import com.example.e_souk.Service.AuthService;
 import com.example.e_souk.Service.ShopFollowerService;
 import lombok.RequiredArgsConstructor;
@@ -9,6 +9,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -32,7 +33,7 @@ public class ShopFollowerController {
     @PostMapping("/follow/{shopId}")
     public ResponseEntity<ShopSummaryDTO> followShop(
             @PathVariable UUID shopId) {
-        UserProfileDTO profile = authService.getCurrentUserProfile();
+        UserDetailsImpl profile = authService.getCurrentPrincipal();
         UUID userId=profile.getId();
         log.info("POST /api/shop-followers/{}/shops/{} - Suivre une boutique", userId, shopId);
         
@@ -47,7 +48,7 @@ public class ShopFollowerController {
     @DeleteMapping("/unfollow/{shopId}")
     public ResponseEntity<Void> unfollowShop(
             @PathVariable UUID shopId) {
-        UserProfileDTO profile = authService.getCurrentUserProfile();
+        UserDetailsImpl profile = authService.getCurrentPrincipal();
         UUID userId=profile.getId();
         log.info("DELETE /api/shop-followers/{}/shops/{} - Ne plus suivre une boutique", userId, shopId);
         
@@ -63,7 +64,7 @@ public class ShopFollowerController {
     @GetMapping("{shopId}/check")
     public ResponseEntity<Boolean> isFollowingShop(
             @PathVariable UUID shopId) {
-        UserProfileDTO profile = authService.getCurrentUserProfile();
+        UserDetailsImpl profile = authService.getCurrentPrincipal();
         UUID userId=profile.getId();
         log.info("GET /api/shop-followers/{}/shops/{}/check - Vérification follow", userId, shopId);
         
@@ -71,4 +72,16 @@ public class ShopFollowerController {
         return ResponseEntity.ok(isFollowing);
     }
 
+    /**
+     * Vérifie en une seule requête quelles boutiques d'une liste sont suivies
+     * @param ids IDs des boutiques affichées (200 maximum, 400 au-delà)
+     * @return IDs des boutiques suivies
+     */
+    @GetMapping("/check")
+    public ResponseEntity<List<UUID>> getFollowedShopIds(@RequestParam List<UUID> ids) {
+        UserDetailsImpl profile = authService.getCurrentPrincipal();
+        log.info("GET /api/shop-followers/check - Vérification de {} boutique(s)", ids.size());
+        return ResponseEntity.ok(shopFollowerService.getFollowedShopIds(profile.getId(), ids));
+    }
+
 }
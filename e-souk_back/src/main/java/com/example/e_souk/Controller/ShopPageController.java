@@ -1,12 +1,15 @@
 package com.example.e_souk.Controller;
 
+import com.example.e_souk.Config.UserDetailsImpl;
 import com.example.e_souk.Exception.ShopException;
 import com.example.e_souk.Dto.Product.ProductDTO;
 import com.example.e_souk.Dto.Review.CreateReviewDTO;
 import com.example.e_souk.Dto.Review.ReviewResponseDTO;
+import com.example.e_souk.Dto.Review.ShopReviewPageDTO;
 import com.example.e_souk.Dto.Shop.ShopGeneralDetailsDTO;
-import com.example.e_souk.Dto.Shop.ShopSummaryDTO;
-import com.example.e_souk.Model.User;
+import com.example.e_souk.Dto.Shop.ShopPageDTO;
+import com.example.e_souk.Dto.User.ShopFollowerPageDTO;
+import com.example.e_souk.Model.ReviewSort;
 import com.example.e_souk.Service.AuthService;
 import com.example.e_souk.Service.ShopFollowerService;
 import com.example.e_souk.Service.ShopPageService;
@@ -67,6 +70,20 @@ public class ShopPageController {
             log.warn("API - Boutique non trouvée : {}", e.getMessage());
             throw e;
         }
+    }
+    /**
+     * GET /api/shops/{name}/page - Page boutique complète en un seul appel
+     * 
+     * SÉCURITÉ : Accessible à tous
+     * USAGE : Page détail d'une boutique (détails, produits, avis et compteurs)
+     * 
+     * @param name Name de la boutique
+     * @return page boutique assemblée
+     */
+    @GetMapping("/{name}/page")
+    public ResponseEntity<ShopPageDTO> getShopPage(@PathVariable String name) {
+        log.info("API - Récupération de la page boutique: {}", name);
+        return ResponseEntity.ok(shopPageService.getShopPage(name));
     }
        /**
      * GET /api/{shopName}/products - Récupérer les produits d'une boutique
@@ -82,6 +99,22 @@ public class ShopPageController {
         List<ProductDTO> products = shopPageService.getProductsByShop(shopName);
         return ResponseEntity.ok(products);
     }
+
+    /**
+     * GET /api/shops/{shopName}/popular-products - Produits les plus vendus d'une boutique
+     * 
+     * SÉCURITÉ : Accessible à tous
+     * USAGE : Section "Populaires" de la page boutique
+     * 
+     * @param shopName Name de la boutique
+     * @param limit nombre de produits
+     * @return produits triés par ventes décroissantes
+     */
+    @GetMapping("/{shopName}/popular-products")
+    public ResponseEntity<List<ProductDTO>> getShopPopularProducts(@PathVariable String shopName,
+                                                                   @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(shopPageService.getPopularProductsByShop(shopName, limit));
+    }
  
     /**
      * Post /api/shops/{name} - Ajouter review a un shop
@@ -94,7 +127,7 @@ public class ShopPageController {
     @PostMapping("/{shopName}/review")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<ReviewResponseDTO> createReview(@PathVariable String shopName, @Valid @RequestBody CreateReviewDTO requestDTO) {
-                User profile = authService.getCurrentUser();
+                UserDetailsImpl profile = authService.getCurrentPrincipal();
                 UUID id = profile.getId();
             log.info("Creating review for shop: {}", shopName);
             log.info("pour le user: {}", id);
@@ -109,16 +142,45 @@ public class ShopPageController {
         List<ReviewResponseDTO> reviews = shopPageService.getReviewsByShopName(shopName);
         return ResponseEntity.ok(reviews);
     }
+
+    /**
+     * GET /api/shops/{shopName}/reviews/page - Avis d'une boutique, paginés par curseur
+     * 
+     * SÉCURITÉ : Accessible à tous
+     * USAGE : Section avis de la page boutique (tri, filtre par note, histogramme sur la première page)
+     * 
+     * @param shopName Name de la boutique
+     * @param sort NEWEST, HIGHEST ou LOWEST
+     * @param rating filtre sur la note (1 à 5, optionnel)
+     * @param cursor curseur de la page précédente (absent pour la première page)
+     * @param size taille de la page
+     * @return avis, curseur suivant et résumé des notes
+     */
+    @GetMapping("/{shopName}/reviews/page")
+    public ResponseEntity<ShopReviewPageDTO> getShopReviewPage(@PathVariable String shopName,
+                                                               @RequestParam(defaultValue = "NEWEST") ReviewSort sort,
+                                                               @RequestParam(required = false) Integer rating,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(shopPageService.getReviewPage(shopName, sort, rating, cursor, size));
+    }
     /**
-     * Récupère tous les followers d'une boutique
+     * GET /api/shops/{shopId}/followers - Followers d'une boutique, paginés par curseur
+     * 
+     * SÉCURITÉ : Accessible à tous
+     * USAGE : Liste des abonnés (renvoyer nextCursor pour la page suivante)
+     * 
      * @param shopId ID de la boutique
-     * @return Liste des followers
+     * @param cursor curseur de la page précédente (absent pour la première page)
+     * @param size taille de la page
+     * @return followers, curseur suivant et nombre total de followers
      */
     @GetMapping("/{shopId}/followers")
-    public ResponseEntity<List<ShopSummaryDTO>> getShopFollowers(@PathVariable UUID shopId) {
-        log.info("GET /api/shop-followers/shop/{} - Récupération des followers", shopId);
-        List<ShopSummaryDTO> followers = shopFollowerService.getShopFollowers(shopId);
-        return ResponseEntity.ok(followers);
+    public ResponseEntity<ShopFollowerPageDTO> getShopFollowers(@PathVariable UUID shopId,
+                                                                @RequestParam(required = false) String cursor,
+                                                                @RequestParam(defaultValue = "20") int size) {
+        log.info("GET /api/shops/{}/followers - Récupération des followers", shopId);
+        return ResponseEntity.ok(shopFollowerService.getShopFollowers(shopId, cursor, size));
     }
         
     /**
@@ -133,5 +195,4 @@ public class ShopPageController {
         Long count = shopFollowerService.getShopFollowerCount(shopId);
         return ResponseEntity.ok(count);
     }
-    
-}
\ No newline at end of file
+}
@@ -0,0 +1,220 @@
+package com.example.e_souk.Controller;
+
+import com.example.e_souk.Service.UploadResourceService;
+import com.example.e_souk.Service.UploadResourceService.UploadResource;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * Service des images uploadées
+ *
+ * ROUTES PRINCIPALES :
+ * - GET /uploads/{fichier} : Original ou variante (/uploads/variants/...)
+ *
+ * Réponse écrite directement sur la HttpServletResponse (pas de ResponseEntity) pour
+ * déléguer l'envoi à Tomcat (sendfile) ou à FileChannel.transferTo (stockage local),
+ * ou recopier le flux du stockage distant (S3) :
+ * - ETag fort (empreinte du contenu), If-None-Match → 304
+ * - Range sur une plage d'octets (206 / 416), If-Range
+ * - Cache-Control immutable pour les fichiers adressés par leur empreinte
+ */
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+public class UploadController {
+
+    private static final String PREFIX = "/uploads/";
+
+    // Attributs de requête de Tomcat pour l'envoi par sendfile (connecteur NIO)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String CACHE_IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String CACHE_SUBSTITUTE = "no-cache";
+
+    private final UploadResourceService uploadResourceService;
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    @Value("${file.serving.max-age-seconds:86400}")
+    private long maxAgeSeconds;
+
+    @Value("${file.serving.sendfile-min-size:49152}")
+    private long sendfileMinSize;
+
+    /**
+     * GET /uploads/** - Fichier uploadé
+     *
+     * SÉCURITÉ : Accessible à tous (règle /uploads/** de SecurityConfig)
+     */
+    @RequestMapping(value = "/uploads/**", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String path = urlPathHelper.getPathWithinApplication(request);
+        Optional<UploadResource> found;
+        try {
+            found = path.length() > PREFIX.length()
+                    ? uploadResourceService.find(path.substring(PREFIX.length()))
+                    : Optional.empty();
+        } catch (IllegalArgumentException e) {
+            log.warn("Chemin d'upload refusé: {}", path);
+            found = Optional.empty();
+        }
+        if (found.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        UploadResource resource = found.get();
+
+        response.setHeader(HttpHeaders.ETAG, resource.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, resource.immutable() ? CACHE_IMMUTABLE
+                : resource.substitute() ? CACHE_SUBSTITUTE : "public, max-age=" + maxAgeSeconds);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+
+        if (matchesIfNoneMatch(request.getHeader(HttpHeaders.IF_NONE_MATCH), resource.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long length = resource.length();
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.trim().equals(resource.etag()))) {
+            long[] bounds = parseRange(range, length);
+            if (bounds != null && bounds[0] < 0) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds != null) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentType(MediaTypeFactory.getMediaType(resource.key())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count <= 0) {
+            return;
+        }
+
+        if (resource.file() == null) {
+            try (InputStream in = uploadResourceService.open(resource, start, count)) {
+                in.transferTo(response.getOutputStream());
+            }
+            return;
+        }
+
+        // Envoi par Tomcat (sendfile) après la sortie du contrôleur : aucune copie en espace utilisateur
+        if (count >= sendfileMinSize && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, resource.file().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(resource.file(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    /**
+     * If-None-Match : liste d'ETags ou "*" (comparaison faible, comme le préconise la RFC 9110)
+     */
+    private static boolean matchesIfNoneMatch(String header, String etag) {
+        if (header == null) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Plage d'octets unique : "bytes=a-b", "bytes=a-" ou "bytes=-n"
+     * @return [début, fin] inclus ; [-1, -1] si non satisfiable ; null si ignorée (multi-plages, syntaxe invalide)
+     */
+    private static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                if (last.isEmpty()) {
+                    return null;
+                }
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return new long[]{-1, -1};
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                if (start >= length) {
+                    return new long[]{-1, -1};
+                }
+                long requestedEnd = last.isEmpty() ? length - 1 : Long.parseLong(last);
+                if (requestedEnd < start) {
+                    return null;
+                }
+                end = Math.min(requestedEnd, length - 1);
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
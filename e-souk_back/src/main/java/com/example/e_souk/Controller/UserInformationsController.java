@@ -1,5 +1,6 @@
 package com.example.e_souk.Controller;
 
+import com.example.e_souk.Config.UserDetailsImpl;
 import com.example.e_souk.Controller.CartController.ErrorResponse;
 import com.example.e_souk.Dto.Cart.CartDto;
 import com.example.e_souk.Dto.Commande.UserOrdersDto;
@@ -65,7 +66,7 @@ public class UserInformationsController {
      */
     @GetMapping("/shops")
     public ResponseEntity<List<ShopSummaryDTO>> getUserFollowedShops() {
-        UserProfileDTO profile = authService.getCurrentUserProfile();
+        UserDetailsImpl profile = authService.getCurrentPrincipal();
         UUID userId=profile.getId();
         log.info("GET /api/shop-followers/user/{} - Récupération des boutiques suivies", userId);
         
@@ -80,7 +81,7 @@ public class UserInformationsController {
      */
     @GetMapping("/favoris")
     public ResponseEntity<List<ProductDTO>> getUserFavorites() {
-        UserProfileDTO profile = authService.getCurrentUserProfile();
+        UserDetailsImpl profile = authService.getCurrentPrincipal();
         UUID userId=profile.getId();
         log.info("GET /api/favorites/{} - Récupération des favoris", userId);
         List<ProductDTO> favorites = productFavoriteService.getUserFavorites(userId);
@@ -95,7 +96,7 @@ public class UserInformationsController {
     @GetMapping("/cart")
     public ResponseEntity<?> getCart() {
         try {
-            UserProfileDTO profile = authService.getCurrentUserProfile();
+            UserDetailsImpl profile = authService.getCurrentPrincipal();
             UUID userId = profile.getId();
             CartDto cart = cartService.getCartByUserId(userId);
             
@@ -113,7 +114,7 @@ public class UserInformationsController {
      */
     @GetMapping("/orders")
     public ResponseEntity<UserOrdersDto> getUserOrdersByShop() {
-        UserProfileDTO profile = authService.getCurrentUserProfile();
+        UserDetailsImpl profile = authService.getCurrentPrincipal();
         UUID userId=profile.getId();
         log.info("GET /api/orders/user/{} - Récupération des commandes", userId);
 
@@ -0,0 +1,19 @@
+package com.example.e_souk.Dto.Admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compteurs d'un groupe de limitation de débit (depuis le démarrage)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateLimitStatsDTO {
+    private String group;
+    private Long allowed;
+    private Long rejected;
+    private Long evicted;
+    private Integer trackedKeys;
+}
@@ -0,0 +1,19 @@
+package com.example.e_souk.Dto.Notification;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarkReadRequestDTO {
+    @NotEmpty(message = "La liste des notifications est obligatoire")
+    @Size(max = 500, message = "500 notifications maximum par requête")
+    private List<UUID> ids;
+}
@@ -0,0 +1,24 @@
+package com.example.e_souk.Dto.Notification;
+
+import com.example.e_souk.Model.NotificationType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationDTO {
+    private UUID id;
+    private NotificationType type;
+    private String title;
+    private String message;
+    private String senderName;
+    private String senderPicture;
+    private UUID referenceId;
+    private Boolean isRead;
+    private LocalDateTime createdAt;
+}
@@ -3,6 +3,8 @@ package com.example.e_souk.Dto.Product;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Data
@@ -15,4 +17,10 @@ public class ProductDTO {
     private String picture;
     private String categoryName;
     private String shopName;
+    private Double averageRating;
+    private Long ratingCount;
+    // Nombre d'avis par note, de 1 à 5 étoiles
+    private List<Long> ratingHistogram;
+    // Variantes redimensionnées de picture : largeur (px) → chemin relatif à /uploads/
+    private Map<Integer, String> pictureVariants;
 }
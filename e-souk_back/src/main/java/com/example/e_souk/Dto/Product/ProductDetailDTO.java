@@ -45,6 +45,11 @@ public class ProductDetailDTO {
      */
     private String picture;
     
+    /**
+     * Variantes redimensionnées de l'image : largeur (px) → chemin relatif à /uploads/
+     */
+    private Map<Integer, String> pictureVariants;
+    
     /**
      * Nom de la boutique
      */
@@ -2,6 +2,7 @@ package com.example.e_souk.Dto.Product;
 
 import lombok.Data;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Data
@@ -10,6 +11,8 @@ public class ProductResponseDTO {
     private String name;
     private String description;
     private String picture;
+    // Variantes redimensionnées de picture : largeur (px) → chemin relatif à /uploads/
+    private Map<Integer, String> pictureVariants;
     private boolean isActive;
     private CategorySummaryDTO category;
     private ShopSummaryDTO shop;
@@ -6,6 +6,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.UUID;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,4 +19,6 @@ public class CreateReviewDTO {
     @Max(5)
     private Integer rating;
     private ReviewType reviewType;
+    // Produit évalué (obligatoire si reviewType = PRODUCT)
+    private UUID productId;
 }
\ No newline at end of file
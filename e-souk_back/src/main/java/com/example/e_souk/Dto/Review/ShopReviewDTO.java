@@ -0,0 +1,25 @@
+package com.example.e_souk.Dto.Review;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Avis affiché sur la page boutique (projection : pas de boutique ni de produit)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShopReviewDTO {
+    private UUID id;
+    private Integer rating;
+    private String comment;
+    private String authorName;
+    private String authorPicture;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,27 @@
+package com.example.e_souk.Dto.Review;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Page d'avis d'une boutique
+ * nextCursor est à renvoyer tel quel pour la page suivante (null s'il n'y en a plus)
+ * Le résumé des notes (nombre, moyenne, histogramme) n'est renseigné que sur la première page
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShopReviewPageDTO {
+    private List<ShopReviewDTO> items = new ArrayList<>();
+    private String nextCursor;
+    private Long ratingCount;
+    private Double averageRating;
+    /**
+     * index 0 = nombre de notes 1, ..., index 4 = nombre de notes 5
+     */
+    private List<Long> ratingHistogram;
+}
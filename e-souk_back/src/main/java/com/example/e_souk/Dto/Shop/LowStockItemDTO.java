@@ -0,0 +1,24 @@
+package com.example.e_souk.Dto.Shop;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Variante en stock faible (écran d'inventaire du vendeur)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowStockItemDTO {
+    private UUID variantId;
+    private String sku;
+    private UUID productId;
+    private String productName;
+    private Integer stock;
+    private Boolean outOfStock;
+    private LocalDateTime detectedAt;
+}
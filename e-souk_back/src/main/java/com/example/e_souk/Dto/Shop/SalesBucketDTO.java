@@ -0,0 +1,21 @@
+package com.example.e_souk.Dto.Shop;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ventes d'une boutique sur une période (jour ou heure)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesBucketDTO {
+    private LocalDateTime bucketStart;
+    private Double revenue;
+    private Long orderCount;
+    private Long unitsSold;
+    private Double averageBasket;
+}
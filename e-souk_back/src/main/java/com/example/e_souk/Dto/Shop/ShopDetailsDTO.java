@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import com.example.e_souk.Dto.Product.ProductDTO;
@@ -28,4 +29,6 @@ public class ShopDetailsDTO {
     private List<ProductDTO> products;
     private Long orderCount;
     private Long followerCount;
+    // Variantes redimensionnées du logo : largeur (px) → chemin relatif à /uploads/
+    private Map<Integer, String> logoVariants;
 }
@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -25,5 +26,7 @@ public class ShopGeneralDetailsDTO {
     private String phone;
         private String instagramLink;
     private String facebookLink;
+    // Variantes redimensionnées du logo : largeur (px) → chemin relatif à /uploads/
+    private Map<Integer, String> logoVariants;
 
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.example.e_souk.Dto.Shop;
+
+import com.example.e_souk.Dto.Product.ProductDTO;
+import com.example.e_souk.Dto.Review.ReviewResponseDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Page boutique complète en une seule réponse
+ * Remplace les appels séparés /{name}, /{name}/products, /{name}/popular-products, /{name}/reviews
+ * et /{shopId}/followers-count
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShopPageDTO {
+    private ShopGeneralDetailsDTO shop;
+    private List<ProductDTO> products = new ArrayList<>();
+    // Produits les plus vendus (section "Populaires")
+    private List<ProductDTO> popularProducts = new ArrayList<>();
+    private List<ReviewResponseDTO> reviews = new ArrayList<>();
+    private Long followerCount;
+    private Long orderCount;
+    private Double averageRating;
+    private Long ratingCount;
+    // Nombre d'avis par note, de 1 à 5 étoiles
+    private List<Long> ratingHistogram;
+    // Sections non chargées à temps (délai dépassé ou erreur) : le front peut les recharger séparément
+    private List<String> incompleteSections = new ArrayList<>();
+}
@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.UUID;
 
 @Data
@@ -31,4 +32,6 @@ public class ShopResponseDTO {
     private Long productCount;
     private Long orderCount;
     private Long followerCount;
+    // Variantes redimensionnées du logo : largeur (px) → chemin relatif à /uploads/
+    private Map<Integer, String> logoVariants;
 }
@@ -5,6 +5,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Data
@@ -20,5 +22,11 @@ public class ShopSummaryDTO {
     private String address;
     private Long productCount;
     private Long followerCount;
+    private Double averageRating;
+    private Long ratingCount;
+    // Nombre d'avis par note, de 1 à 5 étoiles
+    private List<Long> ratingHistogram;
+    // Variantes redimensionnées du logo : largeur (px) → chemin relatif à /uploads/
+    private Map<Integer, String> logoVariants;
 }
    
\ No newline at end of file
@@ -23,4 +23,8 @@ public class UpdateShopRequestDTO {
     private String address;
 
     private Boolean isActive;
+
+    @Min(value = 0, message = "Le seuil de stock faible ne peut pas être négatif")
+    @Max(value = 1000, message = "Le seuil de stock faible ne peut pas dépasser 1000")
+    private Integer lowStockThreshold;
 }
@@ -1,25 +1,24 @@
-// package com.example.e_souk.Dto.User;
+package com.example.e_souk.Dto.User;
 
-// import lombok.AllArgsConstructor;
-// import lombok.Builder;
-// import lombok.Data;
-// import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 
-// import java.time.LocalDateTime;
-// import java.util.UUID;
+import java.time.LocalDateTime;
+import java.util.UUID;
 
-// /**
-//  * DTO pour représenter un follower de boutique
-//  */
-// @Data
-// @Builder
-// @NoArgsConstructor
-// @AllArgsConstructor
-// public class ShopFollowerDTO {
+/**
+ * DTO pour représenter un follower de boutique
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShopFollowerDTO {
     
-//     private UUID id;
-//     private String userName;
-//     private String userPicture;
-//     private String shopBrandName;
-//     private LocalDateTime followedAt;
-// }
+    private UUID id;
+    private String userName;
+    private String userPicture;
+    private LocalDateTime followedAt;
+}
@@ -0,0 +1,21 @@
+package com.example.e_souk.Dto.User;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Page de followers d'une boutique
+ * nextCursor est à renvoyer tel quel pour la page suivante (null s'il n'y en a plus)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShopFollowerPageDTO {
+    private List<ShopFollowerDTO> items = new ArrayList<>();
+    private String nextCursor;
+    private Long totalCount;
+}
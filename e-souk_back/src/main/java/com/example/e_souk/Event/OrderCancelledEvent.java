@@ -0,0 +1,30 @@
+package com.example.e_souk.Event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Événement publié quand une commande passe à l'état Annulee
+ * createdAt est la date de création de la commande (pour retirer la vente de la bonne période)
+ */
+@Getter
+@AllArgsConstructor
+public class OrderCancelledEvent {
+    private final UUID orderId;
+    private final UUID shopId;
+    private final double total;
+    private final LocalDateTime createdAt;
+    private final List<OrderLine> lines;
+
+    /**
+     * Nombre total d'articles annulés
+     * @return somme des quantités
+     */
+    public long getUnits() {
+        return lines.stream().mapToLong(OrderLine::getQuantity).sum();
+    }
+}
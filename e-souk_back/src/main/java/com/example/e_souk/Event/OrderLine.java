@@ -0,0 +1,17 @@
+package com.example.e_souk.Event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Ligne d'une commande transportée par les événements de commande
+ */
+@Getter
+@AllArgsConstructor
+public class OrderLine {
+    private final UUID variantId;
+    private final UUID productId;
+    private final int quantity;
+}
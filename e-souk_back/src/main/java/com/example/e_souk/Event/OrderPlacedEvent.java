@@ -0,0 +1,29 @@
+package com.example.e_souk.Event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Événement publié quand une commande est passée auprès d'une boutique
+ */
+@Getter
+@AllArgsConstructor
+public class OrderPlacedEvent {
+    private final UUID orderId;
+    private final UUID shopId;
+    private final double total;
+    private final LocalDateTime createdAt;
+    private final List<OrderLine> lines;
+
+    /**
+     * Nombre total d'articles commandés
+     * @return somme des quantités
+     */
+    public long getUnits() {
+        return lines.stream().mapToLong(OrderLine::getQuantity).sum();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.e_souk.Event;
+
+import com.example.e_souk.Model.EtatCommande;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Événement publié quand une commande change d'état (mise à jour vendeur ou annulation)
+ * Sert à tenir les compteurs de commandes en attente / livrées sans relire les commandes
+ */
+@Getter
+@AllArgsConstructor
+public class OrderStatusChangedEvent {
+    private final UUID orderId;
+    private final UUID shopId;
+    private final EtatCommande previous;
+    private final EtatCommande current;
+}
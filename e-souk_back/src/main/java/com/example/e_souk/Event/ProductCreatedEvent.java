@@ -0,0 +1,16 @@
+package com.example.e_souk.Event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Événement publié quand un produit est ajouté à une boutique
+ */
+@Getter
+@AllArgsConstructor
+public class ProductCreatedEvent {
+    private final UUID productId;
+    private final UUID shopId;
+}
@@ -0,0 +1,16 @@
+package com.example.e_souk.Event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Événement publié quand un utilisateur retire un produit de ses favoris
+ */
+@Getter
+@AllArgsConstructor
+public class ProductUnfavoritedEvent {
+    private final UUID productId;
+    private final UUID userId;
+}
@@ -0,0 +1,20 @@
+package com.example.e_souk.Event;
+
+import com.example.e_souk.Model.ReviewType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Événement publié quand un avis est ajouté (sur une boutique ou un produit)
+ */
+@Getter
+@AllArgsConstructor
+public class ReviewCreatedEvent {
+    private final UUID reviewId;
+    private final ReviewType type;
+    private final UUID shopId;
+    private final UUID productId;
+    private final int rating;
+}
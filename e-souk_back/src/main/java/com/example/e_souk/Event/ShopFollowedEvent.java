@@ -0,0 +1,16 @@
+package com.example.e_souk.Event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Événement publié quand un utilisateur commence à suivre une boutique
+ */
+@Getter
+@AllArgsConstructor
+public class ShopFollowedEvent {
+    private final UUID shopId;
+    private final UUID userId;
+}
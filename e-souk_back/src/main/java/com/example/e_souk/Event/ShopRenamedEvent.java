@@ -0,0 +1,17 @@
+package com.example.e_souk.Event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Événement publié quand une boutique change de nom de marque
+ */
+@Getter
+@AllArgsConstructor
+public class ShopRenamedEvent {
+    private final UUID shopId;
+    private final String oldBrandName;
+    private final String newBrandName;
+}
@@ -0,0 +1,16 @@
+package com.example.e_souk.Event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Événement publié quand une boutique est créée, activée ou désactivée
+ */
+@Getter
+@AllArgsConstructor
+public class ShopStatusChangedEvent {
+    private final UUID shopId;
+    private final boolean active;
+}
@@ -0,0 +1,11 @@
+package com.example.e_souk.Event;
+
+/**
+ * Événement publié au démarrage, une fois le contexte prêt mais avant l'ouverture du port HTTP
+ * (voir StartupBackfillLifecycle)
+ *
+ * Les initialisations qui déduisent leur état des tables (table vide = premier démarrage,
+ * colonnes à null = ligne antérieure) l'écoutent : aucune requête ne peut écrire avant elles.
+ */
+public class StartupBackfillEvent {
+}
@@ -0,0 +1,27 @@
+package com.example.e_souk.Event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Événement publié quand le stock d'une variante passe au seuil de stock faible
+ * de sa boutique (ou en dessous), ou tombe à 0
+ */
+@Getter
+@AllArgsConstructor
+public class StockThresholdCrossedEvent {
+    private final UUID variantId;
+    private final UUID productId;
+    private final UUID shopId;
+    private final int stock;
+    private final int threshold;
+
+    /**
+     * @return true si la variante est en rupture
+     */
+    public boolean isOutOfStock() {
+        return stock <= 0;
+    }
+}
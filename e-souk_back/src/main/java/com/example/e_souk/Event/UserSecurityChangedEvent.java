@@ -0,0 +1,19 @@
+package com.example.e_souk.Event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Événement publié quand une donnée de sécurité d'un compte change
+ * (rôle, mot de passe, compte actif/inactif, nom d'utilisateur, suppression)
+ * previousUsername est renseigné seulement si le nom d'utilisateur a changé
+ */
+@Getter
+@AllArgsConstructor
+public class UserSecurityChangedEvent {
+    private final UUID userId;
+    private final String username;
+    private final String previousUsername;
+}
@@ -0,0 +1,26 @@
+package com.example.e_souk.Exception;
+
+import java.util.UUID;
+
+/**
+ * Exception levée quand le stock d'une variante ne couvre pas la quantité commandée (HTTP 409)
+ */
+public class InsufficientStockException extends RuntimeException {
+    
+    private final UUID variantId;
+    private final int requested;
+    
+    public InsufficientStockException(UUID variantId, int requested) {
+        super(String.format("Stock insuffisant pour la variante %s (quantité demandée: %d)", variantId, requested));
+        this.variantId = variantId;
+        this.requested = requested;
+    }
+    
+    public UUID getVariantId() {
+        return variantId;
+    }
+    
+    public int getRequested() {
+        return requested;
+    }
+}
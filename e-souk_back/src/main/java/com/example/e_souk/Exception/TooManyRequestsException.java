@@ -0,0 +1,21 @@
+package com.example.e_souk.Exception;
+
+/**
+ * Exception levée quand une requête est refusée par limitation de débit ou saturation (HTTP 429)
+ */
+public class TooManyRequestsException extends RuntimeException {
+    
+    /**
+     * Délai conseillé avant de réessayer (en secondes), renvoyé dans l'en-tête Retry-After
+     */
+    private final long retryAfterSeconds;
+    
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.e_souk.Mappers;
+
+import com.example.e_souk.Dto.Notification.NotificationDTO;
+import com.example.e_souk.Model.Notification;
+
+public class NotificationMapper {
+    public static NotificationDTO toDTO(Notification notification) {
+        NotificationDTO dto = new NotificationDTO();
+        dto.setId(notification.getId());
+        dto.setType(notification.getType());
+        dto.setTitle(notification.getTitle());
+        dto.setMessage(notification.getMessage());
+        dto.setSenderName(notification.getSenderName());
+        dto.setSenderPicture(notification.getSenderPicture());
+        dto.setReferenceId(notification.getReferenceId());
+        dto.setIsRead(notification.getIsRead());
+        dto.setCreatedAt(notification.getCreatedAt());
+        return dto;
+    }
+}
@@ -7,6 +7,7 @@ import java.util.List;
 import com.example.e_souk.Dto.Product.ProductDTO;
 import com.example.e_souk.Dto.Product.ProductResponseDTO;
 import com.example.e_souk.Model.Product;
+import com.example.e_souk.Service.ImageVariants;
 
 public class ProductMapper {
     public static ProductDTO toProductDetails(Product product) {
@@ -17,7 +18,13 @@ public class ProductMapper {
         details.setPrice(product.getPrice());
         details.setCategoryName(product.getCategory().getName());
         details.setPicture(product.getPicture());
+        details.setPictureVariants(ImageVariants.paths(product.getPicture()));
         details.setShopName(product.getShop().getBrandName());
+        if (product.getRatings() != null) {
+            details.setAverageRating(product.getRatings().getAverageRating());
+            details.setRatingCount(product.getRatings().getRatingCount());
+            details.setRatingHistogram(product.getRatings().getHistogram());
+        }
         return details;
     }
     public static ProductResponseDTO toProductResponseDTO(Product product) {
@@ -26,6 +33,7 @@ public class ProductMapper {
 		dto.setName(product.getName());
 		dto.setDescription(product.getDescription());
 		dto.setPicture(product.getPicture());
+		dto.setPictureVariants(ImageVariants.paths(product.getPicture()));
 		dto.setPrice(product.getPrice());
 		ProductResponseDTO.CategorySummaryDTO catDto = new ProductResponseDTO.CategorySummaryDTO();
 		catDto.setId(product.getCategory().getId());
@@ -7,7 +7,12 @@ public class ReviewMapper {
     public static ReviewResponseDTO toResponseDTO(Review review) {
         ReviewResponseDTO dto = new ReviewResponseDTO();
         dto.setId(review.getId());
-        dto.setShopName(review.getShop().getBrandName());
+        // Un avis produit n'a pas de boutique directe : on passe par le produit
+        if (review.getShop() != null) {
+            dto.setShopName(review.getShop().getBrandName());
+        } else if (review.getProduct() != null) {
+            dto.setShopName(review.getProduct().getShop().getBrandName());
+        }
         dto.setContent(review.getComment());
         dto.setAuthor(review.getUser().getUsername());
         dto.setRating(review.getRating());
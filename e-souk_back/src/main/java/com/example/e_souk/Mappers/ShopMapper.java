@@ -10,9 +10,11 @@ import com.example.e_souk.Dto.Shop.ShopOwnerDTO;
 import com.example.e_souk.Dto.Shop.ShopResponseDTO;
 import com.example.e_souk.Dto.Shop.ShopSummaryDTO;
 import com.example.e_souk.Model.Shop;
+import com.example.e_souk.Model.ShopStats;
+import com.example.e_souk.Service.ImageVariants;
 
 public class ShopMapper {
-    public static ShopResponseDTO toResponseDTO(Shop shop, long productCount, long orderCount, long followerCount) {
+    public static ShopResponseDTO toResponseDTO(Shop shop, ShopStats stats) {
         ShopOwnerDTO ownerDTO = new ShopOwnerDTO(
                 shop.getOwner().getId(),
                 shop.getOwner().getUsername(),
@@ -34,13 +36,14 @@ public class ShopMapper {
                 shop.getFacebookLink(),
                 shop.getPhone(),
                 ownerDTO,
-                productCount,
-                orderCount,
-                followerCount
+                stats.getProductCount(),
+                stats.getOrderCount(),
+                stats.getFollowerCount(),
+                ImageVariants.paths(shop.getLogoPicture())
         );
     }
 
-    public static ShopDetailsDTO toShopDetails(Shop shop, long orderCount, long followerCount) {
+    public static ShopDetailsDTO toShopDetails(Shop shop, ShopStats stats) {
         ShopOwnerDTO ownerDTO = new ShopOwnerDTO(
                 shop.getOwner().getId(),
                 shop.getOwner().getUsername(),
@@ -62,12 +65,13 @@ public class ShopMapper {
                 ownerDTO.getUsername(),
                 ownerDTO.getPicture(),
                 productDetails,
-                orderCount,
-                followerCount
+                stats.getOrderCount(),
+                stats.getFollowerCount(),
+                ImageVariants.paths(shop.getLogoPicture())
         );
     }
 
-    public static ShopSummaryDTO toSummaryDTO(Shop shop, long productCount, long followerCount) {
+    public static ShopSummaryDTO toSummaryDTO(Shop shop, ShopStats stats) {
         return new ShopSummaryDTO(
                 shop.getId(),
                 shop.getBrandName(),
@@ -76,12 +80,16 @@ public class ShopMapper {
                 shop.getOwner().getUsername(),
                 shop.getCategoryName(),
                 shop.getAddress(),
-                productCount,
-                followerCount
+                stats.getProductCount(),
+                stats.getFollowerCount(),
+                stats.getAverageRating(),
+                stats.getRatings().getRatingCount(),
+                stats.getRatings().getHistogram(),
+                ImageVariants.paths(shop.getLogoPicture())
         );
     }
 
-    public static ShopGeneralDetailsDTO toShopDetailsDTO(Shop shop, long productCount, long followerCount) {
+    public static ShopGeneralDetailsDTO toShopDetailsDTO(Shop shop, ShopStats stats) {
         return new ShopGeneralDetailsDTO(
                 shop.getBrandName(),
                 shop.getBio(),
@@ -92,12 +100,13 @@ public class ShopMapper {
                 shop.getCreatedAt(),
                 shop.getOwner().getUsername(),
                 shop.getOwner().getPicture(),
-                productCount,
-                followerCount,
+                stats.getProductCount(),
+                stats.getFollowerCount(),
                 shop.getCategoryName(),
                 shop.getPhone(),
                 shop.getInstagramLink(),
-                shop.getFacebookLink()
+                shop.getFacebookLink(),
+                ImageVariants.paths(shop.getLogoPicture())
         );
     }
 
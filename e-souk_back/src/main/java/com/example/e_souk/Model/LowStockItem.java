@@ -0,0 +1,59 @@
+package com.example.e_souk.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Variante en stock faible ou en rupture (table low_stock_items)
+ * Ensemble tenu à jour par StockService à chaque mouvement de stock :
+ * une ligne par variante dont le stock est inférieur ou égal au seuil de sa boutique
+ */
+@Entity
+@Table(name = "low_stock_items", indexes = {
+    @Index(name = "idx_low_stock_items_shop_stock", columnList = "shop_id, stock")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LowStockItem {
+
+    /**
+     * Identifiant de la variante
+     */
+    @Id
+    @Column(name = "variant_id")
+    private UUID variantId;
+
+    @Column(name = "product_id", nullable = false)
+    private UUID productId;
+
+    @Column(name = "shop_id", nullable = false)
+    private UUID shopId;
+
+    /**
+     * Stock au dernier mouvement
+     */
+    @Column(name = "stock", nullable = false)
+    private Integer stock;
+
+    /**
+     * Date à laquelle la variante est passée sous le seuil
+     */
+    @Column(name = "detected_at", nullable = false)
+    private LocalDateTime detectedAt;
+
+    /**
+     * Indique si la variante est en rupture
+     * @return true si le stock est à 0
+     */
+    public boolean isOutOfStock() {
+        return stock != null && stock <= 0;
+    }
+}
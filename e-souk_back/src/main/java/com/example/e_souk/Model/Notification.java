@@ -19,7 +19,9 @@ import java.util.UUID;
  * Permet d'envoyer des notifications aux utilisateurs pour différents événements
  */
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+    @Index(name = "idx_notifications_user_created", columnList = "user_id, created_at DESC, id DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -82,8 +84,16 @@ public class Notification {
      * Permet de gérer l'état de lecture des notifications
      */
     @Column(name = "is_read", nullable = false)
+    @Builder.Default
     private Boolean isRead = false;
     
+    /**
+     * Identifiant de l'objet concerné (produit, commande...)
+     * Permet au front de construire le lien de la notification
+     */
+    @Column(name = "reference_id")
+    private UUID referenceId;
+    
     /**
      * Date de création de la notification
      * Remplie automatiquement par Spring Data JPA
@@ -237,6 +247,8 @@ public class Notification {
                 return "Commande expédiée";
             case CommandeLivree:
                 return "Commande livrée";
+            case NouveauProduitBoutiqueSuivie:
+                return "Nouveau produit d'une boutique suivie";
             default:
                 return "Notification";
         }
@@ -260,6 +272,8 @@ public class Notification {
                 return "🚚";
             case CommandeLivree:
                 return "✅";
+            case NouveauProduitBoutiqueSuivie:
+                return "🆕";
             default:
                 return "📢";
         }
@@ -0,0 +1,30 @@
+package com.example.e_souk.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Compteur de notifications non lues d'un utilisateur (table notification_counters)
+ * Mis à jour à l'insertion et à la lecture, évite un COUNT(*) à chaque affichage du badge
+ */
+@Entity
+@Table(name = "notification_counters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationCounter {
+
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "unread_count", nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long unreadCount = 0L;
+}
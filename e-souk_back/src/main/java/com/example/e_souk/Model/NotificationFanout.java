@@ -0,0 +1,76 @@
+package com.example.e_souk.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Diffusion d'une notification aux abonnés d'une boutique (table notification_fanouts)
+ * Sert de point de reprise : le dernier abonné traité est enregistré après chaque lot,
+ * dans la même transaction que les notifications insérées
+ */
+@Entity
+@Table(name = "notification_fanouts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationFanout {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "shop_id", nullable = false)
+    private UUID shopId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 30)
+    private NotificationType type;
+
+    /**
+     * Contenu copié dans chaque notification
+     */
+    @Column(name = "title", nullable = false, length = 100)
+    private String title;
+
+    @Column(name = "message", columnDefinition = "TEXT")
+    private String message;
+
+    @Column(name = "sender_name", length = 100)
+    private String senderName;
+
+    @Column(name = "sender_picture", length = 255)
+    private String senderPicture;
+
+    @Column(name = "reference_id")
+    private UUID referenceId;
+
+    /**
+     * ID (shop_followers.id) du dernier abonné notifié : reprise par keyset après ce point
+     */
+    @Column(name = "last_follower_id")
+    private UUID lastFollowerId;
+
+    /**
+     * Nombre de notifications déjà insérées
+     */
+    @Column(name = "sent_count", nullable = false)
+    @Builder.Default
+    private Long sentCount = 0L;
+
+    @Column(name = "completed", nullable = false)
+    @Builder.Default
+    private Boolean completed = false;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
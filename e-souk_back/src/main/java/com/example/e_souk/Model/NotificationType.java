@@ -33,5 +33,10 @@ public enum NotificationType {
     /**
      * Notification envoyée au client quand sa commande est livrée
      */
-    CommandeLivree
+    CommandeLivree,
+    
+    /**
+     * Notification envoyée aux abonnés d'une boutique quand elle ajoute un produit
+     */
+    NouveauProduitBoutiqueSuivie
 } 
\ No newline at end of file
@@ -137,22 +137,23 @@ public class Product {
      */
     @OneToMany(mappedBy = "product", cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
     private List<Review> reviews = new ArrayList<>();
+
+    /**
+     * Agrégat des notes du produit (nombre, somme, histogramme)
+     * Maintenu à chaque nouvel avis : évite de charger la collection reviews
+     */
+    @Embedded
+    @Builder.Default
+    private RatingAggregate ratings = new RatingAggregate();
     
     // ==================== MÉTHODES MÉTIER ====================
     
     /**
-     * Calcule la note moyenne du produit basée sur tous les avis
+     * Calcule la note moyenne du produit à partir de l'agrégat des notes
      * @return Note moyenne ou 0.0 si aucun avis
      */
     public Double getAverageRating() {
-        if (reviews == null || reviews.isEmpty()) {
-            return 0.0;
-        }
-        
-        return reviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
+        return ratings != null ? ratings.getAverageRating() : 0.0;
     }
     
     /**
@@ -199,10 +200,6 @@ public class Product {
      * @return Nombre total d'avis
      */
     public Long getReviewsCount() {
-        if (reviews == null) {
-            return 0L;
-        }
-        
-        return (long) reviews.size();
+        return ratings != null ? ratings.getRatingCount() : 0L;
     }
 } 
\ No newline at end of file
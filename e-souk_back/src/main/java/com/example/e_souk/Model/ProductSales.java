@@ -0,0 +1,50 @@
+package com.example.e_souk.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Compteur de ventes d'un produit (table product_sales)
+ * Tenu à part de la table products pour que les mises à jour par delta
+ * ne soient pas écrasées par la sauvegarde d'un produit chargé avant
+ */
+@Entity
+@Table(name = "product_sales", indexes = {
+    @Index(name = "idx_product_sales_shop_units", columnList = "shop_id, units_sold DESC"),
+    @Index(name = "idx_product_sales_units", columnList = "units_sold DESC")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSales {
+
+    /**
+     * Identifiant du produit (une ligne par produit vendu au moins une fois)
+     */
+    @Id
+    @Column(name = "product_id")
+    private UUID productId;
+
+    /**
+     * Boutique du produit (dénormalisée pour le classement par boutique)
+     */
+    @Column(name = "shop_id", nullable = false)
+    private UUID shopId;
+
+    /**
+     * Nombre d'unités vendues (commandes annulées déduites)
+     */
+    @Column(name = "units_sold", nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long unitsSold = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,87 @@
+package com.example.e_souk.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Agrégat des notes d'une boutique ou d'un produit
+ * Maintenu de façon incrémentale à chaque création d'avis (voir RatingService)
+ * Permet d'afficher moyenne et histogramme sans relire les avis
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RatingAggregate {
+
+    /**
+     * Nombre d'avis
+     */
+    @Column(name = "rating_count", nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long ratingCount = 0L;
+
+    /**
+     * Somme des notes
+     */
+    @Column(name = "rating_sum", nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long ratingSum = 0L;
+
+    /**
+     * Histogramme : nombre d'avis pour chaque note de 1 à 5
+     */
+    @Column(name = "rating_1", nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long rating1 = 0L;
+
+    @Column(name = "rating_2", nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long rating2 = 0L;
+
+    @Column(name = "rating_3", nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long rating3 = 0L;
+
+    @Column(name = "rating_4", nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long rating4 = 0L;
+
+    @Column(name = "rating_5", nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long rating5 = 0L;
+
+    /**
+     * Calcule la note moyenne
+     * @return Note moyenne ou 0.0 si aucun avis
+     */
+    public Double getAverageRating() {
+        if (ratingCount == null || ratingCount == 0) {
+            return 0.0;
+        }
+        return (double) ratingSum / ratingCount;
+    }
+
+    /**
+     * Retourne l'histogramme des notes
+     * @return Liste de 5 valeurs : index 0 = nombre de notes 1, ..., index 4 = nombre de notes 5
+     */
+    public List<Long> getHistogram() {
+        return List.of(rating1, rating2, rating3, rating4, rating5);
+    }
+
+    /**
+     * Copie détachée de l'agrégat
+     * @return nouvelle instance avec les mêmes valeurs
+     */
+    public RatingAggregate copy() {
+        return new RatingAggregate(ratingCount, ratingSum, rating1, rating2, rating3, rating4, rating5);
+    }
+}
@@ -18,7 +18,10 @@ import java.util.UUID;
  * Peut être un avis sur une boutique ou sur un produit spécifique
  */
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+    @Index(name = "idx_reviews_shop_created", columnList = "shop_id, created_at DESC, id DESC"),
+    @Index(name = "idx_reviews_shop_rating_created", columnList = "shop_id, rating, created_at DESC, id DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
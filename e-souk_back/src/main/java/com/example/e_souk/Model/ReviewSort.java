@@ -0,0 +1,21 @@
+package com.example.e_souk.Model;
+
+/**
+ * Ordre d'affichage des avis d'une boutique
+ */
+public enum ReviewSort {
+    /**
+     * Plus récents d'abord
+     */
+    NEWEST,
+
+    /**
+     * Meilleures notes d'abord (puis plus récents)
+     */
+    HIGHEST,
+
+    /**
+     * Moins bonnes notes d'abord (puis plus récents)
+     */
+    LOWEST
+}
@@ -0,0 +1,16 @@
+package com.example.e_souk.Model;
+
+/**
+ * Granularité des agrégats de ventes (ShopSalesRollup)
+ */
+public enum SalesGranularity {
+    /**
+     * Agrégat par jour (conservé sans limite)
+     */
+    DAY,
+
+    /**
+     * Agrégat par heure (conservé quelques jours seulement)
+     */
+    HOUR
+}
@@ -1,6 +1,7 @@
 package com.example.e_souk.Model;
 
 import jakarta.persistence.*;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -97,6 +98,15 @@ public class Shop {
     @Column(name = "instagramLink")
     private String instagramLink;
 
+    /**
+     * Seuil de stock faible de la boutique
+     * Une variante dont le stock passe à ce seuil ou en dessous déclenche une alerte
+     */
+    @Column(name = "low_stock_threshold", nullable = false, columnDefinition = "integer default 5")
+    @Min(value = 0, message = "Le seuil de stock faible ne peut pas être négatif")
+    @Builder.Default
+    private Integer lowStockThreshold = 5;
+
     /**
      * Date de création de la boutique
      * Remplie automatiquement par Spring Data JPA
@@ -146,6 +156,8 @@ public class Shop {
     
     /**
      * Avis reçus par cette boutique
+     * La note moyenne n'est pas recalculée ici : elle est matérialisée dans ShopStats
+     * (ShopStatsService.getCounters(shopId).getAverageRating())
      * Relation OneToMany : une boutique peut recevoir plusieurs avis
      * Cascade PERSIST : si on sauvegarde une boutique, ses avis sont aussi sauvegardés
      * Fetch LAZY : on ne charge les avis que si nécessaire
@@ -175,33 +187,6 @@ public class Shop {
                 .toList();
     }
     
-    /**
-     * Récupère les produits populaires de la boutique
-     * @return Liste des produits les plus vendus
-     */
-    public List<Product> getPopularProducts() {
-        // Cette méthode sera implémentée avec la logique de calcul de popularité
-        return products.stream()
-                .filter(Product::getIsActive)
-                .limit(10) // Limite à 10 produits populaires
-                .toList();
-    }
-    
-    /**
-     * Calcule la note moyenne de la boutique
-     * @return Note moyenne basée sur tous les avis
-     */
-    public Double getAverageRating() {
-        if (reviews == null || reviews.isEmpty()) {
-            return 0.0;
-        }
-        
-        return reviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
-    }
-    
     /**
      * Compte le nombre total de produits actifs
      * @return Nombre de produits actifs dans la boutique
@@ -17,7 +17,10 @@ import java.util.UUID;
  * Table de liaison entre User et Shop pour gérer les abonnements
  */
 @Entity
-@Table(name = "shop_followers")
+@Table(name = "shop_followers", indexes = {
+    @Index(name = "idx_shop_followers_shop_id", columnList = "shop_id, id"),
+    @Index(name = "idx_shop_followers_shop_followed", columnList = "shop_id, followed_at DESC, id DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
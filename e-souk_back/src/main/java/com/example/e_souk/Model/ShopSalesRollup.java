@@ -0,0 +1,53 @@
+package com.example.e_souk.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Agrégat des ventes d'une boutique sur une période (jour ou heure)
+ * Mis à jour par deltas à chaque commande passée ou annulée (voir SalesRollupService)
+ * Les commandes annulées sont retirées de la période où elles avaient été passées
+ */
+@Entity
+@Table(name = "shop_sales_rollups")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShopSalesRollup {
+
+    @EmbeddedId
+    private ShopSalesRollupId id;
+
+    /**
+     * Chiffre d'affaires de la période (total des commandes, frais de livraison inclus)
+     */
+    @Column(name = "revenue", nullable = false, columnDefinition = "double precision default 0")
+    @Builder.Default
+    private Double revenue = 0.0;
+
+    /**
+     * Nombre de commandes de la période
+     */
+    @Column(name = "order_count", nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long orderCount = 0L;
+
+    /**
+     * Nombre d'articles vendus sur la période
+     */
+    @Column(name = "units_sold", nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long unitsSold = 0L;
+
+    /**
+     * Panier moyen de la période
+     * @return chiffre d'affaires / nombre de commandes, ou 0 si aucune commande
+     */
+    public Double getAverageBasket() {
+        return orderCount == null || orderCount == 0 ? 0.0 : revenue / orderCount;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.e_souk.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Compteurs matérialisés d'une boutique (table shop_stats)
+ * Évite de relancer des COUNT(*) à chaque construction d'un DTO de boutique
+ * Les valeurs sont mises à jour par deltas via ShopStatsService
+ */
+@Entity
+@Table(name = "shop_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShopStats {
+
+    /**
+     * Identifiant de la boutique (une ligne par boutique)
+     */
+    @Id
+    @Column(name = "shop_id")
+    private UUID shopId;
+
+    /**
+     * Nombre de produits de la boutique
+     */
+    @Column(name = "product_count", nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long productCount = 0L;
+
+    /**
+     * Nombre de commandes reçues par la boutique
+     */
+    @Column(name = "order_count", nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long orderCount = 0L;
+
+    /**
+     * Nombre d'abonnés de la boutique
+     */
+    @Column(name = "follower_count", nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long followerCount = 0L;
+
+    /**
+     * Nombre de produits actifs
+     * Colonnes sans valeur par défaut : null sur une ligne antérieure, jusqu'à son
+     * initialisation au démarrage (ShopStatsService.initializeMissingStats)
+     * Un default 0 remplirait les lignes existantes à l'ajout de la colonne et masquerait ce null :
+     * chaque INSERT natif doit donc fournir ces trois colonnes (applyDeltas, addRating, initializeMissing)
+     */
+    @Column(name = "active_product_count")
+    @Builder.Default
+    private Long activeProductCount = 0L;
+
+    /**
+     * Nombre de commandes en attente ou en cours
+     */
+    @Column(name = "pending_order_count")
+    @Builder.Default
+    private Long pendingOrderCount = 0L;
+
+    /**
+     * Nombre de commandes livrées
+     */
+    @Column(name = "completed_order_count")
+    @Builder.Default
+    private Long completedOrderCount = 0L;
+
+    /**
+     * Agrégat des notes des avis boutique (nombre, somme, histogramme)
+     * Mis à jour dans la transaction de création de l'avis, pas par les flushs
+     */
+    @Embedded
+    @Builder.Default
+    private RatingAggregate ratings = new RatingAggregate();
+
+    /**
+     * Date du dernier flush des compteurs
+     */
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    /**
+     * Crée des compteurs vides pour une boutique
+     * @param shopId ID de la boutique
+     * @return compteurs à zéro
+     */
+    public static ShopStats empty(UUID shopId) {
+        return ShopStats.builder().shopId(shopId).build();
+    }
+
+    /**
+     * @return true si les compteurs d'état (produits actifs, commandes en attente / livrées) sont initialisés
+     */
+    public boolean hasStatusCounters() {
+        return activeProductCount != null && pendingOrderCount != null && completedOrderCount != null;
+    }
+
+    /**
+     * Calcule la note moyenne à partir des compteurs
+     * @return Note moyenne ou 0 si aucun avis
+     */
+    public Double getAverageRating() {
+        return ratings != null ? ratings.getAverageRating() : 0.0;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.e_souk.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fichier uploadé stocké sous son empreinte SHA-256 (table stored_blobs)
+ *
+ * Un même contenu n'est écrit qu'une fois : chaque upload identique incrémente refCount
+ * au lieu de créer une copie. Un blob dont refCount tombe à 0 est supprimé (ligne et fichier)
+ * par le ramasse-miettes après un délai de grâce.
+ */
+@Entity
+@Table(name = "stored_blobs", indexes = {
+    @Index(name = "idx_stored_blobs_file_name", columnList = "file_name", unique = true),
+    @Index(name = "idx_stored_blobs_released_at", columnList = "released_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StoredBlob {
+
+    /**
+     * Empreinte SHA-256 du contenu (hexadécimal)
+     */
+    @Id
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    /**
+     * Nom du fichier dans le dossier d'upload (empreinte + extension)
+     */
+    @Column(name = "file_name", nullable = false, length = 100)
+    private String fileName;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    /**
+     * Type MIME détecté sur le contenu (signature), pas celui annoncé par le client
+     */
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    /**
+     * Format relevé à l'upload (nom ImageIO : jpeg, png, gif, webp, bmp)
+     */
+    @Column(name = "image_format", length = 10)
+    private String imageFormat;
+
+    /**
+     * Dimensions relevées à l'upload, null si hors des premiers octets lus
+     */
+    @Column(name = "width")
+    private Integer width;
+
+    @Column(name = "height")
+    private Integer height;
+
+    /**
+     * Nombre d'entités (utilisateurs, produits, boutiques) qui référencent ce fichier
+     */
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Dernière libération d'une référence (point de départ du délai de grâce)
+     */
+    @Column(name = "released_at")
+    private LocalDateTime releasedAt;
+}
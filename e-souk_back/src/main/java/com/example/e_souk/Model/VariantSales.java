@@ -0,0 +1,54 @@
+package com.example.e_souk.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Compteur de ventes d'une variante (table variant_sales)
+ * Même principe que ProductSales, au niveau de la variante
+ */
+@Entity
+@Table(name = "variant_sales", indexes = {
+    @Index(name = "idx_variant_sales_shop_units", columnList = "shop_id, units_sold DESC")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VariantSales {
+
+    /**
+     * Identifiant de la variante
+     */
+    @Id
+    @Column(name = "variant_id")
+    private UUID variantId;
+
+    /**
+     * Produit de la variante
+     */
+    @Column(name = "product_id", nullable = false)
+    private UUID productId;
+
+    /**
+     * Boutique du produit (dénormalisée pour le classement par boutique)
+     */
+    @Column(name = "shop_id", nullable = false)
+    private UUID shopId;
+
+    /**
+     * Nombre d'unités vendues (commandes annulées déduites)
+     */
+    @Column(name = "units_sold", nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long unitsSold = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -131,6 +131,14 @@ public interface CommandeRepository extends JpaRepository<Commande, UUID> {
      */
     @Query("SELECT COUNT(c) FROM Commande c WHERE c.shop.id = :shopId")
     Long countByShopId(@Param("shopId") UUID shopId);
+
+    /**
+     * Compte les commandes d'une boutique par état (une seule requête GROUP BY)
+     * @param shopId ID de la boutique
+     * @return Liste de [état, nombre de commandes]
+     */
+    @Query("SELECT c.etat, COUNT(c) FROM Commande c WHERE c.shop.id = :shopId GROUP BY c.etat")
+    List<Object[]> countByShopIdGroupByEtat(@Param("shopId") UUID shopId);
     
     /**
      * Calcule le montant total des commandes d'un utilisateur
@@ -0,0 +1,110 @@
+package com.example.e_souk.Repository;
+
+import com.example.e_souk.Model.LowStockItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository de l'ensemble des variantes en stock faible
+ */
+@Repository
+public interface LowStockItemRepository extends JpaRepository<LowStockItem, UUID> {
+
+    /**
+     * Ajoute une variante à l'ensemble ou met à jour son stock (upsert PostgreSQL)
+     * La date de détection est conservée si la variante y était déjà
+     *
+     * @param variantId ID de la variante
+     * @param productId ID du produit
+     * @param shopId ID de la boutique
+     * @param stock stock courant
+     * @return nombre de lignes affectées
+     */
+    @Modifying
+    @Query(value = "INSERT INTO low_stock_items (variant_id, product_id, shop_id, stock, detected_at) " +
+           "VALUES (:variantId, :productId, :shopId, :stock, now()) " +
+           "ON CONFLICT (variant_id) DO UPDATE SET stock = EXCLUDED.stock", nativeQuery = true)
+    int upsert(@Param("variantId") UUID variantId, @Param("productId") UUID productId,
+               @Param("shopId") UUID shopId, @Param("stock") int stock);
+
+    /**
+     * Retire une variante de l'ensemble (réapprovisionnée au-dessus du seuil)
+     * @param variantId ID de la variante
+     * @return nombre de lignes supprimées
+     */
+    @Modifying
+    @Query("DELETE FROM LowStockItem l WHERE l.variantId = :variantId")
+    int deleteByVariantId(@Param("variantId") UUID variantId);
+
+    /**
+     * Variantes en stock faible d'une boutique, ruptures en premier
+     * PERFORMANCE : O(variantes en stock faible) via l'index (shop_id, stock)
+     *
+     * @param shopId ID de la boutique
+     * @return variantes triées par stock croissant
+     */
+    @Query("SELECT l FROM LowStockItem l WHERE l.shopId = :shopId ORDER BY l.stock ASC, l.detectedAt ASC")
+    List<LowStockItem> findByShopIdOrderByStock(@Param("shopId") UUID shopId);
+
+    /**
+     * Compte les produits en rupture d'une boutique : produits dont toutes les variantes sont à 0
+     * Ne parcourt que les variantes en stock faible de la boutique
+     *
+     * @param shopId ID de la boutique
+     * @return nombre de produits en rupture
+     */
+    @Query(value = "SELECT COUNT(*) FROM (SELECT l.product_id FROM low_stock_items l " +
+           "WHERE l.shop_id = :shopId AND l.stock <= 0 GROUP BY l.product_id " +
+           "HAVING COUNT(*) = (SELECT COUNT(*) FROM variants v WHERE v.product_id = l.product_id)) out_of_stock",
+           nativeQuery = true)
+    long countOutOfStockProducts(@Param("shopId") UUID shopId);
+
+    /**
+     * Vide l'ensemble d'une boutique (avant reconstruction)
+     * @param shopId ID de la boutique
+     * @return nombre de lignes supprimées
+     */
+    @Modifying
+    @Query("DELETE FROM LowStockItem l WHERE l.shopId = :shopId")
+    int deleteByShopId(@Param("shopId") UUID shopId);
+
+    /**
+     * Reconstruit l'ensemble d'une boutique depuis les stocks (changement de seuil)
+     * @param shopId ID de la boutique
+     * @return nombre de variantes en stock faible
+     */
+    @Modifying
+    @Query(value = "INSERT INTO low_stock_items (variant_id, product_id, shop_id, stock, detected_at) " +
+           "SELECT v.id, p.id, s.id, v.stock, now() FROM variants v " +
+           "JOIN products p ON p.id = v.product_id JOIN shops s ON s.id = p.shop_id " +
+           "WHERE s.id = :shopId AND v.stock <= s.low_stock_threshold " +
+           "ON CONFLICT (variant_id) DO UPDATE SET stock = EXCLUDED.stock", nativeQuery = true)
+    int rebuildForShop(@Param("shopId") UUID shopId);
+
+    /**
+     * Construit l'ensemble de toutes les boutiques depuis les stocks
+     * USAGE : premier démarrage avec la table vide
+     *
+     * @return nombre de variantes en stock faible
+     */
+    @Modifying
+    @Query(value = "INSERT INTO low_stock_items (variant_id, product_id, shop_id, stock, detected_at) " +
+           "SELECT v.id, p.id, s.id, v.stock, now() FROM variants v " +
+           "JOIN products p ON p.id = v.product_id JOIN shops s ON s.id = p.shop_id " +
+           "WHERE v.stock <= s.low_stock_threshold " +
+           "ON CONFLICT (variant_id) DO NOTHING", nativeQuery = true)
+    int backfill();
+
+    /**
+     * Indique si au moins une variante est en stock faible
+     * @return true si la table contient des lignes
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM low_stock_items)", nativeQuery = true)
+    boolean hasAnyItem();
+}
@@ -0,0 +1,62 @@
+package com.example.e_souk.Repository;
+
+import com.example.e_souk.Model.NotificationCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository des compteurs de notifications non lues
+ */
+@Repository
+public interface NotificationCounterRepository extends JpaRepository<NotificationCounter, UUID> {
+
+    /**
+     * Requête d'upsert utilisée aussi en batch JDBC par la diffusion (NotificationFanoutService)
+     */
+    String UPSERT_SQL = "INSERT INTO notification_counters (user_id, unread_count) VALUES (?, ?) " +
+            "ON CONFLICT (user_id) DO UPDATE SET " +
+            "unread_count = GREATEST(notification_counters.unread_count + EXCLUDED.unread_count, 0)";
+
+    /**
+     * Ajoute un delta au compteur d'un utilisateur (upsert PostgreSQL, jamais négatif)
+     * @param userId ID de l'utilisateur
+     * @param delta delta (négatif à la lecture)
+     * @return nombre de lignes affectées
+     */
+    @Modifying
+    @Query(value = "INSERT INTO notification_counters (user_id, unread_count) VALUES (:userId, GREATEST(:delta, 0)) " +
+           "ON CONFLICT (user_id) DO UPDATE SET " +
+           "unread_count = GREATEST(notification_counters.unread_count + :delta, 0)", nativeQuery = true)
+    int addDelta(@Param("userId") UUID userId, @Param("delta") long delta);
+
+    /**
+     * Lit le compteur d'un utilisateur
+     * @param userId ID de l'utilisateur
+     * @return nombre de non lues, vide si l'utilisateur n'a jamais reçu de notification
+     */
+    @Query("SELECT c.unreadCount FROM NotificationCounter c WHERE c.userId = :userId")
+    Optional<Long> findUnreadCount(@Param("userId") UUID userId);
+
+    /**
+     * Construit les compteurs depuis les notifications existantes (premier démarrage)
+     * @return nombre de compteurs créés
+     */
+    @Modifying
+    @Query(value = "INSERT INTO notification_counters (user_id, unread_count) " +
+           "SELECT user_id, COUNT(*) FROM notifications WHERE is_read = false GROUP BY user_id " +
+           "ON CONFLICT (user_id) DO NOTHING", nativeQuery = true)
+    int backfill();
+
+    /**
+     * Indique si au moins un compteur existe
+     * @return true si la table contient des lignes
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM notification_counters)", nativeQuery = true)
+    boolean hasAnyCounter();
+}
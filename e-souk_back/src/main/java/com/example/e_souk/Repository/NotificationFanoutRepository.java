@@ -0,0 +1,38 @@
+package com.example.e_souk.Repository;
+
+import com.example.e_souk.Model.NotificationFanout;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository des diffusions de notifications aux abonnés
+ */
+@Repository
+public interface NotificationFanoutRepository extends JpaRepository<NotificationFanout, UUID> {
+
+    /**
+     * Diffusions non terminées (reprise au démarrage ou après un rejet du pool)
+     * @return IDs des diffusions à reprendre, les plus anciennes d'abord
+     */
+    @Query("SELECT f.id FROM NotificationFanout f WHERE f.completed = false ORDER BY f.createdAt")
+    List<UUID> findPendingIds();
+
+    /**
+     * Charge une diffusion en la verrouillant le temps d'un lot
+     * Deux exécutions concurrentes de la même diffusion ne peuvent pas envoyer le même lot
+     *
+     * @param id ID de la diffusion
+     * @return la diffusion verrouillée
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f FROM NotificationFanout f WHERE f.id = :id")
+    Optional<NotificationFanout> findByIdForUpdate(@Param("id") UUID id);
+}
@@ -0,0 +1,71 @@
+package com.example.e_souk.Repository;
+
+import com.example.e_souk.Model.Notification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository des notifications
+ * Les insertions en masse (diffusion aux abonnés) passent par JDBC, voir NotificationFanoutService
+ */
+@Repository
+public interface NotificationRepository extends JpaRepository<Notification, UUID> {
+
+    /**
+     * Première page de la boîte de réception (plus récentes d'abord)
+     * PERFORMANCE : index (user_id, created_at DESC, id DESC)
+     *
+     * @param userId ID de l'utilisateur
+     * @param pageable taille de la page
+     * @return notifications
+     */
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findInbox(@Param("userId") UUID userId, Pageable pageable);
+
+    /**
+     * Page suivante de la boîte de réception (keyset après la dernière notification reçue)
+     *
+     * @param userId ID de l'utilisateur
+     * @param createdAt date de la dernière notification de la page précédente
+     * @param id ID de la dernière notification de la page précédente
+     * @param pageable taille de la page
+     * @return notifications plus anciennes que le curseur
+     */
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId " +
+           "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findInboxAfter(@Param("userId") UUID userId,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") UUID id,
+                                      Pageable pageable);
+
+    /**
+     * Marque des notifications comme lues (seulement celles de l'utilisateur et encore non lues)
+     *
+     * @param userId ID de l'utilisateur
+     * @param ids IDs des notifications
+     * @return nombre de notifications passées à lues (delta du compteur)
+     */
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true " +
+           "WHERE n.user.id = :userId AND n.id IN :ids AND n.isRead = false")
+    int markRead(@Param("userId") UUID userId, @Param("ids") Collection<UUID> ids);
+
+    /**
+     * Marque toutes les notifications d'un utilisateur comme lues
+     * @param userId ID de l'utilisateur
+     * @return nombre de notifications passées à lues
+     */
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.user.id = :userId AND n.isRead = false")
+    int markAllRead(@Param("userId") UUID userId);
+}
@@ -3,11 +3,13 @@ package com.example.e_souk.Repository;
 import com.example.e_souk.Model.ProductFavorite;
 import com.example.e_souk.Model.User;
 import com.example.e_souk.Model.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -61,8 +63,9 @@ public interface ProductFavoriteRepository extends JpaRepository<ProductFavorite
      * Supprime un favori par l'utilisateur et le produit
      * @param user Utilisateur
      * @param product Produit
+     * @return nombre de favoris supprimés
      */
-    void deleteByUserAndProduct(User user, Product product);
+    long deleteByUserAndProduct(User user, Product product);
     
     /**
      * Supprime un favori par l'ID de l'utilisateur et l'ID du produit
@@ -86,4 +89,23 @@ public interface ProductFavoriteRepository extends JpaRepository<ProductFavorite
      */
     @Query("SELECT pf FROM ProductFavorite pf JOIN FETCH pf.product p JOIN FETCH p.shop WHERE pf.user.id = :userId ORDER BY pf.addedAt DESC")
     List<ProductFavorite> findByUserIdWithProductAndShop(@Param("userId") UUID userId);
+
+    /**
+     * Parmi une liste de produits, ceux qui sont en favori pour un utilisateur
+     * USAGE : Grilles de produits (un seul IN au lieu d'un EXISTS par carte)
+     * @param userId ID de l'utilisateur
+     * @param productIds IDs des produits affichés
+     * @return IDs des produits en favori
+     */
+    @Query("SELECT pf.product.id FROM ProductFavorite pf WHERE pf.user.id = :userId AND pf.product.id IN :productIds")
+    List<UUID> findFavoriteProductIdsIn(@Param("userId") UUID userId, @Param("productIds") Collection<UUID> productIds);
+
+    /**
+     * IDs de tous les produits favoris d'un utilisateur (chargement du cache)
+     * @param userId ID de l'utilisateur
+     * @param pageable limite de chargement
+     * @return IDs des produits favoris
+     */
+    @Query("SELECT pf.product.id FROM ProductFavorite pf WHERE pf.user.id = :userId")
+    List<UUID> findFavoriteProductIds(@Param("userId") UUID userId, Pageable pageable);
 }
@@ -6,6 +6,7 @@ import com.example.e_souk.Model.Shop;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -105,6 +106,25 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
     @Query("SELECT p FROM Product p WHERE p.shop.id = :shopId AND " +
            "NOT EXISTS (SELECT v FROM Variant v WHERE v.product.id = p.id AND v.stock > 0)")
     List<Product> findOutOfStockProductsByShop(@Param("shopId") UUID shopId);
+
+    /**
+     * Compte les produits en rupture de stock d'une boutique
+     * 
+     * @param shopId ID de la boutique
+     * @return long nombre de produits en rupture
+     */
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.shop.id = :shopId AND " +
+           "NOT EXISTS (SELECT v FROM Variant v WHERE v.product.id = p.id AND v.stock > 0)")
+    long countOutOfStockProductsByShop(@Param("shopId") UUID shopId);
+
+    /**
+     * Compte les produits actifs d'une boutique
+     * 
+     * @param shopId ID de la boutique
+     * @return long nombre de produits actifs
+     */
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.shop.id = :shopId AND p.isActive = true")
+    long countActiveProductsByShop(@Param("shopId") UUID shopId);
     
     /**
      * Compte le nombre total de variantes d'un produit
@@ -179,6 +199,17 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
      @Query("SELECT p FROM Product p WHERE p.shop.brandName = :shopName")
      List<Product>  findProductsByshop(@Param("shopName") String shopName);
 
+    /**
+     * Trouve tous les produits d'une boutique avec catégorie et boutique chargées
+     * 
+     * USAGE : Page boutique (une seule requête, pas de chargement par produit)
+     * 
+     * @param shopId ID de la boutique
+     * @return List<Product> produits, du plus récent au plus ancien
+     */
+    @Query("SELECT p FROM Product p JOIN FETCH p.category JOIN FETCH p.shop WHERE p.shop.id = :shopId ORDER BY p.createdAt DESC")
+    List<Product> findAllByShopIdWithDetails(@Param("shopId") UUID shopId);
+
     /**
      * Génère un SKU unique basé sur le nom du produit
      * 
@@ -191,6 +222,40 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
     @Query("SELECT COUNT(p) FROM Product p WHERE p.name LIKE :productNamePrefix%")
     long countProductsWithNamePrefix(@Param("productNamePrefix") String productNamePrefix);
 
+    /**
+     * Ajoute une note à l'agrégat d'un produit (UPDATE atomique, sans relire les avis)
+     * 
+     * @param productId ID du produit
+     * @param rating note de 1 à 5
+     * @return nombre de lignes affectées
+     */
+    @Modifying
+    @Query(value = "UPDATE products SET rating_count = rating_count + 1, rating_sum = rating_sum + :rating, " +
+           "rating_1 = rating_1 + CASE WHEN :rating = 1 THEN 1 ELSE 0 END, " +
+           "rating_2 = rating_2 + CASE WHEN :rating = 2 THEN 1 ELSE 0 END, " +
+           "rating_3 = rating_3 + CASE WHEN :rating = 3 THEN 1 ELSE 0 END, " +
+           "rating_4 = rating_4 + CASE WHEN :rating = 4 THEN 1 ELSE 0 END, " +
+           "rating_5 = rating_5 + CASE WHEN :rating = 5 THEN 1 ELSE 0 END " +
+           "WHERE id = :productId", nativeQuery = true)
+    int addRating(@Param("productId") UUID productId, @Param("rating") int rating);
+
+    /**
+     * Recalcule l'agrégat des notes des produits qui ont des avis mais un agrégat vide
+     * USAGE : au démarrage, pour les avis créés avant l'existence des colonnes
+     * 
+     * @return nombre de produits mis à jour
+     */
+    @Modifying
+    @Query(value = "UPDATE products p SET rating_count = r.cnt, rating_sum = r.total, " +
+           "rating_1 = r.r1, rating_2 = r.r2, rating_3 = r.r3, rating_4 = r.r4, rating_5 = r.r5 " +
+           "FROM (SELECT product_id, COUNT(*) AS cnt, SUM(rating) AS total, " +
+           "COUNT(*) FILTER (WHERE rating = 1) AS r1, COUNT(*) FILTER (WHERE rating = 2) AS r2, " +
+           "COUNT(*) FILTER (WHERE rating = 3) AS r3, COUNT(*) FILTER (WHERE rating = 4) AS r4, " +
+           "COUNT(*) FILTER (WHERE rating = 5) AS r5 " +
+           "FROM reviews WHERE type = 'PRODUCT' AND product_id IS NOT NULL GROUP BY product_id) r " +
+           "WHERE p.id = r.product_id AND p.rating_count = 0", nativeQuery = true)
+    int backfillRatings();
+
 
 
 
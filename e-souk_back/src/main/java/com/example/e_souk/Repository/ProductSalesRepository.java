@@ -0,0 +1,81 @@
+package com.example.e_souk.Repository;
+
+import com.example.e_souk.Model.Product;
+import com.example.e_souk.Model.ProductSales;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository des compteurs de ventes par produit
+ */
+@Repository
+public interface ProductSalesRepository extends JpaRepository<ProductSales, UUID> {
+
+    /**
+     * Ajoute (ou retire) des unités vendues à un produit (upsert PostgreSQL)
+     *
+     * @param productId ID du produit
+     * @param shopId ID de la boutique
+     * @param units delta d'unités (négatif pour une annulation)
+     * @return nombre de lignes affectées
+     */
+    @Modifying
+    @Query(value = "INSERT INTO product_sales (product_id, shop_id, units_sold, updated_at) " +
+           "VALUES (:productId, :shopId, GREATEST(:units, 0), now()) " +
+           "ON CONFLICT (product_id) DO UPDATE SET " +
+           "units_sold = GREATEST(product_sales.units_sold + :units, 0), updated_at = now()", nativeQuery = true)
+    int addUnits(@Param("productId") UUID productId, @Param("shopId") UUID shopId, @Param("units") long units);
+
+    /**
+     * Produits actifs les plus vendus d'une boutique
+     * PERFORMANCE : parcours de l'index (shop_id, units_sold DESC), arrêté après la limite
+     *
+     * @param shopId ID de la boutique
+     * @param pageable limite
+     * @return produits triés par ventes décroissantes
+     */
+    @Query("SELECT p FROM ProductSales s JOIN Product p ON p.id = s.productId " +
+           "JOIN FETCH p.category JOIN FETCH p.shop " +
+           "WHERE s.shopId = :shopId AND s.unitsSold > 0 AND p.isActive = true ORDER BY s.unitsSold DESC")
+    List<Product> findTopProductsByShop(@Param("shopId") UUID shopId, Pageable pageable);
+
+    /**
+     * Produits actifs les plus vendus de toute la marketplace (boutiques actives)
+     * PERFORMANCE : parcours de l'index (units_sold DESC), arrêté après la limite
+     *
+     * @param pageable limite
+     * @return produits triés par ventes décroissantes
+     */
+    @Query("SELECT p FROM ProductSales s JOIN Product p ON p.id = s.productId " +
+           "JOIN FETCH p.category JOIN FETCH p.shop sh " +
+           "WHERE s.unitsSold > 0 AND p.isActive = true AND sh.isActive = true ORDER BY s.unitsSold DESC")
+    List<Product> findTopProducts(Pageable pageable);
+
+    /**
+     * Construit les compteurs depuis l'historique des commandes non annulées
+     * USAGE : premier démarrage avec la table vide
+     *
+     * @return nombre de compteurs créés
+     */
+    @Modifying
+    @Query(value = "INSERT INTO product_sales (product_id, shop_id, units_sold, updated_at) " +
+           "SELECT p.id, p.shop_id, SUM(oi.quantity), now() FROM order_items oi " +
+           "JOIN commandes c ON c.id = oi.commande_id JOIN variants v ON v.id = oi.variant_id " +
+           "JOIN products p ON p.id = v.product_id WHERE c.etat <> 'Annulee' GROUP BY p.id, p.shop_id " +
+           "ON CONFLICT (product_id) DO NOTHING", nativeQuery = true)
+    int backfill();
+
+    /**
+     * Indique si au moins un compteur existe
+     * @return true si la table contient des lignes
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM product_sales)", nativeQuery = true)
+    boolean hasAnySales();
+}
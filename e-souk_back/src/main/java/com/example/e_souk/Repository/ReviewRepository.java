@@ -1,14 +1,18 @@
 
 package com.example.e_souk.Repository;
 
+import com.example.e_souk.Dto.Review.ShopReviewDTO;
 import com.example.e_souk.Model.Review;
 import com.example.e_souk.Model.Shop;
 import java.util.UUID;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -21,4 +25,91 @@ public interface ReviewRepository extends JpaRepository<Review, UUID> {
     List<Review> findByShopId(UUID shopId);
     @Query("select r from Review r where lower(r.shop.brandName) = lower(:shopName)")
     List<Review> findByShop_BrandNameIgnoreCase(@Param("shopName") String shopName);
-}
\ No newline at end of file
+
+    /**
+     * Avis d'une boutique avec leur auteur, du plus récent au plus ancien
+     * @param shopId ID de la boutique
+     * @return Liste des avis
+     */
+    @Query("select r from Review r join fetch r.user join fetch r.shop where r.shop.id = :shopId order by r.createdAt desc")
+    List<Review> findByShopIdWithUser(@Param("shopId") UUID shopId);
+
+    /**
+     * Agrège les avis boutique de plusieurs boutiques en une seule requête
+     * @param shopIds IDs des boutiques
+     * @return Liste de [shopId, nombre d'avis, somme des notes, nombre de notes 1, ..., nombre de notes 5]
+     */
+    @Query("select r.shop.id, count(r), coalesce(sum(r.rating), 0), " +
+           "sum(case when r.rating = 1 then 1L else 0L end), sum(case when r.rating = 2 then 1L else 0L end), " +
+           "sum(case when r.rating = 3 then 1L else 0L end), sum(case when r.rating = 4 then 1L else 0L end), " +
+           "sum(case when r.rating = 5 then 1L else 0L end) from Review r " +
+           "where r.shop.id in :shopIds and r.type = com.example.e_souk.Model.ReviewType.SHOP group by r.shop.id")
+    List<Object[]> aggregateShopRatingsByShopIds(@Param("shopIds") Collection<UUID> shopIds);
+
+    /**
+     * Première page des avis boutique, plus récents d'abord (projection, sans charger les entités)
+     * PERFORMANCE : index (shop_id, created_at DESC, id DESC)
+     * @param shopId ID de la boutique
+     * @param pageable taille de la page
+     * @return avis de la page (id, note, commentaire, auteur, photo, date)
+     */
+    @Query("select new com.example.e_souk.Dto.Review.ShopReviewDTO(r.id, r.rating, r.comment, u.username, u.picture, r.createdAt) " +
+           "from Review r join r.user u " +
+           "where r.shop.id = :shopId and r.type = com.example.e_souk.Model.ReviewType.SHOP " +
+           "order by r.createdAt desc, r.id desc")
+    List<ShopReviewDTO> findShopReviewPage(@Param("shopId") UUID shopId, Pageable pageable);
+
+    /**
+     * Page suivante des avis boutique (keyset après le dernier avis de la page précédente)
+     * @param shopId ID de la boutique
+     * @param createdAt date du dernier avis vu
+     * @param id ID du dernier avis vu
+     * @param pageable taille de la page
+     * @return avis de la page (id, note, commentaire, auteur, photo, date)
+     */
+    @Query("select new com.example.e_souk.Dto.Review.ShopReviewDTO(r.id, r.rating, r.comment, u.username, u.picture, r.createdAt) " +
+           "from Review r join r.user u " +
+           "where r.shop.id = :shopId and r.type = com.example.e_souk.Model.ReviewType.SHOP " +
+           "and (r.createdAt < :createdAt or (r.createdAt = :createdAt and r.id < :id)) " +
+           "order by r.createdAt desc, r.id desc")
+    List<ShopReviewDTO> findShopReviewPageAfter(@Param("shopId") UUID shopId,
+                                                @Param("createdAt") LocalDateTime createdAt,
+                                                @Param("id") UUID id,
+                                                Pageable pageable);
+
+    /**
+     * Première page des avis boutique d'une note donnée, plus récents d'abord
+     * PERFORMANCE : index (shop_id, rating, created_at DESC, id DESC)
+     * @param shopId ID de la boutique
+     * @param rating note (1 à 5)
+     * @param pageable taille de la page
+     * @return avis de la page (id, note, commentaire, auteur, photo, date)
+     */
+    @Query("select new com.example.e_souk.Dto.Review.ShopReviewDTO(r.id, r.rating, r.comment, u.username, u.picture, r.createdAt) " +
+           "from Review r join r.user u " +
+           "where r.shop.id = :shopId and r.type = com.example.e_souk.Model.ReviewType.SHOP and r.rating = :rating " +
+           "order by r.createdAt desc, r.id desc")
+    List<ShopReviewDTO> findShopReviewPageByRating(@Param("shopId") UUID shopId,
+                                                   @Param("rating") Integer rating,
+                                                   Pageable pageable);
+
+    /**
+     * Page suivante des avis boutique d'une note donnée
+     * @param shopId ID de la boutique
+     * @param rating note (1 à 5)
+     * @param createdAt date du dernier avis vu
+     * @param id ID du dernier avis vu
+     * @param pageable taille de la page
+     * @return avis de la page (id, note, commentaire, auteur, photo, date)
+     */
+    @Query("select new com.example.e_souk.Dto.Review.ShopReviewDTO(r.id, r.rating, r.comment, u.username, u.picture, r.createdAt) " +
+           "from Review r join r.user u " +
+           "where r.shop.id = :shopId and r.type = com.example.e_souk.Model.ReviewType.SHOP and r.rating = :rating " +
+           "and (r.createdAt < :createdAt or (r.createdAt = :createdAt and r.id < :id)) " +
+           "order by r.createdAt desc, r.id desc")
+    List<ShopReviewDTO> findShopReviewPageByRatingAfter(@Param("shopId") UUID shopId,
+                                                        @Param("rating") Integer rating,
+                                                        @Param("createdAt") LocalDateTime createdAt,
+                                                        @Param("id") UUID id,
+                                                        Pageable pageable);
+}
@@ -0,0 +1,45 @@
+package com.example.e_souk.Repository;
+
+import com.example.e_souk.Model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository des tokens révoqués
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    /**
+     * Révocations encore actives (chargement au démarrage)
+     * @param now instant courant
+     * @return Liste de [tokenId, expiresAt]
+     */
+    @Query("SELECT r.tokenId, r.expiresAt FROM RevokedToken r WHERE r.expiresAt > :now")
+    List<Object[]> findActive(@Param("now") LocalDateTime now);
+
+    /**
+     * Révocations enregistrées depuis une date (propagation entre noeuds)
+     * PERFORMANCE : index (revoked_at)
+     * @param since date du dernier passage (moins une marge)
+     * @param now instant courant
+     * @return Liste de [tokenId, expiresAt]
+     */
+    @Query("SELECT r.tokenId, r.expiresAt FROM RevokedToken r WHERE r.revokedAt > :since AND r.expiresAt > :now")
+    List<Object[]> findRevokedSince(@Param("since") LocalDateTime since, @Param("now") LocalDateTime now);
+
+    /**
+     * Supprime les révocations dont le token a expiré
+     * @param now instant courant
+     * @return nombre de lignes supprimées
+     */
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,13 +1,17 @@
 package com.example.e_souk.Repository;
 
+import com.example.e_souk.Dto.User.ShopFollowerDTO;
 import com.example.e_souk.Model.ShopFollower;
 import com.example.e_souk.Model.User;
 import com.example.e_souk.Model.Shop;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -75,8 +79,9 @@ public interface ShopFollowerRepository extends JpaRepository<ShopFollower, UUID
      * Supprime un follower par l'utilisateur et la boutique
      * @param user Utilisateur
      * @param shop Boutique
+     * @return nombre de lignes supprimées (0 si l'utilisateur ne suivait pas la boutique)
      */
-    void deleteByUserAndShop(User user, Shop shop);
+    long deleteByUserAndShop(User user, Shop shop);
     
     /**
      * Supprime un follower par l'ID de l'utilisateur et l'ID de la boutique
@@ -92,6 +97,14 @@ public interface ShopFollowerRepository extends JpaRepository<ShopFollower, UUID
      */
     @Query("SELECT COUNT(sf) FROM ShopFollower sf WHERE sf.shop.id = :shopId")
     Long countByShopId(@Param("shopId") UUID shopId);
+
+    /**
+     * Compte les followers de plusieurs boutiques en une seule requête
+     * @param shopIds IDs des boutiques
+     * @return Liste de [shopId, nombre de followers] (boutiques sans follower absentes)
+     */
+    @Query("SELECT sf.shop.id, COUNT(sf) FROM ShopFollower sf WHERE sf.shop.id IN :shopIds GROUP BY sf.shop.id")
+    List<Object[]> countByShopIds(@Param("shopIds") Collection<UUID> shopIds);
     
     /**
      * Compte le nombre de boutiques suivies par un utilisateur
@@ -106,14 +119,55 @@ public interface ShopFollowerRepository extends JpaRepository<ShopFollower, UUID
      * @param userId ID de l'utilisateur
      * @return Liste des boutiques suivies avec détails
      */
-    @Query("SELECT sf FROM ShopFollower sf JOIN FETCH sf.shop s WHERE sf.user.id = :userId ORDER BY sf.followedAt DESC")
+    @Query("SELECT sf FROM ShopFollower sf JOIN FETCH sf.shop s JOIN FETCH s.owner WHERE sf.user.id = :userId ORDER BY sf.followedAt DESC")
     List<ShopFollower> findByUserIdWithShop(@Param("userId") UUID userId);
     
     /**
-     * Trouve les followers d'une boutique avec les informations de l'utilisateur
+     * Première page des followers d'une boutique (plus récents d'abord), sans charger les entités
+     * PERFORMANCE : index (shop_id, followed_at DESC, id DESC)
+     * @param shopId ID de la boutique
+     * @param pageable taille de la page
+     * @return Liste de ShopFollowerDTO (construits par la requête)
+     */
+    @Query("SELECT new com.example.e_souk.Dto.User.ShopFollowerDTO(sf.id, u.username, u.picture, sf.followedAt) " +
+           "FROM ShopFollower sf JOIN sf.user u " +
+           "WHERE sf.shop.id = :shopId ORDER BY sf.followedAt DESC, sf.id DESC")
+    List<ShopFollowerDTO> findFollowerPage(@Param("shopId") UUID shopId, Pageable pageable);
+
+    /**
+     * Page suivante des followers (keyset après le dernier follower de la page précédente)
      * @param shopId ID de la boutique
-     * @return Liste des followers avec détails utilisateur
+     * @param followedAt date d'abonnement du dernier follower vu
+     * @param id ID du dernier abonnement vu
+     * @param pageable taille de la page
+     * @return Liste de ShopFollowerDTO (construits par la requête)
+     */
+    @Query("SELECT new com.example.e_souk.Dto.User.ShopFollowerDTO(sf.id, u.username, u.picture, sf.followedAt) " +
+           "FROM ShopFollower sf JOIN sf.user u " +
+           "WHERE sf.shop.id = :shopId " +
+           "AND (sf.followedAt < :followedAt OR (sf.followedAt = :followedAt AND sf.id < :id)) " +
+           "ORDER BY sf.followedAt DESC, sf.id DESC")
+    List<ShopFollowerDTO> findFollowerPageAfter(@Param("shopId") UUID shopId,
+                                                @Param("followedAt") LocalDateTime followedAt,
+                                                @Param("id") UUID id,
+                                                Pageable pageable);
+
+    /**
+     * Parmi une liste de boutiques, celles suivies par un utilisateur
+     * USAGE : Listes de boutiques (un seul IN au lieu d'un EXISTS par carte)
+     * @param userId ID de l'utilisateur
+     * @param shopIds IDs des boutiques affichées
+     * @return IDs des boutiques suivies
+     */
+    @Query("SELECT sf.shop.id FROM ShopFollower sf WHERE sf.user.id = :userId AND sf.shop.id IN :shopIds")
+    List<UUID> findFollowedShopIdsIn(@Param("userId") UUID userId, @Param("shopIds") Collection<UUID> shopIds);
+
+    /**
+     * IDs de toutes les boutiques suivies par un utilisateur (chargement du cache)
+     * @param userId ID de l'utilisateur
+     * @param pageable limite de chargement
+     * @return IDs des boutiques suivies
      */
-    @Query("SELECT sf FROM ShopFollower sf JOIN FETCH sf.user u WHERE sf.shop.id = :shopId ORDER BY sf.followedAt DESC")
-    List<ShopFollower> findByShopIdWithUser(@Param("shopId") UUID shopId);
+    @Query("SELECT sf.shop.id FROM ShopFollower sf WHERE sf.user.id = :userId")
+    List<UUID> findFollowedShopIds(@Param("userId") UUID userId, Pageable pageable);
 }
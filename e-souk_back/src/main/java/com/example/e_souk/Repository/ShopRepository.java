@@ -16,6 +16,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -38,6 +39,20 @@ public interface ShopRepository extends JpaRepository<Shop, UUID> {
      */
     @Query("SELECT s FROM Shop s WHERE LOWER(s.brandName) = LOWER(:brandName)")
     Optional<Shop> findByBrandNameIgnoreCase(@Param("brandName") String brandName);
+
+    /**
+     * Trouve l'ID d'une boutique par son nom de marque (insensible à la casse)
+     * 
+     * PERFORMANCE : s'appuie sur l'index fonctionnel idx_shops_lower_brand_name
+     * (voir DatabaseIndexInitializer) ; utilisé par ShopNameCache
+     * Seul le paramètre est rogné : les noms sont enregistrés rognés (ShopService), et rogner
+     * la colonne empêcherait l'utilisation de l'index
+     * 
+     * @param brandName nom de la marque
+     * @return Optional<UUID> ID de la boutique
+     */
+    @Query("SELECT s.id FROM Shop s WHERE LOWER(s.brandName) = LOWER(TRIM(:brandName))")
+    Optional<UUID> findIdByBrandNameIgnoreCase(@Param("brandName") String brandName);
     
     /**
      * Trouve toutes les boutiques d'un propriétaire (user)
@@ -76,11 +91,13 @@ public interface ShopRepository extends JpaRepository<Shop, UUID> {
     
     /**
      * Trouve toutes les boutiques actives avec pagination
+     * Le propriétaire est chargé dans la même requête (évite un SELECT par boutique)
      * 
      * @param pageable pagination
      * @return Page<Shop> page de boutiques actives
      */
-    @Query("SELECT s FROM Shop s WHERE s.isActive = true")
+    @Query(value = "SELECT s FROM Shop s JOIN FETCH s.owner WHERE s.isActive = true",
+           countQuery = "SELECT COUNT(s) FROM Shop s WHERE s.isActive = true")
     Page<Shop> findAllActiveShops(Pageable pageable);
     
     /**
@@ -104,16 +121,51 @@ public interface ShopRepository extends JpaRepository<Shop, UUID> {
      */
     @Query("SELECT COUNT(c) FROM Commande c WHERE c.shop.id = :shopId")
     long countOrdersInShop(@Param("shopId") UUID shopId);
+
+    /**
+     * Compte les produits de plusieurs boutiques en une seule requête
+     * 
+     * POURQUOI cette méthode ?
+     * - Les pages de listing affichent un compteur par boutique
+     * - Un GROUP BY évite une requête COUNT par ligne de la page
+     * 
+     * @param shopIds IDs des boutiques
+     * @return List<Object[]> [shopId, nombre de produits] (boutiques sans produit absentes)
+     */
+    @Query("SELECT p.shop.id, COUNT(p) FROM Product p WHERE p.shop.id IN :shopIds GROUP BY p.shop.id")
+    List<Object[]> countProductsByShopIds(@Param("shopIds") Collection<UUID> shopIds);
+
+    /**
+     * Compte les commandes de plusieurs boutiques en une seule requête
+     * 
+     * @param shopIds IDs des boutiques
+     * @return List<Object[]> [shopId, nombre de commandes] (boutiques sans commande absentes)
+     */
+    @Query("SELECT c.shop.id, COUNT(c) FROM Commande c WHERE c.shop.id IN :shopIds GROUP BY c.shop.id")
+    List<Object[]> countOrdersByShopIds(@Param("shopIds") Collection<UUID> shopIds);
     
     /**
-     * Trouve les boutiques les plus suivies (pour la page d'accueil)
+     * Charge plusieurs boutiques avec leur propriétaire en une seule requête
      * 
-     * @param pageable pagination
-     * @return Page<Shop> boutiques populaires
+     * USAGE : pages construites à partir d'une liste d'IDs (classement, cache)
+     * L'ordre n'est pas garanti, c'est à l'appelant de le rétablir
+     * 
+     * @param ids IDs des boutiques
+     * @return List<Shop> boutiques trouvées
+     */
+    @Query("SELECT s FROM Shop s JOIN FETCH s.owner WHERE s.id IN :ids")
+    List<Shop> findAllWithOwnerByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Compte les followers de toutes les boutiques actives (une seule requête GROUP BY)
+     * 
+     * USAGE : réconciliation périodique du classement des boutiques les plus suivies
+     * 
+     * @return List<Object[]> [shopId, nombre de followers] (0 inclus)
      */
-    @Query("SELECT s FROM Shop s WHERE s.isActive = true ORDER BY " +
-           "(SELECT COUNT(sf) FROM ShopFollower sf WHERE sf.shop.id = s.id) DESC")
-    Page<Shop> findMostFollowedShops(Pageable pageable);
+    @Query("SELECT s.id, COUNT(sf) FROM Shop s LEFT JOIN ShopFollower sf ON sf.shop.id = s.id " +
+           "WHERE s.isActive = true GROUP BY s.id")
+    List<Object[]> countFollowersOfActiveShops();
     
     /**
      * Vérifie si un user a déjà une boutique active
@@ -135,7 +187,15 @@ public interface ShopRepository extends JpaRepository<Shop, UUID> {
 
     
     // pour les shops + filtrage et recherche
-    @Query("SELECT s FROM Shop s " +
+    @Query(value = "SELECT s FROM Shop s JOIN FETCH s.owner " +
+       "WHERE (:categoryName IS NULL OR LOWER(CAST(s.categoryName AS string)) = LOWER(CAST(:categoryName AS string))) " +
+       "AND (:address IS NULL OR LOWER(CAST(s.address AS string)) = LOWER(CAST(:address AS string))) " +
+       "AND (:searchKeyword IS NULL OR (" +
+            "LOWER(CAST(s.brandName AS string)) LIKE LOWER(CONCAT('%', CAST(:searchKeyword AS string), '%')) OR " +
+            "LOWER(CAST(s.bio AS string)) LIKE LOWER(CONCAT('%', CAST(:searchKeyword AS string), '%')) OR " +
+            "LOWER(CAST(s.description AS string)) LIKE LOWER(CONCAT('%', CAST(:searchKeyword AS string), '%'))" +
+       "))",
+       countQuery = "SELECT COUNT(s) FROM Shop s " +
        "WHERE (:categoryName IS NULL OR LOWER(CAST(s.categoryName AS string)) = LOWER(CAST(:categoryName AS string))) " +
        "AND (:address IS NULL OR LOWER(CAST(s.address AS string)) = LOWER(CAST(:address AS string))) " +
        "AND (:searchKeyword IS NULL OR (" +
@@ -0,0 +1,131 @@
+package com.example.e_souk.Repository;
+
+import com.example.e_souk.Model.SalesGranularity;
+import com.example.e_souk.Model.ShopSalesRollup;
+import com.example.e_souk.Model.ShopSalesRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository des agrégats de ventes par boutique et par période
+ */
+@Repository
+public interface ShopSalesRollupRepository extends JpaRepository<ShopSalesRollup, ShopSalesRollupId> {
+
+    /**
+     * Applique des deltas à l'agrégat d'une période (upsert PostgreSQL)
+     * Deltas positifs pour une commande passée, négatifs pour une annulation
+     *
+     * @param shopId ID de la boutique
+     * @param granularity granularité (DAY ou HOUR)
+     * @param bucketStart début de la période
+     * @param revenue delta de chiffre d'affaires
+     * @param orders delta du nombre de commandes
+     * @param units delta du nombre d'articles
+     * @return nombre de lignes affectées
+     */
+    @Modifying
+    @Query(value = "INSERT INTO shop_sales_rollups (shop_id, granularity, bucket_start, revenue, order_count, units_sold) " +
+           "VALUES (:shopId, :granularity, :bucketStart, :revenue, :orders, :units) " +
+           "ON CONFLICT (shop_id, granularity, bucket_start) DO UPDATE SET " +
+           "revenue = shop_sales_rollups.revenue + EXCLUDED.revenue, " +
+           "order_count = shop_sales_rollups.order_count + EXCLUDED.order_count, " +
+           "units_sold = shop_sales_rollups.units_sold + EXCLUDED.units_sold", nativeQuery = true)
+    int applyDelta(@Param("shopId") UUID shopId,
+                   @Param("granularity") String granularity,
+                   @Param("bucketStart") LocalDateTime bucketStart,
+                   @Param("revenue") double revenue,
+                   @Param("orders") long orders,
+                   @Param("units") long units);
+
+    /**
+     * Agrégats d'une boutique sur un intervalle [from, to[
+     * PERFORMANCE : lecture par clé primaire, une ligne par période
+     *
+     * @param shopId ID de la boutique
+     * @param granularity granularité
+     * @param from début inclus
+     * @param to fin exclue
+     * @return agrégats triés par période
+     */
+    @Query("SELECT r FROM ShopSalesRollup r WHERE r.id.shopId = :shopId AND r.id.granularity = :granularity " +
+           "AND r.id.bucketStart >= :from AND r.id.bucketStart < :to ORDER BY r.id.bucketStart")
+    List<ShopSalesRollup> findRange(@Param("shopId") UUID shopId,
+                                    @Param("granularity") SalesGranularity granularity,
+                                    @Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to);
+
+    /**
+     * Chiffre d'affaires total d'une boutique (somme des agrégats journaliers)
+     *
+     * @param shopId ID de la boutique
+     * @return chiffre d'affaires cumulé
+     */
+    @Query("SELECT COALESCE(SUM(r.revenue), 0) FROM ShopSalesRollup r WHERE r.id.shopId = :shopId " +
+           "AND r.id.granularity = com.example.e_souk.Model.SalesGranularity.DAY")
+    Double sumDailyRevenue(@Param("shopId") UUID shopId);
+
+    /**
+     * Chiffre d'affaires d'une boutique depuis une date (somme des agrégats journaliers)
+     *
+     * @param shopId ID de la boutique
+     * @param from début inclus
+     * @return chiffre d'affaires cumulé
+     */
+    @Query("SELECT COALESCE(SUM(r.revenue), 0) FROM ShopSalesRollup r WHERE r.id.shopId = :shopId " +
+           "AND r.id.granularity = com.example.e_souk.Model.SalesGranularity.DAY AND r.id.bucketStart >= :from")
+    Double sumDailyRevenueSince(@Param("shopId") UUID shopId, @Param("from") LocalDateTime from);
+
+    /**
+     * Supprime les agrégats d'une granularité antérieurs à une date (purge des agrégats horaires)
+     *
+     * @param granularity granularité
+     * @param before date limite (exclue)
+     * @return nombre de lignes supprimées
+     */
+    @Modifying
+    @Query("DELETE FROM ShopSalesRollup r WHERE r.id.granularity = :granularity AND r.id.bucketStart < :before")
+    int deleteOlderThan(@Param("granularity") SalesGranularity granularity, @Param("before") LocalDateTime before);
+
+    /**
+     * Indique si au moins un agrégat existe (sinon l'historique n'a jamais été importé)
+     * @return true si la table contient des lignes
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM shop_sales_rollups)", nativeQuery = true)
+    boolean hasAnyRollup();
+
+    /**
+     * Construit les agrégats journaliers depuis l'historique des commandes non annulées
+     * USAGE : premier démarrage avec la table vide
+     *
+     * @return nombre d'agrégats créés
+     */
+    @Modifying
+    @Query(value = "INSERT INTO shop_sales_rollups (shop_id, granularity, bucket_start, revenue, order_count, units_sold) " +
+           "SELECT c.shop_id, 'DAY', date_trunc('day', c.created_at), SUM(c.total), COUNT(*), COALESCE(SUM(u.units), 0) " +
+           "FROM commandes c LEFT JOIN (SELECT commande_id, SUM(quantity) AS units FROM order_items GROUP BY commande_id) u " +
+           "ON u.commande_id = c.id WHERE c.etat <> 'Annulee' GROUP BY 1, 2, 3 " +
+           "ON CONFLICT (shop_id, granularity, bucket_start) DO NOTHING", nativeQuery = true)
+    int backfillDaily();
+
+    /**
+     * Construit les agrégats horaires récents depuis l'historique des commandes non annulées
+     *
+     * @param since date à partir de laquelle les agrégats horaires sont conservés
+     * @return nombre d'agrégats créés
+     */
+    @Modifying
+    @Query(value = "INSERT INTO shop_sales_rollups (shop_id, granularity, bucket_start, revenue, order_count, units_sold) " +
+           "SELECT c.shop_id, 'HOUR', date_trunc('hour', c.created_at), SUM(c.total), COUNT(*), COALESCE(SUM(u.units), 0) " +
+           "FROM commandes c LEFT JOIN (SELECT commande_id, SUM(quantity) AS units FROM order_items GROUP BY commande_id) u " +
+           "ON u.commande_id = c.id WHERE c.etat <> 'Annulee' AND c.created_at >= :since GROUP BY 1, 2, 3 " +
+           "ON CONFLICT (shop_id, granularity, bucket_start) DO NOTHING", nativeQuery = true)
+    int backfillHourly(@Param("since") LocalDateTime since);
+}
@@ -0,0 +1,133 @@
+package com.example.e_souk.Repository;
+
+import com.example.e_souk.Model.ShopStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository pour les compteurs matérialisés des boutiques
+ */
+@Repository
+public interface ShopStatsRepository extends JpaRepository<ShopStats, UUID> {
+
+    /**
+     * Applique des deltas aux compteurs d'une boutique (upsert PostgreSQL)
+     * Crée la ligne si elle n'existe pas encore
+     *
+     * @param shopId ID de la boutique
+     * @param products delta du nombre de produits
+     * @param orders delta du nombre de commandes
+     * @param followers delta du nombre d'abonnés
+     * @param activeProducts delta du nombre de produits actifs
+     * @param pendingOrders delta du nombre de commandes en attente ou en cours
+     * @param completedOrders delta du nombre de commandes livrées
+     * @return nombre de lignes affectées
+     */
+    @Modifying
+    @Query(value = "INSERT INTO shop_stats (shop_id, product_count, order_count, follower_count, " +
+           "active_product_count, pending_order_count, completed_order_count, updated_at) " +
+           "VALUES (:shopId, :products, :orders, :followers, :activeProducts, :pendingOrders, :completedOrders, now()) " +
+           "ON CONFLICT (shop_id) DO UPDATE SET " +
+           "product_count = shop_stats.product_count + EXCLUDED.product_count, " +
+           "order_count = shop_stats.order_count + EXCLUDED.order_count, " +
+           "follower_count = shop_stats.follower_count + EXCLUDED.follower_count, " +
+           "active_product_count = shop_stats.active_product_count + EXCLUDED.active_product_count, " +
+           "pending_order_count = shop_stats.pending_order_count + EXCLUDED.pending_order_count, " +
+           "completed_order_count = shop_stats.completed_order_count + EXCLUDED.completed_order_count, " +
+           "updated_at = now()", nativeQuery = true)
+    int applyDeltas(@Param("shopId") UUID shopId,
+                    @Param("products") long products,
+                    @Param("orders") long orders,
+                    @Param("followers") long followers,
+                    @Param("activeProducts") long activeProducts,
+                    @Param("pendingOrders") long pendingOrders,
+                    @Param("completedOrders") long completedOrders);
+
+    /**
+     * Ajoute une note à l'agrégat d'une boutique (upsert atomique PostgreSQL)
+     * Incrémente le nombre d'avis, la somme et la case de l'histogramme correspondante
+     * Une ligne créée ici part de compteurs d'état à 0 (pas de valeur par défaut en base, voir ShopStats) :
+     * la boutique est postérieure à l'initialisation du démarrage, ses produits et commandes arrivent en deltas
+     *
+     * @param shopId ID de la boutique
+     * @param rating note de 1 à 5
+     * @return nombre de lignes affectées
+     */
+    @Modifying
+    @Query(value = "INSERT INTO shop_stats (shop_id, active_product_count, pending_order_count, completed_order_count, " +
+           "rating_count, rating_sum, rating_1, rating_2, rating_3, rating_4, rating_5, updated_at) " +
+           "VALUES (:shopId, 0, 0, 0, 1, :rating, " +
+           "CASE WHEN :rating = 1 THEN 1 ELSE 0 END, CASE WHEN :rating = 2 THEN 1 ELSE 0 END, " +
+           "CASE WHEN :rating = 3 THEN 1 ELSE 0 END, CASE WHEN :rating = 4 THEN 1 ELSE 0 END, " +
+           "CASE WHEN :rating = 5 THEN 1 ELSE 0 END, now()) " +
+           "ON CONFLICT (shop_id) DO UPDATE SET " +
+           "rating_count = shop_stats.rating_count + 1, " +
+           "rating_sum = shop_stats.rating_sum + EXCLUDED.rating_sum, " +
+           "rating_1 = shop_stats.rating_1 + EXCLUDED.rating_1, " +
+           "rating_2 = shop_stats.rating_2 + EXCLUDED.rating_2, " +
+           "rating_3 = shop_stats.rating_3 + EXCLUDED.rating_3, " +
+           "rating_4 = shop_stats.rating_4 + EXCLUDED.rating_4, " +
+           "rating_5 = shop_stats.rating_5 + EXCLUDED.rating_5, " +
+           "updated_at = now()", nativeQuery = true)
+    int addRating(@Param("shopId") UUID shopId, @Param("rating") int rating);
+
+    /**
+     * Initialise les compteurs des boutiques qui n'ont pas encore de ligne
+     * USAGE : au démarrage, pour les boutiques créées avant l'existence de la table
+     *
+     * @return nombre de boutiques initialisées
+     */
+    @Modifying
+    @Query(value = "INSERT INTO shop_stats (shop_id, product_count, order_count, follower_count, " +
+           "active_product_count, pending_order_count, completed_order_count, " +
+           "rating_count, rating_sum, rating_1, rating_2, rating_3, rating_4, rating_5, updated_at) " +
+           "SELECT s.id, " +
+           "(SELECT COUNT(*) FROM products p WHERE p.shop_id = s.id), " +
+           "(SELECT COUNT(*) FROM commandes c WHERE c.shop_id = s.id), " +
+           "(SELECT COUNT(*) FROM shop_followers sf WHERE sf.shop_id = s.id), " +
+           "(SELECT COUNT(*) FROM products p WHERE p.shop_id = s.id AND p.is_active = true), " +
+           "(SELECT COUNT(*) FROM commandes c WHERE c.shop_id = s.id AND c.etat IN ('EnAttente', 'EnCours')), " +
+           "(SELECT COUNT(*) FROM commandes c WHERE c.shop_id = s.id AND c.etat = 'Livree'), " +
+           "COALESCE(r.cnt, 0), COALESCE(r.total, 0), COALESCE(r.r1, 0), COALESCE(r.r2, 0), " +
+           "COALESCE(r.r3, 0), COALESCE(r.r4, 0), COALESCE(r.r5, 0), " +
+           "now() FROM shops s " +
+           "LEFT JOIN (SELECT shop_id, COUNT(*) AS cnt, SUM(rating) AS total, " +
+           "COUNT(*) FILTER (WHERE rating = 1) AS r1, COUNT(*) FILTER (WHERE rating = 2) AS r2, " +
+           "COUNT(*) FILTER (WHERE rating = 3) AS r3, COUNT(*) FILTER (WHERE rating = 4) AS r4, " +
+           "COUNT(*) FILTER (WHERE rating = 5) AS r5 " +
+           "FROM reviews WHERE type = 'SHOP' GROUP BY shop_id) r ON r.shop_id = s.id " +
+           "ON CONFLICT (shop_id) DO NOTHING", nativeQuery = true)
+    int initializeMissing();
+
+    /**
+     * Initialise les compteurs d'état des lignes créées avant leur existence (colonnes à null)
+     * USAGE : au démarrage, une seule fois par ligne
+     *
+     * @return nombre de boutiques initialisées
+     */
+    @Modifying
+    @Query(value = "UPDATE shop_stats ss SET " +
+           "active_product_count = (SELECT COUNT(*) FROM products p WHERE p.shop_id = ss.shop_id AND p.is_active = true), " +
+           "pending_order_count = (SELECT COUNT(*) FROM commandes c WHERE c.shop_id = ss.shop_id " +
+           "AND c.etat IN ('EnAttente', 'EnCours')), " +
+           "completed_order_count = (SELECT COUNT(*) FROM commandes c WHERE c.shop_id = ss.shop_id AND c.etat = 'Livree') " +
+           "WHERE ss.active_product_count IS NULL OR ss.pending_order_count IS NULL OR ss.completed_order_count IS NULL",
+           nativeQuery = true)
+    int initializeStatusCounters();
+
+    /**
+     * Lit le nombre d'abonnés matérialisé de chaque boutique active
+     * USAGE : chargement du classement au démarrage sans recompter shop_followers
+     *
+     * @return Liste de [shopId, nombre d'abonnés] (0 si pas encore de ligne)
+     */
+    @Query("SELECT s.id, COALESCE(ss.followerCount, 0) FROM Shop s LEFT JOIN ShopStats ss ON ss.shopId = s.id " +
+           "WHERE s.isActive = true")
+    List<Object[]> findActiveShopFollowerCounts();
+}
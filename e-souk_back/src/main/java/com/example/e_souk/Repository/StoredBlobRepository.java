@@ -0,0 +1,112 @@
+package com.example.e_souk.Repository;
+
+import com.example.e_souk.Model.StoredBlob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository des fichiers stockés par empreinte (déduplication et comptage de références)
+ */
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    /**
+     * Crée le blob sans référence, libéré à :now (ignoré s'il existe déjà)
+     * Commité avant l'écriture du fichier (voir FileStorageService) : si la transaction de l'upload
+     * est annulée, le fichier reste rattaché à une ligne et le ramasse-miettes le supprime
+     * @return 1 si la ligne a été créée, 0 si elle existait
+     */
+    @Modifying
+    @Query(value = "INSERT INTO stored_blobs (content_hash, file_name, size_bytes, content_type, image_format, width, height, " +
+           "ref_count, created_at, released_at) " +
+           "VALUES (:hash, :fileName, :size, :contentType, :format, :width, :height, 0, :now, :now) " +
+           "ON CONFLICT (content_hash) DO NOTHING",
+           nativeQuery = true)
+    int register(@Param("hash") String hash,
+                 @Param("fileName") String fileName,
+                 @Param("size") long size,
+                 @Param("contentType") String contentType,
+                 @Param("format") String format,
+                 @Param("width") Integer width,
+                 @Param("height") Integer height,
+                 @Param("now") LocalDateTime now);
+
+    /**
+     * Crée le blob avec une référence, ou ajoute une référence s'il existe déjà
+     * Atomique : deux uploads simultanés du même contenu ne créent qu'une ligne
+     * Format et dimensions complètent une ligne antérieure qui ne les avait pas
+     * @return nombre de lignes insérées ou mises à jour
+     */
+    @Modifying
+    @Query(value = "INSERT INTO stored_blobs (content_hash, file_name, size_bytes, content_type, image_format, width, height, " +
+           "ref_count, created_at, released_at) " +
+           "VALUES (:hash, :fileName, :size, :contentType, :format, :width, :height, 1, :now, NULL) " +
+           "ON CONFLICT (content_hash) DO UPDATE SET ref_count = stored_blobs.ref_count + 1, released_at = NULL, " +
+           "image_format = COALESCE(stored_blobs.image_format, EXCLUDED.image_format), " +
+           "width = COALESCE(stored_blobs.width, EXCLUDED.width), " +
+           "height = COALESCE(stored_blobs.height, EXCLUDED.height)",
+           nativeQuery = true)
+    int acquire(@Param("hash") String hash,
+                @Param("fileName") String fileName,
+                @Param("size") long size,
+                @Param("contentType") String contentType,
+                @Param("format") String format,
+                @Param("width") Integer width,
+                @Param("height") Integer height,
+                @Param("now") LocalDateTime now);
+
+    /**
+     * Nom de fichier retenu pour un contenu (le premier upload fixe l'extension)
+     */
+    @Query("SELECT b.fileName FROM StoredBlob b WHERE b.contentHash = :hash")
+    Optional<String> findFileNameByHash(@Param("hash") String hash);
+
+    /**
+     * Format et dimensions relevés à l'upload (évite de relire l'en-tête du fichier)
+     * @return [imageFormat, width, height], vide pour un ancien upload sans ligne
+     */
+    @Query("SELECT b.imageFormat, b.width, b.height FROM StoredBlob b WHERE b.fileName = :fileName")
+    List<Object[]> findImageInfoByFileName(@Param("fileName") String fileName);
+
+    /**
+     * Ajoute une référence à un blob existant, désigné par son nom de fichier
+     * @return 0 si le fichier n'est pas un blob (ancien upload nommé UUID_nom)
+     */
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.refCount = b.refCount + 1, b.releasedAt = NULL WHERE b.fileName = :fileName")
+    int retain(@Param("fileName") String fileName);
+
+    /**
+     * Retire une référence (jamais en dessous de 0)
+     * @return 0 si le fichier n'est pas un blob
+     */
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.refCount = b.refCount - 1, b.releasedAt = :now " +
+           "WHERE b.fileName = :fileName AND b.refCount > 0")
+    int release(@Param("fileName") String fileName, @Param("now") LocalDateTime now);
+
+    /**
+     * Blobs sans référence depuis le délai de grâce
+     * PERFORMANCE : index (released_at)
+     * @return Liste de [contentHash, fileName]
+     */
+    @Query("SELECT b.contentHash, b.fileName FROM StoredBlob b WHERE b.refCount <= 0 AND b.releasedAt < :cutoff " +
+           "ORDER BY b.releasedAt")
+    List<Object[]> findCollectable(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * Supprime le blob s'il n'est toujours pas référencé (re-vérifié sous verrou de ligne)
+     * @return 1 si supprimé, 0 si une référence a été reprise entre-temps
+     */
+    @Modifying
+    @Query("DELETE FROM StoredBlob b WHERE b.contentHash = :hash AND b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("hash") String hash);
+}
@@ -3,6 +3,7 @@ package com.example.e_souk.Repository;
 import com.example.e_souk.Model.Role;
 import com.example.e_souk.Model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -101,4 +102,14 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      */
     @Query("SELECT COUNT(u) FROM User u WHERE u.role = :role AND u.isActive = true")
     long countActiveByRole(@Param("role") Role role);
-} 
\ No newline at end of file
+
+    /**
+     * Remplace le hash du mot de passe (ré-encodage à la connexion)
+     * @param userId ID de l'utilisateur
+     * @param password nouveau hash
+     * @return nombre de lignes modifiées
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :userId")
+    int updatePassword(@Param("userId") UUID userId, @Param("password") String password);
+}
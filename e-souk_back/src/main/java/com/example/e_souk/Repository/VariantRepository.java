@@ -2,6 +2,7 @@ package com.example.e_souk.Repository;
 
 import com.example.e_souk.Model.Variant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -130,22 +131,60 @@ public interface VariantRepository extends JpaRepository<Variant, UUID> {
      * @param newStock nouveau stock
      * @return int nombre de lignes mises à jour
      */
+    @Modifying
     @Query("UPDATE Variant v SET v.stock = :newStock WHERE v.id = :variantId")
     int updateStock(@Param("variantId") UUID variantId, @Param("newStock") int newStock);
+
+    /**
+     * Décrémente le stock d'une variante seulement s'il est suffisant
+     * 
+     * USAGE : Réservation du stock à la commande (StockService)
+     * Atomique : deux commandes concurrentes ne peuvent pas vendre la même unité
+     * 
+     * @param variantId ID de la variante
+     * @param quantity quantité à retirer
+     * @return int 1 si le stock a été décrémenté, 0 si insuffisant
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Variant v SET v.stock = v.stock - :quantity WHERE v.id = :variantId AND v.stock >= :quantity")
+    int decrementStockIfAvailable(@Param("variantId") UUID variantId, @Param("quantity") int quantity);
+
+    /**
+     * Incrémente le stock d'une variante
+     * 
+     * USAGE : Remise en stock à l'annulation d'une commande (StockService)
+     * 
+     * @param variantId ID de la variante
+     * @param quantity quantité à remettre
+     * @return int nombre de lignes mises à jour
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Variant v SET v.stock = v.stock + :quantity WHERE v.id = :variantId")
+    int incrementStock(@Param("variantId") UUID variantId, @Param("quantity") int quantity);
+
+    /**
+     * Lit le stock courant d'une variante en base (ignore l'entité éventuellement en cache)
+     * 
+     * @param variantId ID de la variante
+     * @return stock courant
+     */
+    @Query("SELECT v.stock FROM Variant v WHERE v.id = :variantId")
+    Optional<Integer> findStockById(@Param("variantId") UUID variantId);
     
     /**
      * Trouve les variantes les plus vendues d'une boutique
      * 
      * USAGE : Statistiques vendeur, suggestions
-     * Note : Nécessite la table OrderItem pour compter les ventes
+     * PERFORMANCE : lit les compteurs variant_sales via l'index (shop_id, units_sold DESC)
+     * au lieu de re-sommer les OrderItem de chaque variante
      * 
      * @param shopId ID de la boutique
-     * @param limit nombre de variantes à retourner
-     * @return List<Variant> variantes les plus vendues
+     * @param pageable nombre de variantes à retourner
+     * @return List<Variant> variantes vendues au moins une fois, les plus vendues d'abord
      */
-    @Query("SELECT v FROM Variant v " +
-           "WHERE v.product.shop.id = :shopId " +
-           "ORDER BY (SELECT COALESCE(SUM(oi.quantity), 0) FROM OrderItem oi WHERE oi.variant.id = v.id) DESC")
+    @Query("SELECT v FROM VariantSales s JOIN Variant v ON v.id = s.variantId " +
+           "WHERE s.shopId = :shopId AND s.unitsSold > 0 " +
+           "ORDER BY s.unitsSold DESC")
     List<Variant> findBestSellingVariantsByShop(@Param("shopId") UUID shopId, 
                                                org.springframework.data.domain.Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.example.e_souk.Repository;
+
+import com.example.e_souk.Model.VariantSales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+/**
+ * Repository des compteurs de ventes par variante
+ */
+@Repository
+public interface VariantSalesRepository extends JpaRepository<VariantSales, UUID> {
+
+    /**
+     * Ajoute (ou retire) des unités vendues à une variante (upsert PostgreSQL)
+     *
+     * @param variantId ID de la variante
+     * @param productId ID du produit
+     * @param shopId ID de la boutique
+     * @param units delta d'unités (négatif pour une annulation)
+     * @return nombre de lignes affectées
+     */
+    @Modifying
+    @Query(value = "INSERT INTO variant_sales (variant_id, product_id, shop_id, units_sold, updated_at) " +
+           "VALUES (:variantId, :productId, :shopId, GREATEST(:units, 0), now()) " +
+           "ON CONFLICT (variant_id) DO UPDATE SET " +
+           "units_sold = GREATEST(variant_sales.units_sold + :units, 0), updated_at = now()", nativeQuery = true)
+    int addUnits(@Param("variantId") UUID variantId, @Param("productId") UUID productId,
+                 @Param("shopId") UUID shopId, @Param("units") long units);
+
+    /**
+     * Construit les compteurs depuis l'historique des commandes non annulées
+     * USAGE : premier démarrage avec la table vide
+     *
+     * @return nombre de compteurs créés
+     */
+    @Modifying
+    @Query(value = "INSERT INTO variant_sales (variant_id, product_id, shop_id, units_sold, updated_at) " +
+           "SELECT v.id, v.product_id, p.shop_id, SUM(oi.quantity), now() FROM order_items oi " +
+           "JOIN commandes c ON c.id = oi.commande_id JOIN variants v ON v.id = oi.variant_id " +
+           "JOIN products p ON p.id = v.product_id WHERE c.etat <> 'Annulee' GROUP BY v.id, v.product_id, p.shop_id " +
+           "ON CONFLICT (variant_id) DO NOTHING", nativeQuery = true)
+    int backfill();
+
+    /**
+     * Indique si au moins un compteur existe
+     * @return true si la table contient des lignes
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM variant_sales)", nativeQuery = true)
+    boolean hasAnySales();
+}
@@ -1,21 +1,26 @@
 package com.example.e_souk.Service;
 
 import java.io.IOException;
+import java.util.UUID;
 
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.example.e_souk.Config.JwtTokenProvider;
+import com.example.e_souk.Config.UserDetailsImpl;
+import com.example.e_souk.Config.VerifiedToken;
 import com.example.e_souk.Dto.Auth.AuthResponseDTO;
 import com.example.e_souk.Dto.Auth.LoginRequestDTO;
 import com.example.e_souk.Dto.Auth.RegisterRequestDTO;
 import com.example.e_souk.Dto.User.UserProfileDTO;
 import com.example.e_souk.Exception.AuthException;
+import com.example.e_souk.Exception.TooManyRequestsException;
 import com.example.e_souk.Mappers.AuthMapper;
 import com.example.e_souk.Mappers.UserMapper;
 import com.example.e_souk.Model.User;
@@ -37,13 +42,17 @@ public class AuthService {
     private final JwtTokenProvider jwtTokenProvider;
     private final AuthenticationManager authenticationManager;
     private final FileStorageService fileStorageService; // Add dependency
+    private final LoginThrottle loginThrottle;
+    private final TokenRevocationService tokenRevocationService;
 /**
      * Inscription d'un nouvel utilisateur
      * @param registerRequest DTO contenant les données d'inscription
+     * @param clientIp Adresse IP du client (limitation des inscriptions)
      * @return Réponse d'authentification avec token JWT
      */
-    public AuthResponseDTO register(RegisterRequestDTO registerRequest) {
+    public AuthResponseDTO register(RegisterRequestDTO registerRequest, String clientIp) {
         log.info("Tentative d'inscription pour l'utilisateur: {}", registerRequest.getUsername());
+        loginThrottle.checkRegister(clientIp);
         // Vérification que le nom d'utilisateur n'existe pas déjà
         if (userService.usernameExists(registerRequest.getUsername())) {
             throw AuthException.usernameAlreadyExists(registerRequest.getUsername());
@@ -84,7 +93,8 @@ public class AuthService {
         
         User savedUser = userService.createUser(user);
         // Génération du token JWT
-        String token = jwtTokenProvider.generateTokenFromUsername(savedUser.getUsername());
+        String token = jwtTokenProvider.generateTokenFromUsername(savedUser.getUsername(), savedUser.getId(),
+                savedUser.getRole().name());
         
         AuthResponseDTO response = AuthMapper.toAuthResponseDTO(savedUser, token, "Inscription réussie");
         
@@ -94,12 +104,19 @@ public class AuthService {
 
     /**
      * Connexion d'un utilisateur
+     * 
+     * Hors transaction : aucune connexion base n'est gardée pendant la vérification BCrypt
+     * (les lectures/écritures utilisateur ouvrent leur propre transaction)
+     * 
      * @param loginRequest DTO contenant les identifiants de connexion
+     * @param clientIp Adresse IP du client (limitation des tentatives)
      * @return Réponse d'authentification avec token JWT
+     * @throws TooManyRequestsException si le compte ou l'IP a épuisé ses tentatives, ou si le pool de hachage est saturé
      */
-
-    public AuthResponseDTO login(LoginRequestDTO loginRequest) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AuthResponseDTO login(LoginRequestDTO loginRequest, String clientIp) {
         log.info("Tentative de connexion pour: {}", loginRequest.getUsernameOrEmail());
+        loginThrottle.checkLogin(loginRequest.getUsernameOrEmail(), clientIp);
         try {
             // Authentification avec Spring Security
             Authentication authentication = authenticationManager.authenticate(
@@ -108,6 +125,8 @@ public class AuthService {
                             loginRequest.getPassword()
                     )
             );
+            // Mot de passe correct : la tentative ne compte pas contre le compte
+            loginThrottle.loginSucceeded(loginRequest.getUsernameOrEmail());
             // Stockage de l'authentification dans le contexte
             SecurityContextHolder.getContext().setAuthentication(authentication);
             // Génération du token JWT
@@ -121,6 +140,8 @@ public class AuthService {
             AuthResponseDTO response = AuthMapper.toAuthResponseDTO(user, token, "Connexion réussie");
             log.info("Connexion réussie pour l'utilisateur: {}", user.getUsername());
             return response;
+        } catch (TooManyRequestsException e) {
+            throw e;
         } catch (Exception e) {
             log.warn("Échec de connexion pour: {}", loginRequest.getUsernameOrEmail());
             throw AuthException.invalidCredentials();
@@ -158,13 +179,50 @@ public class AuthService {
         
     return user;
     }
+    /**
+     * Récupère l'utilisateur authentifié tel que porté par la requête (ID, nom, rôle)
+     * Pas d'accès base : le principal est posé par JwtAuthenticationFilter
+     * @return Principal de la requête courante
+     */
+    public UserDetailsImpl getCurrentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        
+        if (authentication == null || !authentication.isAuthenticated()
+                || !(authentication.getPrincipal() instanceof UserDetailsImpl principal)) {
+            throw AuthException.invalidToken();
+        }
+        return principal;
+    }
+    /**
+     * Récupère l'ID de l'utilisateur authentifié sans accès base
+     * USAGE : services qui n'ont besoin que de la clé étrangère (getReferenceById)
+     * @return ID de l'utilisateur
+     */
+    public UUID getCurrentUserId() {
+        return getCurrentPrincipal().getId();
+    }
+    /**
+     * Déconnexion : révoque le token présenté jusqu'à son expiration
+     * @param authHeader En-tête Authorization (ex: "Bearer token123")
+     * @throws AuthException si le token est absent, invalide ou déjà révoqué
+     */
+    public void logout(String authHeader) {
+        String token = jwtTokenProvider.extractTokenFromHeader(authHeader);
+        VerifiedToken verified = token != null ? jwtTokenProvider.verify(token) : null;
+        if (verified == null || tokenRevocationService.isRevoked(verified)) {
+            throw AuthException.invalidToken();
+        }
+        tokenRevocationService.revoke(verified, verified.getUserId());
+        log.info("Déconnexion de l'utilisateur: {}", verified.getSubject());
+    }
     /**
      * Valide un token JWT
      * @param token Token JWT à valider
      * @return true si le token est valide
      */
     public boolean validateToken(String token) {
-        return jwtTokenProvider.validateToken(token);
+        VerifiedToken verified = jwtTokenProvider.verify(token);
+        return verified != null && !tokenRevocationService.isRevoked(verified);
     }
     
     /**
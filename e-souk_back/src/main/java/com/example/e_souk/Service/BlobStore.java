@@ -0,0 +1,76 @@
+package com.example.e_souk.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Stockage des fichiers uploadés (originaux et variantes), indépendant du support
+ *
+ * Une clé est le chemin logique exposé sous /uploads/ et enregistré sur les entités
+ * ("{empreinte}.png", "variants/{empreinte}_w160.jpg", anciens "UUID_nom.jpg").
+ * Implémentations : FileSystemBlobStore (répertoires répartis par préfixe, par défaut)
+ * et S3BlobStore (API S3, AWS ou compatible type MinIO).
+ */
+public interface BlobStore {
+
+    /**
+     * Métadonnées d'un fichier stocké
+     * @param size taille en octets
+     * @param lastModified date de modification (epoch ms)
+     * @param etag ETag fourni par le support (entre guillemets), null si non disponible
+     */
+    record BlobStat(long size, long lastModified, String etag) {
+    }
+
+    /**
+     * @return métadonnées, vide si la clé n'existe pas
+     */
+    Optional<BlobStat> stat(String key) throws IOException;
+
+    default boolean exists(String key) throws IOException {
+        return stat(key).isPresent();
+    }
+
+    /**
+     * Enregistre un fichier local sous la clé (remplace un éventuel contenu existant)
+     * Le fichier source peut être déplacé : l'appelant supprime ce qui reste (deleteIfExists)
+     * @param key clé de destination
+     * @param source fichier local complet (préparé dans FileUploadConfig#newStagingFile)
+     * @param contentType type MIME
+     */
+    void put(String key, Path source, String contentType) throws IOException;
+
+    /**
+     * Ouvre le contenu en lecture, à partir d'un décalage
+     * @param offset premier octet
+     * @param length nombre d'octets, -1 pour lire jusqu'à la fin
+     * @throws java.nio.file.NoSuchFileException si la clé n'existe pas
+     */
+    InputStream open(String key, long offset, long length) throws IOException;
+
+    default InputStream open(String key) throws IOException {
+        return open(key, 0, -1);
+    }
+
+    /**
+     * Chemin local du fichier, pour un envoi sans copie (sendfile, FileChannel.transferTo)
+     * @return vide pour un support distant ou si la clé n'existe pas
+     */
+    Optional<Path> localPath(String key) throws IOException;
+
+    /**
+     * Supprime le fichier (sans effet si la clé n'existe pas)
+     */
+    void delete(String key) throws IOException;
+
+    /**
+     * Parcours de toutes les clés (rattrapage des variantes au démarrage)
+     * Par défaut vide, pour un support qui ne sait pas se lister
+     */
+    default Stream<String> keys() throws IOException {
+        return Stream.empty();
+    }
+}
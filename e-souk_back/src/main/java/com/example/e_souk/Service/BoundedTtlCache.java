@@ -0,0 +1,169 @@
+package com.example.e_souk.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Cache mémoire borné avec expiration (TTL), commun aux caches locaux de l'application
+ *
+ * TAILLE : une insertion dans un cache plein le vide entièrement. Aucun ordre d'éviction n'est maintenu,
+ * les entrées encore utiles sont rechargées au prochain accès.
+ *
+ * EXPIRATION : durée fixe (ttlMs) ou date propre à l'entrée (putUntil).
+ *
+ * GARDE DE VERSION : relever stamp(key) avant de lire la source, puis insérer avec putIfUnchanged.
+ * Si la clé a été invalidée entre-temps, la valeur lue avant l'invalidation n'est pas mise en cache.
+ * Les versions sont réparties sur 64 bandes : l'invalidation d'une autre clé de la même bande
+ * coûte au pire un remplissage manqué.
+ *
+ * @param <K> type de clé (hashCode / equals)
+ * @param <V> type de valeur (non null)
+ */
+public final class BoundedTtlCache<K, V> {
+
+    private static final int STRIPES = 64;
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+    private final int maxSize;
+    private final long ttlMs;
+
+    /**
+     * @param maxSize nombre maximal d'entrées
+     * @param ttlMs durée de vie d'une entrée en millisecondes
+     */
+    public BoundedTtlCache(int maxSize, long ttlMs) {
+        if (maxSize <= 0 || ttlMs <= 0) {
+            throw new IllegalArgumentException("Taille et durée de vie du cache doivent être positives");
+        }
+        this.maxSize = maxSize;
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * @return la valeur en cache, null si absente ou expirée
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() > System.currentTimeMillis()) {
+            return entry.value();
+        }
+        entries.remove(key, entry);
+        return null;
+    }
+
+    /**
+     * Valeur en cache, sinon chargée puis mise en cache sous garde de version
+     * @param loader lecture de la source (une valeur null n'est pas mise en cache)
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = stamp(key);
+        V value = loader.apply(key);
+        if (value != null) {
+            putIfUnchanged(key, value, stamp);
+        }
+        return value;
+    }
+
+    /**
+     * Version courante de la clé, à relever avant de lire la source
+     */
+    public long stamp(K key) {
+        return versions.get(stripe(key));
+    }
+
+    /**
+     * Met une valeur en cache pour la durée de vie par défaut, sans garde de version
+     */
+    public void put(K key, V value) {
+        insert(key, new Entry<>(value, System.currentTimeMillis() + ttlMs));
+    }
+
+    /**
+     * Met une valeur en cache jusqu'à une date donnée, sans garde de version
+     * @param expiresAtMs date d'expiration (epoch ms)
+     */
+    public void putUntil(K key, V value, long expiresAtMs) {
+        insert(key, new Entry<>(value, expiresAtMs));
+    }
+
+    /**
+     * Met une valeur en cache si la clé n'a pas été invalidée depuis stamp
+     * @param stamp version relevée avant la lecture de la source
+     * @return true si la valeur est restée en cache
+     */
+    public boolean putIfUnchanged(K key, V value, long stamp) {
+        int stripe = stripe(key);
+        if (versions.get(stripe) != stamp) {
+            return false;
+        }
+        Entry<V> entry = new Entry<>(value, System.currentTimeMillis() + ttlMs);
+        insert(key, entry);
+        // Une invalidation incrémente la version puis retire l'entrée : si elle est passée
+        // entre le contrôle et l'insertion, c'est ici que l'entrée posée est retirée
+        if (versions.get(stripe) != stamp) {
+            entries.remove(key, entry);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Signale un changement de la source pour une clé dont la valeur est mise à jour en place :
+     * l'entrée reste, mais les chargements commencés avant ne seront pas mis en cache
+     */
+    public void markChanged(K key) {
+        versions.incrementAndGet(stripe(key));
+    }
+
+    /**
+     * Retire une clé et écarte les chargements en cours pour cette clé
+     */
+    public void invalidate(K key) {
+        versions.incrementAndGet(stripe(key));
+        entries.remove(key);
+    }
+
+    /**
+     * Retire toutes les clés qui satisfont le prédicat et écarte tous les chargements en cours
+     */
+    public void invalidateIf(Predicate<? super K> predicate) {
+        for (int i = 0; i < STRIPES; i++) {
+            versions.incrementAndGet(i);
+        }
+        entries.keySet().removeIf(predicate);
+    }
+
+    /**
+     * @return nombre d'entrées, expirées comprises
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private void insert(K key, Entry<V> entry) {
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            // Cache plein : on repart de zéro plutôt que de maintenir un ordre d'éviction
+            entries.clear();
+        }
+        entries.put(key, entry);
+    }
+
+    private static int stripe(Object key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
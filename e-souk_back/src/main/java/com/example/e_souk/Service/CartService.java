@@ -39,9 +39,8 @@ public class CartService {
      */
     public CartItemDto addToCart(UUID userId, AddToCartRequest request) {
         
-        // 1. Récupération et validation de l'utilisateur
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("Utilisateur non trouvé"));
+        // 1. Référence de l'utilisateur (ID issu du token : seule la clé étrangère est utile, pas de SELECT)
+        User user = userRepository.getReferenceById(userId);
 
         // 2. Récupération et validation du produit
         Product product = productRepository.findById(request.getProductId())
@@ -4,11 +4,16 @@ import com.example.e_souk.Dto.Commande.CommandeDTO;
 import com.example.e_souk.Dto.Commande.OrderItemDTO;
 import com.example.e_souk.Dto.Commande.ShopOrdersDto;
 import com.example.e_souk.Dto.Commande.UserOrdersDto;
+import com.example.e_souk.Event.OrderCancelledEvent;
+import com.example.e_souk.Event.OrderLine;
+import com.example.e_souk.Event.OrderPlacedEvent;
+import com.example.e_souk.Event.OrderStatusChangedEvent;
 import com.example.e_souk.Exception.ResourceNotFoundException;
 import com.example.e_souk.Model.*;
 import com.example.e_souk.Repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -36,6 +41,8 @@ public class CommandeService {
     private final ShopRepository shopRepository;
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
+    private final StockService stockService;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * Récupère toutes les commandes d'un utilisateur
@@ -94,8 +101,8 @@ public class CommandeService {
     public CommandeDTO createOrderFromCart(UUID userId, UUID shopId, String deliveryAddress, String deliveryPostalCode) {
         log.info("Création d'une commande à partir du panier - Utilisateur: {}, Boutique: {}", userId, shopId);
         
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Utilisateur non trouvé"));
+        // ID issu du token : seule la clé étrangère est utile, pas de SELECT sur l'utilisateur
+        User user = userRepository.getReferenceById(userId);
         
         Shop shop = shopRepository.findById(shopId)
                 .orElseThrow(() -> new ResourceNotFoundException("Boutique non trouvée"));
@@ -141,12 +148,17 @@ public class CommandeService {
                 .reduce(0f, Float::sum);
         commande.setTotal(subtotal + shop.getDeliveryFee());
         
+        // Réserver le stock (échoue et annule la transaction si une variante est insuffisante)
+        stockService.reserve(shop, toOrderLines(commande));
+        
         Commande savedCommande = commandeRepository.save(commande);
         
         // Supprimer les articles du panier
         shopItems.forEach(cartItemRepository::delete);
         
         log.info("Commande créée avec succès: {}", savedCommande.getOrderNumber());
+        eventPublisher.publishEvent(new OrderPlacedEvent(savedCommande.getId(), shopId,
+                savedCommande.getTotal(), savedCommande.getCreatedAt(), toOrderLines(savedCommande)));
         
         return convertToDTO(savedCommande);
     }
@@ -162,6 +174,7 @@ public class CommandeService {
         
         Commande commande = commandeRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Commande non trouvée"));
+        EtatCommande previous = commande.getEtat();
         
         switch (newEtat) {
             case EnCours:
@@ -174,13 +187,17 @@ public class CommandeService {
                 commande.markAsDelivered();
                 break;
             case Annulee:
-                commande.cancel();
+                if (commande.canBeCancelled()) {
+                    commande.cancel();
+                    publishCancellation(commande);
+                }
                 break;
             default:
                 commande.setEtat(newEtat);
         }
         
         Commande updatedCommande = commandeRepository.save(commande);
+        publishStatusChange(updatedCommande, previous);
         return convertToDTO(updatedCommande);
     }
     
@@ -199,12 +216,51 @@ public class CommandeService {
             throw new IllegalArgumentException("La commande ne peut pas être annulée");
         }
         
+        EtatCommande previous = commande.getEtat();
         commande.cancel();
+        publishCancellation(commande);
         Commande cancelledCommande = commandeRepository.save(commande);
+        publishStatusChange(cancelledCommande, previous);
         
         return convertToDTO(cancelledCommande);
     }
     
+    /**
+     * Remet le stock et publie l'annulation d'une commande (rollups de ventes, compteurs de ventes)
+     * @param commande Commande annulée
+     */
+    private void publishCancellation(Commande commande) {
+        List<OrderLine> lines = toOrderLines(commande);
+        stockService.release(commande.getShop(), lines);
+        eventPublisher.publishEvent(new OrderCancelledEvent(commande.getId(), commande.getShop().getId(),
+                commande.getTotal(), commande.getCreatedAt(), lines));
+    }
+
+    /**
+     * Publie le changement d'état d'une commande (compteurs en attente / livrées de la boutique)
+     * @param commande Commande après mise à jour
+     * @param previous État avant la mise à jour
+     */
+    private void publishStatusChange(Commande commande, EtatCommande previous) {
+        if (commande.getEtat() != previous) {
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(commande.getId(), commande.getShop().getId(),
+                    previous, commande.getEtat()));
+        }
+    }
+
+    /**
+     * Extrait les lignes d'une commande pour les événements
+     * @param commande Commande
+     * @return lignes (variante, produit, quantité)
+     */
+    private List<OrderLine> toOrderLines(Commande commande) {
+        return commande.getOrderItems().stream()
+                .map(item -> new OrderLine(item.getVariant().getId(),
+                        item.getVariant().getProduct().getId(),
+                        item.getQuantity()))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Convertit une commande en DTO
      * @param commande Commande à convertir
@@ -1,48 +1,266 @@
 package com.example.e_souk.Service;
 
+import com.example.e_souk.Config.FileUploadConfig;
 import com.example.e_souk.Exception.FileStorageException;
-import jakarta.annotation.PostConstruct;
+import com.example.e_souk.Repository.StoredBlobRepository;
+import com.example.e_souk.Service.ImageSniffer.ImageInfo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.UUID;
 
+/**
+ * Stockage des images uploadées
+ *
+ * Le flux multipart est écrit par canaux NIO (FileChannel.transferFrom) dans un fichier de
+ * préparation, puis confié au BlobStore (disque réparti par préfixe ou S3).
+ *
+ * Mode par empreinte (file.content-addressed=true) : le fichier est haché (SHA-256) pendant
+ * sa copie dans le fichier de préparation, puis rangé sous le nom empreinte.extension.
+ * Un contenu déjà présent n'est pas recopié : on ajoute une référence à la ligne stored_blobs.
+ * Les blobs sans référence sont supprimés par collectGarbage() après un délai de grâce.
+ * Un nouveau contenu a sa ligne (sans référence) commitée à part avant l'écriture du fichier :
+ * l'annulation de la transaction de l'upload ne laisse jamais un fichier sans ligne.
+ *
+ * Chaque nom renvoyé par storeFile porte une référence : l'entité qui remplace ou supprime
+ * l'image appelle release (voir UserService), celle qui pointe vers une image existante appelle retain.
+ *
+ * Seuls les formats reconnus par ImageSniffer sont acceptés (JPEG, PNG, GIF, WebP, BMP) ;
+ * format et dimensions sont enregistrés sur la ligne stored_blobs.
+ *
+ * Les anciens fichiers (UUID_nomOriginal) ne sont pas des blobs : retain/release les ignorent.
+ */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class FileStorageService {
 
-    @Value("${file.upload-dir}")
-    private String uploadDir;
+    private static final long TRANSFER_CHUNK = 1 << 20;
 
+    private final StoredBlobRepository storedBlobRepository;
+    private final ImageDerivativeService imageDerivativeService;
+    private final FileUploadConfig fileUploadConfig;
+    private final BlobStore blobStore;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${file.content-addressed:true}")
+    private boolean contentAddressed;
+
+    @Value("${file.validation.sniff-bytes:16384}")
+    private int sniffBytes;
+
+    @Value("${file.validation.max-header-bytes:1048576}")
+    private int maxHeaderBytes;
+
+    @Value("${file.validation.max-pixels:40000000}")
+    private long maxPixels;
+
+    @Value("${file.gc-grace-ms:3600000}")
+    private long gcGraceMs;
+
+    @Value("${file.gc-batch-size:500}")
+    private int gcBatchSize;
+
+    /**
+     * Enregistre une image uploadée
+     * Le format est détecté sur les premiers octets du flux (signature et en-tête) : le type
+     * annoncé par le client est ignoré, et un contenu refusé n'est ni haché ni copié.
+     * Une image dont les dimensions restent inconnues (SOF JPEG au-delà de max-header-bytes) est
+     * refusée : la limite de pixels ne pourrait pas être vérifiée.
+     * @param file fichier multipart (doit être une image)
+     * @return nom du fichier dans le dossier d'upload (à stocker sur l'entité)
+     * @throws IOException en cas d'erreur d'écriture
+     * @throws IllegalArgumentException si le contenu n'est pas une image reconnue ou dépasse la limite de pixels
+     */
+    @Transactional
     public String storeFile(MultipartFile file) throws IOException {
-        // Vérifier si le fichier est une image
-        String contentType = file.getContentType();
-        if (contentType == null || !contentType.startsWith("image/")) {
-            log.warn("Tentative d'upload d'un fichier non-image: {}", contentType);
-            throw new IllegalArgumentException("Seules les images sont autorisées.");
+        try (InputStream input = file.getInputStream()) {
+            byte[] header = input.readNBytes(sniffBytes);
+            ImageInfo image = ImageSniffer.sniff(header, header.length, header.length < sniffBytes);
+            while (image != null && !image.hasDimensions() && header.length < maxHeaderBytes) {
+                // Dimensions au-delà des octets lus : lecture doublée, bornée, puis nouvelle détection
+                int wanted = (int) Math.min((long) header.length * 2, maxHeaderBytes) - header.length;
+                byte[] more = input.readNBytes(wanted);
+                header = Arrays.copyOf(header, header.length + more.length);
+                System.arraycopy(more, 0, header, header.length - more.length, more.length);
+                image = ImageSniffer.sniff(header, header.length, more.length < wanted);
+            }
+            if (image == null) {
+                log.warn("Upload refusé : contenu non reconnu comme image (type annoncé {})", file.getContentType());
+                throw new IllegalArgumentException("Seules les images sont autorisées.");
+            }
+            if (!image.hasDimensions()) {
+                log.warn("Upload refusé : dimensions introuvables dans les {} premiers octets", header.length);
+                throw new IllegalArgumentException("Image refusée : dimensions illisibles.");
+            }
+            if (image.pixels() > maxPixels) {
+                log.warn("Upload refusé : image de {}x{} pixels", image.width(), image.height());
+                throw new IllegalArgumentException("Image trop grande (" + image.width() + "x" + image.height() + " pixels).");
+            }
+
+            String fileName;
+            if (contentAddressed) {
+                fileName = storeContentAddressed(header, input, image);
+            } else {
+                // Générer un nom de fichier unique
+                fileName = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
+                Path temp = fileUploadConfig.newStagingFile(".upload-");
+                try {
+                    stage(header, input, temp);
+                    blobStore.put(fileName, temp, image.contentType());
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+                log.info("Fichier enregistré: {}", fileName);
+            }
+            // Variantes redimensionnées en arrière-plan (déjà présentes si le contenu est dédupliqué)
+            imageDerivativeService.scheduleAfterCommit(fileName);
+            return fileName;
+        }
+    }
+
+    private String storeContentAddressed(byte[] header, InputStream input, ImageInfo image) throws IOException {
+        // Copie dans le dossier de préparation (même disque que la racine), hachage au fil de l'eau
+        Path temp = fileUploadConfig.newStagingFile(".upload-");
+        try {
+            MessageDigest digest = sha256();
+            digest.update(header);
+            long size = stage(header, new DigestInputStream(input, digest), temp);
+            String hash = HexFormat.of().formatHex(digest.digest());
+
+            String candidate = hash + "." + image.extension();
+            if (storedBlobRepository.findFileNameByHash(hash).isEmpty()) {
+                // Nouveau contenu : ligne sans référence commitée avant le fichier, que la transaction
+                // appelante soit validée ou annulée (dans ce cas le ramasse-miettes reprend le fichier)
+                TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+                requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                requiresNew.executeWithoutResult(status -> storedBlobRepository.register(hash, candidate, size,
+                        image.contentType(), image.format(), image.width(), image.height(), LocalDateTime.now()));
+            }
+            // Référence ensuite : la ligne verrouillée empêche le ramasse-miettes de supprimer le fichier
+            storedBlobRepository.acquire(hash, candidate, size, image.contentType(),
+                    image.format(), image.width(), image.height(), LocalDateTime.now());
+            String fileName = storedBlobRepository.findFileNameByHash(hash)
+                    .orElseThrow(() -> new FileStorageException("BLOB_NOT_FOUND",
+                            "Blob introuvable après enregistrement: " + hash));
+
+            if (blobStore.exists(fileName)) {
+                log.info("Fichier déjà présent, référence ajoutée: {}", fileName);
+            } else {
+                blobStore.put(fileName, temp, image.contentType());
+                log.info("Fichier enregistré: {}", fileName);
+            }
+            return fileName;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Écrit l'en-tête déjà lu puis le reste du flux dans un fichier de préparation,
+     * par canaux NIO (transferFrom par blocs)
+     * @return nombre d'octets écrits
+     */
+    private static long stage(byte[] header, InputStream rest, Path target) throws IOException {
+        try (ReadableByteChannel in = Channels.newChannel(rest);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer head = ByteBuffer.wrap(header);
+            while (head.hasRemaining()) {
+                out.write(head);
+            }
+            long position = header.length;
+            long transferred;
+            while ((transferred = out.transferFrom(in, position, TRANSFER_CHUNK)) > 0) {
+                position += transferred;
+            }
+            return position;
         }
+    }
 
-        // Créer le dossier uploads s'il n'existe pas
-        Path uploadPath = Paths.get(uploadDir);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
+    /**
+     * Ajoute une référence à un fichier déjà stocké (entité qui pointe vers une image existante)
+     * @param fileName nom du fichier (ignoré si null ou ancien upload)
+     */
+    @Transactional
+    public void retain(String fileName) {
+        if (fileName != null && !fileName.isBlank()) {
+            storedBlobRepository.retain(fileName);
         }
+    }
 
-        // Générer un nom de fichier unique
-        String fileName = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
-        Path filePath = uploadPath.resolve(fileName);
+    /**
+     * Retire une référence (image remplacée ou entité supprimée)
+     * Le fichier n'est pas supprimé ici : le ramasse-miettes s'en charge après le délai de grâce
+     * @param fileName nom du fichier (ignoré si null ou ancien upload)
+     */
+    @Transactional
+    public void release(String fileName) {
+        if (fileName != null && !fileName.isBlank()) {
+            storedBlobRepository.release(fileName, LocalDateTime.now());
+        }
+    }
 
-        // Enregistrer le fichier
-        Files.copy(file.getInputStream(), filePath);
-        log.info("Fichier enregistré: {}", fileName);
+    /**
+     * Supprime les blobs sans référence depuis plus que le délai de grâce
+     * La ligne est supprimée (sous condition refCount <= 0) avant le fichier : un upload concurrent
+     * du même contenu attend le verrou de ligne, puis recrée la ligne et le fichier.
+     */
+    @Scheduled(fixedDelayString = "${file.gc-interval-ms:3600000}",
+               initialDelayString = "${file.gc-interval-ms:3600000}")
+    @Transactional
+    public void collectGarbage() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(gcGraceMs * 1_000_000);
+        List<Object[]> candidates = storedBlobRepository.findCollectable(cutoff, PageRequest.of(0, gcBatchSize));
+        int collected = 0;
+        for (Object[] row : candidates) {
+            String hash = (String) row[0];
+            String fileName = (String) row[1];
+            if (storedBlobRepository.deleteIfUnreferenced(hash) == 0) {
+                continue;
+            }
+            try {
+                blobStore.delete(fileName);
+                imageDerivativeService.deleteVariants(fileName);
+                collected++;
+            } catch (IOException e) {
+                log.warn("Suppression impossible du fichier {}: {}", fileName, e.getMessage());
+            }
+        }
+        if (collected > 0) {
+            log.info("Ramasse-miettes des uploads : {} fichiers supprimés", collected);
+        }
+    }
 
-        return fileName;
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,230 @@
+package com.example.e_souk.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Stockage sur disque, réparti en sous-dossiers par préfixe : clé "abcd1234….png" → ab/cd/abcd1234….png
+ *
+ * - Deux niveaux de 256 dossiers : quelques milliers de fichiers par dossier au plus,
+ *   même avec des centaines de milliers d'uploads
+ * - Le préfixe est celui du nom (empreinte SHA-256, UUID) ; à défaut, celui du SHA-256 du nom
+ * - Le dossier logique est conservé : "variants/abcd…_w160.jpg" → variants/ab/cd/abcd…_w160.jpg
+ * - Lecture : chemin réparti, puis même clé à plat dans la racine et les anciens dossiers
+ *   (fichiers enregistrés avant la répartition)
+ */
+public class FileSystemBlobStore implements BlobStore {
+
+    private final Path root;
+    private final List<Path> readRoots = new ArrayList<>();
+
+    /**
+     * @param root racine de stockage (écriture)
+     * @param legacyRoots anciens dossiers à plat (lecture seule)
+     */
+    public FileSystemBlobStore(Path root, List<Path> legacyRoots) {
+        this.root = root;
+        this.readRoots.add(root);
+        this.readRoots.addAll(legacyRoots);
+    }
+
+    @Override
+    public Optional<BlobStat> stat(String key) throws IOException {
+        Optional<Path> path = localPath(key);
+        if (path.isEmpty()) {
+            return Optional.empty();
+        }
+        BasicFileAttributes attributes = Files.readAttributes(path.get(), BasicFileAttributes.class);
+        return Optional.of(new BlobStat(attributes.size(), attributes.lastModifiedTime().toMillis(), null));
+    }
+
+    @Override
+    public void put(String key, Path source, String contentType) throws IOException {
+        Path target = shardedPath(key);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Source sur un autre disque : copie dans un temporaire voisin, puis déplacement atomique
+            Path temp = target.resolveSibling("." + target.getFileName() + ".tmp");
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                         StandardOpenOption.TRUNCATE_EXISTING)) {
+                long size = in.size();
+                for (long position = 0; position < size; ) {
+                    position += in.transferTo(position, size - position, out);
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public InputStream open(String key, long offset, long length) throws IOException {
+        Path path = localPath(key).orElseThrow(() -> new NoSuchFileException(key));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        long end = length < 0 ? channel.size() : Math.min(channel.size(), offset + length);
+        return new RangeInputStream(channel, offset, end);
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) throws IOException {
+        Path sharded = shardedPath(key);
+        if (Files.isRegularFile(sharded)) {
+            return Optional.of(sharded);
+        }
+        for (Path dir : readRoots) {
+            Path flat = resolveIn(dir, key);
+            if (Files.isRegularFile(flat)) {
+                return Optional.of(flat);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(shardedPath(key));
+        Files.deleteIfExists(resolveIn(root, key));
+    }
+
+    /**
+     * Clés de la racine (répartie ou à plat) puis des anciens dossiers ; fichiers cachés exclus
+     */
+    @Override
+    public Stream<String> keys() throws IOException {
+        Stream<String> keys = Stream.empty();
+        for (Path dir : readRoots) {
+            if (!Files.isDirectory(dir)) {
+                continue;
+            }
+            Stream<String> dirKeys = Files.walk(dir)
+                    .filter(Files::isRegularFile)
+                    .map(dir::relativize)
+                    .filter(relative -> !isHidden(relative))
+                    .map(FileSystemBlobStore::keyOf);
+            keys = Stream.concat(keys, dirKeys);
+        }
+        return keys.distinct();
+    }
+
+    /**
+     * Emplacement réparti d'une clé sous la racine
+     * @throws IllegalArgumentException si la clé sort de la racine (../, chemin absolu)
+     */
+    Path shardedPath(String key) {
+        int slash = key.lastIndexOf('/');
+        String directory = slash >= 0 ? key.substring(0, slash + 1) : "";
+        String name = key.substring(slash + 1);
+        String prefix = shardPrefix(name);
+        return resolveIn(root, directory + prefix.substring(0, 2) + "/" + prefix.substring(2, 4) + "/" + name);
+    }
+
+    /**
+     * 4 premiers caractères hexadécimaux du nom, sinon du SHA-256 du nom
+     */
+    static String shardPrefix(String name) {
+        if (name.length() >= 4) {
+            String head = name.substring(0, 4).toLowerCase(Locale.ROOT);
+            if (head.chars().allMatch(c -> (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return head;
+            }
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(name.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 2);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    /**
+     * Clé d'un fichier à partir de son chemin relatif : les deux niveaux de répartition sont retirés
+     */
+    private static String keyOf(Path relative) {
+        int count = relative.getNameCount();
+        String name = relative.getFileName().toString();
+        if (count >= 3) {
+            String first = relative.getName(count - 3).toString();
+            String second = relative.getName(count - 2).toString();
+            if (shardPrefix(name).equals(first + second)) {
+                return count == 3 ? name : relative.subpath(0, count - 3).resolve(name).toString().replace('\\', '/');
+            }
+        }
+        return relative.toString().replace('\\', '/');
+    }
+
+    private static boolean isHidden(Path relative) {
+        for (Path part : relative) {
+            if (part.toString().startsWith(".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Path resolveIn(Path dir, String relativePath) {
+        Path resolved = dir.resolve(relativePath).normalize();
+        if (!resolved.startsWith(dir) || resolved.equals(dir)) {
+            throw new IllegalArgumentException("Chemin de fichier invalide: " + relativePath);
+        }
+        return resolved;
+    }
+
+    /**
+     * Lecture d'une plage d'un FileChannel (positionnelle, sans copie intermédiaire du fichier)
+     */
+    private static final class RangeInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+
+        private RangeInputStream(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int wanted = (int) Math.min(length, end - position);
+            int read = channel.read(ByteBuffer.wrap(buffer, offset, wanted), position);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
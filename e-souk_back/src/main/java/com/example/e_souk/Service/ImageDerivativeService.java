@@ -0,0 +1,395 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Config.FileUploadConfig;
+import com.example.e_souk.Repository.StoredBlobRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Génération des variantes redimensionnées des images uploadées (160 / 480 / 1024 px, JPEG)
+ *
+ * FONCTIONNEMENT :
+ * 1. Après commit de l'upload, l'image est confiée au pool imageDerivativeExecutor (file bornée)
+ * 2. Le worker décode l'original (ImageIO, sous-échantillonné pour les grandes images d'après
+ *    les dimensions relevées à l'upload), le réduit par étapes successives (bilinéaire)
+ *    et écrit chaque variante en JPEG (qualité réglable) dans un temporaire, confié ensuite au BlobStore
+ * 3. Une tâche rejetée (file pleine) ou en échec est placée en attente et reprise par un
+ *    balayage périodique, jusqu'à max-attempts échecs
+ * 4. Au démarrage, les images sans variantes (uploads antérieurs) sont recherchées sur le pool
+ *    et mises en attente (stockage listable uniquement, voir BlobStore#keys)
+ *
+ * Les formats que ImageIO ne sait pas lire (SVG...) sont ignorés : l'original reste servi.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImageDerivativeService {
+
+    private final ThreadPoolTaskExecutor imageDerivativeExecutor;
+    private final FileUploadConfig fileUploadConfig;
+    private final BlobStore blobStore;
+    private final StoredBlobRepository storedBlobRepository;
+
+    /**
+     * Images à (re)traiter → nombre d'échecs déjà subis
+     */
+    private final Map<String, Integer> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Images soumises au pool sur ce nœud (évite de soumettre deux fois la même)
+     */
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    @Value("${image-derivatives.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    @Value("${file.validation.max-pixels:40000000}")
+    private long maxPixels;
+
+    @Value("${image-derivatives.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${image-derivatives.max-pending:10000}")
+    private int maxPending;
+
+    @PostConstruct
+    public void init() {
+        // Pas de cache disque ImageIO : les flux sont en mémoire ou sur fichier
+        ImageIO.setUseCache(false);
+    }
+
+    // ==================== DÉCLENCHEMENT ====================
+
+    /**
+     * Programme la génération des variantes après commit de la transaction courante
+     * (aucune variante pour un upload annulé), immédiatement hors transaction
+     * @param fileName nom du fichier original dans le dossier d'upload
+     */
+    public void scheduleAfterCommit(String fileName) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(fileName);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(fileName);
+            }
+        });
+    }
+
+    /**
+     * Confie l'image au pool ; si la file est pleine, elle est mise en attente
+     */
+    private void submit(String fileName) {
+        if (!running.add(fileName)) {
+            return;
+        }
+        try {
+            imageDerivativeExecutor.execute(() -> {
+                try {
+                    run(fileName);
+                } finally {
+                    running.remove(fileName);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            running.remove(fileName);
+            defer(fileName, 0);
+            log.warn("Pool d'images saturé, variantes de {} reportées au prochain balayage", fileName);
+        }
+    }
+
+    private void run(String fileName) {
+        try {
+            generate(fileName);
+            pending.remove(fileName);
+        } catch (UnsupportedImageException e) {
+            pending.remove(fileName);
+            log.info("Variantes non générées pour {} : {}", fileName, e.getMessage());
+        } catch (Exception e) {
+            int failures = pending.getOrDefault(fileName, 0) + 1;
+            if (failures >= maxAttempts) {
+                pending.remove(fileName);
+                log.error("Abandon de la génération des variantes de {} après {} échecs", fileName, failures, e);
+            } else {
+                defer(fileName, failures);
+                log.warn("Échec de la génération des variantes de {} (tentative {}): {}", fileName, failures, e.getMessage());
+            }
+        }
+    }
+
+    private void defer(String fileName, int failures) {
+        if (pending.size() >= maxPending && !pending.containsKey(fileName)) {
+            log.warn("File d'attente des variantes pleine, {} ignoré (repris au prochain démarrage)", fileName);
+            return;
+        }
+        pending.put(fileName, failures);
+    }
+
+    // ==================== REPRISE ====================
+
+    /**
+     * Resoumet les images en attente (rejet du pool ou échec), dans la limite de la file du pool
+     */
+    @Scheduled(fixedDelayString = "${image-derivatives.retry-interval-ms:30000}",
+               initialDelayString = "${image-derivatives.retry-interval-ms:30000}")
+    public void retryPending() {
+        int capacity = imageDerivativeExecutor.getThreadPoolExecutor().getQueue().remainingCapacity();
+        for (String fileName : pending.keySet()) {
+            if (capacity-- <= 0) {
+                break;
+            }
+            submit(fileName);
+        }
+    }
+
+    /**
+     * Met en attente les images existantes qui n'ont pas encore leurs variantes
+     * Le parcours (trois tests d'existence par image) s'exécute sur le pool imageDerivativeExecutor,
+     * pas sur le thread de démarrage
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            imageDerivativeExecutor.execute(this::queueMissingVariants);
+        } catch (TaskRejectedException e) {
+            log.warn("Rattrapage des variantes non lancé (pool saturé): {}", e.getMessage());
+        }
+    }
+
+    private void queueMissingVariants() {
+        int queued = 0;
+        try (Stream<String> keys = blobStore.keys()) {
+            for (Iterator<String> it = keys.iterator(); it.hasNext(); ) {
+                String fileName = it.next();
+                try {
+                    if (!fileName.contains("/") && !hasVariants(fileName)) {
+                        defer(fileName, 0);
+                        queued++;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // Nom hérité non représentable (InvalidPathException...) : fichier ignoré, pas le parcours
+                    log.warn("Image {} ignorée au rattrapage des variantes: {}", fileName, e.getMessage());
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Parcours des uploads impossible: {}", e.getMessage());
+        }
+        if (queued > 0) {
+            log.info("{} images sans variantes mises en attente de génération", queued);
+        }
+    }
+
+    // ==================== GÉNÉRATION ====================
+
+    /**
+     * @return true si toutes les variantes de l'image existent
+     */
+    public boolean hasVariants(String fileName) throws IOException {
+        for (int width : ImageVariants.WIDTHS) {
+            if (!blobStore.exists(ImageVariants.path(fileName, width))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Supprime les variantes d'une image (original supprimé par le ramasse-miettes)
+     */
+    public void deleteVariants(String fileName) {
+        for (int width : ImageVariants.WIDTHS) {
+            try {
+                blobStore.delete(ImageVariants.path(fileName, width));
+            } catch (IOException e) {
+                log.warn("Suppression impossible de la variante {} de {}: {}", width, fileName, e.getMessage());
+            }
+        }
+    }
+
+    private void generate(String fileName) throws IOException {
+        if (hasVariants(fileName)) {
+            return;
+        }
+        // Format et dimensions relevés à l'upload : un format illisible est écarté sans ouvrir le fichier
+        String format = null;
+        int knownWidth = 0;
+        int knownHeight = 0;
+        List<Object[]> info = storedBlobRepository.findImageInfoByFileName(fileName);
+        if (!info.isEmpty()) {
+            Object[] row = info.get(0);
+            format = (String) row[0];
+            knownWidth = row[1] != null ? (Integer) row[1] : 0;
+            knownHeight = row[2] != null ? (Integer) row[2] : 0;
+        }
+        if (format != null && !ImageIO.getImageReadersByFormatName(format).hasNext()) {
+            throw new UnsupportedImageException("format " + format + " non lisible par ImageIO");
+        }
+
+        // Original lu en flux depuis le stockage (racine répartie, ancien dossier ou bucket)
+        BufferedImage source;
+        try (InputStream in = blobStore.open(fileName);
+             ImageInputStream stream = ImageIO.createImageInputStream(in)) {
+            source = decode(stream, knownWidth, knownHeight);
+        } catch (NoSuchFileException e) {
+            throw new UnsupportedImageException("fichier original absent");
+        }
+        if (source == null) {
+            throw new UnsupportedImageException("format non lisible par ImageIO");
+        }
+
+        // Du plus grand au plus petit : chaque variante part de la précédente (moins de pixels à réduire)
+        BufferedImage current = flatten(source);
+        for (int i = ImageVariants.WIDTHS.length - 1; i >= 0; i--) {
+            int width = ImageVariants.WIDTHS[i];
+            if (width < current.getWidth()) {
+                current = downscale(current, width);
+            }
+            String key = ImageVariants.path(fileName, width);
+            if (!blobStore.exists(key)) {
+                writeJpeg(current, key);
+            }
+        }
+        log.debug("Variantes générées pour {}", fileName);
+    }
+
+    /**
+     * Décode l'image ; au-delà de deux fois la plus grande variante, lecture sous-échantillonnée
+     * (une ligne et une colonne sur n) : la réduction par étapes part d'une image déjà plus petite
+     * @param knownWidth largeur relevée à l'upload, 0 si inconnue (lue alors dans l'en-tête)
+     * @param knownHeight hauteur relevée à l'upload, 0 si inconnue
+     * @return null si aucun lecteur ImageIO ne reconnaît le contenu
+     */
+    private BufferedImage decode(ImageInputStream stream, int knownWidth, int knownHeight) throws IOException {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+        if (!readers.hasNext()) {
+            return null;
+        }
+        ImageReader reader = readers.next();
+        try {
+            reader.setInput(stream, true, true);
+            int width = knownWidth > 0 ? knownWidth : reader.getWidth(0);
+            int height = knownHeight > 0 ? knownHeight : reader.getHeight(0);
+            if ((long) width * height > maxPixels) {
+                throw new UnsupportedImageException("image de " + width + "x" + height + " pixels");
+            }
+            ImageReadParam param = reader.getDefaultReadParam();
+            int factor = width / (2 * ImageVariants.WIDTHS[ImageVariants.WIDTHS.length - 1]);
+            if (factor > 1) {
+                param.setSourceSubsampling(factor, factor, 0, 0);
+            }
+            return reader.read(0, param);
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    /**
+     * Copie en RGB sur fond blanc (JPEG sans transparence)
+     */
+    private static BufferedImage flatten(BufferedImage source) {
+        if (source.getType() == BufferedImage.TYPE_INT_RGB) {
+            return source;
+        }
+        BufferedImage rgb = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, rgb.getWidth(), rgb.getHeight());
+            g.drawImage(source, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    /**
+     * Réduction par divisions successives par 2 (bilinéaire) : qualité proche du bicubique,
+     * sans le crénelage d'une réduction bilinéaire en une seule passe
+     */
+    private static BufferedImage downscale(BufferedImage source, int targetWidth) {
+        int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = step.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private void writeJpeg(BufferedImage image, String key) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        Path temp = fileUploadConfig.newStagingFile(".variant-");
+        try {
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            }
+            blobStore.put(key, temp, "image/jpeg");
+        } finally {
+            writer.dispose();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Image qu'il est inutile de retenter (absente ou format non supporté)
+     */
+    private static class UnsupportedImageException extends IOException {
+        UnsupportedImageException(String message) {
+            super(message);
+        }
+    }
+}
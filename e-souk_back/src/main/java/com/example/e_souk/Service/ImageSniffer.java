@@ -0,0 +1,183 @@
+package com.example.e_souk.Service;
+
+/**
+ * Détection du format et des dimensions d'une image à partir de ses premiers octets
+ * (signature "magic bytes" puis en-tête du format), sans décoder l'image
+ *
+ * Formats reconnus : JPEG, PNG, GIF, WebP (VP8, VP8L, VP8X), BMP.
+ * Le type MIME annoncé par le client n'est pas consulté.
+ */
+public final class ImageSniffer {
+
+    private ImageSniffer() {
+    }
+
+    /**
+     * Image détectée
+     * @param format nom de format ImageIO (jpeg, png, gif, webp, bmp)
+     * @param contentType type MIME correspondant
+     * @param extension extension du fichier stocké
+     * @param width largeur en pixels, 0 si hors des octets lus (JPEG à métadonnées volumineuses) :
+     *              l'appelant lit la suite du flux ou refuse l'image
+     * @param height hauteur en pixels, 0 si hors des octets lus
+     */
+    public record ImageInfo(String format, String contentType, String extension, int width, int height) {
+
+        public boolean hasDimensions() {
+            return width > 0 && height > 0;
+        }
+
+        public long pixels() {
+            return (long) width * height;
+        }
+    }
+
+    /**
+     * @param header premiers octets du fichier
+     * @param length nombre d'octets valides dans header
+     * @param complete true si header contient tout le fichier (flux terminé)
+     * @return image détectée, null si la signature ou l'en-tête ne correspondent à aucun format reconnu
+     */
+    public static ImageInfo sniff(byte[] header, int length, boolean complete) {
+        if (startsWith(header, length, 0, 0xFF, 0xD8, 0xFF)) {
+            return jpeg(header, length, complete);
+        }
+        if (startsWith(header, length, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return png(header, length);
+        }
+        if (startsWith(header, length, 0, 'G', 'I', 'F', '8') && length >= 10
+                && (header[4] == '7' || header[4] == '9') && header[5] == 'a') {
+            return checked("gif", "image/gif", "gif", u16le(header, 6), u16le(header, 8));
+        }
+        if (startsWith(header, length, 0, 'R', 'I', 'F', 'F') && startsWith(header, length, 8, 'W', 'E', 'B', 'P')) {
+            return webp(header, length);
+        }
+        if (startsWith(header, length, 0, 'B', 'M') && length >= 26) {
+            return bmp(header);
+        }
+        return null;
+    }
+
+    /**
+     * Parcours des segments jusqu'au SOF (début de trame), qui porte les dimensions
+     */
+    private static ImageInfo jpeg(byte[] b, int length, boolean complete) {
+        int i = 2;
+        while (i + 4 <= length) {
+            if ((b[i] & 0xFF) != 0xFF) {
+                return null;
+            }
+            int marker = b[i + 1] & 0xFF;
+            if (marker == 0xFF) {
+                // Octet de remplissage
+                i++;
+                continue;
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD8)) {
+                i += 2;
+                continue;
+            }
+            if (marker == 0xD9 || marker == 0xDA) {
+                // Fin d'image ou début des données compressées avant tout SOF : fichier invalide
+                return null;
+            }
+            int segmentLength = u16be(b, i + 2);
+            if (segmentLength < 2) {
+                return null;
+            }
+            boolean startOfFrame = marker >= 0xC0 && marker <= 0xCF
+                    && marker != 0xC4 && marker != 0xC8 && marker != 0xCC;
+            if (startOfFrame) {
+                if (i + 9 > length) {
+                    break;
+                }
+                return checked("jpeg", "image/jpeg", "jpg", u16be(b, i + 7), u16be(b, i + 5));
+            }
+            i += 2 + segmentLength;
+        }
+        if (complete) {
+            // Fichier entier lu sans SOF : JPEG tronqué
+            return null;
+        }
+        // Métadonnées (EXIF, ICC...) plus longues que les octets lus : format sûr, dimensions inconnues
+        return new ImageInfo("jpeg", "image/jpeg", "jpg", 0, 0);
+    }
+
+    private static ImageInfo png(byte[] b, int length) {
+        if (length < 24 || !startsWith(b, length, 12, 'I', 'H', 'D', 'R')) {
+            return null;
+        }
+        return checked("png", "image/png", "png", s32be(b, 16), s32be(b, 20));
+    }
+
+    private static ImageInfo webp(byte[] b, int length) {
+        if (length < 30) {
+            return null;
+        }
+        if (startsWith(b, length, 12, 'V', 'P', '8', ' ')) {
+            if (!startsWith(b, length, 23, 0x9D, 0x01, 0x2A)) {
+                return null;
+            }
+            return checked("webp", "image/webp", "webp", u16le(b, 26) & 0x3FFF, u16le(b, 28) & 0x3FFF);
+        }
+        if (startsWith(b, length, 12, 'V', 'P', '8', 'L')) {
+            if ((b[20] & 0xFF) != 0x2F) {
+                return null;
+            }
+            int bits = (b[21] & 0xFF) | (b[22] & 0xFF) << 8 | (b[23] & 0xFF) << 16 | (b[24] & 0xFF) << 24;
+            return checked("webp", "image/webp", "webp", (bits & 0x3FFF) + 1, ((bits >>> 14) & 0x3FFF) + 1);
+        }
+        if (startsWith(b, length, 12, 'V', 'P', '8', 'X')) {
+            return checked("webp", "image/webp", "webp", u24le(b, 24) + 1, u24le(b, 27) + 1);
+        }
+        return null;
+    }
+
+    private static ImageInfo bmp(byte[] b) {
+        int headerSize = s32le(b, 14);
+        if (headerSize == 12) {
+            return checked("bmp", "image/bmp", "bmp", u16le(b, 18), u16le(b, 20));
+        }
+        if (headerSize < 40) {
+            return null;
+        }
+        // Hauteur négative : image stockée de haut en bas
+        return checked("bmp", "image/bmp", "bmp", s32le(b, 18), Math.abs(s32le(b, 22)));
+    }
+
+    private static ImageInfo checked(String format, String contentType, String extension, int width, int height) {
+        return width > 0 && height > 0 ? new ImageInfo(format, contentType, extension, width, height) : null;
+    }
+
+    private static boolean startsWith(byte[] b, int length, int offset, int... signature) {
+        if (offset + signature.length > length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((b[offset + i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int u16be(byte[] b, int i) {
+        return (b[i] & 0xFF) << 8 | (b[i + 1] & 0xFF);
+    }
+
+    private static int u16le(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8;
+    }
+
+    private static int u24le(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF) << 16;
+    }
+
+    private static int s32be(byte[] b, int i) {
+        return (b[i] & 0xFF) << 24 | (b[i + 1] & 0xFF) << 16 | (b[i + 2] & 0xFF) << 8 | (b[i + 3] & 0xFF);
+    }
+
+    private static int s32le(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF) << 16 | (b[i + 3] & 0xFF) << 24;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.e_souk.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Nommage des variantes redimensionnées d'une image uploadée
+ *
+ * Les chemins sont relatifs au dossier d'upload, comme le champ picture des entités
+ * (le front les préfixe par /uploads/). Une variante peut ne pas encore exister juste
+ * après l'upload : elle est produite en arrière-plan par ImageDerivativeService.
+ */
+public final class ImageVariants {
+
+    /**
+     * Largeurs produites (px) : vignette de liste, carte, page détail
+     */
+    public static final int[] WIDTHS = {160, 480, 1024};
+
+    /**
+     * Sous-dossier des variantes dans le dossier d'upload
+     */
+    public static final String DIRECTORY = "variants";
+
+    private ImageVariants() {
+    }
+
+    /**
+     * @param fileName nom du fichier original
+     * @param width largeur de la variante
+     * @return chemin relatif de la variante JPEG (variants/nom_w160.jpg)
+     */
+    public static String path(String fileName, int width) {
+        int dot = fileName.lastIndexOf('.');
+        String base = dot > 0 ? fileName.substring(0, dot) : fileName;
+        return DIRECTORY + "/" + base + "_w" + width + ".jpg";
+    }
+
+    /**
+     * @param fileName nom du fichier original (peut être null)
+     * @return largeur → chemin relatif de la variante, null si pas d'image
+     */
+    public static Map<Integer, String> paths(String fileName) {
+        if (fileName == null || fileName.isBlank()) {
+            return null;
+        }
+        Map<Integer, String> paths = new LinkedHashMap<>();
+        for (int width : WIDTHS) {
+            paths.put(width, path(fileName, width));
+        }
+        return paths;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Exception.TooManyRequestsException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limitation des tentatives de connexion et d'inscription (token bucket)
+ *
+ * - Par compte (identifiant saisi) : freine le test de mots de passe sur un compte.
+ *   Seuls les échecs comptent : le jeton pris avant la vérification est rendu si elle réussit,
+ *   un utilisateur légitime ne peut donc pas être bloqué par ses propres connexions
+ * - Par adresse IP : freine le credential stuffing sur de nombreux comptes ; chaque tentative compte
+ *
+ * Vérifiée avant tout hachage BCrypt : une tentative refusée ne coûte presque rien.
+ * Les seaux pleins (inactifs) sont retirés périodiquement ; le nombre d'entrées est borné.
+ */
+@Service
+@Slf4j
+public class LoginThrottle {
+
+    private final Map<String, TokenBucket> accountBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> ipBuckets = new ConcurrentHashMap<>();
+
+    @Value("${login-throttle.account-capacity:5}")
+    private long accountCapacity;
+
+    @Value("${login-throttle.account-refill-seconds:300}")
+    private long accountRefillSeconds;
+
+    @Value("${login-throttle.ip-capacity:20}")
+    private long ipCapacity;
+
+    @Value("${login-throttle.ip-refill-seconds:60}")
+    private long ipRefillSeconds;
+
+    @Value("${login-throttle.max-entries:100000}")
+    private int maxEntries;
+
+    /**
+     * Consomme un jeton pour une tentative de connexion
+     * Le jeton du compte est pris avant la vérification (les tentatives simultanées sont freinées)
+     * et rendu par {@link #loginSucceeded(String)}
+     * @param account identifiant saisi (nom d'utilisateur ou email)
+     * @param clientIp adresse IP du client
+     * @throws TooManyRequestsException si le compte ou l'IP a épuisé ses tentatives
+     */
+    public void checkLogin(String account, String clientIp) {
+        checkIp(clientIp);
+        if (account != null) {
+            acquire(accountBuckets, accountKey(account), accountCapacity, accountRefillSeconds,
+                    "Trop de tentatives de connexion pour ce compte");
+        }
+    }
+
+    /**
+     * Rend le jeton du compte après une authentification réussie
+     * Le jeton de l'IP n'est pas rendu
+     * @param account identifiant saisi
+     */
+    public void loginSucceeded(String account) {
+        if (account != null) {
+            TokenBucket bucket = accountBuckets.get(accountKey(account));
+            if (bucket != null) {
+                bucket.refund();
+            }
+        }
+    }
+
+    /**
+     * Consomme un jeton pour une inscription (limitée par IP)
+     * @param clientIp adresse IP du client
+     * @throws TooManyRequestsException si l'IP a épuisé ses tentatives
+     */
+    public void checkRegister(String clientIp) {
+        checkIp(clientIp);
+    }
+
+    private void checkIp(String clientIp) {
+        if (clientIp != null) {
+            acquire(ipBuckets, clientIp, ipCapacity, ipRefillSeconds, "Trop de tentatives depuis cette adresse");
+        }
+    }
+
+    private static String accountKey(String account) {
+        return account.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private void acquire(Map<String, TokenBucket> buckets, String key, long capacity, long refillSeconds, String message) {
+        if (buckets.size() >= maxEntries && !buckets.containsKey(key)) {
+            // Table pleine : on retire les seaux inactifs avant d'en créer un nouveau
+            buckets.values().removeIf(TokenBucket::isFull);
+        }
+        TokenBucket bucket = buckets.computeIfAbsent(key,
+                k -> new TokenBucket(capacity, Duration.ofSeconds(refillSeconds)));
+        if (!bucket.tryConsume()) {
+            log.warn("Tentative limitée - {}", message);
+            throw new TooManyRequestsException(message + ", réessayez plus tard", bucket.secondsUntilNextToken());
+        }
+    }
+
+    /**
+     * Retire les seaux pleins (aucune tentative récente)
+     */
+    @Scheduled(fixedDelayString = "${login-throttle.cleanup-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        accountBuckets.values().removeIf(TokenBucket::isFull);
+        ipBuckets.values().removeIf(TokenBucket::isFull);
+    }
+}
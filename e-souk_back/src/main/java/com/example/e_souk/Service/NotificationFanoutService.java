@@ -0,0 +1,237 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Event.ProductCreatedEvent;
+import com.example.e_souk.Model.NotificationFanout;
+import com.example.e_souk.Model.NotificationType;
+import com.example.e_souk.Model.Product;
+import com.example.e_souk.Model.Shop;
+import com.example.e_souk.Repository.NotificationCounterRepository;
+import com.example.e_souk.Repository.NotificationFanoutRepository;
+import com.example.e_souk.Repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Diffusion des notifications aux abonnés d'une boutique (fan-out à l'écriture)
+ *
+ * FONCTIONNEMENT :
+ * 1. La création d'un produit enregistre une diffusion (notification_fanouts) dans sa transaction
+ * 2. Après commit, la diffusion est confiée au pool notificationExecutor : createProduct n'attend pas
+ * 3. Les abonnés sont parcourus par keyset (shop_followers.id > dernier traité), par lots
+ * 4. Chaque lot est inséré en un batch JDBC, avec les compteurs de non lues des destinataires,
+ *    et le point de reprise avancé dans la même transaction
+ * 5. Les diffusions inachevées (arrêt, rejet du pool, erreur) sont reprises au démarrage
+ *    et par un balayage périodique
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationFanoutService {
+
+    private static final String SELECT_FIRST_FOLLOWERS =
+            "SELECT id, user_id FROM shop_followers WHERE shop_id = ? ORDER BY id LIMIT ?";
+    private static final String SELECT_NEXT_FOLLOWERS =
+            "SELECT id, user_id FROM shop_followers WHERE shop_id = ? AND id > ? ORDER BY id LIMIT ?";
+    private static final String INSERT_NOTIFICATION =
+            "INSERT INTO notifications (id, type, title, message, sender_name, sender_picture, " +
+            "reference_id, is_read, created_at, user_id) VALUES (?, ?, ?, ?, ?, ?, ?, false, ?, ?)";
+
+    private final NotificationFanoutRepository fanoutRepository;
+    private final ProductRepository productRepository;
+    private final NotificationService notificationService;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ThreadPoolTaskExecutor notificationExecutor;
+
+    /**
+     * Diffusions en cours sur ce nœud (évite de soumettre deux fois la même)
+     */
+    private final Set<UUID> running = ConcurrentHashMap.newKeySet();
+
+    @Value("${notification-fanout.batch-size:1000}")
+    private int batchSize;
+
+    // ==================== DÉCLENCHEMENT ====================
+
+    /**
+     * Enregistre la diffusion "nouveau produit" dans la transaction de création du produit,
+     * puis la lance après commit (BEFORE_COMMIT : déjà dans la transaction, pas de @Transactional)
+     * @param event produit créé
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onProductCreated(ProductCreatedEvent event) {
+        if (!hasFollowers(event.getShopId())) {
+            return;
+        }
+        Product product = productRepository.findById(event.getProductId()).orElse(null);
+        if (product == null) {
+            return;
+        }
+        Shop shop = product.getShop();
+        NotificationFanout fanout = fanoutRepository.save(NotificationFanout.builder()
+                .shopId(shop.getId())
+                .type(NotificationType.NouveauProduitBoutiqueSuivie)
+                .title(truncate("Nouveau chez " + shop.getBrandName(), 100))
+                .message(truncate(shop.getBrandName() + " vient d'ajouter « " + product.getName() + " »", 1000))
+                .senderName(truncate(shop.getBrandName(), 100))
+                .senderPicture(shop.getLogoPicture())
+                .referenceId(product.getId())
+                .createdAt(LocalDateTime.now())
+                .build());
+        submitAfterCommit(fanout.getId());
+    }
+
+    private boolean hasFollowers(UUID shopId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM shop_followers WHERE shop_id = ?)", Boolean.class, shopId));
+    }
+
+    private void submitAfterCommit(UUID fanoutId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(fanoutId);
+                }
+            });
+        } else {
+            submit(fanoutId);
+        }
+    }
+
+    /**
+     * Confie une diffusion au pool ; si le pool est saturé, elle reste en attente en base
+     * @param fanoutId ID de la diffusion
+     */
+    public void submit(UUID fanoutId) {
+        if (!running.add(fanoutId)) {
+            return;
+        }
+        try {
+            notificationExecutor.execute(() -> {
+                try {
+                    run(fanoutId);
+                } finally {
+                    running.remove(fanoutId);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            running.remove(fanoutId);
+            log.warn("Pool de notifications saturé, diffusion {} reportée au prochain balayage", fanoutId);
+        }
+    }
+
+    // ==================== EXÉCUTION PAR LOTS ====================
+
+    /**
+     * Traite les lots d'une diffusion jusqu'au dernier abonné
+     * Chaque lot est une transaction : une erreur n'annule que le lot courant
+     */
+    private void run(UUID fanoutId) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        try {
+            Boolean done;
+            do {
+                done = template.execute(status -> processBatch(fanoutId));
+            } while (!Boolean.TRUE.equals(done));
+        } catch (RuntimeException e) {
+            log.error("Diffusion {} interrompue, reprise au prochain balayage: {}", fanoutId, e.getMessage());
+        }
+    }
+
+    /**
+     * Insère les notifications d'un lot d'abonnés et avance le point de reprise
+     * @return true si la diffusion est terminée
+     */
+    private boolean processBatch(UUID fanoutId) {
+        NotificationFanout fanout = fanoutRepository.findByIdForUpdate(fanoutId).orElse(null);
+        if (fanout == null || fanout.getCompleted()) {
+            return true;
+        }
+        List<UUID[]> followers = fanout.getLastFollowerId() == null
+                ? jdbcTemplate.query(SELECT_FIRST_FOLLOWERS, (rs, i) -> new UUID[] {
+                        rs.getObject(1, UUID.class), rs.getObject(2, UUID.class)}, fanout.getShopId(), batchSize)
+                : jdbcTemplate.query(SELECT_NEXT_FOLLOWERS, (rs, i) -> new UUID[] {
+                        rs.getObject(1, UUID.class), rs.getObject(2, UUID.class)},
+                        fanout.getShopId(), fanout.getLastFollowerId(), batchSize);
+
+        if (!followers.isEmpty()) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate(INSERT_NOTIFICATION, followers, followers.size(), (ps, follower) -> {
+                ps.setObject(1, UUID.randomUUID());
+                ps.setString(2, fanout.getType().name());
+                ps.setString(3, fanout.getTitle());
+                ps.setString(4, fanout.getMessage());
+                ps.setString(5, fanout.getSenderName());
+                ps.setString(6, fanout.getSenderPicture());
+                ps.setObject(7, fanout.getReferenceId());
+                ps.setTimestamp(8, now);
+                ps.setObject(9, follower[1]);
+            });
+            // Compteurs de non lues : +1 par destinataire, dans l'ordre des IDs pour éviter
+            // les interblocages entre deux diffusions qui partagent des abonnés
+            List<UUID> recipients = followers.stream()
+                    .map(follower -> follower[1])
+                    .sorted()
+                    .collect(Collectors.toList());
+            jdbcTemplate.batchUpdate(NotificationCounterRepository.UPSERT_SQL, recipients, recipients.size(),
+                    (ps, userId) -> {
+                        ps.setObject(1, userId);
+                        ps.setLong(2, 1L);
+                    });
+            notificationService.afterCommit(recipients);
+            fanout.setLastFollowerId(followers.get(followers.size() - 1)[0]);
+            fanout.setSentCount(fanout.getSentCount() + followers.size());
+        }
+        boolean completed = followers.size() < batchSize;
+        fanout.setCompleted(completed);
+        fanout.setUpdatedAt(LocalDateTime.now());
+        if (completed) {
+            log.info("Diffusion {} terminée: {} notification(s) pour la boutique {}",
+                    fanoutId, fanout.getSentCount(), fanout.getShopId());
+        }
+        return completed;
+    }
+
+    // ==================== REPRISE ====================
+
+    /**
+     * Relance les diffusions inachevées (démarrage, puis balayage périodique)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${notification-fanout.resume-interval-ms:60000}",
+               initialDelayString = "${notification-fanout.resume-interval-ms:60000}")
+    public void resumePending() {
+        List<UUID> pending = fanoutRepository.findPendingIds();
+        if (!pending.isEmpty()) {
+            log.info("Reprise de {} diffusion(s) de notifications", pending.size());
+            pending.forEach(this::submit);
+        }
+    }
+
+    private static String truncate(String value, int max) {
+        return value == null || value.length() <= max ? value : value.substring(0, max);
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Dto.Notification.NotificationDTO;
+import com.example.e_souk.Dto.Notification.NotificationPageDTO;
+import com.example.e_souk.Event.StartupBackfillEvent;
+import com.example.e_souk.Mappers.NotificationMapper;
+import com.example.e_souk.Model.Notification;
+import com.example.e_souk.Repository.NotificationCounterRepository;
+import com.example.e_souk.Repository.NotificationRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * Service de la boîte de réception des notifications
+ *
+ * COMPTEUR DE NON LUES :
+ * - Stocké par utilisateur dans notification_counters, ajusté à l'insertion et à la lecture
+ * - Servi depuis un cache mémoire (TTL) : le badge ne déclenche pas de requête à chaque affichage
+ * - Après chaque changement commité, l'entrée est évincée ; une lecture commencée avant l'éviction
+ *   n'est pas remise en cache (garde de version de BoundedTtlCache)
+ * - La nouvelle valeur est poussée aux clients connectés en Server-Sent Events (plus de polling
+ *   du compteur), depuis le pool notificationPushExecutor et non depuis le thread qui a commité
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationService {
+
+    private static final int MAX_PAGE_SIZE = 50;
+    private static final String COUNT_EVENT = "unread-count";
+    private static final int HEARTBEAT_BATCH_SIZE = 100;
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationCounterRepository counterRepository;
+    private final ThreadPoolTaskExecutor notificationPushExecutor;
+
+    private final Map<UUID, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    @Value("${notification-counter.cache-ttl-ms:60000}")
+    private long cacheTtlMs;
+
+    @Value("${notification-counter.cache-max-size:50000}")
+    private int cacheMaxSize;
+
+    @Value("${notification-stream.timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
+    @Value("${notification-stream.max-per-user:5}")
+    private int maxStreamsPerUser;
+
+    private BoundedTtlCache<UUID, Long> countCache;
+
+    @PostConstruct
+    void init() {
+        countCache = new BoundedTtlCache<>(cacheMaxSize, cacheTtlMs);
+    }
+
+    // ==================== BOÎTE DE RÉCEPTION ====================
+
+    /**
+     * Page de notifications, plus récentes d'abord, par keyset
+     * @param userId ID de l'utilisateur
+     * @param cursor curseur renvoyé par la page précédente (null pour la première)
+     * @param size taille de la page (bornée à 50)
+     * @return NotificationPageDTO notifications + curseur suivant
+     * @throws IllegalArgumentException si le curseur est invalide
+     */
+    @Transactional(readOnly = true)
+    public NotificationPageDTO getInbox(UUID userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PageRequest limit = PageRequest.of(0, pageSize);
+        List<Notification> notifications;
+        if (cursor == null || cursor.isBlank()) {
+            notifications = notificationRepository.findInbox(userId, limit);
+        } else {
+            PageCursor position = PageCursor.decode(cursor);
+            notifications = notificationRepository.findInboxAfter(userId, position.at, position.id, limit);
+        }
+        List<NotificationDTO> items = notifications.stream()
+                .map(NotificationMapper::toDTO)
+                .collect(Collectors.toList());
+        String nextCursor = null;
+        if (notifications.size() == pageSize) {
+            Notification last = notifications.get(notifications.size() - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new NotificationPageDTO(items, nextCursor, getUnreadCount(userId));
+    }
+
+    /**
+     * Marque des notifications comme lues
+     * @param userId ID de l'utilisateur
+     * @param ids IDs des notifications (les autres utilisateurs sont ignorés)
+     * @return nombre de notifications passées à lues
+     */
+    @Transactional
+    public int markRead(UUID userId, Collection<UUID> ids) {
+        int updated = notificationRepository.markRead(userId, ids);
+        if (updated > 0) {
+            counterRepository.addDelta(userId, -updated);
+            afterCommit(List.of(userId));
+        }
+        return updated;
+    }
+
+    /**
+     * Marque toutes les notifications d'un utilisateur comme lues
+     * Le compteur est décrémenté du nombre de lignes modifiées (comme markRead) : une remise à zéro
+     * effacerait une notification commitée après la mise à jour des lignes
+     * @param userId ID de l'utilisateur
+     * @return nombre de notifications passées à lues
+     */
+    @Transactional
+    public int markAllRead(UUID userId) {
+        int updated = notificationRepository.markAllRead(userId);
+        if (updated > 0) {
+            counterRepository.addDelta(userId, -updated);
+            afterCommit(List.of(userId));
+        }
+        return updated;
+    }
+
+    // ==================== COMPTEUR ====================
+
+    /**
+     * Nombre de notifications non lues (cache mémoire, puis notification_counters)
+     * @param userId ID de l'utilisateur
+     * @return nombre de non lues
+     */
+    public long getUnreadCount(UUID userId) {
+        return countCache.get(userId, id -> counterRepository.findUnreadCount(id).orElse(0L));
+    }
+
+    /**
+     * Signale que le compteur de ces utilisateurs a changé dans la transaction courante
+     * Après commit : éviction du cache et envoi de la nouvelle valeur aux clients connectés
+     * @param userIds utilisateurs concernés
+     */
+    public void afterCommit(Collection<UUID> userIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    countersChanged(userIds);
+                }
+            });
+        } else {
+            countersChanged(userIds);
+        }
+    }
+
+    private void countersChanged(Collection<UUID> userIds) {
+        List<UUID> connected = new ArrayList<>();
+        for (UUID userId : userIds) {
+            countCache.invalidate(userId);
+            if (emitters.containsKey(userId)) {
+                connected.add(userId);
+            }
+        }
+        if (connected.isEmpty()) {
+            return;
+        }
+        try {
+            notificationPushExecutor.execute(() ->
+                    connected.forEach(userId -> push(userId, getUnreadCount(userId))));
+        } catch (TaskRejectedException e) {
+            log.debug("Envoi SSE abandonné (pool saturé) pour {} utilisateur(s)", connected.size());
+        }
+    }
+
+    // ==================== SERVER-SENT EVENTS ====================
+
+    /**
+     * Ouvre un flux SSE du compteur de non lues
+     * La valeur courante est envoyée immédiatement, puis à chaque changement
+     * @param userId ID de l'utilisateur
+     * @return SseEmitter flux à renvoyer par le contrôleur
+     */
+    public SseEmitter subscribe(UUID userId) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        List<SseEmitter> userEmitters = emitters.computeIfAbsent(userId, id -> new CopyOnWriteArrayList<>());
+        // Trop d'onglets ouverts : on ferme le plus ancien flux
+        while (userEmitters.size() >= maxStreamsPerUser) {
+            SseEmitter oldest = userEmitters.remove(0);
+            oldest.complete();
+        }
+        userEmitters.add(emitter);
+        Runnable cleanup = () -> remove(userId, emitter);
+        emitter.onCompletion(cleanup);
+        emitter.onTimeout(cleanup);
+        emitter.onError(e -> cleanup.run());
+        send(userId, emitter, SseEmitter.event().name(COUNT_EVENT).data(getUnreadCount(userId)));
+        return emitter;
+    }
+
+    /**
+     * Commentaire SSE périodique : garde les connexions ouvertes derrière les proxys
+     * et détecte les clients partis
+     * Les écritures partent sur notificationPushExecutor, par lots d'utilisateurs : un client lent
+     * ne bloque pas le thread partagé des tâches planifiées. Lot rejeté : repris au battement suivant
+     */
+    @Scheduled(fixedDelayString = "${notification-stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        List<UUID> connected = new ArrayList<>(emitters.keySet());
+        for (int from = 0; from < connected.size(); from += HEARTBEAT_BATCH_SIZE) {
+            List<UUID> batch = connected.subList(from, Math.min(from + HEARTBEAT_BATCH_SIZE, connected.size()));
+            try {
+                notificationPushExecutor.execute(() -> batch.forEach(this::ping));
+            } catch (TaskRejectedException e) {
+                log.debug("Battement SSE abandonné (pool saturé) pour {} utilisateur(s)", batch.size());
+            }
+        }
+    }
+
+    private void ping(UUID userId) {
+        List<SseEmitter> userEmitters = emitters.get(userId);
+        if (userEmitters != null) {
+            userEmitters.forEach(emitter -> send(userId, emitter, SseEmitter.event().comment("ping")));
+        }
+    }
+
+    private void push(UUID userId, long count) {
+        List<SseEmitter> userEmitters = emitters.get(userId);
+        if (userEmitters != null) {
+            userEmitters.forEach(emitter ->
+                    send(userId, emitter, SseEmitter.event().name(COUNT_EVENT).data(count)));
+        }
+    }
+
+    private void send(UUID userId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // Client déconnecté : le flux est retiré
+            remove(userId, emitter);
+        }
+    }
+
+    private void remove(UUID userId, SseEmitter emitter) {
+        emitters.computeIfPresent(userId, (id, userEmitters) -> {
+            userEmitters.remove(emitter);
+            return userEmitters.isEmpty() ? null : userEmitters;
+        });
+    }
+
+    /**
+     * Nombre de flux ouverts (supervision)
+     * @return nombre total de flux SSE
+     */
+    public int openStreams() {
+        return emitters.values().stream().mapToInt(List::size).sum();
+    }
+
+    // ==================== MAINTENANCE ====================
+
+    /**
+     * Construit les compteurs depuis les notifications existantes au premier démarrage
+     * Avant l'ouverture du port : une notification créée entre-temps rendrait la table non vide et annulerait l'import
+     */
+    @EventListener(StartupBackfillEvent.class)
+    @Transactional
+    public void backfillCounters() {
+        if (counterRepository.hasAnyCounter()) {
+            return;
+        }
+        int created = counterRepository.backfill();
+        if (created > 0) {
+            log.info("Compteurs de notifications non lues initialisés pour {} utilisateur(s)", created);
+        }
+    }
+}
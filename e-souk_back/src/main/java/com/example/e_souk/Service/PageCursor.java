@@ -0,0 +1,51 @@
+package com.example.e_souk.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Curseur de pagination keyset : date + ID du dernier élément de la page précédente
+ * Un rang optionnel (ex : la note pour un tri par note) précède la date dans l'ordre de tri
+ * Encodé en base64 URL pour rester opaque pour le front
+ */
+final class PageCursor {
+
+    final Integer rank;
+    final LocalDateTime at;
+    final UUID id;
+
+    PageCursor(LocalDateTime at, UUID id) {
+        this(null, at, id);
+    }
+
+    PageCursor(Integer rank, LocalDateTime at, UUID id) {
+        this.rank = rank;
+        this.at = at;
+        this.id = id;
+    }
+
+    String encode() {
+        String raw = at + "|" + id + (rank != null ? "|" + rank : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param value curseur reçu du front
+     * @return position décodée
+     * @throws IllegalArgumentException si le curseur est invalide
+     */
+    static PageCursor decode(String value) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length < 2 || parts.length > 3) {
+                throw new IllegalArgumentException();
+            }
+            Integer rank = parts.length == 3 ? Integer.valueOf(parts[2]) : null;
+            return new PageCursor(rank, LocalDateTime.parse(parts[0]), UUID.fromString(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Event.UserSecurityChangedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Cache local des utilisateurs authentifiés par JWT
+ *
+ * POURQUOI ?
+ * - JwtAuthenticationFilter reconstruisait le UserDetails à chaque requête (findByUsername + entité User complète)
+ * - Avec le cache, un appel authentifié ne touche plus la base dans le filtre
+ *
+ * CLÉ : nom d'utilisateur + date d'émission du token (iat)
+ *
+ * INVALIDATION :
+ * - Rôle, mot de passe, compte actif, nom d'utilisateur ou suppression (UserService, ShopService.createShop) :
+ *   toutes les entrées de l'utilisateur sont évincées après commit
+ * - La garde de version de BoundedTtlCache empêche un chargement commencé avant l'éviction
+ *   de remettre une valeur périmée
+ * - Expiration (TTL) courte : borne la durée d'une entrée périmée si un autre noeud modifie le compte
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PrincipalCache {
+
+    private final UserDetailsServiceImpl userDetailsService;
+
+    @Value("${principal-cache.ttl-ms:60000}")
+    private long ttlMs;
+
+    @Value("${principal-cache.max-size:10000}")
+    private int maxSize;
+
+    private BoundedTtlCache<Key, UserDetails> cache;
+
+    @PostConstruct
+    void init() {
+        cache = new BoundedTtlCache<>(maxSize, ttlMs);
+    }
+
+    /**
+     * Retourne l'utilisateur authentifié d'un token, depuis le cache ou la base
+     * En cas d'absence, l'utilisateur est relu par clé primaire si le token porte son ID
+     * @param username sujet du token
+     * @param userId ID porté par le token (null pour les anciens tokens)
+     * @param issuedAt date d'émission du token
+     * @return UserDetails de l'utilisateur
+     * @throws UsernameNotFoundException si l'utilisateur n'existe pas ou est inactif
+     */
+    public UserDetails load(String username, UUID userId, Instant issuedAt) {
+        Key key = new Key(username, issuedAt != null ? issuedAt.toEpochMilli() : 0L);
+        return cache.get(key, k -> userId != null
+                ? userDetailsService.loadUserById(userId)
+                : userDetailsService.loadUserByUsername(username));
+    }
+
+    /**
+     * Évince l'utilisateur (et son ancien nom s'il a changé) après le commit
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserSecurityChanged(UserSecurityChangedEvent event) {
+        evict(event.getUsername());
+        if (event.getPreviousUsername() != null) {
+            evict(event.getPreviousUsername());
+        }
+        log.debug("Cache des utilisateurs authentifiés invalidé pour {}", event.getUserId());
+    }
+
+    /**
+     * Retire toutes les entrées d'un utilisateur, quel que soit le token
+     * @param username nom d'utilisateur
+     */
+    public void evict(String username) {
+        if (username == null) {
+            return;
+        }
+        cache.invalidateIf(key -> key.username().equals(username));
+    }
+
+    private record Key(String username, long issuedAt) {
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.e_souk.Service;
 
 import com.example.e_souk.Dto.Product.ProductDTO;
+import com.example.e_souk.Event.ProductFavoritedEvent;
+import com.example.e_souk.Event.ProductUnfavoritedEvent;
 import com.example.e_souk.Exception.ResourceNotFoundException;
 import com.example.e_souk.Mappers.ProductMapper;
 import com.example.e_souk.Model.Product;
@@ -11,6 +13,7 @@ import com.example.e_souk.Repository.ProductRepository;
 import com.example.e_souk.Repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,6 +35,8 @@ public class ProductFavoriteService {
     private final ProductFavoriteRepository productFavoriteRepository;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
+    private final UserRelationCache userRelationCache;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * Récupère tous les favoris d'un utilisateur
@@ -63,8 +68,8 @@ public class ProductFavoriteService {
     public ProductDTO addToFavorites(UUID userId, UUID productId) {
         log.info("Ajout aux favoris - Utilisateur: {}, Produit: {}", userId, productId);
         
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Utilisateur non trouvé"));
+        // ID issu du token : seule la clé étrangère est utile, pas de SELECT sur l'utilisateur
+        User user = userRepository.getReferenceById(userId);
         
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Produit non trouvé"));
@@ -80,6 +85,7 @@ public class ProductFavoriteService {
                 .build();
         
         ProductFavorite savedFavorite = productFavoriteRepository.save(favorite);
+        eventPublisher.publishEvent(new ProductFavoritedEvent(productId, userId));
         return ProductMapper.toProductDetails(savedFavorite.getProduct());
     }
     
@@ -97,7 +103,10 @@ public class ProductFavoriteService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Produit non trouvé"));
         
-        productFavoriteRepository.deleteByUserAndProduct(user, product);
+        long deleted = productFavoriteRepository.deleteByUserAndProduct(user, product);
+        if (deleted > 0) {
+            eventPublisher.publishEvent(new ProductUnfavoritedEvent(productId, userId));
+        }
     }
     
     /**
@@ -109,6 +118,17 @@ public class ProductFavoriteService {
     public boolean isProductFavorite(UUID userId, UUID productId) {
         return productFavoriteRepository.existsByUserIdAndProductId(userId, productId);
     }
+
+    /**
+     * Vérifie en une fois quels produits d'une liste sont en favori
+     * @param userId ID de l'utilisateur
+     * @param productIds IDs des produits (200 maximum)
+     * @return IDs des produits en favori
+     */
+    @Transactional(readOnly = true)
+    public List<UUID> getFavoriteProductIds(UUID userId, List<UUID> productIds) {
+        return userRelationCache.favoriteProductIds(userId, productIds);
+    }
     
 
     
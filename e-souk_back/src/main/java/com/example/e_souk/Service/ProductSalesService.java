@@ -0,0 +1,135 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Dto.Product.ProductDTO;
+import com.example.e_souk.Event.OrderCancelledEvent;
+import com.example.e_souk.Event.OrderLine;
+import com.example.e_souk.Event.OrderPlacedEvent;
+import com.example.e_souk.Event.StartupBackfillEvent;
+import com.example.e_souk.Mappers.ProductMapper;
+import com.example.e_souk.Repository.ProductSalesRepository;
+import com.example.e_souk.Repository.VariantSalesRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Service des compteurs de ventes par produit et par variante (popularité)
+ *
+ * FONCTIONNEMENT :
+ * - Une commande passée ajoute ses quantités aux compteurs, une annulation les retire,
+ *   dans la transaction de la commande (BEFORE_COMMIT)
+ * - Les classements "populaires" lisent les compteurs par index, sans agréger order_items
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSalesService {
+
+    /**
+     * Taille maximale d'un classement
+     */
+    private static final int MAX_LIMIT = 50;
+
+    private final ProductSalesRepository productSalesRepository;
+    private final VariantSalesRepository variantSalesRepository;
+
+    // ==================== ÉVÉNEMENTS DE COMMANDE ====================
+    // BEFORE_COMMIT : exécutés dans la transaction de la commande (pas de @Transactional ici)
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        apply(event.getShopId(), event.getLines(), 1);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onOrderCancelled(OrderCancelledEvent event) {
+        apply(event.getShopId(), event.getLines(), -1);
+    }
+
+    /**
+     * Ordre de verrouillage fixe, comme StockService : variantes puis produits, par id croissant.
+     * Deux commandes concurrentes sur les mêmes produits prennent les verrous de ligne
+     * dans le même ordre et ne peuvent pas s'interbloquer.
+     */
+    private void apply(UUID shopId, List<OrderLine> lines, int sign) {
+        List<OrderLine> byVariant = lines.stream()
+                .sorted(Comparator.comparing(OrderLine::getVariantId))
+                .toList();
+        for (OrderLine line : byVariant) {
+            variantSalesRepository.addUnits(line.getVariantId(), line.getProductId(), shopId,
+                    (long) sign * line.getQuantity());
+        }
+        // Une seule mise à jour par produit, même s'il a plusieurs variantes dans la commande
+        Map<UUID, Long> unitsByProduct = lines.stream()
+                .collect(Collectors.groupingBy(OrderLine::getProductId, TreeMap::new,
+                        Collectors.summingLong(OrderLine::getQuantity)));
+        unitsByProduct.forEach((productId, units) ->
+                productSalesRepository.addUnits(productId, shopId, sign * units));
+    }
+
+    // ==================== LECTURE ====================
+
+    /**
+     * Produits les plus vendus d'une boutique
+     * @param shopId ID de la boutique
+     * @param limit nombre de produits (borné à 50)
+     * @return produits triés par ventes décroissantes
+     */
+    @Transactional(readOnly = true)
+    public List<ProductDTO> getPopularProductsByShop(UUID shopId, int limit) {
+        return productSalesRepository.findTopProductsByShop(shopId, PageRequest.of(0, clamp(limit))).stream()
+                .map(ProductMapper::toProductDetails)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Produits les plus vendus de la marketplace
+     * @param limit nombre de produits (borné à 50)
+     * @return produits triés par ventes décroissantes
+     */
+    @Transactional(readOnly = true)
+    public List<ProductDTO> getPopularProducts(int limit) {
+        return productSalesRepository.findTopProducts(PageRequest.of(0, clamp(limit))).stream()
+                .map(ProductMapper::toProductDetails)
+                .collect(Collectors.toList());
+    }
+
+    private int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    // ==================== MAINTENANCE ====================
+
+    /**
+     * Importe l'historique des ventes au premier démarrage (tables vides)
+     * Avant l'ouverture du port : une vente déjà comptée rendrait la table non vide et annulerait l'import
+     */
+    @EventListener(StartupBackfillEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (!variantSalesRepository.hasAnySales()) {
+            int variants = variantSalesRepository.backfill();
+            if (variants > 0) {
+                log.info("Compteurs de ventes importés pour {} variante(s)", variants);
+            }
+        }
+        if (!productSalesRepository.hasAnySales()) {
+            int products = productSalesRepository.backfill();
+            if (products > 0) {
+                log.info("Compteurs de ventes importés pour {} produit(s)", products);
+            }
+        }
+    }
+}
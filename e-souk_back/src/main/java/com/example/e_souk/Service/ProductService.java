@@ -8,6 +8,7 @@ import com.example.e_souk.Dto.Product.ProductDTO;
 import com.example.e_souk.Dto.Product.ProductDetailDTO;
 import com.example.e_souk.Dto.Product.ProductFilterDTO;
 import com.example.e_souk.Dto.Product.ProductResponseDTO;
+import com.example.e_souk.Event.ProductCreatedEvent;
 import com.example.e_souk.Mappers.ProductMapper;
 import com.example.e_souk.Model.Product;
 import com.example.e_souk.Model.Shop;
@@ -24,6 +25,7 @@ import com.example.e_souk.Repository.AttributeValueRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -59,6 +61,8 @@ private final FileStorageService fileStorageService;
 	private final CategoryService categoryService;
 	private final AttributeRepository attributeRepository;
 	private final AttributeValueRepository attributeValueRepository;
+	private final ApplicationEventPublisher eventPublisher;
+	private final StockService stockService;
 
 	public Product createProduct(ProductCreationRequestDTO dto, UUID shopId) {
 		Shop shop = shopRepository.findById(shopId)
@@ -101,6 +105,7 @@ private final FileStorageService fileStorageService;
 			.isActive(true)
 			.build();
 		product = productRepository.save(product);
+		eventPublisher.publishEvent(new ProductCreatedEvent(product.getId(), shopId));
 
 		// Gestion des attributs (création/réutilisation)
 		for (ProductCreationRequestDTO.AttributeDTO attrDTO : dto.getAttributes()) {
@@ -125,6 +130,7 @@ private final FileStorageService fileStorageService;
 				.product(product)
 				.build();
 			variant = variantRepository.save(variant);
+			stockService.trackNewVariant(shop, variant);
 
 			for (ProductCreationRequestDTO.AttributeValueDTO attrValDTO : variantDTO.getAttributeValues()) {
 				Attribute attribute = attributeRepository.findByNameIgnoreCase(attrValDTO.getAttributeName())
@@ -198,6 +204,7 @@ public ProductDetailDTO getProductDetail(UUID productId) {
             .description(product.getDescription())
             .price(product.getPrice())
             .picture(product.getPicture())
+            .pictureVariants(ImageVariants.paths(product.getPicture()))
             .shopName(product.getShop().getBrandName())
             .availableAttributes(availableAttributes)
             .build();
@@ -0,0 +1,63 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Event.ReviewCreatedEvent;
+import com.example.e_souk.Event.StartupBackfillEvent;
+import com.example.e_souk.Model.ReviewType;
+import com.example.e_souk.Repository.ProductRepository;
+import com.example.e_souk.Repository.ShopStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Service de maintenance des agrégats de notes (boutiques et produits)
+ *
+ * RÈGLE : l'agrégat est mis à jour dans la même transaction que l'avis (BEFORE_COMMIT),
+ * par un UPDATE atomique en base. Si l'avis n'est pas commité, l'agrégat non plus.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RatingService {
+
+    private final ShopStatsRepository shopStatsRepository;
+    private final ProductRepository productRepository;
+
+    /**
+     * Applique la note d'un nouvel avis à l'agrégat de la boutique ou du produit
+     * BEFORE_COMMIT s'exécute dans la transaction de l'avis (pas de @Transactional ici :
+     * Spring refuse de combiner les deux sur un écouteur)
+     * @param event avis créé
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onReviewCreated(ReviewCreatedEvent event) {
+        int rating = event.getRating();
+        if (rating < 1 || rating > 5) {
+            log.warn("Note hors limites ignorée pour l'avis {}: {}", event.getReviewId(), rating);
+            return;
+        }
+        if (event.getType() == ReviewType.SHOP && event.getShopId() != null) {
+            shopStatsRepository.addRating(event.getShopId(), rating);
+        } else if (event.getType() == ReviewType.PRODUCT && event.getProductId() != null) {
+            productRepository.addRating(event.getProductId(), rating);
+        }
+    }
+
+    /**
+     * Recalcule au démarrage les agrégats des produits notés avant l'existence des colonnes
+     * (les boutiques sont initialisées par ShopStatsService)
+     * Avant l'ouverture du port : un avis incrémenterait rating_count et écarterait le produit du recalcul
+     */
+    @EventListener(StartupBackfillEvent.class)
+    @Transactional
+    public void backfillProductRatings() {
+        int updated = productRepository.backfillRatings();
+        if (updated > 0) {
+            log.info("Agrégats de notes recalculés pour {} produit(s)", updated);
+        }
+    }
+}
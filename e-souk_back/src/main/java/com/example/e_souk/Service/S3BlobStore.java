@@ -0,0 +1,377 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Config.S3StorageProperties;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * Stockage sur un service compatible S3 (AWS S3, MinIO...), via java.net.http et une signature
+ * AWS Signature Version 4 écrite à la main : aucune dépendance SDK
+ *
+ * - PUT : corps envoyé depuis le fichier préparé (BodyPublishers.ofFile), charge non signée
+ *   (UNSIGNED-PAYLOAD, acceptée par S3 et MinIO)
+ * - GET : en-tête Range transmis au service, le contenu est lu en flux
+ * - HEAD : taille, date et ETag du service (MD5 pour un envoi en une partie)
+ * - Listing : ListObjectsV2 sous le préfixe, page par page (jeton de continuation), pour le rattrapage
+ *   des variantes au démarrage
+ */
+public class S3BlobStore implements BlobStore {
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    private static final String EMPTY_PAYLOAD_HASH =
+            "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final DateTimeFormatter LAST_MODIFIED = DateTimeFormatter.RFC_1123_DATE_TIME;
+
+    private final S3StorageProperties properties;
+    private final HttpClient httpClient;
+    private final URI endpoint;
+
+    public S3BlobStore(S3StorageProperties properties) {
+        if (properties.getEndpoint() == null || properties.getBucket() == null
+                || properties.getAccessKey() == null || properties.getSecretKey() == null) {
+            throw new IllegalStateException("Stockage S3 : endpoint, bucket, access-key et secret-key sont requis");
+        }
+        this.properties = properties;
+        this.endpoint = URI.create(properties.getEndpoint().replaceAll("/+$", ""));
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(properties.getConnectTimeoutMs()))
+                .build();
+    }
+
+    @Override
+    public Optional<BlobStat> stat(String key) throws IOException {
+        HttpResponse<Void> response = send(request("HEAD", key, Map.of(), EMPTY_PAYLOAD_HASH)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404) {
+            return Optional.empty();
+        }
+        expect(response, "HEAD", key, 200);
+        long size = response.headers().firstValueAsLong("Content-Length").orElse(0);
+        long lastModified = response.headers().firstValue("Last-Modified")
+                .map(value -> ZonedDateTime.parse(value, LAST_MODIFIED).toInstant().toEpochMilli())
+                .orElse(0L);
+        String etag = response.headers().firstValue("ETag").orElse(null);
+        return Optional.of(new BlobStat(size, lastModified, etag));
+    }
+
+    @Override
+    public void put(String key, Path source, String contentType) throws IOException {
+        String type = contentType != null ? contentType : "application/octet-stream";
+        HttpResponse<Void> response = send(request("PUT", key, Map.of("content-type", type), UNSIGNED_PAYLOAD)
+                .PUT(HttpRequest.BodyPublishers.ofFile(source)).build(), HttpResponse.BodyHandlers.discarding());
+        expect(response, "PUT", key, 200);
+    }
+
+    @Override
+    public InputStream open(String key, long offset, long length) throws IOException {
+        if (length == 0) {
+            return InputStream.nullInputStream();
+        }
+        Map<String, String> headers = offset == 0 && length < 0 ? Map.of()
+                : Map.of("range", "bytes=" + offset + "-" + (length < 0 ? "" : String.valueOf(offset + length - 1)));
+        HttpResponse<InputStream> response = send(request("GET", key, headers, EMPTY_PAYLOAD_HASH).GET().build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        int status = response.statusCode();
+        if (status == 200 || status == 206) {
+            return response.body();
+        }
+        response.body().close();
+        if (status == 404) {
+            throw new NoSuchFileException(key);
+        }
+        throw new IOException("S3 GET " + key + " : statut " + status);
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        HttpResponse<Void> response = send(request("DELETE", key, Map.of(), EMPTY_PAYLOAD_HASH).DELETE().build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 404) {
+            expect(response, "DELETE", key, 204);
+        }
+    }
+
+    /**
+     * Clés sous le préfixe configuré (préfixe retiré), lues page par page avec ListObjectsV2
+     * La première page est lue ici (erreur en IOException), les suivantes au fil du parcours
+     * (erreur en UncheckedIOException)
+     */
+    @Override
+    public Stream<String> keys() throws IOException {
+        Iterator<String> pages = new Iterator<>() {
+            private final Deque<String> page = new ArrayDeque<>();
+            private String continuationToken;
+            private boolean truncated = listPage(null);
+
+            @Override
+            public boolean hasNext() {
+                while (page.isEmpty() && truncated) {
+                    try {
+                        truncated = listPage(continuationToken);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return !page.isEmpty();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.removeFirst();
+            }
+
+            /**
+             * @return true si d'autres pages suivent
+             */
+            private boolean listPage(String token) throws IOException {
+                SortedMap<String, String> query = new TreeMap<>();
+                query.put("list-type", "2");
+                if (!properties.getKeyPrefix().isEmpty()) {
+                    query.put("prefix", properties.getKeyPrefix());
+                }
+                if (token != null) {
+                    query.put("continuation-token", token);
+                }
+                HttpResponse<InputStream> response = send(signedRequest("GET", "", query, Map.of(), EMPTY_PAYLOAD_HASH)
+                        .GET().build(), HttpResponse.BodyHandlers.ofInputStream());
+                Document result;
+                try (InputStream body = response.body()) {
+                    expect(response, "LIST", properties.getKeyPrefix(), 200);
+                    result = parseXml(body);
+                }
+                NodeList keys = result.getElementsByTagName("Key");
+                for (int i = 0; i < keys.getLength(); i++) {
+                    String key = keys.item(i).getTextContent();
+                    if (key.startsWith(properties.getKeyPrefix()) && !key.endsWith("/")) {
+                        page.addLast(key.substring(properties.getKeyPrefix().length()));
+                    }
+                }
+                continuationToken = text(result, "NextContinuationToken");
+                return "true".equals(text(result, "IsTruncated")) && continuationToken != null;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages, Spliterator.ORDERED | Spliterator.NONNULL),
+                false);
+    }
+
+    // ==================== REQUÊTES SIGNÉES ====================
+
+    private HttpRequest.Builder request(String method, String key, Map<String, String> extraHeaders, String payloadHash) {
+        if (key.isEmpty() || key.startsWith("/") || key.contains("..")) {
+            throw new IllegalArgumentException("Clé de fichier invalide: " + key);
+        }
+        return signedRequest(method, "/" + encodePath(properties.getKeyPrefix() + key), new TreeMap<>(),
+                extraHeaders, payloadHash);
+    }
+
+    /**
+     * @param objectPath chemin encodé de l'objet dans le bucket, vide pour le bucket lui-même (listing)
+     * @param query paramètres de requête (non encodés)
+     */
+    private HttpRequest.Builder signedRequest(String method, String objectPath, SortedMap<String, String> query,
+                                              Map<String, String> extraHeaders, String payloadHash) {
+        String canonicalPath;
+        String host;
+        if (properties.isPathStyle()) {
+            canonicalPath = "/" + encodePath(properties.getBucket()) + objectPath;
+            host = endpoint.toString();
+        } else {
+            canonicalPath = objectPath.isEmpty() ? "/" : objectPath;
+            String port = endpoint.getPort() == -1 ? "" : ":" + endpoint.getPort();
+            host = endpoint.getScheme() + "://" + properties.getBucket() + "." + endpoint.getHost() + port;
+        }
+        String canonicalQuery = canonicalQuery(query);
+        URI uri = URI.create(host + canonicalPath + (canonicalQuery.isEmpty() ? "" : "?" + canonicalQuery));
+
+        String amzDate = ZonedDateTime.now(ZoneOffset.UTC).format(AMZ_DATE);
+        SortedMap<String, String> headers = new TreeMap<>(extraHeaders);
+        headers.put("host", hostHeader(uri));
+        headers.put("x-amz-content-sha256", payloadHash);
+        headers.put("x-amz-date", amzDate);
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMillis(properties.getRequestTimeoutMs()));
+        headers.forEach((name, value) -> {
+            // Host est posé par le client HTTP (en-tête restreint), avec la même valeur que celle signée
+            if (!name.equals("host")) {
+                builder.header(name, value);
+            }
+        });
+        builder.header("Authorization", authorization(properties.getAccessKey(), properties.getSecretKey(),
+                properties.getRegion(), method, canonicalPath, canonicalQuery, headers, payloadHash, amzDate));
+        return builder;
+    }
+
+    /**
+     * En-tête Authorization AWS Signature Version 4 (service s3)
+     * @param canonicalPath chemin déjà encodé (URI-encode de chaque segment)
+     * @param canonicalQuery chaîne de requête canonique (voir canonicalQuery), vide sans paramètres
+     * @param headers en-têtes signés, noms en minuscules (triés)
+     * @param payloadHash SHA-256 hexadécimal du corps, ou UNSIGNED-PAYLOAD
+     * @param amzDate date de la requête (yyyyMMdd'T'HHmmss'Z', UTC)
+     */
+    static String authorization(String accessKey, String secretKey, String region, String method,
+                                String canonicalPath, String canonicalQuery, SortedMap<String, String> headers,
+                                String payloadHash, String amzDate) {
+        StringBuilder canonicalHeaders = new StringBuilder();
+        headers.forEach((name, value) -> canonicalHeaders.append(name).append(':').append(value.trim()).append('\n'));
+        String signedHeaders = String.join(";", headers.keySet());
+        String canonicalRequest = method + "\n" + canonicalPath + "\n" + canonicalQuery + "\n"
+                + canonicalHeaders + "\n" + signedHeaders + "\n" + payloadHash;
+
+        String date = amzDate.substring(0, 8);
+        String scope = date + "/" + region + "/s3/aws4_request";
+        String stringToSign = ALGORITHM + "\n" + amzDate + "\n" + scope + "\n"
+                + HexFormat.of().formatHex(sha256(canonicalRequest));
+
+        byte[] signingKey = hmac(hmac(hmac(hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), date),
+                region), "s3"), "aws4_request");
+        String signature = HexFormat.of().formatHex(hmac(signingKey, stringToSign));
+        return ALGORITHM + " Credential=" + accessKey + "/" + scope
+                + ", SignedHeaders=" + signedHeaders + ", Signature=" + signature;
+    }
+
+    /**
+     * Chaîne de requête canonique : paramètres triés par nom, noms et valeurs encodés ('/' compris)
+     */
+    static String canonicalQuery(SortedMap<String, String> query) {
+        return query.entrySet().stream()
+                .map(entry -> encode(entry.getKey(), false) + "=" + encode(entry.getValue(), false))
+                .collect(Collectors.joining("&"));
+    }
+
+    /**
+     * Encodage URI de S3 : tout sauf les caractères non réservés (RFC 3986) et '/'
+     */
+    static String encodePath(String path) {
+        return encode(path, true);
+    }
+
+    private static String encode(String value, boolean keepSlash) {
+        StringBuilder encoded = new StringBuilder();
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xff);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || (keepSlash && c == '/')) {
+                encoded.append(c);
+            } else {
+                encoded.append('%').append(HexFormat.of().withUpperCase().toHexDigits(b));
+            }
+        }
+        return encoded.toString();
+    }
+
+    private static String hostHeader(URI uri) {
+        int port = uri.getPort();
+        boolean defaultPort = port == -1
+                || ("http".equals(uri.getScheme()) && port == 80)
+                || ("https".equals(uri.getScheme()) && port == 443);
+        return defaultPort ? uri.getHost() : uri.getHost() + ":" + port;
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+        try {
+            return httpClient.send(request, handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Requête S3 interrompue: " + request.method() + " " + request.uri());
+        }
+    }
+
+    private static void expect(HttpResponse<?> response, String method, String key, int expected) throws IOException {
+        int status = response.statusCode();
+        if (status != expected && status != 200) {
+            throw new IOException("S3 " + method + " " + key + " : statut " + status);
+        }
+    }
+
+    /**
+     * Réponse XML du service, sans DTD ni entités externes
+     */
+    private static Document parseXml(InputStream body) throws IOException {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setExpandEntityReferences(false);
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            return builder.parse(body);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Réponse S3 illisible: " + e.getMessage(), e);
+        }
+    }
+
+    private static String text(Document document, String tag) {
+        NodeList nodes = document.getElementsByTagName(tag);
+        return nodes.getLength() > 0 ? nodes.item(0).getTextContent() : null;
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    private static byte[] hmac(byte[] key, String value) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(value.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 indisponible", e);
+        }
+    }
+}
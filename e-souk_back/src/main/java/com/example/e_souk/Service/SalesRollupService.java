@@ -0,0 +1,220 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Dto.Shop.SalesBucketDTO;
+import com.example.e_souk.Dto.Shop.ShopStatsDTO;
+import com.example.e_souk.Event.OrderCancelledEvent;
+import com.example.e_souk.Event.OrderPlacedEvent;
+import com.example.e_souk.Event.StartupBackfillEvent;
+import com.example.e_souk.Exception.ShopException;
+import com.example.e_souk.Model.EtatCommande;
+import com.example.e_souk.Model.SalesGranularity;
+import com.example.e_souk.Model.Shop;
+import com.example.e_souk.Model.ShopSalesRollup;
+import com.example.e_souk.Model.ShopStats;
+import com.example.e_souk.Repository.CommandeRepository;
+import com.example.e_souk.Repository.ProductRepository;
+import com.example.e_souk.Repository.ShopSalesRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service des agrégats de ventes par boutique (shop_sales_rollups)
+ *
+ * FONCTIONNEMENT :
+ * - Chaque commande passée ajoute son total, 1 commande et ses articles à l'agrégat du jour
+ *   et à celui de l'heure, dans la transaction de la commande (BEFORE_COMMIT)
+ * - Une annulation retire les mêmes valeurs des périodes de création de la commande
+ * - Les agrégats horaires sont purgés après quelques jours, les journaliers sont conservés
+ * - Les requêtes par intervalle lisent une ligne par période : O(jours) au lieu de O(commandes)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesRollupService {
+
+    /**
+     * Intervalle maximal d'une requête, pour borner la taille des réponses
+     */
+    private static final long MAX_DAILY_BUCKETS = 366;
+    private static final long MAX_HOURLY_BUCKETS = 24 * 7;
+
+    private final ShopSalesRollupRepository rollupRepository;
+    private final CommandeRepository commandeRepository;
+    private final ProductRepository productRepository;
+    private final ShopStatsService shopStatsService;
+    private final StockService stockService;
+
+    @Value("${sales-rollup.hourly-retention-days:2}")
+    private int hourlyRetentionDays;
+
+    // ==================== ÉVÉNEMENTS DE COMMANDE ====================
+    // BEFORE_COMMIT : exécutés dans la transaction de la commande (pas de @Transactional ici)
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        apply(event.getShopId(), event.getCreatedAt(), event.getTotal(), 1, event.getUnits());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onOrderCancelled(OrderCancelledEvent event) {
+        apply(event.getShopId(), event.getCreatedAt(), -event.getTotal(), -1, -event.getUnits());
+    }
+
+    private void apply(UUID shopId, LocalDateTime orderDate, double revenue, long orders, long units) {
+        LocalDateTime date = orderDate != null ? orderDate : LocalDateTime.now();
+        rollupRepository.applyDelta(shopId, SalesGranularity.DAY.name(), date.truncatedTo(ChronoUnit.DAYS),
+                revenue, orders, units);
+        if (date.isAfter(hourlyCutoff())) {
+            rollupRepository.applyDelta(shopId, SalesGranularity.HOUR.name(), date.truncatedTo(ChronoUnit.HOURS),
+                    revenue, orders, units);
+        }
+    }
+
+    // ==================== LECTURE ====================
+
+    /**
+     * Ventes d'une boutique par période sur un intervalle
+     * Les périodes sans vente sont renvoyées à zéro (série continue pour les graphiques)
+     *
+     * @param shopId ID de la boutique
+     * @param from premier jour inclus
+     * @param to dernier jour inclus
+     * @param granularity DAY ou HOUR (HOUR limité aux jours conservés, voir hourly-retention-days)
+     * @return une entrée par période, dans l'ordre chronologique
+     */
+    @Transactional(readOnly = true)
+    public List<SalesBucketDTO> getSales(UUID shopId, LocalDate from, LocalDate to, SalesGranularity granularity) {
+        if (from.isAfter(to)) {
+            throw new ShopException("SALES_RANGE_INVALID", "La date de début doit précéder la date de fin");
+        }
+        ChronoUnit unit = granularity == SalesGranularity.HOUR ? ChronoUnit.HOURS : ChronoUnit.DAYS;
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        long buckets = unit.between(start, end);
+        long max = granularity == SalesGranularity.HOUR ? MAX_HOURLY_BUCKETS : MAX_DAILY_BUCKETS;
+        if (buckets > max) {
+            throw new ShopException("SALES_RANGE_INVALID", "Intervalle trop long (" + max + " périodes maximum)");
+        }
+        // Avant la limite de rétention, les agrégats horaires sont purgés : la série serait à zéro
+        LocalDateTime hourlyCutoff = hourlyCutoff();
+        if (granularity == SalesGranularity.HOUR && start.isBefore(hourlyCutoff)) {
+            throw new ShopException("SALES_RANGE_INVALID",
+                    "Détail horaire disponible à partir du " + hourlyCutoff.toLocalDate());
+        }
+
+        Map<LocalDateTime, ShopSalesRollup> stored = rollupRepository.findRange(shopId, granularity, start, end).stream()
+                .collect(Collectors.toMap(r -> r.getId().getBucketStart(), Function.identity()));
+        List<SalesBucketDTO> result = new ArrayList<>((int) buckets);
+        for (LocalDateTime bucket = start; bucket.isBefore(end); bucket = bucket.plus(1, unit)) {
+            ShopSalesRollup rollup = stored.get(bucket);
+            result.add(rollup == null
+                    ? new SalesBucketDTO(bucket, 0.0, 0L, 0L, 0.0)
+                    : new SalesBucketDTO(bucket, rollup.getRevenue(), rollup.getOrderCount(),
+                            rollup.getUnitsSold(), rollup.getAverageBasket()));
+        }
+        return result;
+    }
+
+    /**
+     * Tableau de bord vendeur : compteurs matérialisés + chiffre d'affaires agrégé
+     * Aucune lecture proportionnelle au nombre de commandes ou de produits (hors ligne non initialisée)
+     *
+     * @param shop boutique
+     * @return ShopStatsDTO statistiques de la boutique
+     */
+    @Transactional(readOnly = true)
+    public ShopStatsDTO getShopStats(Shop shop) {
+        UUID shopId = shop.getId();
+        ShopStats counters = shopStatsService.getCounters(shopId);
+
+        long activeProducts;
+        long pending;
+        long completed;
+        if (counters.hasStatusCounters()) {
+            activeProducts = counters.getActiveProductCount();
+            pending = counters.getPendingOrderCount();
+            completed = counters.getCompletedOrderCount();
+        } else {
+            // Ligne pas encore initialisée (démarrage en cours) : comptage sur les tables sources
+            activeProducts = productRepository.countActiveProductsByShop(shopId);
+            pending = 0;
+            completed = 0;
+            for (Object[] row : commandeRepository.countByShopIdGroupByEtat(shopId)) {
+                EtatCommande etat = (EtatCommande) row[0];
+                long count = ((Number) row[1]).longValue();
+                if (etat == EtatCommande.EnAttente || etat == EtatCommande.EnCours) {
+                    pending += count;
+                } else if (etat == EtatCommande.Livree) {
+                    completed += count;
+                }
+            }
+        }
+
+        LocalDateTime monthStart = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+        return new ShopStatsDTO(
+                shopId,
+                shop.getBrandName(),
+                counters.getProductCount(),
+                activeProducts,
+                stockService.countOutOfStockProducts(shopId),
+                counters.getOrderCount(),
+                pending,
+                completed,
+                rollupRepository.sumDailyRevenue(shopId),
+                rollupRepository.sumDailyRevenueSince(shopId, monthStart),
+                counters.getFollowerCount(),
+                counters.getRatings().getRatingCount(),
+                counters.getAverageRating()
+        );
+    }
+
+    // ==================== MAINTENANCE ====================
+
+    /**
+     * Importe l'historique des commandes au premier démarrage (table vide)
+     * Avant l'ouverture du port : une commande déjà agrégée rendrait la table non vide et annulerait l'import
+     */
+    @EventListener(StartupBackfillEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (rollupRepository.hasAnyRollup()) {
+            return;
+        }
+        int daily = rollupRepository.backfillDaily();
+        int hourly = rollupRepository.backfillHourly(hourlyCutoff());
+        if (daily > 0) {
+            log.info("Agrégats de ventes importés: {} journalier(s), {} horaire(s)", daily, hourly);
+        }
+    }
+
+    /**
+     * Purge quotidienne des agrégats horaires trop anciens
+     */
+    @Scheduled(cron = "${sales-rollup.purge-cron:0 15 3 * * *}")
+    @Transactional
+    public void purgeHourlyRollups() {
+        int deleted = rollupRepository.deleteOlderThan(SalesGranularity.HOUR, hourlyCutoff());
+        log.debug("{} agrégat(s) horaire(s) purgé(s)", deleted);
+    }
+
+    private LocalDateTime hourlyCutoff() {
+        return LocalDate.now().minusDays(hourlyRetentionDays).atStartOfDay();
+    }
+}
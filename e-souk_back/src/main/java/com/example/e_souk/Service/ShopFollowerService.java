@@ -1,23 +1,30 @@
 package com.example.e_souk.Service;
 
 import com.example.e_souk.Dto.Shop.ShopSummaryDTO;
+import com.example.e_souk.Dto.User.ShopFollowerDTO;
+import com.example.e_souk.Dto.User.ShopFollowerPageDTO;
+import com.example.e_souk.Event.ShopFollowedEvent;
+import com.example.e_souk.Event.ShopUnfollowedEvent;
 import com.example.e_souk.Exception.ResourceNotFoundException;
 import com.example.e_souk.Mappers.ProductMapper;
 import com.example.e_souk.Mappers.ShopMapper;
 import com.example.e_souk.Model.Shop;
 import com.example.e_souk.Model.ShopFollower;
+import com.example.e_souk.Model.ShopStats;
 import com.example.e_souk.Model.User;
 import com.example.e_souk.Repository.ShopFollowerRepository;
 import com.example.e_souk.Repository.ShopRepository;
 import com.example.e_souk.Repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -34,6 +41,15 @@ public class ShopFollowerService {
     private final ShopFollowerRepository shopFollowerRepository;
     private final UserRepository userRepository;
     private final ShopRepository shopRepository;
+    private final ShopStatsService shopStatsService;
+    private final UserRelationCache userRelationCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Taille maximale d'une page de followers
+     */
+    private static final int MAX_FOLLOWERS_PAGE_SIZE = 50;
+
     /**
      * Récupère toutes les boutiques suivies par un utilisateur
      * @param userId ID de l'utilisateur
@@ -46,10 +62,12 @@ public class ShopFollowerService {
                 .orElseThrow(() -> new ResourceNotFoundException("Utilisateur non trouvé"));
         
         List<ShopFollower> followers = shopFollowerRepository.findByUserIdWithShop(userId);
+        Map<UUID, ShopStats> stats = shopStatsService.getCounters(
+                followers.stream().map(sf -> sf.getShop().getId()).collect(Collectors.toList()));
         List<ShopSummaryDTO> shops=new ArrayList<>();
         for (ShopFollower sf: followers) {
             Shop s = sf.getShop();
-            ShopSummaryDTO sDTO = ShopMapper.toSummaryDTO(s,shopRepository.countProductsInShop(s.getId()), 0);
+            ShopSummaryDTO sDTO = ShopMapper.toSummaryDTO(s, stats.get(s.getId()));
             shops.add(sDTO);
         }
     return shops;
@@ -57,26 +75,43 @@ public class ShopFollowerService {
     // toSummaryDTO(shop, shopRepository.countProductsInShop(shop.getId()), 0));
     
     /**
-     * Récupère tous les followers d'une boutique
+     * Récupère une page de followers d'une boutique (plus récents d'abord)
+     * 
+     * PERFORMANCE :
+     * - Keyset sur (followed_at, id) : coût constant quelle que soit la page
+     * - Seuls username, photo et date sont lus (pas d'entités User/Shop chargées)
+     * - Le total vient des compteurs de ShopStats, pas d'un COUNT
+     * 
      * @param shopId ID de la boutique
-     * @return Liste des DTOs des followers
+     * @param cursor curseur renvoyé par la page précédente (null pour la première)
+     * @param size taille de la page (bornée à 50)
+     * @return page de followers + curseur suivant
+     * @throws IllegalArgumentException si le curseur est invalide
      */
-    // type de retour de cette methode est faut ! on attend pas des shops ! on attend des utilisateurs
-    public List<ShopSummaryDTO> getShopFollowers(UUID shopId) {
+    @Transactional(readOnly = true)
+    public ShopFollowerPageDTO getShopFollowers(UUID shopId, String cursor, int size) {
         log.debug("Récupération des followers pour la boutique: {}", shopId);
         
-        Shop shop = shopRepository.findById(shopId)
-                .orElseThrow(() -> new ResourceNotFoundException("Boutique non trouvée"));
+        if (!shopRepository.existsById(shopId)) {
+            throw new ResourceNotFoundException("Boutique non trouvée");
+        }
         
-        List<ShopFollower> followers = shopFollowerRepository.findByShopIdWithUser(shopId);
+        int pageSize = Math.max(1, Math.min(size, MAX_FOLLOWERS_PAGE_SIZE));
+        PageRequest limit = PageRequest.of(0, pageSize);
+        List<ShopFollowerDTO> items;
+        if (cursor == null || cursor.isBlank()) {
+            items = shopFollowerRepository.findFollowerPage(shopId, limit);
+        } else {
+            PageCursor position = PageCursor.decode(cursor);
+            items = shopFollowerRepository.findFollowerPageAfter(shopId, position.at, position.id, limit);
+        }
         
-        List<ShopSummaryDTO> shops = new ArrayList<>();;
-        for (ShopFollower sf: followers) {
-            Shop s = sf.getShop();
-            ShopSummaryDTO sDTO = ShopMapper.toSummaryDTO(s,shopRepository.countProductsInShop(s.getId()), 0);
-            shops.add(sDTO);
+        String nextCursor = null;
+        if (items.size() == pageSize) {
+            ShopFollowerDTO last = items.get(items.size() - 1);
+            nextCursor = new PageCursor(last.getFollowedAt(), last.getId()).encode();
         }
-    return shops;
+        return new ShopFollowerPageDTO(items, nextCursor, shopStatsService.getCounters(shopId).getFollowerCount());
     }
     
     /**
@@ -88,8 +123,8 @@ public class ShopFollowerService {
     public ShopSummaryDTO followShop(UUID userId, UUID shopId) {
         log.info("Suivre une boutique - Utilisateur: {}, Boutique: {}", userId, shopId);
         
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Utilisateur non trouvé"));
+        // ID issu du token : seule la clé étrangère est utile, pas de SELECT sur l'utilisateur
+        User user = userRepository.getReferenceById(userId);
         
         Shop shop = shopRepository.findById(shopId)
                 .orElseThrow(() -> new ResourceNotFoundException("Boutique non trouvée"));
@@ -105,8 +140,9 @@ public class ShopFollowerService {
                 .build();
         
         ShopFollower savedFollower = shopFollowerRepository.save(follower);
+        eventPublisher.publishEvent(new ShopFollowedEvent(shopId, userId));
 
-        return ShopMapper.toSummaryDTO(shop,shopRepository.countProductsInShop(shop.getId()), 0);
+        return ShopMapper.toSummaryDTO(shop, shopStatsService.getCounters(shop.getId()));
     }
     
     /**
@@ -123,7 +159,10 @@ public class ShopFollowerService {
         Shop shop = shopRepository.findById(shopId)
                 .orElseThrow(() -> new ResourceNotFoundException("Boutique non trouvée"));
         
-        shopFollowerRepository.deleteByUserAndShop(user, shop);
+        long deleted = shopFollowerRepository.deleteByUserAndShop(user, shop);
+        if (deleted > 0) {
+            eventPublisher.publishEvent(new ShopUnfollowedEvent(shopId, userId));
+        }
     }
     
     /**
@@ -135,6 +174,17 @@ public class ShopFollowerService {
     public boolean isFollowingShop(UUID userId, UUID shopId) {
         return shopFollowerRepository.existsByUserIdAndShopId(userId, shopId);
     }
+
+    /**
+     * Vérifie en une fois quelles boutiques d'une liste sont suivies
+     * @param userId ID de l'utilisateur
+     * @param shopIds IDs des boutiques (200 maximum)
+     * @return IDs des boutiques suivies
+     */
+    @Transactional(readOnly = true)
+    public List<UUID> getFollowedShopIds(UUID userId, List<UUID> shopIds) {
+        return userRelationCache.followedShopIds(userId, shopIds);
+    }
     
     /**
      * Compte le nombre de followers d'une boutique
@@ -142,7 +192,7 @@ public class ShopFollowerService {
      * @return Nombre de followers
      */
     public Long getShopFollowerCount(UUID shopId) {
-        return shopFollowerRepository.countByShopId(shopId);
+        return shopStatsService.getCounters(shopId).getFollowerCount();
     }
     
 
@@ -0,0 +1,238 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Event.ShopFollowedEvent;
+import com.example.e_souk.Event.ShopStatusChangedEvent;
+import com.example.e_souk.Event.ShopUnfollowedEvent;
+import com.example.e_souk.Repository.ShopRepository;
+import com.example.e_souk.Repository.ShopStatsRepository;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Classement en mémoire des boutiques actives les plus suivies
+ *
+ * FONCTIONNEMENT :
+ * - Un ensemble trié (abonnés décroissants, puis ID) sert le top-N et les pages sans requête SQL
+ * - Les événements follow/unfollow ajustent le classement après commit
+ * - Au démarrage, le classement est chargé depuis shop_stats (pas de recomptage complet)
+ * - Une réconciliation périodique contre shop_followers corrige toute dérive
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ShopLeaderboardService {
+
+    private static final Comparator<Entry> RANKING = Comparator
+            .<Entry>comparingLong(Entry::getFollowerCount).reversed()
+            .thenComparing(Entry::getShopId);
+
+    /**
+     * Taille maximale d'une page du classement
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Nombre d'entrées atteignables par pagination (une page parcourt toutes les entrées qui la précèdent)
+     */
+    public static final int MAX_RANK = 1000;
+
+    private final ShopStatsRepository shopStatsRepository;
+    private final ShopRepository shopRepository;
+
+    /**
+     * Classement courant (remplacé en bloc lors d'un rechargement)
+     */
+    private volatile Ranking ranking = new Ranking();
+
+    /**
+     * Verrou des écritures : une mise à jour retire puis réinsère l'entrée d'une boutique
+     */
+    private final Object writeLock = new Object();
+
+    // ==================== LECTURE ====================
+
+    /**
+     * Récupère les N boutiques les plus suivies
+     * @param limit nombre de boutiques
+     * @return entrées du classement, de la plus suivie à la moins suivie
+     */
+    public List<Entry> top(int limit) {
+        return page(0, limit);
+    }
+
+    /**
+     * Récupère une page du classement
+     * La taille est ramenée entre 1 et MAX_PAGE_SIZE, les entrées au-delà de MAX_RANK ne sont pas servies
+     * @param page numéro de page (commence à 0)
+     * @param size taille de la page
+     * @return entrées de la page demandée (vide au-delà de MAX_RANK)
+     */
+    public List<Entry> page(int page, int size) {
+        int pageSize = pageSize(size);
+        long offset = (long) Math.max(0, page) * pageSize;
+        if (offset >= MAX_RANK) {
+            return List.of();
+        }
+        int limit = (int) Math.min(pageSize, MAX_RANK - offset);
+        List<Entry> result = new ArrayList<>(limit);
+        Iterator<Entry> it = ranking.sorted.iterator();
+        while (offset-- > 0 && it.hasNext()) {
+            it.next();
+        }
+        while (result.size() < limit && it.hasNext()) {
+            result.add(it.next());
+        }
+        return result;
+    }
+
+    /**
+     * Taille de page effectivement servie
+     * @param size taille demandée
+     * @return taille comprise entre 1 et MAX_PAGE_SIZE
+     */
+    public static int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Nombre de boutiques classées
+     * @return nombre total d'entrées
+     */
+    public long size() {
+        return ranking.counts.size();
+    }
+
+    /**
+     * Nombre de boutiques atteignables par pagination
+     * @return nombre d'entrées, plafonné à MAX_RANK
+     */
+    public long reachableSize() {
+        return Math.min(size(), MAX_RANK);
+    }
+
+    // ==================== ÉVÉNEMENTS ====================
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShopFollowed(ShopFollowedEvent event) {
+        adjust(event.getShopId(), 1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShopUnfollowed(ShopUnfollowedEvent event) {
+        adjust(event.getShopId(), -1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShopStatusChanged(ShopStatusChangedEvent event) {
+        synchronized (writeLock) {
+            Ranking current = ranking;
+            if (event.isActive()) {
+                // Boutique nouvelle ou réactivée : classée à 0, la réconciliation rétablit le vrai nombre
+                if (!current.counts.containsKey(event.getShopId())) {
+                    current.put(event.getShopId(), 0L);
+                }
+            } else {
+                current.remove(event.getShopId());
+            }
+        }
+    }
+
+    // ==================== CHARGEMENT / RÉCONCILIATION ====================
+
+    /**
+     * Charge le classement depuis les compteurs matérialisés (shop_stats)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadSnapshot() {
+        replaceWith(shopStatsRepository.findActiveShopFollowerCounts());
+        log.info("Classement des boutiques chargé: {} boutique(s)", size());
+    }
+
+    /**
+     * Recompte les abonnés de toutes les boutiques actives et remplace le classement
+     * Une mise à jour commitée pendant le recomptage peut être perdue jusqu'au cycle suivant
+     */
+    @Scheduled(fixedDelayString = "${shop-leaderboard.reconcile-interval-ms:600000}",
+               initialDelayString = "${shop-leaderboard.reconcile-interval-ms:600000}")
+    @Transactional(readOnly = true)
+    public void reconcile() {
+        replaceWith(shopRepository.countFollowersOfActiveShops());
+        log.debug("Classement des boutiques réconcilié: {} boutique(s)", size());
+    }
+
+    private void replaceWith(List<Object[]> rows) {
+        Ranking fresh = new Ranking();
+        for (Object[] row : rows) {
+            fresh.put((UUID) row[0], ((Number) row[1]).longValue());
+        }
+        synchronized (writeLock) {
+            ranking = fresh;
+        }
+    }
+
+    private void adjust(UUID shopId, long delta) {
+        synchronized (writeLock) {
+            Ranking current = ranking;
+            Long previous = current.counts.get(shopId);
+            if (previous == null) {
+                // Boutique inactive (ou inconnue) : hors classement
+                return;
+            }
+            current.put(shopId, Math.max(0, previous + delta));
+        }
+    }
+
+    /**
+     * Structure du classement : index trié + nombre d'abonnés par boutique
+     * Les écritures se font sous writeLock, les lectures sont sans verrou
+     */
+    private static class Ranking {
+        final ConcurrentSkipListSet<Entry> sorted = new ConcurrentSkipListSet<>(RANKING);
+        final Map<UUID, Long> counts = new ConcurrentHashMap<>();
+
+        void put(UUID shopId, long followerCount) {
+            Long previous = counts.put(shopId, followerCount);
+            if (previous != null) {
+                sorted.remove(new Entry(shopId, previous));
+            }
+            sorted.add(new Entry(shopId, followerCount));
+        }
+
+        void remove(UUID shopId) {
+            Long previous = counts.remove(shopId);
+            if (previous != null) {
+                sorted.remove(new Entry(shopId, previous));
+            }
+        }
+    }
+
+    /**
+     * Entrée du classement
+     */
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Entry {
+        private final UUID shopId;
+        private final long followerCount;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Event.ShopRenamedEvent;
+import com.example.e_souk.Exception.ShopException;
+import com.example.e_souk.Repository.ShopRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Cache local nom de marque → ID de boutique
+ *
+ * POURQUOI ?
+ * - Les routes de la page boutique sont adressées par nom (/api/shops/{name}/...)
+ * - Une fois l'ID connu, toutes les requêtes passent par la clé primaire
+ *
+ * INVALIDATION :
+ * - Renommage (ShopService.updateShop) : ancien et nouveau nom évincés après commit
+ * - Expiration (TTL) : borne la durée d'une entrée périmée si un autre noeud renomme la boutique
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ShopNameCache {
+
+    private final ShopRepository shopRepository;
+
+    @Value("${shop-name-cache.ttl-ms:600000}")
+    private long ttlMs;
+
+    @Value("${shop-name-cache.max-size:10000}")
+    private int maxSize;
+
+    private BoundedTtlCache<String, UUID> cache;
+
+    @PostConstruct
+    void init() {
+        cache = new BoundedTtlCache<>(maxSize, ttlMs);
+    }
+
+    /**
+     * Résout l'ID d'une boutique à partir de son nom (insensible à la casse)
+     * @param brandName nom de la boutique
+     * @return ID de la boutique
+     * @throws ShopException si aucune boutique ne porte ce nom
+     */
+    public UUID resolveId(String brandName) {
+        // Le chargement interroge la clé normalisée : même clé, même résultat
+        return cache.get(normalize(brandName), key -> shopRepository.findIdByBrandNameIgnoreCase(key)
+                .orElseThrow(() -> new ShopException("SHOP_ERROR", "Boutique non trouvée")));
+    }
+
+    /**
+     * Évince l'ancien et le nouveau nom après le commit d'un renommage
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShopRenamed(ShopRenamedEvent event) {
+        evict(event.getOldBrandName());
+        evict(event.getNewBrandName());
+        log.debug("Cache des noms de boutique invalidé pour {}", event.getShopId());
+    }
+
+    /**
+     * Retire un nom du cache
+     * @param brandName nom de la boutique
+     */
+    public void evict(String brandName) {
+        if (brandName != null) {
+            cache.invalidate(normalize(brandName));
+        }
+    }
+
+    private static String normalize(String brandName) {
+        return brandName.trim().toLowerCase(Locale.ROOT);
+    }
+}
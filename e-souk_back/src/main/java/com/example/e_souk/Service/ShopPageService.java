@@ -1,24 +1,46 @@
 package com.example.e_souk.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.example.e_souk.Dto.Product.ProductDTO;
 import com.example.e_souk.Dto.Review.CreateReviewDTO;
 import com.example.e_souk.Dto.Review.ReviewResponseDTO;
+import com.example.e_souk.Dto.Review.ShopReviewDTO;
+import com.example.e_souk.Dto.Review.ShopReviewPageDTO;
 import com.example.e_souk.Dto.Shop.ShopGeneralDetailsDTO;
+import com.example.e_souk.Dto.Shop.ShopPageDTO;
+import com.example.e_souk.Event.ReviewCreatedEvent;
 import com.example.e_souk.Exception.ShopException;
 import com.example.e_souk.Mappers.ProductMapper;
 import com.example.e_souk.Mappers.ReviewMapper;
 import com.example.e_souk.Mappers.ShopMapper;
+import com.example.e_souk.Model.Product;
+import com.example.e_souk.Model.RatingAggregate;
 import com.example.e_souk.Model.Review;
+import com.example.e_souk.Model.ReviewSort;
+import com.example.e_souk.Model.ReviewType;
 import com.example.e_souk.Model.Shop;
+import com.example.e_souk.Model.ShopStats;
 import com.example.e_souk.Model.User;
 import com.example.e_souk.Repository.ProductRepository;
 import com.example.e_souk.Repository.ReviewRepository;
@@ -46,6 +68,25 @@ public class ShopPageService {
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
     private final ReviewRepository reviewRepository; 
+    private final ShopStatsService shopStatsService;
+    private final ProductSalesService productSalesService;
+    private final ShopNameCache shopNameCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+    private final ThreadPoolTaskExecutor shopPageExecutor;
+
+    /**
+     * Nombre de produits de la section "Populaires" de la page boutique
+     */
+    private static final int POPULAR_PRODUCTS_ON_PAGE = 8;
+
+    /**
+     * Taille maximale d'une page d'avis
+     */
+    private static final int MAX_REVIEWS_PAGE_SIZE = 50;
+
+    @Value("${shop-page.timeout-ms:2000}")
+    private long shopPageTimeoutMs;
 
  /**
      * Crée un avis pour une boutique
@@ -59,11 +100,7 @@ public class ShopPageService {
     public ReviewResponseDTO createReview(CreateReviewDTO createReviewDTO, String shopName, UUID userId) {
         log.info("Création d'un avis pour la boutique '{}' par l'utilisateur ID: {}", shopName, userId);
         // Récupération de la boutique
-        Optional<Shop> shop = shopRepository.findByBrandNameIgnoreCase(shopName);
-        Shop theShop = shop.orElseThrow(() -> {
-            log.error("Boutique non trouvée avec le nom: {}", shopName);
-            return new ShopException("SHOP_ERROR", "Boutique non trouvée");
-        }); 
+        Shop theShop = findShopByName(shopName);
         // Récupération de l'utilisateur
             User author = userRepository.findById(userId)
                 .orElseThrow(() -> {
@@ -72,15 +109,30 @@ public class ShopPageService {
                 });
 
 
+        ReviewType type = createReviewDTO.getReviewType() != null ? createReviewDTO.getReviewType() : ReviewType.SHOP;
+
         Review review = new Review();
         review.setComment(createReviewDTO.getContent());
         review.setRating(createReviewDTO.getRating());
-        review.setType(createReviewDTO.getReviewType());
-        review.setShop(theShop);
+        review.setType(type);
         review.setUser(author);
         review.setCreatedAt(LocalDateTime.now());
+        if (type == ReviewType.PRODUCT) {
+            // Un avis produit est rattaché au produit seul (voir Review.isValid)
+            Product product = Optional.ofNullable(createReviewDTO.getProductId())
+                .flatMap(productRepository::findById)
+                .filter(p -> p.getShop().getId().equals(theShop.getId()))
+                .orElseThrow(() -> new ShopException("SHOP_ERROR", "Produit non trouvé dans cette boutique"));
+            review.setProduct(product);
+        } else {
+            review.setShop(theShop);
+        }
         Review savedReview = reviewRepository.save(review);
         log.info("Avis créé avec succès - ID: {}", savedReview.getId());
+        // Met à jour l'agrégat des notes dans la même transaction (RatingService)
+        eventPublisher.publishEvent(new ReviewCreatedEvent(savedReview.getId(), type,
+                type == ReviewType.SHOP ? theShop.getId() : null,
+                createReviewDTO.getProductId(), savedReview.getRating()));
         // Retourner le DTO de réponse
         return ReviewMapper.toResponseDTO(savedReview);
     }
@@ -88,28 +140,217 @@ public class ShopPageService {
     public ShopGeneralDetailsDTO getShopByName(String name) {
             log.info("Récupération de la boutique Name: {}", name);
         
-    Shop shop = shopRepository.findByBrandNameIgnoreCase(name)
-        .orElseThrow(() -> new ShopException("SHOP_ERROR", "Boutique non trouvée"));
-    long productCount = shopRepository.countProductsInShop(shop.getId());
-    long orderCount = shopRepository.countOrdersInShop(shop.getId());
-    long followerCount = 0;
-    return ShopMapper.toShopDetailsDTO(shop, productCount, followerCount);
+    Shop shop = findShopByName(name);
+    ShopStats stats = shopStatsService.getCounters(shop.getId());
+    return ShopMapper.toShopDetailsDTO(shop, stats);
         // TODO Auto-generated method stub
     }
+    /**
+     * Construit la page boutique complète en une seule fois
+     * 
+     * FONCTIONNEMENT :
+     * 1. La boutique est résolue une seule fois par son nom
+     * 2. Produits, populaires, avis et compteurs sont chargés en parallèle, chacun dans sa propre
+     *    transaction en lecture seule (donc sa propre connexion)
+     * 3. Un délai global borne l'attente : une section en retard ou refusée par le pool saturé
+     *    est marquée incomplète
+     * 
+     * Volontairement non transactionnelle, et la route est exclue de l'open-in-view (OpenInViewConfig) :
+     * la boutique est lue dans la transaction du repository, puis le thread appelant ne garde
+     * pas de connexion pendant qu'il attend les sous-requêtes.
+     * 
+     * @param name nom de la boutique
+     * @return ShopPageDTO page boutique assemblée
+     */
+    public ShopPageDTO getShopPage(String name) {
+        Shop shop = findShopByName(name);
+        UUID shopId = shop.getId();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shopPageTimeoutMs);
+
+        CompletableFuture<List<ProductDTO>> products = supplyReadOnly(deadline, () ->
+            productRepository.findAllByShopIdWithDetails(shopId).stream()
+                .map(ProductMapper::toProductDetails)
+                .collect(Collectors.toList()));
+        CompletableFuture<List<ReviewResponseDTO>> reviews = supplyReadOnly(deadline, () ->
+            reviewRepository.findByShopIdWithUser(shopId).stream()
+                .map(ReviewMapper::toResponseDTO)
+                .collect(Collectors.toList()));
+        CompletableFuture<List<ProductDTO>> popular = supplyReadOnly(deadline, () ->
+            productSalesService.getPopularProductsByShop(shopId, POPULAR_PRODUCTS_ON_PAGE));
+        CompletableFuture<ShopStats> stats = supplyReadOnly(deadline, () -> shopStatsService.getCounters(shopId));
+
+        ShopPageDTO page = new ShopPageDTO();
+        page.setProducts(await(products, deadline, "products", page, List.of()));
+        page.setPopularProducts(await(popular, deadline, "popularProducts", page, List.of()));
+        page.setReviews(await(reviews, deadline, "reviews", page, List.of()));
+        ShopStats counters = await(stats, deadline, "stats", page, ShopStats.empty(shopId));
+        page.setShop(ShopMapper.toShopDetailsDTO(shop, counters));
+        page.setFollowerCount(counters.getFollowerCount());
+        page.setOrderCount(counters.getOrderCount());
+        page.setAverageRating(counters.getAverageRating());
+        page.setRatingCount(counters.getRatings().getRatingCount());
+        page.setRatingHistogram(counters.getRatings().getHistogram());
+        return page;
+    }
+
+    /**
+     * Lance une sous-requête sur le pool de la page boutique, dans une transaction en lecture seule
+     * Le timeout de la transaction (temps restant avant le délai global, arrondi à la seconde supérieure)
+     * devient le query timeout JDBC de chaque requête : une requête lente est annulée par le pilote,
+     * l'annulation du future ne pouvant pas interrompre un appel JDBC
+     * Pool saturé : future en échec, la section est marquée incomplète
+     */
+    private <T> CompletableFuture<T> supplyReadOnly(long deadline, Supplier<T> query) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) {
+                    throw new IllegalStateException("délai dépassé avant le démarrage");
+                }
+                TransactionTemplate template = new TransactionTemplate(transactionManager);
+                template.setReadOnly(true);
+                template.setTimeout((int) Math.max(1, (remainingMs + 999) / 1000));
+                return template.execute(status -> query.get());
+            }, shopPageExecutor);
+        } catch (TaskRejectedException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Attend le résultat d'une sous-requête jusqu'au délai global
+     * En cas de dépassement ou d'erreur, la section est marquée incomplète et la valeur par défaut est utilisée
+     */
+    private <T> T await(CompletableFuture<T> future, long deadline, String section, ShopPageDTO page, T fallback) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Une tâche encore en file n'est pas lancée ; une requête en cours s'arrête sur son query timeout
+            future.cancel(false);
+            log.warn("Page boutique - section '{}' non chargée dans le délai de {} ms", section, shopPageTimeoutMs);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TaskRejectedException) {
+                log.warn("Page boutique - section '{}' refusée : pool saturé", section);
+            } else {
+                log.error("Page boutique - erreur sur la section '{}': {}", section, e.getCause().getMessage());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+        }
+        page.getIncompleteSections().add(section);
+        return fallback;
+    }
+
     //Récupere les reviews 
     public List<ReviewResponseDTO> getReviewsByShopName(String shopName) {
-        List<Review> reviews = reviewRepository.findByShop_BrandNameIgnoreCase(shopName);
+        List<Review> reviews = reviewRepository.findByShopIdWithUser(shopNameCache.resolveId(shopName));
         List<ReviewResponseDTO> reviewDTOs = reviews.stream()
             .map(ReviewMapper::toResponseDTO)
             .collect(Collectors.toList());
         return reviewDTOs;
     }
+    /**
+     * Page d'avis d'une boutique, par keyset
+     * 
+     * FONCTIONNEMENT :
+     * - NEWEST ou filtre par note : un seul parcours de l'index (shop_id[, rating], created_at, id)
+     * - HIGHEST / LOWEST : les notes sont parcourues une par une (5 → 1 ou 1 → 5), chacune plus récents
+     *   d'abord ; une note sans avis coûte une seule sonde d'index vide. L'histogramme de ShopStats
+     *   n'est pas utilisé pour sauter des notes : un compteur décalé ferait disparaître des avis
+     * - Le résumé des notes (ShopStats) n'est joint qu'à la première page
+     * 
+     * @param shopName nom de la boutique
+     * @param sort ordre d'affichage
+     * @param rating filtre sur la note (null = toutes)
+     * @param cursor curseur renvoyé par la page précédente (null pour la première)
+     * @param size taille de la page (bornée à 50)
+     * @return ShopReviewPageDTO avis + curseur suivant
+     * @throws IllegalArgumentException si la note ou le curseur est invalide
+     */
+    @Transactional(readOnly = true)
+    public ShopReviewPageDTO getReviewPage(String shopName, ReviewSort sort, Integer rating, String cursor, int size) {
+        if (rating != null && (rating < 1 || rating > 5)) {
+            throw new IllegalArgumentException("La note doit être comprise entre 1 et 5");
+        }
+        UUID shopId = shopNameCache.resolveId(shopName);
+        int pageSize = Math.max(1, Math.min(size, MAX_REVIEWS_PAGE_SIZE));
+        PageCursor position = cursor == null || cursor.isBlank() ? null : PageCursor.decode(cursor);
+        RatingAggregate ratings = shopStatsService.getCounters(shopId).getRatings();
+        boolean byRating = sort != ReviewSort.NEWEST && rating == null;
+
+        List<ShopReviewDTO> items;
+        if (!byRating) {
+            PageRequest limit = PageRequest.of(0, pageSize);
+            if (rating == null) {
+                items = position == null
+                    ? reviewRepository.findShopReviewPage(shopId, limit)
+                    : reviewRepository.findShopReviewPageAfter(shopId, position.at, position.id, limit);
+            } else {
+                items = position == null
+                    ? reviewRepository.findShopReviewPageByRating(shopId, rating, limit)
+                    : reviewRepository.findShopReviewPageByRatingAfter(shopId, rating, position.at, position.id, limit);
+            }
+        } else {
+            int step = sort == ReviewSort.HIGHEST ? -1 : 1;
+            int first = sort == ReviewSort.HIGHEST ? 5 : 1;
+            if (position != null && (position.rank == null || position.rank < 1 || position.rank > 5)) {
+                throw new IllegalArgumentException("Curseur de pagination invalide");
+            }
+            items = new ArrayList<>(pageSize);
+            for (int r = position != null ? position.rank : first; r >= 1 && r <= 5 && items.size() < pageSize; r += step) {
+                boolean resume = position != null && r == position.rank;
+                PageRequest limit = PageRequest.of(0, pageSize - items.size());
+                items.addAll(resume
+                    ? reviewRepository.findShopReviewPageByRatingAfter(shopId, r, position.at, position.id, limit)
+                    : reviewRepository.findShopReviewPageByRating(shopId, r, limit));
+            }
+        }
+
+        ShopReviewPageDTO page = new ShopReviewPageDTO();
+        page.setItems(items);
+        if (items.size() == pageSize) {
+            ShopReviewDTO last = items.get(items.size() - 1);
+            page.setNextCursor(new PageCursor(byRating ? last.getRating() : null, last.getCreatedAt(), last.getId()).encode());
+        }
+        if (position == null) {
+            page.setRatingCount(ratings.getRatingCount());
+            page.setAverageRating(ratings.getAverageRating());
+            page.setRatingHistogram(ratings.getHistogram());
+        }
+        return page;
+    }
+
     //Récupère les produits d'un shop 
 		public List<ProductDTO> getProductsByShop(String shopName) {
 		// toProductDetails
-		return productRepository.findProductsByshop(shopName).stream()
+		return productRepository.findAllByShopIdWithDetails(shopNameCache.resolveId(shopName)).stream()
 			.map(ProductMapper::toProductDetails)
 			.collect(Collectors.toList());
 	}
 
-}
\ No newline at end of file
+    /**
+     * Produits les plus vendus d'une boutique
+     * @param shopName nom de la boutique
+     * @param limit nombre de produits
+     * @return produits triés par ventes décroissantes
+     */
+    public List<ProductDTO> getPopularProductsByShop(String shopName, int limit) {
+        return productSalesService.getPopularProductsByShop(shopNameCache.resolveId(shopName), limit);
+    }
+
+    /**
+     * Résout une boutique par son nom via le cache nom → ID, puis par clé primaire
+     * @param name nom de la boutique
+     * @return Shop la boutique
+     */
+    private Shop findShopByName(String name) {
+        UUID shopId = shopNameCache.resolveId(name);
+        return shopRepository.findById(shopId).orElseThrow(() -> {
+            shopNameCache.evict(name);
+            log.error("Boutique non trouvée avec le nom: {}", name);
+            return new ShopException("SHOP_ERROR", "Boutique non trouvée");
+        });
+    }
+
+}
@@ -1,12 +1,16 @@
 package com.example.e_souk.Service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -20,17 +24,25 @@ import com.example.e_souk.Dto.Product.ProductDTO;
 import com.example.e_souk.Dto.Product.ProductFilterDTO;
 import com.example.e_souk.Dto.Shop.CreateShopRequestDTO;
 import com.example.e_souk.Dto.Shop.ShopDetailsDTO;
+import com.example.e_souk.Dto.Shop.LowStockItemDTO;
+import com.example.e_souk.Dto.Shop.SalesBucketDTO;
 import com.example.e_souk.Dto.Shop.ShopFilterDto;
 import com.example.e_souk.Dto.Shop.ShopResponseDTO;
+import com.example.e_souk.Dto.Shop.ShopStatsDTO;
 import com.example.e_souk.Dto.Shop.ShopSummaryDTO;
 import com.example.e_souk.Dto.Shop.UpdateShopRequestDTO;
+import com.example.e_souk.Event.ShopRenamedEvent;
+import com.example.e_souk.Event.ShopStatusChangedEvent;
+import com.example.e_souk.Event.UserSecurityChangedEvent;
 import com.example.e_souk.Exception.ShopException;
 import com.example.e_souk.Mappers.ProductMapper;
 import com.example.e_souk.Mappers.ShopMapper;
 import com.example.e_souk.Model.Category;
 import com.example.e_souk.Model.Product;
 import com.example.e_souk.Model.Role;
+import com.example.e_souk.Model.SalesGranularity;
 import com.example.e_souk.Model.Shop;
+import com.example.e_souk.Model.ShopStats;
 import com.example.e_souk.Model.User;
 import com.example.e_souk.Repository.CategoryRepository;
 import com.example.e_souk.Repository.ReviewRepository;
@@ -61,6 +73,11 @@ public class ShopService {
     private final FileStorageService fileStorageService; 
     private final CategoryService categoryService; 
     private final ReviewRepository reviewRepository; 
+    private final ShopStatsService shopStatsService;
+    private final ShopLeaderboardService shopLeaderboardService;
+    private final SalesRollupService salesRollupService;
+    private final StockService stockService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ShopFollowerRepository sera injecté quand il sera créé
     // private final ShopFollowerRepository shopFollowerRepository;
@@ -150,18 +167,18 @@ public class ShopService {
         // ÉTAPE 5 : Sauvegarder la boutique
         Shop savedShop = shopRepository.save(shop);
         log.info("Boutique créée avec succès - ID: {}", savedShop.getId());
+        eventPublisher.publishEvent(new ShopStatusChangedEvent(savedShop.getId(), true));
         // ÉTAPE 6 : CHANGER LE RÔLE CLIENT → VENDOR (RÈGLE MÉTIER IMPORTANTE!)
         if (owner.getRole() == Role.CLIENT) {
             owner.setRole(Role.VENDOR);
             owner.setUpdatedAt(LocalDateTime.now());
             userRepository.save(owner);
+            eventPublisher.publishEvent(new UserSecurityChangedEvent(owner.getId(), owner.getUsername(), null));
             log.info("Rôle de l'utilisateur {} changé de CLIENT à VENDOR", owner.getUsername());
         }
         // ÉTAPE 7 : Retourner le DTO complet
-    long productCount = shopRepository.countProductsInShop(savedShop.getId());
-    long orderCount = shopRepository.countOrdersInShop(savedShop.getId());
-    long followerCount = 0;
-    return ShopMapper.toResponseDTO(savedShop, productCount, orderCount, followerCount);
+    ShopStats stats = shopStatsService.getCounters(savedShop.getId());
+    return ShopMapper.toResponseDTO(savedShop, stats);
     }
    
     /**
@@ -193,7 +210,13 @@ public class ShopService {
             if (shopWithSameName.isPresent() && !shopWithSameName.get().getId().equals(shopId)) {
                 throw new ShopException("SHOP_ERROR", "Une autre boutique avec ce nom existe déjà");
             }
-            existingShop.setBrandName(requestDTO.getBrandName().trim());
+            String oldBrandName = existingShop.getBrandName();
+            String newBrandName = requestDTO.getBrandName().trim();
+            if (!newBrandName.equals(oldBrandName)) {
+                existingShop.setBrandName(newBrandName);
+                // Invalide le cache nom → ID après commit (ShopNameCache)
+                eventPublisher.publishEvent(new ShopRenamedEvent(shopId, oldBrandName, newBrandName));
+            }
         }
         
         if (requestDTO.getDescription() != null) {
@@ -208,20 +231,29 @@ public class ShopService {
             existingShop.setAddress(requestDTO.getAddress().trim());
         }
         
-        if (requestDTO.getIsActive() != null) {
+        if (requestDTO.getIsActive() != null && !requestDTO.getIsActive().equals(existingShop.getIsActive())) {
             existingShop.setIsActive(requestDTO.getIsActive());
+            eventPublisher.publishEvent(new ShopStatusChangedEvent(shopId, requestDTO.getIsActive()));
+        }
+        
+        boolean thresholdChanged = requestDTO.getLowStockThreshold() != null
+            && !requestDTO.getLowStockThreshold().equals(existingShop.getLowStockThreshold());
+        if (thresholdChanged) {
+            existingShop.setLowStockThreshold(requestDTO.getLowStockThreshold());
         }
         
         existingShop.setUpdatedAt(LocalDateTime.now());
         
         // SAUVEGARDE
         Shop updatedShop = shopRepository.save(existingShop);
+        if (thresholdChanged) {
+            // Le nouveau seuil redéfinit l'ensemble des variantes en stock faible
+            stockService.rebuildForShop(shopId);
+        }
         log.info("Boutique mise à jour avec succès - ID: {}", updatedShop.getId());
         
-    long productCount = shopRepository.countProductsInShop(updatedShop.getId());
-    long orderCount = shopRepository.countOrdersInShop(updatedShop.getId());
-    long followerCount = 0;
-    return ShopMapper.toResponseDTO(updatedShop, productCount, orderCount, followerCount);
+    ShopStats stats = shopStatsService.getCounters(updatedShop.getId());
+    return ShopMapper.toResponseDTO(updatedShop, stats);
     }
 
     /**
@@ -237,10 +269,50 @@ public class ShopService {
     Shop shop = shopRepository.findActiveShopByOwnerId(ownerId)
         .orElseThrow(() -> new ShopException("SHOP_ERROR", "Aucune boutique active trouvée pour cet utilisateur"));
         
-    long productCount = shopRepository.countProductsInShop(shop.getId());
-    long orderCount = shopRepository.countOrdersInShop(shop.getId());
-    long followerCount = 0;
-    return ShopMapper.toResponseDTO(shop, productCount, orderCount, followerCount);
+    ShopStats stats = shopStatsService.getCounters(shop.getId());
+    return ShopMapper.toResponseDTO(shop, stats);
+    }
+
+    /**
+     * Statistiques du tableau de bord vendeur
+     *
+     * @param ownerId ID du propriétaire
+     * @return ShopStatsDTO statistiques de sa boutique active
+     */
+    @Transactional(readOnly = true)
+    public ShopStatsDTO getShopStatsByOwnerId(UUID ownerId) {
+        return salesRollupService.getShopStats(findActiveShopOfOwner(ownerId));
+    }
+
+    /**
+     * Ventes de la boutique du vendeur par jour ou par heure
+     *
+     * @param ownerId ID du propriétaire
+     * @param from premier jour inclus
+     * @param to dernier jour inclus
+     * @param granularity DAY ou HOUR
+     * @return une entrée par période
+     */
+    @Transactional(readOnly = true)
+    public List<SalesBucketDTO> getShopSalesByOwnerId(UUID ownerId, LocalDate from, LocalDate to,
+                                                      SalesGranularity granularity) {
+        return salesRollupService.getSales(findActiveShopOfOwner(ownerId).getId(), from, to, granularity);
+    }
+
+    /**
+     * Inventaire des variantes en stock faible de la boutique du vendeur
+     *
+     * @param ownerId ID du propriétaire
+     * @return variantes en stock faible, ruptures en premier
+     */
+    @Transactional(readOnly = true)
+    public List<LowStockItemDTO> getLowStockItemsByOwnerId(UUID ownerId) {
+        return stockService.getLowStockItems(findActiveShopOfOwner(ownerId).getId());
+    }
+
+    private Shop findActiveShopOfOwner(UUID ownerId) {
+        return shopRepository.findActiveShopByOwnerId(ownerId)
+            .orElseThrow(() -> new ShopException("SHOP_ERROR", "Aucune boutique active trouvée pour cet utilisateur"));
     }
 
     /**
@@ -256,8 +328,35 @@ public class ShopService {
         
         Page<Shop> shops = shopRepository.findAllActiveShops(pageable);
         
-    return shops.map(shop -> ShopMapper.toSummaryDTO(shop, shopRepository.countProductsInShop(shop.getId()), 0));
+    return toSummaryPage(shops);
     }
+    /**
+     * Récupère les boutiques les plus suivies, dans l'ordre du classement
+     * 
+     * Le classement est servi depuis la mémoire (ShopLeaderboardService) :
+     * seules les boutiques de la page sont chargées en base
+     * 
+     * @param page numéro de la page
+     * @param size taille de la page
+     * @return Page<ShopSummaryDTO> boutiques classées par nombre d'abonnés
+     */
+    @Transactional(readOnly = true)
+    public Page<ShopSummaryDTO> getMostFollowedShops(int page, int size) {
+        int pageIndex = Math.max(0, page);
+        int pageSize = ShopLeaderboardService.pageSize(size);
+        List<UUID> ids = shopLeaderboardService.page(pageIndex, pageSize).stream()
+                .map(ShopLeaderboardService.Entry::getShopId)
+                .collect(Collectors.toList());
+        Map<UUID, Shop> shops = shopRepository.findAllWithOwnerByIdIn(ids).stream()
+                .collect(Collectors.toMap(Shop::getId, shop -> shop));
+        Map<UUID, ShopStats> stats = shopStatsService.getCounters(shops.keySet());
+        List<ShopSummaryDTO> content = ids.stream()
+                .filter(shops::containsKey)
+                .map(id -> ShopMapper.toSummaryDTO(shops.get(id), stats.get(id)))
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, PageRequest.of(pageIndex, pageSize), shopLeaderboardService.reachableSize());
+    }
+
 // recuperer les produits + FILTRAGE 
   public Page<ShopSummaryDTO> findShops(ShopFilterDto filters) { 
         // Création du tri
@@ -281,7 +380,17 @@ public class ShopService {
     );
 
     // Convertir en Page<ShopSummaryDTO>
-    return shopPage.map(shop -> ShopMapper.toSummaryDTO(shop, shopRepository.countProductsInShop(shop.getId()), 0));
+    return toSummaryPage(shopPage);
+    }
+
+    /**
+     * Convertit une page de boutiques en résumés
+     * Les compteurs de toute la page sont chargés en une fois (pas de COUNT par boutique)
+     */
+    private Page<ShopSummaryDTO> toSummaryPage(Page<Shop> shops) {
+        Map<UUID, ShopStats> stats = shopStatsService.getCounters(
+                shops.getContent().stream().map(Shop::getId).collect(Collectors.toList()));
+        return shops.map(shop -> ShopMapper.toSummaryDTO(shop, stats.get(shop.getId())));
     }
 }
 
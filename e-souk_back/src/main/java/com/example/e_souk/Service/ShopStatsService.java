@@ -0,0 +1,354 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Event.OrderPlacedEvent;
+import com.example.e_souk.Event.OrderStatusChangedEvent;
+import com.example.e_souk.Event.ProductCreatedEvent;
+import com.example.e_souk.Event.ShopFollowedEvent;
+import com.example.e_souk.Event.ShopUnfollowedEvent;
+import com.example.e_souk.Event.StartupBackfillEvent;
+import com.example.e_souk.Model.EtatCommande;
+import com.example.e_souk.Model.RatingAggregate;
+import com.example.e_souk.Model.ShopStats;
+import com.example.e_souk.Repository.ReviewRepository;
+import com.example.e_souk.Repository.ShopFollowerRepository;
+import com.example.e_souk.Repository.ShopRepository;
+import com.example.e_souk.Repository.ShopStatsRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service de gestion des compteurs matérialisés des boutiques (shop_stats)
+ *
+ * FONCTIONNEMENT :
+ * 1. Les événements métier (produit créé, commande, changement d'état, abonnement) incrémentent
+ *    des LongAdder en mémoire, par boutique (pas de contention entre threads)
+ * 2. Une tâche planifiée vide ces accumulateurs et applique les deltas en base par lots
+ * 3. Les lectures combinent la ligne shop_stats et les deltas encore en attente sur ce noeud
+ *
+ * Les deltas étant additifs, plusieurs noeuds peuvent flusher vers la même ligne sans conflit.
+ * Les notes ne passent pas par ce mécanisme : elles sont appliquées dans la transaction
+ * de l'avis (voir RatingService).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ShopStatsService {
+
+    private final ShopStatsRepository shopStatsRepository;
+    private final ShopRepository shopRepository;
+    private final ShopFollowerRepository shopFollowerRepository;
+    private final ReviewRepository reviewRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Deltas en attente de flush, par boutique
+     */
+    private final Map<UUID, PendingDeltas> pending = new ConcurrentHashMap<>();
+
+    @Value("${shop-stats.flush-batch-size:100}")
+    private int flushBatchSize;
+
+    // ==================== ÉVÉNEMENTS MÉTIER ====================
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductCreated(ProductCreatedEvent event) {
+        PendingDeltas deltas = deltasFor(event.getShopId());
+        deltas.products.increment();
+        // Un produit est créé actif
+        deltas.activeProducts.increment();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        PendingDeltas deltas = deltasFor(event.getShopId());
+        deltas.orders.increment();
+        // Une commande est créée EnAttente
+        deltas.pendingOrders.increment();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        PendingDeltas deltas = deltasFor(event.getShopId());
+        if (isPending(event.getPrevious())) {
+            deltas.pendingOrders.decrement();
+        }
+        if (isPending(event.getCurrent())) {
+            deltas.pendingOrders.increment();
+        }
+        if (event.getPrevious() == EtatCommande.Livree) {
+            deltas.completedOrders.decrement();
+        }
+        if (event.getCurrent() == EtatCommande.Livree) {
+            deltas.completedOrders.increment();
+        }
+    }
+
+    private static boolean isPending(EtatCommande etat) {
+        return etat == EtatCommande.EnAttente || etat == EtatCommande.EnCours;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShopFollowed(ShopFollowedEvent event) {
+        deltasFor(event.getShopId()).followers.increment();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShopUnfollowed(ShopUnfollowedEvent event) {
+        deltasFor(event.getShopId()).followers.decrement();
+    }
+
+    // ==================== LECTURE ====================
+
+    /**
+     * Récupère les compteurs d'une boutique (ligne shop_stats + deltas locaux non flushés)
+     * @param shopId ID de la boutique
+     * @return copie détachée des compteurs
+     */
+    @Transactional(readOnly = true)
+    public ShopStats getCounters(UUID shopId) {
+        ShopStats stored = shopStatsRepository.findById(shopId).orElse(null);
+        return withPending(shopId, stored);
+    }
+
+    /**
+     * Récupère les compteurs de plusieurs boutiques (pages de listing)
+     * 
+     * Nombre de requêtes fixe quelle que soit la taille de la page :
+     * - 1 SELECT sur shop_stats pour toutes les boutiques
+     * - 4 GROUP BY seulement si certaines boutiques n'ont pas encore de ligne
+     * 
+     * @param shopIds IDs des boutiques
+     * @return compteurs par ID de boutique (une entrée pour chaque ID demandé)
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, ShopStats> getCounters(Collection<UUID> shopIds) {
+        if (shopIds.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        Map<UUID, ShopStats> stored = new HashMap<>();
+        shopStatsRepository.findAllById(shopIds).forEach(stats -> stored.put(stats.getShopId(), stats));
+
+        Set<UUID> missing = new HashSet<>(shopIds);
+        missing.removeAll(stored.keySet());
+        if (!missing.isEmpty()) {
+            stored.putAll(countFromSourceTables(missing));
+        }
+
+        Map<UUID, ShopStats> result = new LinkedHashMap<>();
+        for (UUID shopId : shopIds) {
+            ShopStats stats = missing.contains(shopId) ? stored.get(shopId) : withPending(shopId, stored.get(shopId));
+            result.put(shopId, stats);
+        }
+        return result;
+    }
+
+    /**
+     * Calcule les compteurs depuis les tables sources, une requête GROUP BY par compteur
+     * Les deltas en attente ne sont pas ajoutés ici (déjà visibles dans les tables sources)
+     */
+    private Map<UUID, ShopStats> countFromSourceTables(Set<UUID> shopIds) {
+        Map<UUID, ShopStats> counted = new HashMap<>();
+        shopIds.forEach(id -> {
+            ShopStats stats = ShopStats.empty(id);
+            // Compteurs d'état non recalculés ici (inutiles aux listings) : inconnus
+            stats.setActiveProductCount(null);
+            stats.setPendingOrderCount(null);
+            stats.setCompletedOrderCount(null);
+            counted.put(id, stats);
+        });
+        for (Object[] row : shopRepository.countProductsByShopIds(shopIds)) {
+            counted.get((UUID) row[0]).setProductCount((Long) row[1]);
+        }
+        for (Object[] row : shopRepository.countOrdersByShopIds(shopIds)) {
+            counted.get((UUID) row[0]).setOrderCount((Long) row[1]);
+        }
+        for (Object[] row : shopFollowerRepository.countByShopIds(shopIds)) {
+            counted.get((UUID) row[0]).setFollowerCount((Long) row[1]);
+        }
+        for (Object[] row : reviewRepository.aggregateShopRatingsByShopIds(shopIds)) {
+            counted.get((UUID) row[0]).setRatings(new RatingAggregate(
+                    asLong(row[1]), asLong(row[2]),
+                    asLong(row[3]), asLong(row[4]), asLong(row[5]), asLong(row[6]), asLong(row[7])));
+        }
+        return counted;
+    }
+
+    private static Long asLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    // ==================== FLUSH ====================
+
+    /**
+     * Applique en base les deltas accumulés, par lots de flushBatchSize boutiques
+     * En cas d'échec d'un lot, ses deltas sont réinjectés pour le prochain flush
+     */
+    @Scheduled(fixedDelayString = "${shop-stats.flush-interval-ms:5000}")
+    public void flush() {
+        List<DeltaSnapshot> batch = new ArrayList<>();
+        for (Map.Entry<UUID, PendingDeltas> entry : pending.entrySet()) {
+            DeltaSnapshot snapshot = entry.getValue().drain(entry.getKey());
+            if (!snapshot.isEmpty()) {
+                batch.add(snapshot);
+            }
+            if (batch.size() >= flushBatchSize) {
+                applyBatch(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            applyBatch(batch);
+        }
+    }
+
+    /**
+     * Crée les lignes manquantes de shop_stats au démarrage (boutiques existantes)
+     * Avant l'ouverture du port : un avis ou un flush ne peut pas créer la ligne avant le comptage
+     */
+    @EventListener(StartupBackfillEvent.class)
+    @Transactional
+    public void initializeMissingStats() {
+        int created = shopStatsRepository.initializeMissing();
+        if (created > 0) {
+            log.info("Compteurs initialisés pour {} boutique(s)", created);
+        }
+        int statusInitialized = shopStatsRepository.initializeStatusCounters();
+        if (statusInitialized > 0) {
+            log.info("Compteurs de produits actifs et de commandes par état initialisés pour {} boutique(s)",
+                    statusInitialized);
+        }
+    }
+
+    /**
+     * Flush final à l'arrêt de l'application pour ne pas perdre de deltas
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void applyBatch(List<DeltaSnapshot> batch) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        try {
+            template.executeWithoutResult(status -> batch.forEach(d ->
+                    shopStatsRepository.applyDeltas(d.shopId, d.products, d.orders, d.followers,
+                            d.activeProducts, d.pendingOrders, d.completedOrders)));
+            log.debug("Compteurs de {} boutique(s) mis à jour", batch.size());
+        } catch (RuntimeException e) {
+            log.error("Échec du flush des compteurs de boutiques, nouvel essai au prochain cycle: {}", e.getMessage());
+            batch.forEach(d -> deltasFor(d.shopId).restore(d));
+        }
+    }
+
+    private PendingDeltas deltasFor(UUID shopId) {
+        return pending.computeIfAbsent(shopId, id -> new PendingDeltas());
+    }
+
+    private ShopStats withPending(UUID shopId, ShopStats stored) {
+        ShopStats base = stored != null ? stored : ShopStats.empty(shopId);
+        PendingDeltas deltas = pending.get(shopId);
+        ShopStats copy = ShopStats.builder()
+                .shopId(shopId)
+                .productCount(base.getProductCount())
+                .orderCount(base.getOrderCount())
+                .followerCount(base.getFollowerCount())
+                .activeProductCount(base.getActiveProductCount())
+                .pendingOrderCount(base.getPendingOrderCount())
+                .completedOrderCount(base.getCompletedOrderCount())
+                .ratings(base.getRatings().copy())
+                .updatedAt(base.getUpdatedAt())
+                .build();
+        if (deltas != null) {
+            copy.setProductCount(copy.getProductCount() + deltas.products.sum());
+            copy.setOrderCount(copy.getOrderCount() + deltas.orders.sum());
+            copy.setFollowerCount(copy.getFollowerCount() + deltas.followers.sum());
+            if (copy.hasStatusCounters()) {
+                copy.setActiveProductCount(copy.getActiveProductCount() + deltas.activeProducts.sum());
+                copy.setPendingOrderCount(copy.getPendingOrderCount() + deltas.pendingOrders.sum());
+                copy.setCompletedOrderCount(copy.getCompletedOrderCount() + deltas.completedOrders.sum());
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Accumulateurs en mémoire d'une boutique
+     */
+    private static class PendingDeltas {
+        final LongAdder products = new LongAdder();
+        final LongAdder orders = new LongAdder();
+        final LongAdder followers = new LongAdder();
+        final LongAdder activeProducts = new LongAdder();
+        final LongAdder pendingOrders = new LongAdder();
+        final LongAdder completedOrders = new LongAdder();
+
+        DeltaSnapshot drain(UUID shopId) {
+            return new DeltaSnapshot(shopId,
+                    products.sumThenReset(),
+                    orders.sumThenReset(),
+                    followers.sumThenReset(),
+                    activeProducts.sumThenReset(),
+                    pendingOrders.sumThenReset(),
+                    completedOrders.sumThenReset());
+        }
+
+        void restore(DeltaSnapshot snapshot) {
+            products.add(snapshot.products);
+            orders.add(snapshot.orders);
+            followers.add(snapshot.followers);
+            activeProducts.add(snapshot.activeProducts);
+            pendingOrders.add(snapshot.pendingOrders);
+            completedOrders.add(snapshot.completedOrders);
+        }
+    }
+
+    /**
+     * Deltas figés d'une boutique, prêts à être appliqués en base
+     */
+    private static class DeltaSnapshot {
+        final UUID shopId;
+        final long products;
+        final long orders;
+        final long followers;
+        final long activeProducts;
+        final long pendingOrders;
+        final long completedOrders;
+
+        DeltaSnapshot(UUID shopId, long products, long orders, long followers,
+                      long activeProducts, long pendingOrders, long completedOrders) {
+            this.shopId = shopId;
+            this.products = products;
+            this.orders = orders;
+            this.followers = followers;
+            this.activeProducts = activeProducts;
+            this.pendingOrders = pendingOrders;
+            this.completedOrders = completedOrders;
+        }
+
+        boolean isEmpty() {
+            return products == 0 && orders == 0 && followers == 0
+                    && activeProducts == 0 && pendingOrders == 0 && completedOrders == 0;
+        }
+    }
+}
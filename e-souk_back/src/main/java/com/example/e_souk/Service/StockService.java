@@ -0,0 +1,211 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Dto.Shop.LowStockItemDTO;
+import com.example.e_souk.Event.OrderLine;
+import com.example.e_souk.Event.StartupBackfillEvent;
+import com.example.e_souk.Event.StockThresholdCrossedEvent;
+import com.example.e_souk.Exception.InsufficientStockException;
+import com.example.e_souk.Model.LowStockItem;
+import com.example.e_souk.Model.Shop;
+import com.example.e_souk.Model.Variant;
+import com.example.e_souk.Repository.LowStockItemRepository;
+import com.example.e_souk.Repository.VariantRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service des mouvements de stock et de la détection de stock faible
+ *
+ * FONCTIONNEMENT :
+ * - Chaque mouvement passe par un UPDATE conditionnel atomique sur la variante
+ * - Après le mouvement, le stock est comparé au seuil de la boutique :
+ *   la variante entre dans (ou sort de) l'ensemble low_stock_items
+ * - Un passage sous le seuil publie un StockThresholdCrossedEvent
+ * - Les alertes et l'écran d'inventaire lisent l'ensemble : O(variantes en stock faible)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockService {
+
+    private final VariantRepository variantRepository;
+    private final LowStockItemRepository lowStockItemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // ==================== MOUVEMENTS DE STOCK ====================
+
+    /**
+     * Réserve le stock des lignes d'une commande
+     * Les variantes sont traitées dans un ordre fixe pour éviter les interblocages entre commandes
+     *
+     * @param shop boutique de la commande
+     * @param lines lignes de la commande
+     * @throws InsufficientStockException si le stock d'une variante est insuffisant (transaction annulée)
+     */
+    @Transactional
+    public void reserve(Shop shop, List<OrderLine> lines) {
+        int threshold = thresholdOf(shop);
+        for (OrderLine line : sortedByVariant(lines)) {
+            if (variantRepository.decrementStockIfAvailable(line.getVariantId(), line.getQuantity()) == 0) {
+                throw new InsufficientStockException(line.getVariantId(), line.getQuantity());
+            }
+            int stock = currentStock(line.getVariantId());
+            int previous = stock + line.getQuantity();
+            track(line.getVariantId(), line.getProductId(), shop.getId(), stock, threshold);
+            if ((previous > threshold && stock <= threshold) || (previous > 0 && stock <= 0)) {
+                eventPublisher.publishEvent(new StockThresholdCrossedEvent(
+                        line.getVariantId(), line.getProductId(), shop.getId(), stock, threshold));
+            }
+        }
+    }
+
+    /**
+     * Remet en stock les lignes d'une commande annulée
+     *
+     * @param shop boutique de la commande
+     * @param lines lignes de la commande
+     */
+    @Transactional
+    public void release(Shop shop, List<OrderLine> lines) {
+        int threshold = thresholdOf(shop);
+        for (OrderLine line : sortedByVariant(lines)) {
+            variantRepository.incrementStock(line.getVariantId(), line.getQuantity());
+            track(line.getVariantId(), line.getProductId(), shop.getId(),
+                    currentStock(line.getVariantId()), threshold);
+        }
+    }
+
+    /**
+     * Enregistre le stock initial d'une variante créée : une variante créée sous le seuil
+     * entre directement dans l'ensemble des stocks faibles
+     *
+     * @param shop boutique du produit
+     * @param variant variante enregistrée (ID et produit renseignés)
+     */
+    @Transactional
+    public void trackNewVariant(Shop shop, Variant variant) {
+        int stock = variant.getStock() != null ? variant.getStock() : 0;
+        // Variante neuve : absente de l'ensemble, rien à retirer au-dessus du seuil
+        if (stock <= thresholdOf(shop)) {
+            lowStockItemRepository.upsert(variant.getId(), variant.getProduct().getId(), shop.getId(), stock);
+        }
+    }
+
+    /**
+     * Met la variante dans l'ensemble des stocks faibles ou l'en retire
+     */
+    private void track(UUID variantId, UUID productId, UUID shopId, int stock, int threshold) {
+        if (stock <= threshold) {
+            lowStockItemRepository.upsert(variantId, productId, shopId, stock);
+        } else {
+            lowStockItemRepository.deleteByVariantId(variantId);
+        }
+    }
+
+    private int currentStock(UUID variantId) {
+        return variantRepository.findStockById(variantId).orElse(0);
+    }
+
+    private static int thresholdOf(Shop shop) {
+        return shop.getLowStockThreshold() != null ? shop.getLowStockThreshold() : 0;
+    }
+
+    private static List<OrderLine> sortedByVariant(List<OrderLine> lines) {
+        return lines.stream()
+                .sorted(Comparator.comparing(OrderLine::getVariantId))
+                .collect(Collectors.toList());
+    }
+
+    // ==================== ALERTES / INVENTAIRE ====================
+
+    /**
+     * Alerte vendeur après commit du mouvement de stock
+     * @param event passage sous le seuil
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onThresholdCrossed(StockThresholdCrossedEvent event) {
+        if (event.isOutOfStock()) {
+            log.warn("Rupture de stock - boutique {}, variante {}", event.getShopId(), event.getVariantId());
+        } else {
+            log.info("Stock faible ({} <= {}) - boutique {}, variante {}",
+                    event.getStock(), event.getThreshold(), event.getShopId(), event.getVariantId());
+        }
+    }
+
+    /**
+     * Inventaire des variantes en stock faible d'une boutique, ruptures en premier
+     * @param shopId ID de la boutique
+     * @return variantes en stock faible avec leur SKU et produit
+     */
+    @Transactional(readOnly = true)
+    public List<LowStockItemDTO> getLowStockItems(UUID shopId) {
+        List<LowStockItem> items = lowStockItemRepository.findByShopIdOrderByStock(shopId);
+        Map<UUID, Variant> variants = variantRepository.findAllById(
+                        items.stream().map(LowStockItem::getVariantId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Variant::getId, Function.identity()));
+        return items.stream()
+                .filter(item -> variants.containsKey(item.getVariantId()))
+                .map(item -> {
+                    Variant variant = variants.get(item.getVariantId());
+                    return new LowStockItemDTO(item.getVariantId(), variant.getSku(), item.getProductId(),
+                            variant.getProduct().getName(), item.getStock(), item.isOutOfStock(),
+                            item.getDetectedAt());
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Compte les produits en rupture d'une boutique à partir de l'ensemble des stocks faibles
+     * Un produit sans aucune variante n'est pas compté (il n'a pas de stock, mais n'est pas en rupture) :
+     * l'ancienne requête NOT EXISTS sur tout le catalogue le comptait
+     *
+     * @param shopId ID de la boutique
+     * @return nombre de produits ayant au moins une variante, toutes à 0
+     */
+    @Transactional(readOnly = true)
+    public long countOutOfStockProducts(UUID shopId) {
+        return lowStockItemRepository.countOutOfStockProducts(shopId);
+    }
+
+    // ==================== MAINTENANCE ====================
+
+    /**
+     * Reconstruit l'ensemble d'une boutique après un changement de seuil
+     * @param shopId ID de la boutique
+     */
+    @Transactional
+    public void rebuildForShop(UUID shopId) {
+        lowStockItemRepository.deleteByShopId(shopId);
+        int count = lowStockItemRepository.rebuildForShop(shopId);
+        log.info("Stocks faibles recalculés pour la boutique {}: {} variante(s)", shopId, count);
+    }
+
+    /**
+     * Construit l'ensemble au premier démarrage (table vide)
+     * Avant l'ouverture du port : un seuil franchi entre-temps rendrait la table non vide et annulerait l'import
+     */
+    @EventListener(StartupBackfillEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (lowStockItemRepository.hasAnyItem()) {
+            return;
+        }
+        int count = lowStockItemRepository.backfill();
+        if (count > 0) {
+            log.info("Stocks faibles importés: {} variante(s)", count);
+        }
+    }
+}
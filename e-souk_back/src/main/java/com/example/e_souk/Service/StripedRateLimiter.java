@@ -0,0 +1,165 @@
+package com.example.e_souk.Service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limiteur de débit par clé (token bucket), réparti sur des segments verrouillés
+ *
+ * - Une clé (id utilisateur ou IP) est affectée à un segment par son hash : deux clés
+ *   de segments différents ne se disputent jamais le même verrou
+ * - Chaque segment est une LinkedHashMap en ordre d'accès, bornée : au-delà de la limite,
+ *   la clé la moins récemment vue est retirée (LRU)
+ * - L'état d'un seau est primitif et mis à jour sous le verrou du segment : une requête
+ *   autorisée sur une clé connue n'alloue rien
+ * - Les clés inactives sont retirées par evictIdle() (appel périodique)
+ */
+public final class StripedRateLimiter {
+
+    private final long capacity;
+    private final double tokensPerNano;
+    private final long idleNanos;
+    private final Stripe[] stripes;
+    private final int mask;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    /**
+     * @param capacity nombre maximal de jetons par clé (rafale autorisée)
+     * @param refillPeriod durée pour remplir entièrement un seau
+     * @param stripeCount nombre de segments (arrondi à la puissance de 2 supérieure)
+     * @param maxEntries nombre maximal de clés suivies, tous segments confondus
+     * @param idleTimeout inactivité au-delà de laquelle une clé est retirée
+     */
+    public StripedRateLimiter(long capacity, Duration refillPeriod, int stripeCount, int maxEntries, Duration idleTimeout) {
+        if (capacity < 1 || refillPeriod.isZero() || refillPeriod.isNegative()) {
+            throw new IllegalArgumentException("Capacité et période de remplissage doivent être positives");
+        }
+        int count = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        int perStripe = Math.max(1, maxEntries / count);
+        this.capacity = capacity;
+        this.tokensPerNano = (double) capacity / refillPeriod.toNanos();
+        this.idleNanos = idleTimeout.toNanos();
+        this.stripes = new Stripe[count];
+        this.mask = count - 1;
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    /**
+     * Consomme un jeton pour la clé
+     * @param key clé du client (doit implémenter equals/hashCode)
+     * @return 0 si la requête est autorisée, sinon le nombre de secondes avant le prochain jeton (au moins 1)
+     */
+    public long tryAcquire(Object key) {
+        Stripe stripe = stripes[spread(key.hashCode()) & mask];
+        long now = System.nanoTime();
+        synchronized (stripe) {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(capacity, now);
+                stripe.buckets.put(key, bucket);
+            } else {
+                bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.lastRefillNanos) * tokensPerNano);
+                bucket.lastRefillNanos = now;
+            }
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                allowed.increment();
+                return 0;
+            }
+            rejected.increment();
+            double missing = 1 - bucket.tokens;
+            return Math.max(1, (long) Math.ceil(missing / tokensPerNano / 1_000_000_000d));
+        }
+    }
+
+    /**
+     * Retire les clés sans requête depuis plus que le délai d'inactivité
+     * @return nombre de clés retirées
+     */
+    public int evictIdle() {
+        long now = System.nanoTime();
+        int removed = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                // Ordre d'accès : les plus anciennes en tête, on s'arrête à la première clé active
+                Iterator<Bucket> it = stripe.buckets.values().iterator();
+                while (it.hasNext()) {
+                    if (now - it.next().lastRefillNanos <= idleNanos) {
+                        break;
+                    }
+                    it.remove();
+                    removed++;
+                }
+            }
+        }
+        evicted.add(removed);
+        return removed;
+    }
+
+    /**
+     * @return nombre de clés actuellement suivies
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.buckets.size();
+            }
+        }
+        return size;
+    }
+
+    public long getAllowedCount() {
+        return allowed.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return clés retirées (inactivité ou segment plein)
+     */
+    public long getEvictedCount() {
+        return evicted.sum();
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private final class Stripe {
+        private final Map<Object, Bucket> buckets;
+
+        private Stripe(int maxEntries) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, Bucket> eldest) {
+                    if (size() > maxEntries) {
+                        evicted.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long lastRefillNanos;
+
+        private Bucket(long tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefillNanos = now;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.e_souk.Service;
+
+import java.time.Duration;
+
+/**
+ * Seau à jetons (token bucket) : capacité maximale et remplissage continu
+ * Le remplissage est calculé à la demande, aucune tâche de fond
+ */
+public final class TokenBucket {
+
+    private final long capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * @param capacity nombre maximal de jetons (rafale autorisée)
+     * @param refillPeriod durée pour remplir entièrement le seau
+     */
+    public TokenBucket(long capacity, Duration refillPeriod) {
+        this.capacity = capacity;
+        this.tokensPerNano = (double) capacity / refillPeriod.toNanos();
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Consomme un jeton si disponible
+     * @return true si la requête est autorisée
+     */
+    public synchronized boolean tryConsume() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Rend un jeton consommé (sans dépasser la capacité)
+     */
+    public synchronized void refund() {
+        refill();
+        tokens = Math.min(capacity, tokens + 1);
+    }
+
+    /**
+     * @return secondes avant qu'un jeton soit disponible (au moins 1)
+     */
+    public synchronized long secondsUntilNextToken() {
+        refill();
+        double missing = Math.max(0, 1 - tokens);
+        return Math.max(1, (long) Math.ceil(missing / tokensPerNano / 1_000_000_000d));
+    }
+
+    /**
+     * @return true si le seau est plein (entrée inutile, peut être retirée d'un cache)
+     */
+    public synchronized boolean isFull() {
+        refill();
+        return tokens >= capacity;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Config.VerifiedToken;
+import com.example.e_souk.Model.RevokedToken;
+import com.example.e_souk.Repository.RevokedTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Révocation des tokens JWT avant leur expiration
+ *
+ * FONCTIONNEMENT :
+ * - Chaque token porte un identifiant (jti) ; révoquer = enregistrer le jti avec l'expiration du token
+ * - En mémoire : un filtre de Bloom consulté en premier, puis l'ensemble exact jti → expiration
+ * - Cas courant (token non révoqué) : quelques sondages du filtre, aucun accès base ni à l'ensemble exact
+ * - Seuls les positifs du filtre (révoqués ou faux positifs) consultent l'ensemble exact
+ *
+ * PROPAGATION / EXPIRATION :
+ * - Les autres noeuds lisent périodiquement les révocations récentes (index revoked_at)
+ * - Les révocations dont le token a expiré sont purgées (base et mémoire) et le filtre est reconstruit,
+ *   un filtre de Bloom ne permettant pas de retirer une valeur
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationService {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    /**
+     * jti → expiration du token (ms epoch)
+     */
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter bloom;
+
+    private volatile LocalDateTime lastPoll = LocalDateTime.now();
+
+    @Value("${token-revocation.expected-revocations:100000}")
+    private int expectedRevocations;
+
+    @Value("${token-revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    /**
+     * Marge de relecture lors de la propagation (décalage d'horloge entre noeuds, commits tardifs)
+     */
+    @Value("${token-revocation.poll-overlap-ms:30000}")
+    private long pollOverlapMs;
+
+    /**
+     * Indique si un token a été révoqué
+     * @param token token déjà vérifié (signature et expiration)
+     * @return true si le token ne doit plus être accepté
+     */
+    public boolean isRevoked(VerifiedToken token) {
+        String tokenId = token.getTokenId();
+        if (tokenId == null) {
+            return false;
+        }
+        BloomFilter current = bloom;
+        if (current != null && !current.mightContain(tokenId)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(tokenId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * Révoque un token jusqu'à son expiration
+     * Effet immédiat sur ce noeud après commit, sur les autres au prochain passage de la propagation
+     * @param token token vérifié à révoquer
+     * @param userId ID de l'utilisateur du token
+     */
+    @Transactional
+    public void revoke(VerifiedToken token, UUID userId) {
+        if (token.getTokenId() == null || token.getExpiration() == null) {
+            log.warn("Token sans identifiant ni expiration, révocation impossible");
+            return;
+        }
+        revokedTokenRepository.save(RevokedToken.builder()
+                .tokenId(token.getTokenId())
+                .userId(userId)
+                .expiresAt(LocalDateTime.ofInstant(token.getExpiration(), ZoneId.systemDefault()))
+                .revokedAt(LocalDateTime.now())
+                .build());
+        String tokenId = token.getTokenId();
+        long expiresAt = token.getExpiration().toEpochMilli();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember(tokenId, expiresAt);
+            }
+        });
+        log.info("Token révoqué pour l'utilisateur {}", userId);
+    }
+
+    // ==================== CHARGEMENT / PROPAGATION / PURGE ====================
+
+    /**
+     * Charge les révocations actives et construit le filtre
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = revokedTokenRepository.findActive(now);
+        BloomFilter fresh = newFilter();
+        for (Object[] row : rows) {
+            String tokenId = (String) row[0];
+            revoked.put(tokenId, toEpochMs((LocalDateTime) row[1]));
+            fresh.put(tokenId);
+        }
+        bloom = fresh;
+        lastPoll = now;
+        log.info("Révocations de tokens chargées: {}", rows.size());
+    }
+
+    /**
+     * Lit les révocations enregistrées par les autres noeuds depuis le dernier passage
+     */
+    @Scheduled(fixedDelayString = "${token-revocation.poll-interval-ms:5000}",
+               initialDelayString = "${token-revocation.poll-interval-ms:5000}")
+    @Transactional(readOnly = true)
+    public void poll() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = revokedTokenRepository.findRevokedSince(lastPoll.minusNanos(pollOverlapMs * 1_000_000), now);
+        for (Object[] row : rows) {
+            remember((String) row[0], toEpochMs((LocalDateTime) row[1]));
+        }
+        lastPoll = now;
+    }
+
+    /**
+     * Purge les révocations expirées et reconstruit le filtre sans elles
+     */
+    @Scheduled(fixedDelayString = "${token-revocation.purge-interval-ms:3600000}",
+               initialDelayString = "${token-revocation.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        BloomFilter fresh = newFilter();
+        revoked.keySet().forEach(fresh::put);
+        bloom = fresh;
+        // Une révocation arrivée pendant la reconstruction est réajoutée au nouveau filtre
+        revoked.keySet().forEach(fresh::put);
+        if (deleted > 0) {
+            log.info("Révocations expirées purgées: {}", deleted);
+        }
+    }
+
+    private void remember(String tokenId, long expiresAt) {
+        // Ensemble exact d'abord : un positif du filtre trouve toujours l'entrée
+        revoked.put(tokenId, expiresAt);
+        BloomFilter current = bloom;
+        if (current != null) {
+            current.put(tokenId);
+        }
+    }
+
+    private BloomFilter newFilter() {
+        return new BloomFilter(expectedRevocations, falsePositiveRate);
+    }
+
+    private static long toEpochMs(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
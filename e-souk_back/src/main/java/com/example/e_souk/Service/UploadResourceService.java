@@ -0,0 +1,135 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Repository.StoredBlobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Résolution des fichiers servis sous /uploads/** (voir UploadController), via le BlobStore
+ *
+ * - Fichier par empreinte (sha256.ext) : l'ETag est l'empreinte du nom, aucun accès au contenu,
+ *   et le fichier ne change jamais (cache immutable)
+ * - Autres fichiers (anciens uploads, variantes) : ETag du stockage s'il en fournit un (S3),
+ *   sinon SHA-256 du contenu, calculé une fois et gardé en cache tant que taille et date ne changent pas
+ * - Variante pas encore générée d'un fichier par empreinte : l'original est servi à la place
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UploadResourceService {
+
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("([0-9a-f]{64})\\.[a-z0-9]{1,5}");
+    private static final Pattern CONTENT_ADDRESSED_VARIANT =
+            Pattern.compile(ImageVariants.DIRECTORY + "/([0-9a-f]{64})_w\\d+\\.jpg");
+
+    private final BlobStore blobStore;
+    private final StoredBlobRepository storedBlobRepository;
+
+    private final Map<String, CachedEtag> etags = new ConcurrentHashMap<>();
+
+    @Value("${file.serving.etag-cache-max-size:10000}")
+    private int etagCacheMaxSize;
+
+    /**
+     * Fichier à servir
+     * @param key clé dans le stockage
+     * @param file chemin sur disque si le stockage est local (envoi par sendfile), sinon null
+     * @param length taille en octets
+     * @param etag ETag fort (entre guillemets)
+     * @param immutable contenu adressé par son empreinte : ne change jamais
+     * @param substitute original servi à la place d'une variante pas encore générée
+     */
+    public record UploadResource(String key, Path file, long length, String etag, boolean immutable, boolean substitute) {
+    }
+
+    /**
+     * @param relativePath chemin sous /uploads/ (décodé)
+     * @return fichier à servir, vide s'il n'existe pas
+     * @throws IllegalArgumentException si le chemin sort du dossier d'upload
+     */
+    public Optional<UploadResource> find(String relativePath) throws IOException {
+        String key = relativePath;
+        Optional<BlobStore.BlobStat> stat = blobStore.stat(key);
+        boolean substitute = false;
+        if (stat.isEmpty()) {
+            Matcher variant = CONTENT_ADDRESSED_VARIANT.matcher(relativePath);
+            if (variant.matches()) {
+                Optional<String> original = storedBlobRepository.findFileNameByHash(variant.group(1));
+                if (original.isPresent()) {
+                    key = original.get();
+                    stat = blobStore.stat(key);
+                    substitute = stat.isPresent();
+                }
+            }
+        }
+        if (stat.isEmpty()) {
+            return Optional.empty();
+        }
+
+        BlobStore.BlobStat attributes = stat.get();
+        Matcher contentAddressed = CONTENT_ADDRESSED.matcher(key.substring(key.lastIndexOf('/') + 1));
+        boolean immutable = !substitute && contentAddressed.matches();
+        String etag = immutable ? "\"" + contentAddressed.group(1) + "\""
+                : attributes.etag() != null ? attributes.etag() : contentEtag(key, attributes);
+        Path file = blobStore.localPath(key).orElse(null);
+        return Optional.of(new UploadResource(key, file, attributes.size(), etag, immutable, substitute));
+    }
+
+    /**
+     * Contenu d'un fichier à servir, pour un stockage sans chemin local
+     * @param offset premier octet
+     * @param length nombre d'octets
+     */
+    public InputStream open(UploadResource resource, long offset, long length) throws IOException {
+        return blobStore.open(resource.key(), offset, length);
+    }
+
+    /**
+     * ETag fort calculé sur le contenu (mis en cache par clé, invalidé si taille ou date changent)
+     */
+    private String contentEtag(String key, BlobStore.BlobStat attributes) throws IOException {
+        long size = attributes.size();
+        long modified = attributes.lastModified();
+        CachedEtag cached = etags.get(key);
+        if (cached != null && cached.size() == size && cached.modified() == modified) {
+            return cached.etag();
+        }
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(blobStore.open(key), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        String etag = "\"" + HexFormat.of().formatHex(digest.digest()) + "\"";
+        if (etags.size() >= etagCacheMaxSize) {
+            etags.clear();
+        }
+        etags.put(key, new CachedEtag(size, modified, etag));
+        return etag;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    private record CachedEtag(long size, long modified, String etag) {
+    }
+}
@@ -6,6 +6,7 @@ import com.example.e_souk.Repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -20,7 +21,7 @@ import java.util.UUID;
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     
     private final UserRepository userRepository;
     
@@ -76,4 +77,21 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         log.debug("Utilisateur chargé avec succès par ID: {}", userId);
         return new UserDetailsImpl(user);
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Enregistre un hash ré-encodé au coût BCrypt courant
+     * Appelé par DaoAuthenticationProvider après une connexion réussie avec un hash de coût inférieur
+     * @param user Utilisateur authentifié
+     * @param newPassword Nouveau hash
+     * @return UserDetails avec le nouveau hash
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserDetailsImpl details = (UserDetailsImpl) user;
+        userRepository.updatePassword(details.getId(), newPassword);
+        log.info("Mot de passe ré-encodé au coût courant pour l'utilisateur: {}", details.getUsername());
+        return new UserDetailsImpl(details.getId(), details.getUsername(), details.getEmail(), newPassword,
+                details.getRole(), details.getIsActive());
+    }
+}
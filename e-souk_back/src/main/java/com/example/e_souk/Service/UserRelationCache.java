@@ -0,0 +1,189 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Event.ProductFavoritedEvent;
+import com.example.e_souk.Event.ProductUnfavoritedEvent;
+import com.example.e_souk.Event.ShopFollowedEvent;
+import com.example.e_souk.Event.ShopUnfollowedEvent;
+import com.example.e_souk.Repository.ProductFavoriteRepository;
+import com.example.e_souk.Repository.ShopFollowerRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Cache local des favoris et des abonnements de chaque utilisateur
+ *
+ * POURQUOI ?
+ * - Une grille de 48 produits demandait 48 appels "/check" et 48 EXISTS
+ * - Les vérifications en masse répondent depuis l'ensemble d'IDs de l'utilisateur en mémoire
+ *
+ * CHARGEMENT :
+ * - Au premier appel, l'ensemble complet est chargé s'il reste sous max-set-size
+ * - Au-delà (utilisateur avec énormément de favoris), un marqueur est mis en cache pour la même durée :
+ *   un seul IN (...) sur les IDs demandés, sans recharger max-set-size + 1 lignes à chaque appel
+ *
+ * INVALIDATION :
+ * - Ajout / retrait : l'ensemble en cache est mis à jour après commit ; un chargement commencé avant
+ *   n'est pas mis en cache (garde de version de BoundedTtlCache), l'ajout ne peut donc pas être perdu
+ * - Expiration (TTL) : borne la durée d'un ensemble périmé si un autre noeud le modifie
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserRelationCache {
+
+    /**
+     * Nombre maximal d'IDs par vérification
+     */
+    public static final int MAX_IDS_PER_CHECK = 200;
+
+    /**
+     * Marqueur en cache d'un ensemble trop grand (comparé par identité, jamais modifié)
+     */
+    private static final Set<UUID> OVERSIZED = Collections.unmodifiableSet(new HashSet<>());
+
+    private final ProductFavoriteRepository productFavoriteRepository;
+    private final ShopFollowerRepository shopFollowerRepository;
+
+    @Value("${user-relation-cache.ttl-ms:300000}")
+    private long ttlMs;
+
+    @Value("${user-relation-cache.max-users:20000}")
+    private int maxUsers;
+
+    @Value("${user-relation-cache.max-set-size:5000}")
+    private int maxSetSize;
+
+    private BoundedTtlCache<UUID, Set<UUID>> favorites;
+    private BoundedTtlCache<UUID, Set<UUID>> follows;
+
+    @PostConstruct
+    void init() {
+        favorites = new BoundedTtlCache<>(maxUsers, ttlMs);
+        follows = new BoundedTtlCache<>(maxUsers, ttlMs);
+    }
+
+    // ==================== VÉRIFICATIONS EN MASSE ====================
+
+    /**
+     * Parmi les produits demandés, ceux que l'utilisateur a en favori
+     * @param userId ID de l'utilisateur
+     * @param productIds IDs des produits (200 maximum)
+     * @return IDs en favori, dans l'ordre de la demande
+     */
+    public List<UUID> favoriteProductIds(UUID userId, Collection<UUID> productIds) {
+        return check(favorites, userId, productIds,
+                productFavoriteRepository::findFavoriteProductIds,
+                productFavoriteRepository::findFavoriteProductIdsIn);
+    }
+
+    /**
+     * Parmi les boutiques demandées, celles que l'utilisateur suit
+     * @param userId ID de l'utilisateur
+     * @param shopIds IDs des boutiques (200 maximum)
+     * @return IDs suivis, dans l'ordre de la demande
+     */
+    public List<UUID> followedShopIds(UUID userId, Collection<UUID> shopIds) {
+        return check(follows, userId, shopIds,
+                shopFollowerRepository::findFollowedShopIds,
+                shopFollowerRepository::findFollowedShopIdsIn);
+    }
+
+    private List<UUID> check(BoundedTtlCache<UUID, Set<UUID>> cache, UUID userId, Collection<UUID> ids,
+                             BiFunction<UUID, Pageable, List<UUID>> loadAll,
+                             BiFunction<UUID, Collection<UUID>, List<UUID>> loadIn) {
+        Set<UUID> requested = new LinkedHashSet<>(ids);
+        if (requested.isEmpty()) {
+            return List.of();
+        }
+        if (requested.size() > MAX_IDS_PER_CHECK) {
+            throw new IllegalArgumentException(MAX_IDS_PER_CHECK + " IDs maximum par vérification");
+        }
+        Set<UUID> known = cachedSet(cache, userId, loadAll);
+        Set<UUID> matches = known != null ? known : Set.copyOf(loadIn.apply(userId, requested));
+        return requested.stream().filter(matches::contains).collect(Collectors.toList());
+    }
+
+    /**
+     * Ensemble en cache de l'utilisateur, chargé si absent ou expiré
+     * @return l'ensemble, ou null si l'utilisateur en a trop pour le cache
+     */
+    private Set<UUID> cachedSet(BoundedTtlCache<UUID, Set<UUID>> cache, UUID userId,
+                                BiFunction<UUID, Pageable, List<UUID>> loadAll) {
+        Set<UUID> cached = cache.get(userId);
+        if (cached != null) {
+            return cached == OVERSIZED ? null : cached;
+        }
+        long stamp = cache.stamp(userId);
+        // Une ligne de plus que la limite : permet de savoir si l'ensemble dépasse
+        List<UUID> all = loadAll.apply(userId, PageRequest.of(0, maxSetSize + 1));
+        if (all.size() > maxSetSize) {
+            cache.putIfUnchanged(userId, OVERSIZED, stamp);
+            return null;
+        }
+        Set<UUID> ids = ConcurrentHashMap.newKeySet(all.size());
+        ids.addAll(all);
+        cache.putIfUnchanged(userId, ids, stamp);
+        return ids;
+    }
+
+    // ==================== ÉVÉNEMENTS ====================
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductFavorited(ProductFavoritedEvent event) {
+        update(favorites, event.getUserId(), event.getProductId(), true);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductUnfavorited(ProductUnfavoritedEvent event) {
+        update(favorites, event.getUserId(), event.getProductId(), false);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShopFollowed(ShopFollowedEvent event) {
+        update(follows, event.getUserId(), event.getShopId(), true);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShopUnfollowed(ShopUnfollowedEvent event) {
+        update(follows, event.getUserId(), event.getShopId(), false);
+    }
+
+    private void update(BoundedTtlCache<UUID, Set<UUID>> cache, UUID userId, UUID id, boolean added) {
+        Set<UUID> cached = cache.get(userId);
+        if (cached == OVERSIZED) {
+            // Requêtes IN jusqu'à l'expiration du marqueur, même si un retrait repasse sous la limite
+            return;
+        }
+        if (cached != null) {
+            if (added && cached.size() >= maxSetSize) {
+                // L'ensemble dépasse la limite : l'utilisateur passe en requêtes IN
+                cache.put(userId, OVERSIZED);
+                return;
+            }
+            if (added) {
+                cached.add(id);
+            } else {
+                cached.remove(id);
+            }
+        }
+        // Un chargement en cours a pu lire la base avant ce changement : il ne sera pas mis en cache
+        cache.markChanged(userId);
+    }
+}
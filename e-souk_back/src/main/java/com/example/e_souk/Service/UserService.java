@@ -1,12 +1,14 @@
 package com.example.e_souk.Service;
 
 import com.example.e_souk.Dto.User.UserProfileDTO;
+import com.example.e_souk.Event.UserSecurityChangedEvent;
 import com.example.e_souk.Exception.AuthException;
 import com.example.e_souk.Mappers.UserMapper;
 import com.example.e_souk.Model.User;
 import com.example.e_souk.Repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,6 +16,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -29,6 +32,8 @@ public class UserService {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FileStorageService fileStorageService;
     
     /**
      * Crée un nouvel utilisateur
@@ -82,10 +87,13 @@ public class UserService {
      */
     public boolean deleteById(UUID userId) {
         log.debug("Suppression de l'utilisateur par ID: {}", userId);
-        if (!userRepository.existsById(userId)) {
+        Optional<User> user = userRepository.findById(userId);
+        if (user.isEmpty()) {
             return false;
         }
-        userRepository.deleteById(userId);
+        userRepository.delete(user.get());
+        fileStorageService.release(user.get().getPicture());
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(userId, user.get().getUsername(), null));
         return true;
     }
     /**
@@ -135,6 +143,8 @@ public class UserService {
     public User updateUser(UserProfileDTO userDTO) {
         // Récupérer l'utilisateur existant
         User user = findById(userDTO.getId());
+        String previousUsername = user.getUsername();
+        String previousPicture = user.getPicture();
 
         // Mettre à jour les champs modifiables
         user.setUsername(userDTO.getUsername());
@@ -147,7 +157,15 @@ public class UserService {
         user.setIsActive(userDTO.getIsActive());
         user.setUpdatedAt(LocalDateTime.now());
 
+        // Photo changée : référence sur la nouvelle image, libération de l'ancienne
+        if (!Objects.equals(previousPicture, user.getPicture())) {
+            fileStorageService.retain(user.getPicture());
+            fileStorageService.release(previousPicture);
+        }
+
         User updatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(updatedUser.getId(), updatedUser.getUsername(),
+                previousUsername.equals(updatedUser.getUsername()) ? null : previousUsername));
         log.info("Utilisateur mis à jour avec succès: {}", updatedUser.getUsername());
         return updatedUser;
     }
@@ -165,6 +183,7 @@ public class UserService {
         user.setUpdatedAt(LocalDateTime.now());
         
         User deactivatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(userId, deactivatedUser.getUsername(), null));
         log.info("Utilisateur désactivé avec succès: {}", deactivatedUser.getUsername());
         
         return deactivatedUser;
@@ -183,6 +202,7 @@ public class UserService {
         user.setUpdatedAt(LocalDateTime.now());
         
         User reactivatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(userId, reactivatedUser.getUsername(), null));
         log.info("Utilisateur réactivé avec succès: {}", reactivatedUser.getUsername());
         
         return reactivatedUser;
@@ -205,6 +225,7 @@ public class UserService {
         user.setUpdatedAt(LocalDateTime.now());
         
         User updatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(userId, updatedUser.getUsername(), null));
         log.info("Mot de passe changé avec succès pour l'utilisateur: {}", updatedUser.getUsername());
         
         return updatedUser;
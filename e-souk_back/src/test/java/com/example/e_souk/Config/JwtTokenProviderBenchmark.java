@@ -0,0 +1,80 @@
+package com.example.e_souk.Config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût par requête de la vérification JWT dans JwtAuthenticationFilter
+ *
+ * - legacyDoubleParse : ancien chemin (clé + parser reconstruits, token parsé deux fois)
+ * - singleParse : parser partagé, un seul parsing (premier passage d'un token)
+ * - cachedVerify : token déjà vérifié, servi par son empreinte SHA-256
+ *
+ * Lancement : exécuter main() depuis l'IDE (ou java -cp target/test-classes:<classpath test>)
+ * Non exécuté par mvn test (pas un test JUnit)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private static final String SECRET = "esoukSecretKey2024VeryLongAndSecureForJWTTokenGenerationAndValidation";
+
+    private JwtTokenProvider provider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtConfig config = new JwtConfig();
+        config.setSecret(SECRET);
+        provider = new JwtTokenProvider(config);
+        token = provider.generateTokenFromUsername("benchmark-user", UUID.randomUUID(), "CLIENT");
+    }
+
+    @Benchmark
+    public String legacyDoubleParse() {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
+        SecretKey again = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        Claims claims = Jwts.parser().verifyWith(again).build().parseSignedClaims(token).getPayload();
+        return claims.getSubject();
+    }
+
+    @Benchmark
+    public VerifiedToken singleParse() {
+        return provider.parse(token);
+    }
+
+    @Benchmark
+    public VerifiedToken cachedVerify() {
+        return provider.verify(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtTokenProviderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.e_souk.Config;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Vérification des tokens : claims portés, cache des tokens vérifiés, refus des tokens altérés ou expirés
+ */
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "esoukSecretKey2024VeryLongAndSecureForJWTTokenGenerationAndValidation";
+
+    private JwtTokenProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        JwtConfig config = new JwtConfig();
+        config.setSecret(SECRET);
+        provider = new JwtTokenProvider(config);
+    }
+
+    @Test
+    void verifyReturnsClaimsCarriedByTheToken() {
+        UUID userId = UUID.randomUUID();
+        Instant before = Instant.now().minusSeconds(1);
+        String token = provider.generateTokenFromUsername("alice", userId, "VENDOR");
+
+        VerifiedToken verified = provider.verify(token);
+
+        assertNotNull(verified);
+        assertNotNull(verified.getTokenId());
+        assertEquals("alice", verified.getSubject());
+        assertEquals(userId, verified.getUserId());
+        assertEquals("VENDOR", verified.getRole());
+        assertTrue(verified.getIssuedAt().isAfter(before));
+        assertTrue(verified.getExpiration().isAfter(verified.getIssuedAt()));
+        assertFalse(verified.isExpired(System.currentTimeMillis()));
+    }
+
+    @Test
+    void verifiedTokenIsServedFromCache() {
+        String token = provider.generateTokenFromUsername("alice", UUID.randomUUID(), "CLIENT");
+
+        assertSame(provider.verify(token), provider.verify(token));
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        String token = provider.generateTokenFromUsername("alice", UUID.randomUUID(), "CLIENT");
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("A") ? "BB" : "AA");
+
+        assertNull(provider.verify(tampered));
+        assertNull(provider.verify(""));
+        assertNull(provider.verify(null));
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        Date past = new Date(System.currentTimeMillis() - 60_000);
+        String expired = Jwts.builder()
+                .subject("alice")
+                .issuedAt(new Date(past.getTime() - 60_000))
+                .expiration(past)
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), Jwts.SIG.HS512)
+                .compact();
+
+        assertNull(provider.verify(expired));
+        assertFalse(provider.validateToken(expired));
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.e_souk.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cache borné à expiration : taille, TTL, garde de version contre les remplissages périmés
+ */
+class BoundedTtlCacheTest {
+
+    @Test
+    void loaderRunsOnlyOnMiss() {
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(10, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals(1, cache.get("a", k -> loads.incrementAndGet()));
+        assertEquals(1, cache.get("a", k -> loads.incrementAndGet()));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void nullFromLoaderIsNotCached() {
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(10, 60_000);
+
+        assertNull(cache.get("a", k -> null));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void entriesExpireAfterTtl() throws InterruptedException {
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(10, 20);
+        cache.put("a", 1);
+
+        assertEquals(1, cache.get("a"));
+        Thread.sleep(40);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void putUntilUsesEntryExpiry() {
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(10, 60_000);
+        cache.putUntil("past", 1, System.currentTimeMillis() - 1);
+        cache.putUntil("future", 2, System.currentTimeMillis() + 60_000);
+
+        assertNull(cache.get("past"));
+        assertEquals(2, cache.get("future"));
+    }
+
+    @Test
+    void fullCacheIsClearedOnInsertOfNewKey() {
+        BoundedTtlCache<Integer, Integer> cache = new BoundedTtlCache<>(3, 60_000);
+        cache.put(1, 1);
+        cache.put(2, 2);
+        cache.put(3, 3);
+
+        // Clé déjà présente : simple remplacement
+        cache.put(3, 30);
+        assertEquals(3, cache.size());
+
+        cache.put(4, 4);
+        assertEquals(1, cache.size());
+        assertEquals(4, cache.get(4));
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    void invalidationDuringLoadDropsTheStaleValue() {
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(10, 60_000);
+
+        // Le chargement lit l'ancienne valeur, la source change et invalide avant l'insertion
+        Integer loaded = cache.get("a", k -> {
+            cache.invalidate("a");
+            return 1;
+        });
+
+        assertEquals(1, loaded);
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    void putIfUnchangedRefusesAfterInvalidation() {
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(10, 60_000);
+        long stamp = cache.stamp("a");
+
+        cache.invalidate("a");
+
+        assertFalse(cache.putIfUnchanged("a", 1, stamp));
+        assertNull(cache.get("a"));
+        assertTrue(cache.putIfUnchanged("a", 2, cache.stamp("a")));
+        assertEquals(2, cache.get("a"));
+    }
+
+    @Test
+    void markChangedKeepsEntryButRefusesPendingLoads() {
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(10, 60_000);
+        cache.put("a", 1);
+        long stamp = cache.stamp("a");
+
+        cache.markChanged("a");
+
+        assertEquals(1, cache.get("a"));
+        assertFalse(cache.putIfUnchanged("a", 0, stamp));
+        assertEquals(1, cache.get("a"));
+    }
+
+    @Test
+    void invalidateIfRemovesMatchingKeysAndPendingLoads() {
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(10, 60_000);
+        cache.put("alice:1", 1);
+        cache.put("alice:2", 2);
+        cache.put("bob:1", 3);
+        long stamp = cache.stamp("alice:3");
+
+        cache.invalidateIf(key -> key.startsWith("alice:"));
+
+        assertNull(cache.get("alice:1"));
+        assertNull(cache.get("alice:2"));
+        assertEquals(3, cache.get("bob:1"));
+        assertFalse(cache.putIfUnchanged("alice:3", 4, stamp));
+    }
+
+    @Test
+    void rejectsNonPositiveBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedTtlCache<>(0, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new BoundedTtlCache<>(10, 0));
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Config.FileUploadConfig;
+import com.example.e_souk.Repository.StoredBlobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validation des uploads : lecture poursuivie jusqu'au SOF d'un JPEG à métadonnées volumineuses,
+ * refus d'une image aux dimensions introuvables, limite de pixels appliquée après la relecture,
+ * ligne d'un nouveau contenu commitée à part avant l'écriture du fichier
+ */
+class FileStorageServiceTest {
+
+    private final StoredBlobRepository storedBlobRepository = mock(StoredBlobRepository.class);
+    private final FileUploadConfig fileUploadConfig = mock(FileUploadConfig.class);
+    private final BlobStore blobStore = mock(BlobStore.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final FileStorageService service = new FileStorageService(storedBlobRepository,
+            mock(ImageDerivativeService.class), fileUploadConfig, blobStore, transactionManager);
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ReflectionTestUtils.setField(service, "contentAddressed", true);
+        ReflectionTestUtils.setField(service, "sniffBytes", 16_384);
+        ReflectionTestUtils.setField(service, "maxHeaderBytes", 256 * 1024);
+        ReflectionTestUtils.setField(service, "maxPixels", 40_000_000L);
+        when(fileUploadConfig.newStagingFile(anyString())).thenReturn(tempDir.resolve("staging.tmp"));
+        when(storedBlobRepository.findFileNameByHash(anyString())).thenReturn(Optional.of("ab.jpg"));
+    }
+
+    @Test
+    void jpegFrameBeyondTheFirstBytesIsFound() throws IOException {
+        byte[] content = ImageSnifferTest.jpeg(100_000, 1920, 1080);
+
+        assertEquals("ab.jpg", service.storeFile(upload(content)));
+
+        verify(storedBlobRepository).acquire(anyString(), anyString(), eq((long) content.length), eq("image/jpeg"),
+                eq("jpeg"), eq(1920), eq(1080), any());
+        verify(blobStore).put(eq("ab.jpg"), any(), eq("image/jpeg"));
+    }
+
+    @Test
+    void jpegWithoutFrameWithinTheLimitIsRejected() throws IOException {
+        byte[] content = ImageSnifferTest.jpeg(300_000, 1920, 1080);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> service.storeFile(upload(content)));
+
+        assertEquals("Image refusée : dimensions illisibles.", e.getMessage());
+        verify(blobStore, never()).put(anyString(), any(), anyString());
+    }
+
+    @Test
+    void pixelLimitAppliesToAFrameFoundLater() throws IOException {
+        byte[] content = ImageSnifferTest.jpeg(100_000, 10_000, 10_000);
+
+        assertThrows(IllegalArgumentException.class, () -> service.storeFile(upload(content)));
+
+        verify(storedBlobRepository, never()).acquire(anyString(), anyString(), anyLong(), anyString(), anyString(),
+                any(), any(), any());
+    }
+
+    @Test
+    void newContentRowIsCommittedBeforeTheFileIsWritten() throws IOException {
+        when(storedBlobRepository.findFileNameByHash(anyString()))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of("ab.jpg"));
+
+        service.storeFile(upload(ImageSnifferTest.jpeg(0, 640, 480)));
+
+        // Transaction appelante annulée ensuite : la ligne sans référence reste, le ramasse-miettes reprend le fichier
+        InOrder order = inOrder(storedBlobRepository, transactionManager, blobStore);
+        order.verify(storedBlobRepository).register(anyString(), anyString(), anyLong(), eq("image/jpeg"), eq("jpeg"),
+                eq(640), eq(480), any());
+        order.verify(transactionManager).commit(any());
+        order.verify(storedBlobRepository).acquire(anyString(), anyString(), anyLong(), anyString(), anyString(),
+                any(), any(), any());
+        order.verify(blobStore).put(eq("ab.jpg"), any(), eq("image/jpeg"));
+    }
+
+    @Test
+    void knownContentIsNotRegisteredAgain() throws IOException {
+        service.storeFile(upload(ImageSnifferTest.jpeg(0, 640, 480)));
+
+        verify(storedBlobRepository, never()).register(anyString(), anyString(), anyLong(), anyString(), anyString(),
+                any(), any(), any());
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @Test
+    void nonImageIsRejected() throws IOException {
+        byte[] content = "<svg xmlns=\"http://www.w3.org/2000/svg\"/>".getBytes();
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> service.storeFile(upload(content)));
+
+        assertEquals("Seules les images sont autorisées.", e.getMessage());
+    }
+
+    private static MockMultipartFile upload(byte[] content) {
+        return new MockMultipartFile("file", "photo.jpg", "image/jpeg", content);
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Service.ImageSniffer.ImageInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * Détection du format sur des en-têtes minimaux réels de chaque format,
+ * puis refus des en-têtes tronqués, incohérents ou malveillants
+ */
+class ImageSnifferTest {
+
+    static Stream<Arguments> recognizedImages() {
+        return Stream.of(
+                arguments("JPEG baseline", jpeg(0, 640, 480), "jpeg", 640, 480),
+                arguments("JPEG progressif (SOF2)", jpeg(0xC2, 0, 300, 200), "jpeg", 300, 200),
+                arguments("JPEG segment APP de 20 Ko", jpeg(20_000, 1920, 1080), "jpeg", 1920, 1080),
+                arguments("JPEG octets de remplissage", jpegWithFill(), "jpeg", 8, 6),
+                arguments("PNG", png(800, 600), "png", 800, 600),
+                arguments("GIF87a", gif('7', 320, 200), "gif", 320, 200),
+                arguments("GIF89a", gif('9', 1, 1), "gif", 1, 1),
+                arguments("WebP VP8", webpVp8(550, 368), "webp", 550, 368),
+                arguments("WebP VP8L", webpVp8l(1024, 768), "webp", 1024, 768),
+                arguments("WebP VP8X", webpVp8x(4000, 3000), "webp", 4000, 3000),
+                arguments("BMP bas en haut", bmp(40, 100, 50), "bmp", 100, 50),
+                arguments("BMP haut en bas (hauteur négative)", bmp(40, 100, -50), "bmp", 100, 50),
+                arguments("BMP OS/2 (en-tête 12 octets)", bmpCore(64, 32), "bmp", 64, 32)
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("recognizedImages")
+    void recognizedImage(String name, byte[] content, String format, int width, int height) {
+        ImageInfo info = ImageSniffer.sniff(content, content.length, true);
+
+        assertNotNull(info, name);
+        assertEquals(format, info.format());
+        assertEquals(width, info.width());
+        assertEquals(height, info.height());
+        assertTrue(info.contentType().startsWith("image/"));
+    }
+
+    static Stream<Arguments> rejectedContents() {
+        byte[] png = png(800, 600);
+        byte[] vp8 = webpVp8(550, 368);
+        byte[] vp8l = webpVp8l(1024, 768);
+        return Stream.of(
+                arguments("vide", new byte[0]),
+                arguments("texte", "<?php echo 'hello'; ?>".getBytes(StandardCharsets.UTF_8)),
+                arguments("HTML annoncé comme image", "<html><body>GIF89a</body></html>".getBytes(StandardCharsets.UTF_8)),
+                arguments("PNG tronqué avant IHDR", Arrays.copyOf(png, 20)),
+                arguments("PNG sans IHDR", replace(png, 12, "IDAT")),
+                arguments("PNG largeur nulle", png(0, 600)),
+                arguments("PNG largeur négative", png(Integer.MIN_VALUE, 600)),
+                arguments("GIF88a", gif('8', 320, 200)),
+                arguments("GIF hauteur nulle", gif('9', 320, 0)),
+                arguments("GIF tronqué", Arrays.copyOf(gif('9', 320, 200), 9)),
+                arguments("WebP tronqué", Arrays.copyOf(vp8, 29)),
+                arguments("WebP VP8 code de départ invalide", replace(vp8, 23, "\0\0\0")),
+                arguments("WebP VP8L signature invalide", replace(vp8l, 20, "\0")),
+                arguments("WebP bloc inconnu", replace(vp8, 12, "VP9 ")),
+                arguments("BMP en-tête de 20 octets", bmp(20, 100, 50)),
+                arguments("BMP largeur négative", bmp(40, -100, 50)),
+                arguments("BMP tronqué", Arrays.copyOf(bmp(40, 100, 50), 25)),
+                arguments("JPEG tronqué sans SOF", Arrays.copyOf(jpeg(0, 640, 480), 22)),
+                arguments("JPEG marqueur invalide", replace(jpeg(0, 640, 480), 2, "\0")),
+                arguments("JPEG longueur de segment < 2", replace(jpeg(0, 640, 480), 4, "\0\1")),
+                arguments("JPEG données compressées avant SOF", jpegScanBeforeFrame()),
+                arguments("JPEG fin d'image avant SOF", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xD9, 0, 0}),
+                arguments("JPEG dimensions nulles", jpeg(0, 0, 480)),
+                arguments("JPEG table de Huffman prise pour un SOF", jpeg(0xC4, 0, 640, 480))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("rejectedContents")
+    void rejectedContent(String name, byte[] content) {
+        assertNull(ImageSniffer.sniff(content, content.length, true), name);
+    }
+
+    @Test
+    void jpegFrameBeyondTheBytesReadHasUnknownDimensions() {
+        byte[] content = jpeg(20_000, 1920, 1080);
+
+        ImageInfo info = ImageSniffer.sniff(content, 16_384, false);
+
+        assertNotNull(info);
+        assertEquals("jpeg", info.format());
+        assertFalse(info.hasDimensions());
+    }
+
+    @Test
+    void segmentLengthBeyondACompleteFileIsRejected() {
+        byte[] content = Arrays.copyOf(jpeg(20_000, 1920, 1080), 16_384);
+
+        assertNull(ImageSniffer.sniff(content, content.length, true));
+    }
+
+    @Test
+    void onlyTheValidLengthIsRead() {
+        byte[] content = Arrays.copyOf(png(800, 600), 4096);
+
+        assertNull(ImageSniffer.sniff(content, 20, false));
+        assertNotNull(ImageSniffer.sniff(content, 24, false));
+    }
+
+    @Test
+    void pixelCountDoesNotOverflow() {
+        byte[] content = png(Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+        assertEquals((long) Integer.MAX_VALUE * Integer.MAX_VALUE,
+                ImageSniffer.sniff(content, content.length, true).pixels());
+    }
+
+    // ==================== EN-TÊTES MINIMAUX ====================
+
+    /**
+     * JPEG : SOI, APP0 JFIF, segments APP1 de remplissage (metadataBytes octets au total), SOF0, SOS, EOI
+     */
+    static byte[] jpeg(int metadataBytes, int width, int height) {
+        return jpeg(0xC0, metadataBytes, width, height);
+    }
+
+    static byte[] jpeg(int frameMarker, int metadataBytes, int width, int height) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(bytes(0xFF, 0xD8));
+        out.writeBytes(bytes(0xFF, 0xE0, 0x00, 0x10, 'J', 'F', 'I', 'F', 0x00, 0x01, 0x01, 0x00, 0x00, 0x01, 0x00, 0x01, 0x00, 0x00));
+        for (int remaining = metadataBytes; remaining > 0; ) {
+            int payload = Math.min(remaining, 65_533);
+            out.writeBytes(bytes(0xFF, 0xE1, (payload + 2) >> 8, (payload + 2) & 0xFF));
+            out.writeBytes(new byte[payload]);
+            remaining -= payload;
+        }
+        out.writeBytes(bytes(0xFF, frameMarker, 0x00, 0x11, 0x08, height >> 8, height & 0xFF, width >> 8, width & 0xFF,
+                0x03, 0x01, 0x22, 0x00, 0x02, 0x11, 0x01, 0x03, 0x11, 0x01));
+        out.writeBytes(bytes(0xFF, 0xDA, 0x00, 0x08, 0x01, 0x01, 0x00, 0x00, 0x3F, 0x00, 0x12, 0x34));
+        out.writeBytes(bytes(0xFF, 0xD9));
+        return out.toByteArray();
+    }
+
+    private static byte[] jpegWithFill() {
+        byte[] base = jpeg(0, 8, 6);
+        // Octets 0xFF de remplissage autorisés avant le marqueur SOF (après APP0 : 2 + 18 octets)
+        byte[] filled = new byte[base.length + 3];
+        System.arraycopy(base, 0, filled, 0, 20);
+        filled[20] = (byte) 0xFF;
+        filled[21] = (byte) 0xFF;
+        filled[22] = (byte) 0xFF;
+        System.arraycopy(base, 20, filled, 23, base.length - 20);
+        return filled;
+    }
+
+    private static byte[] jpegScanBeforeFrame() {
+        return bytes(0xFF, 0xD8, 0xFF, 0xDA, 0x00, 0x08, 0x01, 0x01, 0x00, 0x00, 0x3F, 0x00,
+                0xFF, 0xC0, 0x00, 0x11, 0x08, 0x01, 0xE0, 0x02, 0x80);
+    }
+
+    static byte[] png(int width, int height) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(bytes(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0x00, 0x00, 0x00, 0x0D, 'I', 'H', 'D', 'R'));
+        out.writeBytes(be32(width));
+        out.writeBytes(be32(height));
+        out.writeBytes(bytes(0x08, 0x06, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00));
+        return out.toByteArray();
+    }
+
+    private static byte[] gif(char version, int width, int height) {
+        return bytes('G', 'I', 'F', '8', version, 'a', width & 0xFF, width >> 8, height & 0xFF, height >> 8,
+                0xF0, 0x00, 0x00, 0x3B);
+    }
+
+    private static byte[] webpVp8(int width, int height) {
+        return riff("VP8 ", bytes(0x1A, 0x00, 0x00, 0x00, 0x30, 0x01, 0x00, 0x9D, 0x01, 0x2A,
+                width & 0xFF, (width >> 8) & 0x3F, height & 0xFF, (height >> 8) & 0x3F, 0x00, 0x00));
+    }
+
+    private static byte[] webpVp8l(int width, int height) {
+        int bits = (width - 1) | (height - 1) << 14;
+        return riff("VP8L", bytes(0x0A, 0x00, 0x00, 0x00, 0x2F,
+                bits & 0xFF, (bits >> 8) & 0xFF, (bits >> 16) & 0xFF, (bits >>> 24) & 0xFF, 0x00, 0x00, 0x00, 0x00, 0x00));
+    }
+
+    private static byte[] webpVp8x(int width, int height) {
+        int w = width - 1;
+        int h = height - 1;
+        return riff("VP8X", bytes(0x0A, 0x00, 0x00, 0x00, 0x10, 0x00, 0x00, 0x00,
+                w & 0xFF, (w >> 8) & 0xFF, (w >> 16) & 0xFF, h & 0xFF, (h >> 8) & 0xFF, (h >> 16) & 0xFF));
+    }
+
+    private static byte[] riff(String chunk, byte[] payload) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes("RIFF".getBytes(StandardCharsets.US_ASCII));
+        out.writeBytes(bytes(payload.length + 8, 0x00, 0x00, 0x00));
+        out.writeBytes(("WEBP" + chunk).getBytes(StandardCharsets.US_ASCII));
+        out.writeBytes(payload);
+        return out.toByteArray();
+    }
+
+    private static byte[] bmp(int headerSize, int width, int height) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(bytes('B', 'M', 0x46, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x36, 0x00, 0x00, 0x00));
+        out.writeBytes(le32(headerSize));
+        out.writeBytes(le32(width));
+        out.writeBytes(le32(height));
+        out.writeBytes(bytes(0x01, 0x00, 0x18, 0x00));
+        return out.toByteArray();
+    }
+
+    private static byte[] bmpCore(int width, int height) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(bytes('B', 'M', 0x3A, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x1A, 0x00, 0x00, 0x00));
+        out.writeBytes(le32(12));
+        out.writeBytes(bytes(width & 0xFF, width >> 8, height & 0xFF, height >> 8, 0x01, 0x00, 0x18, 0x00));
+        return out.toByteArray();
+    }
+
+    private static byte[] replace(byte[] content, int offset, String value) {
+        byte[] copy = content.clone();
+        byte[] patch = value.getBytes(StandardCharsets.ISO_8859_1);
+        System.arraycopy(patch, 0, copy, offset, patch.length);
+        return copy;
+    }
+
+    private static byte[] be32(int value) {
+        return bytes(value >>> 24, (value >> 16) & 0xFF, (value >> 8) & 0xFF, value & 0xFF);
+    }
+
+    private static byte[] le32(int value) {
+        return bytes(value & 0xFF, (value >> 8) & 0xFF, (value >> 16) & 0xFF, value >>> 24);
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] result = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (byte) values[i];
+        }
+        return result;
+    }
+}
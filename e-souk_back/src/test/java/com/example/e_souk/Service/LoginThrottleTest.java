@@ -0,0 +1,83 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Exception.TooManyRequestsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Limitation des connexions : seuls les échecs comptent pour le compte, toutes les tentatives pour l'IP
+ */
+class LoginThrottleTest {
+
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        throttle = new LoginThrottle();
+        ReflectionTestUtils.setField(throttle, "accountCapacity", 3L);
+        ReflectionTestUtils.setField(throttle, "accountRefillSeconds", 3600L);
+        ReflectionTestUtils.setField(throttle, "ipCapacity", 10L);
+        ReflectionTestUtils.setField(throttle, "ipRefillSeconds", 3600L);
+        ReflectionTestUtils.setField(throttle, "maxEntries", 1000);
+    }
+
+    @Test
+    void failedAttemptsLockTheAccount() {
+        for (int i = 0; i < 3; i++) {
+            throttle.checkLogin("alice", "10.0.0." + i);
+        }
+
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+                () -> throttle.checkLogin("alice", "10.0.0.99"));
+        assertTrue(e.getRetryAfterSeconds() >= 1);
+    }
+
+    @Test
+    void successfulLoginsNeverLockTheAccount() {
+        for (int i = 0; i < 20; i++) {
+            String ip = "10.0.0." + i;
+            assertDoesNotThrow(() -> throttle.checkLogin("alice", ip));
+            throttle.loginSucceeded("alice");
+        }
+    }
+
+    @Test
+    void accountKeyIgnoresCaseAndSpaces() {
+        throttle.checkLogin("Alice", "10.0.0.1");
+        throttle.checkLogin(" alice ", "10.0.0.2");
+        throttle.checkLogin("ALICE", "10.0.0.3");
+
+        assertThrows(TooManyRequestsException.class, () -> throttle.checkLogin("alice", "10.0.0.4"));
+    }
+
+    @Test
+    void successStillChargesTheIp() {
+        for (int i = 0; i < 10; i++) {
+            throttle.checkLogin("user" + i, "10.0.0.1");
+            throttle.loginSucceeded("user" + i);
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> throttle.checkLogin("other", "10.0.0.1"));
+    }
+
+    @Test
+    void registrationIsLimitedByIp() {
+        for (int i = 0; i < 10; i++) {
+            throttle.checkRegister("10.0.0.1");
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> throttle.checkRegister("10.0.0.1"));
+        assertDoesNotThrow(() -> throttle.checkRegister("10.0.0.2"));
+    }
+
+    @Test
+    void successForUnknownAccountIsIgnored() {
+        assertDoesNotThrow(() -> throttle.loginSucceeded("nobody"));
+        assertDoesNotThrow(() -> throttle.loginSucceeded(null));
+    }
+}
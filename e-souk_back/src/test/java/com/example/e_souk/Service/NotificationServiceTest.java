@@ -0,0 +1,163 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Repository.NotificationCounterRepository;
+import com.example.e_souk.Repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compteur de non lues : cache, éviction concurrente d'une lecture, envoi SSE hors du thread qui a commité,
+ * tout marquer comme lu par décrément, battements SSE hors du thread des tâches planifiées
+ */
+class NotificationServiceTest {
+
+    private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+    private final NotificationCounterRepository counterRepository = mock(NotificationCounterRepository.class);
+    private final ThreadPoolTaskExecutor pushExecutor = mock(ThreadPoolTaskExecutor.class);
+    private final NotificationService service =
+            new NotificationService(notificationRepository, counterRepository, pushExecutor);
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "cacheTtlMs", 60_000L);
+        ReflectionTestUtils.setField(service, "cacheMaxSize", 100);
+        ReflectionTestUtils.setField(service, "streamTimeoutMs", 60_000L);
+        ReflectionTestUtils.setField(service, "maxStreamsPerUser", 2);
+        service.init();
+    }
+
+    @Test
+    void unreadCountIsCached() {
+        when(counterRepository.findUnreadCount(userId)).thenReturn(Optional.of(3L));
+
+        assertEquals(3, service.getUnreadCount(userId));
+        assertEquals(3, service.getUnreadCount(userId));
+        verify(counterRepository, times(1)).findUnreadCount(userId);
+    }
+
+    @Test
+    void missingCounterReadsAsZero() {
+        when(counterRepository.findUnreadCount(userId)).thenReturn(Optional.empty());
+
+        assertEquals(0, service.getUnreadCount(userId));
+    }
+
+    @Test
+    void changeCommittedDuringReadDoesNotLeaveStaleCount() {
+        when(counterRepository.findUnreadCount(userId))
+                .thenAnswer(invocation -> {
+                    // Une notification est commitée pendant la lecture de l'ancienne valeur
+                    service.afterCommit(List.of(userId));
+                    return Optional.of(3L);
+                })
+                .thenReturn(Optional.of(4L));
+
+        assertEquals(3, service.getUnreadCount(userId));
+        assertEquals(4, service.getUnreadCount(userId));
+    }
+
+    @Test
+    void committedChangeEvictsCachedCount() {
+        when(counterRepository.findUnreadCount(userId)).thenReturn(Optional.of(3L)).thenReturn(Optional.of(5L));
+        service.getUnreadCount(userId);
+
+        service.afterCommit(List.of(userId));
+
+        assertEquals(5, service.getUnreadCount(userId));
+    }
+
+    @Test
+    void pushToConnectedClientRunsOnExecutor() {
+        when(counterRepository.findUnreadCount(userId)).thenReturn(Optional.of(1L)).thenReturn(Optional.of(2L));
+        service.subscribe(userId);
+        verify(counterRepository, times(1)).findUnreadCount(userId);
+
+        service.afterCommit(List.of(userId, UUID.randomUUID()));
+
+        // Le thread qui a commité ne relit pas le compteur et n'écrit pas dans le flux
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(pushExecutor).execute(task.capture());
+        verify(counterRepository, times(1)).findUnreadCount(userId);
+
+        task.getValue().run();
+        verify(counterRepository, times(2)).findUnreadCount(userId);
+    }
+
+    @Test
+    void noPushTaskWithoutConnectedClient() {
+        service.afterCommit(List.of(userId));
+
+        verify(pushExecutor, never()).execute(any(Runnable.class));
+    }
+
+    @Test
+    void rejectedPushIsDropped() {
+        when(counterRepository.findUnreadCount(userId)).thenReturn(Optional.of(1L));
+        service.subscribe(userId);
+        doThrow(new TaskRejectedException("plein")).when(pushExecutor).execute(any(Runnable.class));
+
+        assertDoesNotThrow(() -> service.afterCommit(List.of(userId)));
+    }
+
+    @Test
+    void markAllReadSubtractsUpdatedRows() {
+        when(notificationRepository.markAllRead(userId)).thenReturn(3);
+
+        assertEquals(3, service.markAllRead(userId));
+
+        verify(counterRepository).addDelta(userId, -3);
+    }
+
+    @Test
+    void heartbeatWritesOnExecutor() {
+        when(counterRepository.findUnreadCount(userId)).thenReturn(Optional.of(0L));
+        service.subscribe(userId);
+
+        service.heartbeat();
+
+        // Le thread des tâches planifiées n'écrit dans aucun flux
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(pushExecutor).execute(task.capture());
+        assertDoesNotThrow(() -> task.getValue().run());
+    }
+
+    @Test
+    void rejectedHeartbeatIsDropped() {
+        when(counterRepository.findUnreadCount(userId)).thenReturn(Optional.of(0L));
+        service.subscribe(userId);
+        doThrow(new TaskRejectedException("plein")).when(pushExecutor).execute(any(Runnable.class));
+
+        assertDoesNotThrow(service::heartbeat);
+    }
+
+    @Test
+    void oldestStreamIsClosedBeyondPerUserLimit() {
+        when(counterRepository.findUnreadCount(userId)).thenReturn(Optional.of(0L));
+
+        service.subscribe(userId);
+        service.subscribe(userId);
+        service.subscribe(userId);
+
+        assertEquals(2, service.openStreams());
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.e_souk.Service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Curseur keyset : aller-retour avec et sans rang, refus des curseurs corrompus
+ */
+class PageCursorTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2024, 5, 17, 14, 3, 59, 123_456_000);
+    private static final UUID ID = UUID.fromString("3f1c2b7e-9a4d-4c1e-8f6a-2b5d7e9c1a30");
+
+    @Test
+    void roundTripWithoutRank() {
+        PageCursor decoded = PageCursor.decode(new PageCursor(AT, ID).encode());
+
+        assertNull(decoded.rank);
+        assertEquals(AT, decoded.at);
+        assertEquals(ID, decoded.id);
+    }
+
+    @Test
+    void roundTripWithRank() {
+        PageCursor decoded = PageCursor.decode(new PageCursor(4, AT, ID).encode());
+
+        assertEquals(4, decoded.rank);
+        assertEquals(AT, decoded.at);
+        assertEquals(ID, decoded.id);
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        String encoded = new PageCursor(5, AT, ID).encode();
+
+        assertFalse(encoded.contains("+") || encoded.contains("/") || encoded.contains("="), encoded);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "pas du base64 !",
+            "2024-05-17T14:03:59",
+            "2024-05-17T14:03:59|pas-un-uuid",
+            "hier|3f1c2b7e-9a4d-4c1e-8f6a-2b5d7e9c1a30",
+            "2024-05-17T14:03:59|3f1c2b7e-9a4d-4c1e-8f6a-2b5d7e9c1a30|cinq",
+            "2024-05-17T14:03:59|3f1c2b7e-9a4d-4c1e-8f6a-2b5d7e9c1a30|5|extra"
+    })
+    void corruptCursorIsRejected(String raw) {
+        String value = raw.startsWith("pas du base64") ? raw
+                : Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(value));
+        assertEquals("Curseur de pagination invalide", e.getMessage());
+    }
+}
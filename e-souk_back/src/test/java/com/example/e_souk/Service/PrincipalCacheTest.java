@@ -0,0 +1,96 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Event.UserSecurityChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cache des utilisateurs authentifiés : chargement par ID ou par nom, éviction de tous les tokens
+ * d'un utilisateur, chargement concurrent d'une éviction non mis en cache
+ */
+class PrincipalCacheTest {
+
+    private final UserDetailsServiceImpl userDetailsService = mock(UserDetailsServiceImpl.class);
+    private final PrincipalCache cache = new PrincipalCache(userDetailsService);
+
+    private final UUID userId = UUID.randomUUID();
+    private final Instant issuedAt = Instant.ofEpochMilli(1_700_000_000_000L);
+    private final UserDetails alice = User.withUsername("alice").password("x").authorities(List.of()).build();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cache, "ttlMs", 60_000L);
+        ReflectionTestUtils.setField(cache, "maxSize", 100);
+        cache.init();
+        when(userDetailsService.loadUserById(userId)).thenReturn(alice);
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(alice);
+    }
+
+    @Test
+    void secondLoadIsServedFromCache() {
+        assertSame(alice, cache.load("alice", userId, issuedAt));
+        assertSame(alice, cache.load("alice", userId, issuedAt));
+
+        verify(userDetailsService, times(1)).loadUserById(userId);
+        verify(userDetailsService, never()).loadUserByUsername(any());
+    }
+
+    @Test
+    void tokenWithoutUserIdLoadsByUsername() {
+        assertSame(alice, cache.load("alice", null, issuedAt));
+
+        verify(userDetailsService).loadUserByUsername("alice");
+    }
+
+    @Test
+    void securityChangeEvictsEveryTokenOfTheUser() {
+        Instant otherToken = issuedAt.plusSeconds(1);
+        cache.load("alice", userId, issuedAt);
+        cache.load("alice", userId, otherToken);
+
+        cache.onUserSecurityChanged(new UserSecurityChangedEvent(userId, "alice", null));
+        cache.load("alice", userId, issuedAt);
+        cache.load("alice", userId, otherToken);
+
+        verify(userDetailsService, times(4)).loadUserById(userId);
+    }
+
+    @Test
+    void renameEvictsThePreviousUsername() {
+        cache.load("alice", userId, issuedAt);
+
+        cache.onUserSecurityChanged(new UserSecurityChangedEvent(userId, "alicia", "alice"));
+        cache.load("alice", userId, issuedAt);
+
+        verify(userDetailsService, times(2)).loadUserById(userId);
+    }
+
+    @Test
+    void evictionDuringLoadIsNotOverwritten() {
+        when(userDetailsService.loadUserById(userId)).thenAnswer(invocation -> {
+            // Le rôle change pendant la lecture de l'utilisateur
+            cache.evict("alice");
+            return alice;
+        }).thenReturn(alice);
+
+        cache.load("alice", userId, issuedAt);
+        cache.load("alice", userId, issuedAt);
+
+        verify(userDetailsService, times(2)).loadUserById(userId);
+    }
+}
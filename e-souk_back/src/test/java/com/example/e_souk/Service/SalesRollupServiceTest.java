@@ -0,0 +1,72 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Dto.Shop.SalesBucketDTO;
+import com.example.e_souk.Exception.ShopException;
+import com.example.e_souk.Model.SalesGranularity;
+import com.example.e_souk.Repository.CommandeRepository;
+import com.example.e_souk.Repository.ProductRepository;
+import com.example.e_souk.Repository.ShopSalesRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Séries de ventes : une période par jour ou par heure, détail horaire refusé avant la limite
+ * de rétention (agrégats purgés), intervalle maximal
+ */
+class SalesRollupServiceTest {
+
+    private final ShopSalesRollupRepository rollupRepository = mock(ShopSalesRollupRepository.class);
+    private final SalesRollupService service = new SalesRollupService(rollupRepository,
+            mock(CommandeRepository.class), mock(ProductRepository.class), mock(ShopStatsService.class),
+            mock(StockService.class));
+
+    private final UUID shopId = UUID.randomUUID();
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "hourlyRetentionDays", 2);
+        when(rollupRepository.findRange(any(), any(), any(), any())).thenReturn(List.of());
+    }
+
+    @Test
+    void hourlySeriesWithinRetentionIsServed() {
+        List<SalesBucketDTO> series = service.getSales(shopId, today.minusDays(2), today, SalesGranularity.HOUR);
+
+        assertEquals(72, series.size());
+        assertEquals(today.minusDays(2).atStartOfDay(), series.get(0).getBucketStart());
+    }
+
+    @Test
+    void hourlySeriesBeforeRetentionIsRejected() {
+        ShopException e = assertThrows(ShopException.class,
+                () -> service.getSales(shopId, today.minusDays(3), today, SalesGranularity.HOUR));
+
+        assertEquals("SALES_RANGE_INVALID", e.getCode());
+        verify(rollupRepository, never()).findRange(any(), any(), any(), any());
+    }
+
+    @Test
+    void dailySeriesIsNotLimitedByHourlyRetention() {
+        assertEquals(31, service.getSales(shopId, today.minusDays(30), today, SalesGranularity.DAY).size());
+    }
+
+    @Test
+    void tooLongRangeIsRejected() {
+        assertThrows(ShopException.class,
+                () -> service.getSales(shopId, today.minusDays(366), today, SalesGranularity.DAY));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Repository.ShopRepository;
+import com.example.e_souk.Repository.ShopStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pagination du classement : taille ramenée entre 1 et MAX_PAGE_SIZE, page négative ramenée à 0,
+ * aucune entrée servie au-delà de MAX_RANK
+ */
+class ShopLeaderboardServiceTest {
+
+    private final ShopStatsRepository shopStatsRepository = mock(ShopStatsRepository.class);
+    private final ShopLeaderboardService service = new ShopLeaderboardService(shopStatsRepository,
+            mock(ShopRepository.class));
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < ShopLeaderboardService.MAX_RANK + 50; i++) {
+            rows.add(new Object[]{UUID.randomUUID(), (long) i});
+        }
+        when(shopStatsRepository.findActiveShopFollowerCounts()).thenReturn(rows);
+        service.loadSnapshot();
+    }
+
+    @Test
+    void pagesFollowTheRanking() {
+        List<ShopLeaderboardService.Entry> first = service.page(0, 10);
+        List<ShopLeaderboardService.Entry> second = service.page(1, 10);
+
+        assertEquals(10, first.size());
+        assertEquals(ShopLeaderboardService.MAX_RANK + 49, first.get(0).getFollowerCount());
+        assertEquals(first.get(9).getFollowerCount() - 1, second.get(0).getFollowerCount());
+    }
+
+    @Test
+    void sizeIsClamped() {
+        assertEquals(ShopLeaderboardService.MAX_PAGE_SIZE, service.page(0, Integer.MAX_VALUE).size());
+        assertEquals(1, service.page(0, 0).size());
+        assertEquals(1, service.page(0, -5).size());
+    }
+
+    @Test
+    void negativePageIsTheFirstPage() {
+        assertEquals(service.page(0, 10), service.page(-3, 10));
+    }
+
+    @Test
+    void entriesBeyondMaxRankAreNotServed() {
+        int lastPage = ShopLeaderboardService.MAX_RANK / 30;
+
+        assertEquals(ShopLeaderboardService.MAX_RANK - lastPage * 30, service.page(lastPage, 30).size());
+        assertTrue(service.page(lastPage + 1, 30).isEmpty());
+        assertTrue(service.page(Integer.MAX_VALUE, ShopLeaderboardService.MAX_PAGE_SIZE).isEmpty());
+        assertEquals(ShopLeaderboardService.MAX_RANK, service.reachableSize());
+        assertEquals(ShopLeaderboardService.MAX_RANK + 50, service.size());
+    }
+}
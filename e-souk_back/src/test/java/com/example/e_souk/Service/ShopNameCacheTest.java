@@ -0,0 +1,68 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Exception.ShopException;
+import com.example.e_souk.Repository.ShopRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cache nom → ID : le chargement interroge la clé normalisée (rognée, en minuscules),
+ * toutes les variantes d'un nom partagent une entrée, un nom inconnu n'est pas mis en cache
+ */
+class ShopNameCacheTest {
+
+    private final ShopRepository shopRepository = mock(ShopRepository.class);
+    private final ShopNameCache cache = new ShopNameCache(shopRepository);
+
+    private final UUID shopId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cache, "ttlMs", 600_000L);
+        ReflectionTestUtils.setField(cache, "maxSize", 100);
+        cache.init();
+    }
+
+    @Test
+    void loaderQueriesTheNormalizedName() {
+        when(shopRepository.findIdByBrandNameIgnoreCase("souk")).thenReturn(Optional.of(shopId));
+
+        assertEquals(shopId, cache.resolveId("  Souk "));
+        assertEquals(shopId, cache.resolveId("SOUK"));
+
+        verify(shopRepository, times(1)).findIdByBrandNameIgnoreCase(anyString());
+    }
+
+    @Test
+    void unknownNameIsNotCached() {
+        when(shopRepository.findIdByBrandNameIgnoreCase("absent")).thenReturn(Optional.empty());
+
+        assertThrows(ShopException.class, () -> cache.resolveId("absent"));
+        assertThrows(ShopException.class, () -> cache.resolveId("Absent "));
+
+        verify(shopRepository, times(2)).findIdByBrandNameIgnoreCase("absent");
+    }
+
+    @Test
+    void evictForcesAReload() {
+        when(shopRepository.findIdByBrandNameIgnoreCase("souk")).thenReturn(Optional.of(shopId));
+        cache.resolveId("souk");
+
+        cache.evict(" SOUK");
+        cache.resolveId("souk");
+
+        verify(shopRepository, times(2)).findIdByBrandNameIgnoreCase("souk");
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Dto.Review.ShopReviewDTO;
+import com.example.e_souk.Dto.Review.ShopReviewPageDTO;
+import com.example.e_souk.Dto.Shop.ShopPageDTO;
+import com.example.e_souk.Model.ReviewSort;
+import com.example.e_souk.Model.Shop;
+import com.example.e_souk.Model.ShopStats;
+import com.example.e_souk.Model.User;
+import com.example.e_souk.Repository.ProductRepository;
+import com.example.e_souk.Repository.ReviewRepository;
+import com.example.e_souk.Repository.ShopRepository;
+import com.example.e_souk.Repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pages d'avis boutique : parcours note par note pour HIGHEST / LOWEST, indépendant de l'histogramme
+ * de ShopStats, reprise au curseur dans la note du dernier avis vu
+ * Page boutique : sections refusées par le pool saturé marquées incomplètes
+ */
+class ShopPageServiceTest {
+
+    private final ReviewRepository reviewRepository = mock(ReviewRepository.class);
+    private final ShopStatsService shopStatsService = mock(ShopStatsService.class);
+    private final ShopNameCache shopNameCache = mock(ShopNameCache.class);
+    private final ShopRepository shopRepository = mock(ShopRepository.class);
+    private final ThreadPoolTaskExecutor shopPageExecutor = mock(ThreadPoolTaskExecutor.class);
+    private final ShopPageService service = new ShopPageService(
+            shopRepository, mock(UserRepository.class), mock(ProductRepository.class),
+            reviewRepository, shopStatsService, mock(ProductSalesService.class), shopNameCache,
+            mock(ApplicationEventPublisher.class), mock(PlatformTransactionManager.class),
+            shopPageExecutor);
+
+    private final UUID shopId = UUID.randomUUID();
+    private final LocalDateTime now = LocalDateTime.of(2024, 5, 17, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        when(shopNameCache.resolveId("souk")).thenReturn(shopId);
+        when(reviewRepository.findShopReviewPageByRating(eq(shopId), anyInt(), any(Pageable.class)))
+                .thenReturn(List.of());
+    }
+
+    @Test
+    void highestFirstWalksRatingsDownward() {
+        ShopReviewDTO five = review(5, 1);
+        ShopReviewDTO three = review(3, 2);
+        when(shopStatsService.getCounters(shopId)).thenReturn(ShopStats.empty(shopId));
+        when(reviewRepository.findShopReviewPageByRating(eq(shopId), eq(5), any(Pageable.class))).thenReturn(List.of(five));
+        when(reviewRepository.findShopReviewPageByRating(eq(shopId), eq(3), any(Pageable.class))).thenReturn(List.of(three));
+
+        ShopReviewPageDTO page = service.getReviewPage("souk", ReviewSort.HIGHEST, null, null, 10);
+
+        assertEquals(List.of(five, three), page.getItems());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void driftedHistogramDoesNotHideReviews() {
+        // Les compteurs annoncent zéro avis 4 étoiles alors qu'il en existe un
+        ShopStats stats = ShopStats.empty(shopId);
+        stats.getRatings().setRating5(1L);
+        stats.getRatings().setRatingCount(1L);
+        ShopReviewDTO four = review(4, 1);
+        when(shopStatsService.getCounters(shopId)).thenReturn(stats);
+        when(reviewRepository.findShopReviewPageByRating(eq(shopId), eq(4), any(Pageable.class))).thenReturn(List.of(four));
+
+        ShopReviewPageDTO page = service.getReviewPage("souk", ReviewSort.HIGHEST, null, null, 10);
+
+        assertEquals(List.of(four), page.getItems());
+    }
+
+    @Test
+    void fullPageResumesInTheRatingOfTheLastReview() {
+        ShopReviewDTO first = review(1, 1);
+        ShopReviewDTO second = review(2, 2);
+        when(shopStatsService.getCounters(shopId)).thenReturn(ShopStats.empty(shopId));
+        when(reviewRepository.findShopReviewPageByRating(eq(shopId), eq(1), any(Pageable.class))).thenReturn(List.of(first));
+        when(reviewRepository.findShopReviewPageByRating(eq(shopId), eq(2), any(Pageable.class))).thenReturn(List.of(second));
+
+        ShopReviewPageDTO page = service.getReviewPage("souk", ReviewSort.LOWEST, null, null, 2);
+        assertNotNull(page.getNextCursor());
+
+        service.getReviewPage("souk", ReviewSort.LOWEST, null, page.getNextCursor(), 2);
+
+        verify(reviewRepository).findShopReviewPageByRatingAfter(eq(shopId), eq(2), eq(second.getCreatedAt()),
+                eq(second.getId()), any(Pageable.class));
+        verify(reviewRepository, never()).findShopReviewPageByRatingAfter(eq(shopId), eq(1), any(), any(), any());
+    }
+
+    @Test
+    void cursorWithoutRatingIsRejectedForRatingSort() {
+        when(shopStatsService.getCounters(shopId)).thenReturn(ShopStats.empty(shopId));
+        String newestCursor = new PageCursor(now, UUID.randomUUID()).encode();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getReviewPage("souk", ReviewSort.HIGHEST, null, newestCursor, 10));
+    }
+
+    @Test
+    void rejectedSectionsAreIncomplete() {
+        User owner = User.builder().username("alice").build();
+        when(shopRepository.findById(shopId))
+                .thenReturn(Optional.of(Shop.builder().id(shopId).brandName("souk").owner(owner).build()));
+        doThrow(new TaskRejectedException("pool saturé")).when(shopPageExecutor).execute(any(Runnable.class));
+
+        ShopPageDTO page = service.getShopPage("souk");
+
+        assertEquals(List.of("products", "popularProducts", "reviews", "stats"), page.getIncompleteSections());
+        assertEquals(List.of(), page.getProducts());
+        assertEquals(0, page.getFollowerCount());
+    }
+
+    private ShopReviewDTO review(int rating, int minutesAgo) {
+        return new ShopReviewDTO(UUID.randomUUID(), rating, "avis", "alice", null, now.minusMinutes(minutesAgo));
+    }
+}
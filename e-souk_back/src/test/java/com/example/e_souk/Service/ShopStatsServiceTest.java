@@ -0,0 +1,212 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Event.OrderPlacedEvent;
+import com.example.e_souk.Event.OrderStatusChangedEvent;
+import com.example.e_souk.Event.ProductCreatedEvent;
+import com.example.e_souk.Event.ShopFollowedEvent;
+import com.example.e_souk.Event.ShopUnfollowedEvent;
+import com.example.e_souk.Model.EtatCommande;
+import com.example.e_souk.Model.ShopStats;
+import com.example.e_souk.Repository.ReviewRepository;
+import com.example.e_souk.Repository.ShopFollowerRepository;
+import com.example.e_souk.Repository.ShopRepository;
+import com.example.e_souk.Repository.ShopStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compteurs de boutique : deltas en mémoire ajoutés à la ligne shop_stats, transitions d'état
+ * de commande, flush par lots, réinjection des deltas d'un lot en échec, boutiques sans ligne
+ */
+class ShopStatsServiceTest {
+
+    private final ShopStatsRepository shopStatsRepository = mock(ShopStatsRepository.class);
+    private final ShopRepository shopRepository = mock(ShopRepository.class);
+    private final ShopFollowerRepository shopFollowerRepository = mock(ShopFollowerRepository.class);
+    private final ReviewRepository reviewRepository = mock(ReviewRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final ShopStatsService service = new ShopStatsService(shopStatsRepository, shopRepository,
+            shopFollowerRepository, reviewRepository, transactionManager);
+
+    private final UUID shopId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "flushBatchSize", 100);
+    }
+
+    @Test
+    void pendingDeltasAreAddedToTheStoredRow() {
+        ShopStats stored = stored(shopId, 3, 5, 2, 1L, 1L, 0L);
+        when(shopStatsRepository.findById(shopId)).thenReturn(Optional.of(stored));
+
+        service.onProductCreated(new ProductCreatedEvent(UUID.randomUUID(), shopId));
+        service.onOrderPlaced(order(shopId));
+        service.onShopFollowed(new ShopFollowedEvent(shopId, UUID.randomUUID()));
+        service.onShopFollowed(new ShopFollowedEvent(shopId, UUID.randomUUID()));
+        service.onShopUnfollowed(new ShopUnfollowedEvent(shopId, UUID.randomUUID()));
+        ShopStats counters = service.getCounters(shopId);
+
+        assertEquals(4, counters.getProductCount());
+        assertEquals(2, counters.getActiveProductCount());
+        assertEquals(6, counters.getOrderCount());
+        assertEquals(2, counters.getPendingOrderCount());
+        assertEquals(3, counters.getFollowerCount());
+        // La ligne lue n'est pas modifiée (copie détachée)
+        assertEquals(3, stored.getProductCount());
+    }
+
+    @Test
+    void orderStatusTransitionsMovePendingAndCompletedCounts() {
+        when(shopStatsRepository.findById(shopId)).thenReturn(Optional.of(stored(shopId, 0, 1, 0, 0L, 1L, 0L)));
+
+        service.onOrderStatusChanged(new OrderStatusChangedEvent(UUID.randomUUID(), shopId,
+                EtatCommande.EnAttente, EtatCommande.EnCours));
+        assertEquals(1, service.getCounters(shopId).getPendingOrderCount());
+
+        service.onOrderStatusChanged(new OrderStatusChangedEvent(UUID.randomUUID(), shopId,
+                EtatCommande.EnCours, EtatCommande.Livree));
+        ShopStats delivered = service.getCounters(shopId);
+        assertEquals(0, delivered.getPendingOrderCount());
+        assertEquals(1, delivered.getCompletedOrderCount());
+
+        service.onOrderStatusChanged(new OrderStatusChangedEvent(UUID.randomUUID(), shopId,
+                EtatCommande.Livree, EtatCommande.Expediee));
+        ShopStats reverted = service.getCounters(shopId);
+        assertEquals(0, reverted.getPendingOrderCount());
+        assertEquals(0, reverted.getCompletedOrderCount());
+    }
+
+    @Test
+    void uninitializedStatusCountersStayUnknown() {
+        when(shopStatsRepository.findById(shopId)).thenReturn(Optional.of(stored(shopId, 3, 0, 0, null, null, null)));
+
+        service.onProductCreated(new ProductCreatedEvent(UUID.randomUUID(), shopId));
+        ShopStats counters = service.getCounters(shopId);
+
+        assertEquals(4, counters.getProductCount());
+        assertNull(counters.getActiveProductCount());
+        assertNull(counters.getPendingOrderCount());
+    }
+
+    @Test
+    void flushAppliesEachDeltaOnce() {
+        service.onProductCreated(new ProductCreatedEvent(UUID.randomUUID(), shopId));
+        service.onOrderPlaced(order(shopId));
+        service.onShopUnfollowed(new ShopUnfollowedEvent(shopId, UUID.randomUUID()));
+
+        service.flush();
+        service.flush();
+
+        verify(shopStatsRepository, times(1)).applyDeltas(shopId, 1, 1, -1, 1, 1, 0);
+        when(shopStatsRepository.findById(shopId)).thenReturn(Optional.of(stored(shopId, 1, 1, 0, 1L, 1L, 0L)));
+        assertEquals(1, service.getCounters(shopId).getProductCount());
+    }
+
+    @Test
+    void cancellingDeltasAreNotWritten() {
+        service.onShopFollowed(new ShopFollowedEvent(shopId, UUID.randomUUID()));
+        service.onShopUnfollowed(new ShopUnfollowedEvent(shopId, UUID.randomUUID()));
+
+        service.flush();
+
+        verify(shopStatsRepository, never()).applyDeltas(any(), anyLong(), anyLong(), anyLong(), anyLong(), anyLong(),
+                anyLong());
+    }
+
+    @Test
+    void failedFlushKeepsDeltasForTheNextCycle() {
+        when(shopStatsRepository.findById(shopId)).thenReturn(Optional.of(stored(shopId, 0, 0, 0, 0L, 0L, 0L)));
+        doThrow(new QueryTimeoutException("timeout")).doReturn(1)
+                .when(shopStatsRepository).applyDeltas(eq(shopId), anyLong(), anyLong(), anyLong(), anyLong(),
+                        anyLong(), anyLong());
+        service.onProductCreated(new ProductCreatedEvent(UUID.randomUUID(), shopId));
+
+        service.flush();
+        assertEquals(1, service.getCounters(shopId).getProductCount());
+        service.onProductCreated(new ProductCreatedEvent(UUID.randomUUID(), shopId));
+        service.flush();
+
+        verify(shopStatsRepository).applyDeltas(shopId, 1, 0, 0, 1, 0, 0);
+        verify(shopStatsRepository).applyDeltas(shopId, 2, 0, 0, 2, 0, 0);
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void flushWritesOneTransactionPerBatch() {
+        ReflectionTestUtils.setField(service, "flushBatchSize", 2);
+        for (int i = 0; i < 5; i++) {
+            service.onShopFollowed(new ShopFollowedEvent(UUID.randomUUID(), UUID.randomUUID()));
+        }
+
+        service.flush();
+
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(3)).commit(any());
+        verify(shopStatsRepository, times(5)).applyDeltas(any(), eq(0L), eq(0L), eq(1L), eq(0L), eq(0L), eq(0L));
+    }
+
+    @Test
+    void shopsWithoutRowAreCountedFromSourceTables() {
+        UUID counted = UUID.randomUUID();
+        when(shopStatsRepository.findAllById(List.of(shopId, counted)))
+                .thenReturn(List.of(stored(shopId, 2, 0, 0, 2L, 0L, 0L)));
+        when(shopRepository.countProductsByShopIds(any())).thenReturn(List.<Object[]>of(new Object[]{counted, 7L}));
+        when(shopRepository.countOrdersByShopIds(any())).thenReturn(List.<Object[]>of(new Object[]{counted, 3L}));
+        when(shopFollowerRepository.countByShopIds(any())).thenReturn(List.of());
+        when(reviewRepository.aggregateShopRatingsByShopIds(any()))
+                .thenReturn(List.<Object[]>of(new Object[]{counted, 2L, 9L, 0L, 0L, 0L, 1L, 1L}));
+        // Déjà visible dans les tables sources : non ajouté une seconde fois
+        service.onProductCreated(new ProductCreatedEvent(UUID.randomUUID(), counted));
+
+        Map<UUID, ShopStats> counters = service.getCounters(List.of(shopId, counted));
+
+        assertEquals(List.of(shopId, counted), List.copyOf(counters.keySet()));
+        assertEquals(2, counters.get(shopId).getProductCount());
+        ShopStats fromSource = counters.get(counted);
+        assertEquals(7, fromSource.getProductCount());
+        assertEquals(3, fromSource.getOrderCount());
+        assertEquals(0, fromSource.getFollowerCount());
+        assertEquals(4.5, fromSource.getAverageRating());
+        assertNull(fromSource.getActiveProductCount());
+    }
+
+    private static ShopStats stored(UUID shopId, long products, long orders, long followers,
+                                    Long activeProducts, Long pendingOrders, Long completedOrders) {
+        return ShopStats.builder()
+                .shopId(shopId)
+                .productCount(products)
+                .orderCount(orders)
+                .followerCount(followers)
+                .activeProductCount(activeProducts)
+                .pendingOrderCount(pendingOrders)
+                .completedOrderCount(completedOrders)
+                .build();
+    }
+
+    private static OrderPlacedEvent order(UUID shopId) {
+        return new OrderPlacedEvent(UUID.randomUUID(), shopId, 10.0, LocalDateTime.now(), List.of());
+    }
+}
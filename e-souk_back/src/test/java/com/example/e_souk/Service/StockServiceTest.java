@@ -0,0 +1,146 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Event.OrderLine;
+import com.example.e_souk.Event.StockThresholdCrossedEvent;
+import com.example.e_souk.Exception.InsufficientStockException;
+import com.example.e_souk.Model.Product;
+import com.example.e_souk.Model.Shop;
+import com.example.e_souk.Model.Variant;
+import com.example.e_souk.Repository.LowStockItemRepository;
+import com.example.e_souk.Repository.VariantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * StockService avec des repositories simulés : ordre de verrouillage, ensemble des stocks faibles,
+ * événements de seuil et refus d'une commande sans stock
+ */
+class StockServiceTest {
+
+    private static final UUID LOW_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID HIGH_ID = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+    private final VariantRepository variantRepository = mock(VariantRepository.class);
+    private final LowStockItemRepository lowStockItemRepository = mock(LowStockItemRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final StockService stockService =
+            new StockService(variantRepository, lowStockItemRepository, eventPublisher);
+
+    private Shop shop;
+    private UUID productId;
+
+    @BeforeEach
+    void setUp() {
+        shop = Shop.builder().id(UUID.randomUUID()).lowStockThreshold(5).build();
+        productId = UUID.randomUUID();
+        when(variantRepository.decrementStockIfAvailable(any(), anyInt())).thenReturn(1);
+    }
+
+    @Test
+    void reserveLocksVariantsInIdOrder() {
+        when(variantRepository.findStockById(any())).thenReturn(Optional.of(50));
+
+        stockService.reserve(shop, List.of(
+                new OrderLine(HIGH_ID, productId, 1),
+                new OrderLine(LOW_ID, productId, 1)));
+
+        InOrder order = inOrder(variantRepository);
+        order.verify(variantRepository).decrementStockIfAvailable(LOW_ID, 1);
+        order.verify(variantRepository).decrementStockIfAvailable(HIGH_ID, 1);
+    }
+
+    @Test
+    void reserveCrossingThresholdTracksVariantAndPublishesEvent() {
+        when(variantRepository.findStockById(LOW_ID)).thenReturn(Optional.of(4));
+
+        stockService.reserve(shop, List.of(new OrderLine(LOW_ID, productId, 3)));
+
+        verify(lowStockItemRepository).upsert(LOW_ID, productId, shop.getId(), 4);
+        ArgumentCaptor<StockThresholdCrossedEvent> event = ArgumentCaptor.forClass(StockThresholdCrossedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(4, event.getValue().getStock());
+        assertEquals(5, event.getValue().getThreshold());
+    }
+
+    @Test
+    void reserveAlreadyBelowThresholdDoesNotPublishAgain() {
+        when(variantRepository.findStockById(LOW_ID)).thenReturn(Optional.of(2));
+
+        stockService.reserve(shop, List.of(new OrderLine(LOW_ID, productId, 1)));
+
+        verify(lowStockItemRepository).upsert(LOW_ID, productId, shop.getId(), 2);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void reserveReachingZeroPublishesOutOfStock() {
+        when(variantRepository.findStockById(LOW_ID)).thenReturn(Optional.of(0));
+
+        stockService.reserve(shop, List.of(new OrderLine(LOW_ID, productId, 2)));
+
+        ArgumentCaptor<StockThresholdCrossedEvent> event = ArgumentCaptor.forClass(StockThresholdCrossedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertTrue(event.getValue().isOutOfStock());
+    }
+
+    @Test
+    void reserveWithoutEnoughStockThrowsInsufficientStock() {
+        when(variantRepository.decrementStockIfAvailable(LOW_ID, 3)).thenReturn(0);
+
+        InsufficientStockException e = assertThrows(InsufficientStockException.class,
+                () -> stockService.reserve(shop, List.of(new OrderLine(LOW_ID, productId, 3))));
+
+        assertEquals(LOW_ID, e.getVariantId());
+        assertEquals(3, e.getRequested());
+        verify(lowStockItemRepository, never()).upsert(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void releaseAboveThresholdRemovesVariantFromSet() {
+        when(variantRepository.findStockById(LOW_ID)).thenReturn(Optional.of(8));
+
+        stockService.release(shop, List.of(new OrderLine(LOW_ID, productId, 5)));
+
+        verify(variantRepository).incrementStock(LOW_ID, 5);
+        verify(lowStockItemRepository).deleteByVariantId(LOW_ID);
+    }
+
+    @Test
+    void newVariantBelowThresholdEntersSet() {
+        Variant variant = Variant.builder().id(LOW_ID).stock(2)
+                .product(Product.builder().id(productId).build()).build();
+
+        stockService.trackNewVariant(shop, variant);
+
+        verify(lowStockItemRepository).upsert(LOW_ID, productId, shop.getId(), 2);
+    }
+
+    @Test
+    void newVariantAboveThresholdStaysOutOfSet() {
+        Variant variant = Variant.builder().id(LOW_ID).stock(20)
+                .product(Product.builder().id(productId).build()).build();
+
+        stockService.trackNewVariant(shop, variant);
+
+        verify(lowStockItemRepository, never()).upsert(any(), any(), any(), anyInt());
+        verify(lowStockItemRepository, never()).deleteByVariantId(any());
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.e_souk.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Limiteur par clé : rafale, délai de nouvel essai, remplissage, clés indépendantes,
+ * éviction LRU d'un segment plein, retrait des clés inactives, aucun jeton perdu en concurrence
+ * Les périodes longues rendent le remplissage négligeable pendant le test
+ */
+class StripedRateLimiterTest {
+
+    private static final Duration HOUR = Duration.ofHours(1);
+
+    @Test
+    void allowsBurstThenReturnsRetryAfter() {
+        StripedRateLimiter limiter = new StripedRateLimiter(2, HOUR, 4, 100, HOUR);
+
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertEquals(0, limiter.tryAcquire("alice"));
+        long retryAfter = limiter.tryAcquire("alice");
+
+        // Un jeton sur deux par heure : environ 30 minutes
+        assertTrue(retryAfter > 1790 && retryAfter <= 1800, "retryAfter = " + retryAfter);
+        assertEquals(2, limiter.getAllowedCount());
+        assertEquals(1, limiter.getRejectedCount());
+    }
+
+    @Test
+    void retryAfterIsAtLeastOneSecond() {
+        StripedRateLimiter limiter = new StripedRateLimiter(1000, Duration.ofSeconds(1), 1, 10, HOUR);
+        for (int i = 0; i < 1000; i++) {
+            limiter.tryAcquire("alice");
+        }
+
+        long retryAfter = limiter.tryAcquire("alice");
+
+        assertTrue(retryAfter >= 0 && retryAfter <= 1, "retryAfter = " + retryAfter);
+    }
+
+    @Test
+    void refillsOverTime() throws InterruptedException {
+        StripedRateLimiter limiter = new StripedRateLimiter(1, Duration.ofMillis(20), 1, 10, HOUR);
+
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertTrue(limiter.tryAcquire("alice") > 0);
+        Thread.sleep(50);
+        assertEquals(0, limiter.tryAcquire("alice"));
+    }
+
+    @Test
+    void keysHaveSeparateBuckets() {
+        StripedRateLimiter limiter = new StripedRateLimiter(1, HOUR, 1, 100, HOUR);
+
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertEquals(0, limiter.tryAcquire("bob"));
+        assertTrue(limiter.tryAcquire("alice") > 0);
+        assertEquals(2, limiter.size());
+    }
+
+    @Test
+    void fullStripeEvictsLeastRecentlySeenKey() {
+        StripedRateLimiter limiter = new StripedRateLimiter(1, HOUR, 1, 2, HOUR);
+        limiter.tryAcquire("alice");
+        limiter.tryAcquire("bob");
+        // alice redevient la plus récente : bob est retiré à l'arrivée de carol
+        limiter.tryAcquire("alice");
+
+        limiter.tryAcquire("carol");
+
+        assertEquals(2, limiter.size());
+        assertEquals(1, limiter.getEvictedCount());
+        assertTrue(limiter.tryAcquire("alice") > 0);
+        // bob repart d'un seau plein (l'éviction fait oublier l'état, d'où la borne sur maxEntries)
+        assertEquals(0, limiter.tryAcquire("bob"));
+    }
+
+    @Test
+    void evictIdleRemovesOnlyInactiveKeys() throws InterruptedException {
+        StripedRateLimiter limiter = new StripedRateLimiter(5, HOUR, 2, 100, Duration.ofMillis(20));
+        limiter.tryAcquire("alice");
+        limiter.tryAcquire("bob");
+        Thread.sleep(50);
+        limiter.tryAcquire("bob");
+
+        assertEquals(1, limiter.evictIdle());
+        assertEquals(1, limiter.size());
+        assertEquals(1, limiter.getEvictedCount());
+    }
+
+    @Test
+    void invalidSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new StripedRateLimiter(0, HOUR, 4, 100, HOUR));
+        assertThrows(IllegalArgumentException.class, () -> new StripedRateLimiter(1, Duration.ZERO, 4, 100, HOUR));
+    }
+
+    @Test
+    void concurrentRequestsNeverExceedCapacity() throws Exception {
+        int capacity = 1000;
+        int threads = 8;
+        int attemptsPerThread = 500;
+        StripedRateLimiter limiter = new StripedRateLimiter(capacity, HOUR, 4, 100, HOUR);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    int granted = 0;
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        if (limiter.tryAcquire("shared") == 0) {
+                            granted++;
+                        }
+                    }
+                    return granted;
+                }));
+            }
+            start.countDown();
+            int granted = 0;
+            for (Future<Integer> result : results) {
+                granted += result.get(10, TimeUnit.SECONDS);
+            }
+
+            assertEquals(capacity, granted);
+            assertEquals(capacity, limiter.getAllowedCount());
+            assertEquals((long) threads * attemptsPerThread - capacity, limiter.getRejectedCount());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.e_souk.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Seau à jetons : rafale, remplissage, remboursement, délai de nouvel essai
+ * Les périodes longues rendent le remplissage négligeable pendant le test
+ */
+class TokenBucketTest {
+
+    @Test
+    void allowsBurstUpToCapacityThenRefuses() {
+        TokenBucket bucket = new TokenBucket(3, Duration.ofHours(1));
+
+        assertTrue(bucket.tryConsume());
+        assertTrue(bucket.tryConsume());
+        assertTrue(bucket.tryConsume());
+        assertFalse(bucket.tryConsume());
+    }
+
+    @Test
+    void refillsOverTime() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, Duration.ofMillis(20));
+
+        assertTrue(bucket.tryConsume());
+        assertFalse(bucket.tryConsume());
+        Thread.sleep(50);
+        assertTrue(bucket.tryConsume());
+    }
+
+    @Test
+    void refundGivesTokenBackWithoutExceedingCapacity() {
+        TokenBucket bucket = new TokenBucket(2, Duration.ofHours(1));
+
+        assertTrue(bucket.tryConsume());
+        assertTrue(bucket.tryConsume());
+        bucket.refund();
+        assertTrue(bucket.tryConsume());
+        assertFalse(bucket.tryConsume());
+
+        TokenBucket full = new TokenBucket(2, Duration.ofHours(1));
+        full.refund();
+        assertTrue(full.tryConsume());
+        assertTrue(full.tryConsume());
+        assertFalse(full.tryConsume());
+    }
+
+    @Test
+    void isFullOnlyWhenNoTokenIsMissing() {
+        TokenBucket bucket = new TokenBucket(2, Duration.ofHours(1));
+
+        assertTrue(bucket.isFull());
+        bucket.tryConsume();
+        assertFalse(bucket.isFull());
+        bucket.refund();
+        assertTrue(bucket.isFull());
+    }
+
+    @Test
+    void secondsUntilNextTokenFollowsRefillRate() {
+        // 60 jetons par heure : un jeton par minute
+        TokenBucket bucket = new TokenBucket(60, Duration.ofHours(1));
+        for (int i = 0; i < 60; i++) {
+            bucket.tryConsume();
+        }
+
+        long seconds = bucket.secondsUntilNextToken();
+        assertTrue(seconds > 55 && seconds <= 60, "délai: " + seconds);
+        assertEquals(1, new TokenBucket(1, Duration.ofHours(1)).secondsUntilNextToken());
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.e_souk.Service;
+
+import com.example.e_souk.Event.ProductFavoritedEvent;
+import com.example.e_souk.Event.ProductUnfavoritedEvent;
+import com.example.e_souk.Event.ShopFollowedEvent;
+import com.example.e_souk.Repository.ProductFavoriteRepository;
+import com.example.e_souk.Repository.ShopFollowerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cache des favoris / abonnements : vérification en masse, mise à jour après commit,
+ * bascule en requêtes IN au-delà de max-set-size (marqueur en cache), ajout concurrent d'un chargement
+ */
+class UserRelationCacheTest {
+
+    private final ProductFavoriteRepository favoriteRepository = mock(ProductFavoriteRepository.class);
+    private final ShopFollowerRepository followerRepository = mock(ShopFollowerRepository.class);
+    private final UserRelationCache cache = new UserRelationCache(favoriteRepository, followerRepository);
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID p1 = UUID.randomUUID();
+    private final UUID p2 = UUID.randomUUID();
+    private final UUID p3 = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cache, "ttlMs", 60_000L);
+        ReflectionTestUtils.setField(cache, "maxUsers", 100);
+        ReflectionTestUtils.setField(cache, "maxSetSize", 3);
+        cache.init();
+    }
+
+    @Test
+    void checkAnswersFromTheCachedSetInRequestOrder() {
+        when(favoriteRepository.findFavoriteProductIds(eq(userId), any())).thenReturn(List.of(p1, p3));
+
+        assertEquals(List.of(p3, p1), cache.favoriteProductIds(userId, List.of(p3, p2, p1)));
+        assertEquals(List.of(p1), cache.favoriteProductIds(userId, List.of(p1, p2)));
+        verify(favoriteRepository, times(1)).findFavoriteProductIds(eq(userId), any());
+    }
+
+    @Test
+    void committedChangesUpdateTheCachedSet() {
+        when(favoriteRepository.findFavoriteProductIds(eq(userId), any())).thenReturn(List.of(p1));
+        cache.favoriteProductIds(userId, List.of(p1));
+
+        cache.onProductFavorited(new ProductFavoritedEvent(p2, userId));
+        cache.onProductUnfavorited(new ProductUnfavoritedEvent(p1, userId));
+
+        assertEquals(List.of(p2), cache.favoriteProductIds(userId, List.of(p1, p2)));
+        verify(favoriteRepository, times(1)).findFavoriteProductIds(eq(userId), any());
+    }
+
+    @Test
+    void favoriteCommittedDuringLoadIsNotLost() {
+        when(favoriteRepository.findFavoriteProductIds(eq(userId), any()))
+                .thenAnswer(invocation -> {
+                    // L'ajout est commité après la lecture de la base, avant la mise en cache
+                    List<UUID> beforeAdd = List.of(p1);
+                    cache.onProductFavorited(new ProductFavoritedEvent(p2, userId));
+                    return beforeAdd;
+                })
+                .thenReturn(List.of(p1, p2));
+
+        cache.favoriteProductIds(userId, List.of(p1, p2));
+
+        assertEquals(List.of(p1, p2), cache.favoriteProductIds(userId, List.of(p1, p2)));
+        verify(favoriteRepository, times(2)).findFavoriteProductIds(eq(userId), any());
+    }
+
+    @Test
+    void largeSetFallsBackToInQuery() {
+        List<UUID> many = new ArrayList<>(List.of(p1, p2, p3, UUID.randomUUID()));
+        when(favoriteRepository.findFavoriteProductIds(eq(userId), any())).thenReturn(many);
+        when(favoriteRepository.findFavoriteProductIdsIn(eq(userId), anyCollection())).thenReturn(List.of(p2));
+
+        assertEquals(List.of(p2), cache.favoriteProductIds(userId, List.of(p1, p2)));
+        verify(favoriteRepository).findFavoriteProductIdsIn(eq(userId), anyCollection());
+    }
+
+    @Test
+    void oversizedSetIsNotReloadedOnEachCheck() {
+        List<UUID> many = new ArrayList<>(List.of(p1, p2, p3, UUID.randomUUID()));
+        when(favoriteRepository.findFavoriteProductIds(eq(userId), any())).thenReturn(many);
+        when(favoriteRepository.findFavoriteProductIdsIn(eq(userId), anyCollection())).thenReturn(List.of(p2));
+
+        cache.favoriteProductIds(userId, List.of(p1, p2));
+        cache.onProductUnfavorited(new ProductUnfavoritedEvent(p3, userId));
+        assertEquals(List.of(p2), cache.favoriteProductIds(userId, List.of(p1, p2)));
+
+        verify(favoriteRepository, times(1)).findFavoriteProductIds(eq(userId), any());
+        verify(favoriteRepository, times(2)).findFavoriteProductIdsIn(eq(userId), anyCollection());
+    }
+
+    @Test
+    void growingPastTheLimitDropsTheCachedSet() {
+        when(favoriteRepository.findFavoriteProductIds(eq(userId), any()))
+                .thenReturn(List.of(p1, p2, p3));
+        when(favoriteRepository.findFavoriteProductIdsIn(eq(userId), anyCollection())).thenReturn(List.of(p1));
+        cache.favoriteProductIds(userId, List.of(p1));
+
+        cache.onProductFavorited(new ProductFavoritedEvent(UUID.randomUUID(), userId));
+        cache.favoriteProductIds(userId, List.of(p1));
+
+        // L'ensemble en cache est remplacé par le marqueur : pas de rechargement
+        verify(favoriteRepository, times(1)).findFavoriteProductIds(eq(userId), any());
+        verify(favoriteRepository).findFavoriteProductIdsIn(eq(userId), anyCollection());
+    }
+
+    @Test
+    void followsAndFavoritesAreSeparateSets() {
+        UUID shopId = UUID.randomUUID();
+        when(followerRepository.findFollowedShopIds(eq(userId), any())).thenReturn(List.of());
+        cache.followedShopIds(userId, List.of(shopId));
+
+        cache.onShopFollowed(new ShopFollowedEvent(shopId, userId));
+
+        assertEquals(List.of(shopId), cache.followedShopIds(userId, List.of(shopId)));
+        verify(favoriteRepository, never()).findFavoriteProductIds(any(), any());
+    }
+
+    @Test
+    void emptyRequestDoesNotTouchTheDatabase() {
+        assertEquals(Collections.emptyList(), cache.favoriteProductIds(userId, List.of()));
+        verify(favoriteRepository, never()).findFavoriteProductIds(any(), any());
+    }
+
+    @Test
+    void tooManyIdsIsRejected() {
+        List<UUID> ids = IntStream.rangeClosed(0, UserRelationCache.MAX_IDS_PER_CHECK)
+                .mapToObj(i -> UUID.randomUUID())
+                .toList();
+
+        assertThrows(IllegalArgumentException.class, () -> cache.favoriteProductIds(userId, ids));
+    }
+}